@@ -0,0 +1,97 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.test.MockitoOldcore;
+
+/**
+ * Base class of the benchmarks which need an in-memory XWiki instance. The environment is initialized once for each
+ * trial the same way {@code @OldcoreTest} initializes it for each test, so the component annotations supported in
+ * tests ({@code @ComponentList}, {@code @AllComponents}, etc.) can be used on the benchmark classes.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractOldcoreBenchmark
+{
+    private MockitoComponentManager componentManager;
+
+    private MockitoOldcore oldcore;
+
+    /**
+     * Initialize the in-memory XWiki instance.
+     *
+     * @throws Exception when failing to initialize the environment
+     */
+    @Setup(Level.Trial)
+    public void setUpOldcore() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        this.oldcore = new MockitoOldcore(this.componentManager);
+
+        this.componentManager.initializeTest(this, this.componentManager, this.oldcore);
+        this.oldcore.before(getClass());
+
+        setUp();
+    }
+
+    /**
+     * Prepare the data manipulated by the benchmark.
+     *
+     * @throws Exception when failing to prepare the data
+     */
+    protected abstract void setUp() throws Exception;
+
+    /**
+     * @return the component manager of the in-memory XWiki instance
+     */
+    protected MockitoComponentManager getComponentManager()
+    {
+        return this.componentManager;
+    }
+
+    /**
+     * @return the in-memory XWiki instance
+     */
+    protected MockitoOldcore getOldcore()
+    {
+        return this.oldcore;
+    }
+
+    /**
+     * Release the in-memory XWiki instance.
+     *
+     * @throws Exception when failing to release the environment
+     */
+    @TearDown(Level.Trial)
+    public void tearDownOldcore() throws Exception
+    {
+        this.oldcore.after();
+        this.componentManager.dispose();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+/**
+ * Measure the resolution and the serialization of entity references.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@ReferenceComponentList
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityReferenceBenchmark extends AbstractOldcoreBenchmark
+{
+    private static final String DOCUMENT = "wiki:Space1.Space\\.2.Space3.WebHome";
+
+    private EntityReferenceResolver<String> resolver;
+
+    private EntityReferenceSerializer<String> serializer;
+
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private DocumentReference documentReference;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        this.resolver = getComponentManager().getInstance(EntityReferenceResolver.TYPE_STRING);
+        this.serializer = getComponentManager().getInstance(EntityReferenceSerializer.TYPE_STRING);
+        this.localSerializer = getComponentManager().getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+
+        this.documentReference = new DocumentReference(this.resolver.resolve(DOCUMENT, EntityType.DOCUMENT));
+    }
+
+    /**
+     * @return the resolved reference
+     */
+    @Benchmark
+    public EntityReference resolve()
+    {
+        return this.resolver.resolve(DOCUMENT, EntityType.DOCUMENT);
+    }
+
+    /**
+     * @return the serialized reference
+     */
+    @Benchmark
+    public String serialize()
+    {
+        return this.serializer.serialize(this.documentReference);
+    }
+
+    /**
+     * @return the serialized reference, without the wiki
+     */
+    @Benchmark
+    public String serializeLocal()
+    {
+        return this.localSerializer.serialize(this.documentReference);
+    }
+}
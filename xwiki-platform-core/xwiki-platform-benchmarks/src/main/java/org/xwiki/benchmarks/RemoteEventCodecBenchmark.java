@@ -0,0 +1,212 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec;
+
+/**
+ * Compare the Java serialization of each remote event with the binary codec encoding a batch of events, in events per
+ * second and in bytes per event (the {@code bytes} and {@code events} counters).
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteEventCodecBenchmark
+{
+    private static final int BATCH_SIZE = 100;
+
+    private final RemoteEventDataCodec codec = new RemoteEventDataCodec();
+
+    private List<RemoteEventData> events;
+
+    private List<byte[]> serializedEvents;
+
+    private byte[] encodedEvents;
+
+    /**
+     * Count the bytes produced for the events.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size
+    {
+        /**
+         * The number of bytes sent.
+         */
+        public long bytes;
+
+        /**
+         * The number of events sent.
+         */
+        public long events;
+
+        /**
+         * Reset the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            this.bytes = 0;
+            this.events = 0;
+        }
+    }
+
+    /**
+     * Prepare the events, similar to the ones sent when saving documents.
+     *
+     * @throws IOException when failing to encode the events
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.events = new ArrayList<>(BATCH_SIZE);
+        this.serializedEvents = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            DocumentReference reference =
+                new DocumentReference("wiki", List.of("Space", "Sub" + (i % 10)), "Page" + i, Locale.ENGLISH);
+
+            HashMap<String, Serializable> source = new HashMap<>();
+            source.put("docreference", reference);
+            source.put("docversion", "1." + i);
+            source.put("doclanguage", "en");
+            source.put("origdocversion", "1." + (i - 1));
+            HashMap<String, Serializable> data = new HashMap<>();
+            data.put("contextwiki", "wiki");
+            data.put("contextuser", "wiki:XWiki.Admin");
+
+            RemoteEventData event = new RemoteEventData(new DocumentUpdatedEvent(reference), source, data);
+            this.events.add(event);
+            this.serializedEvents.add(serialize(event));
+        }
+
+        this.encodedEvents = this.codec.encode(this.events);
+    }
+
+    private static byte[] serialize(Serializable value) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(value);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param size the counters to update
+     * @return the serialized events
+     * @throws IOException when failing to serialize the events
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<byte[]> javaSerialization(Size size) throws IOException
+    {
+        List<byte[]> result = new ArrayList<>(BATCH_SIZE);
+        for (RemoteEventData event : this.events) {
+            byte[] bytes = serialize(event);
+            size.bytes += bytes.length;
+            result.add(bytes);
+        }
+        size.events += BATCH_SIZE;
+
+        return result;
+    }
+
+    /**
+     * @param size the counters to update
+     * @return the encoded events
+     * @throws IOException when failing to encode the events
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public byte[] binaryEncoding(Size size) throws IOException
+    {
+        byte[] bytes = this.codec.encode(this.events);
+        size.bytes += bytes.length;
+        size.events += BATCH_SIZE;
+
+        return bytes;
+    }
+
+    /**
+     * @return the unserialized events
+     * @throws Exception when failing to unserialize the events
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Object> javaUnserialization() throws Exception
+    {
+        List<Object> result = new ArrayList<>(BATCH_SIZE);
+        for (byte[] bytes : this.serializedEvents) {
+            try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                result.add(stream.readObject());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the decoded events
+     * @throws IOException when failing to decode the events
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<RemoteEventData> binaryDecoding() throws IOException
+    {
+        return this.codec.decode(this.encodedEvents, 0, this.encodedEvents.length, getClass().getClassLoader());
+    }
+}
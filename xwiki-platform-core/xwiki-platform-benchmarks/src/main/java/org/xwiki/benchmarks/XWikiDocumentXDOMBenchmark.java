@@ -0,0 +1,116 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.configuration.ExtendedRenderingConfiguration;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.annotation.AllComponents;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+import com.xpn.xwiki.store.XWikiVersioningStoreInterface;
+
+/**
+ * Measure the access to the parsed content of a document, both when it's already cached and when it needs to be
+ * parsed.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@AllComponents
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XWikiDocumentXDOMBenchmark extends AbstractOldcoreBenchmark
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    /**
+     * The number of sections in the content of the document.
+     */
+    @Param({ "1", "100" })
+    private int sections;
+
+    private String content;
+
+    private XWikiDocument document;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        getComponentManager().registerMockComponent(XWikiVersioningStoreInterface.class);
+        getComponentManager().registerMockComponent(XWikiStoreInterface.class);
+        getComponentManager().registerMockComponent(ExtendedRenderingConfiguration.class);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.sections; ++i) {
+            builder.append("== Section ").append(i).append(" ==\n\n");
+            builder.append("Some **bold** and //italic// text with a [[link>>Space.Page").append(i).append("]].\n\n");
+            builder.append("* item 1\n* item 2\n\n");
+            builder.append("|=Header 1|=Header 2\n|cell 1|cell 2\n\n");
+        }
+        this.content = builder.toString();
+
+        this.document = createDocument();
+        // Fill the cache
+        this.document.getXDOM();
+    }
+
+    private XWikiDocument createDocument()
+    {
+        XWikiDocument newDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        newDocument.setSyntax(Syntax.XWIKI_2_1);
+        newDocument.setContent(this.content);
+
+        return newDocument;
+    }
+
+    /**
+     * @return a copy of the cached XDOM
+     */
+    @Benchmark
+    public XDOM getCachedXDOM()
+    {
+        return this.document.getXDOM();
+    }
+
+    /**
+     * @return the XDOM parsed from the content of a new document
+     */
+    @Benchmark
+    public XDOM parseXDOM()
+    {
+        return createDocument().getXDOM();
+    }
+}
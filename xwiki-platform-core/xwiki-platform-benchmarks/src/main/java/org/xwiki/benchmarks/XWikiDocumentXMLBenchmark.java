@@ -0,0 +1,165 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.link.LinkStore;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.user.UserConfiguration;
+import org.xwiki.user.UserReferenceResolver;
+import org.xwiki.user.UserReferenceSerializer;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.TextAreaClass;
+import com.xpn.xwiki.objects.meta.MetaClass;
+import com.xpn.xwiki.test.component.XWikiDocumentFilterUtilsComponentList;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measure the XML serialization and parsing of documents and classes, as done when importing and exporting XAR files.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@ReferenceComponentList
+@XWikiDocumentFilterUtilsComponentList
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XWikiDocumentXMLBenchmark extends AbstractOldcoreBenchmark
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    /**
+     * The number of objects in the document.
+     */
+    @Param({ "1", "50" })
+    private int objects;
+
+    private XWikiDocument document;
+
+    private String documentXML;
+
+    private String classXML;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        getComponentManager().registerMockComponent(
+            new DefaultParameterizedType(null, UserReferenceSerializer.class, DocumentReference.class), "document");
+        getComponentManager().registerMockComponent(
+            new DefaultParameterizedType(null, UserReferenceResolver.class, DocumentReference.class), "document");
+        getComponentManager().registerMockComponent(
+            new DefaultParameterizedType(null, UserReferenceSerializer.class, String.class), "compactwiki/document");
+        getComponentManager().registerMockComponent(LinkStore.class);
+        UserConfiguration userConfiguration = getComponentManager().registerMockComponent(UserConfiguration.class);
+        when(userConfiguration.getStoreHint()).thenReturn("document");
+
+        // Make sure the meta classes are the ones of this component manager
+        MetaClass.setMetaClass(null);
+
+        XWikiContext xcontext = getOldcore().getXWikiContext();
+        xcontext.setWikiId(DOCUMENT_REFERENCE.getWikiReference().getName());
+        doReturn("UTF-8").when(getOldcore().getSpyXWiki()).getEncoding();
+
+        this.document = new XWikiDocument(DOCUMENT_REFERENCE);
+        this.document.setSyntax(Syntax.XWIKI_2_1);
+        this.document.setContent("= Title =\n\nSome **content** with a [[link>>Space.Other]].");
+
+        BaseClass xclass = this.document.getXClass();
+        xclass.addTextField("string", "String", 30);
+        xclass.addTextAreaField("area", "Area", 10, 10);
+        ((TextAreaClass) xclass.getField("area")).setContentType("puretext");
+        xclass.addBooleanField("boolean", "Boolean", "yesno");
+        xclass.addNumberField("int", "Int", 10, "integer");
+        xclass.addStaticListField("stringlist", "StringList", 1, true, "value1, value2");
+
+        for (int i = 0; i < this.objects; ++i) {
+            BaseObject xobject = this.document.newXObject(DOCUMENT_REFERENCE, xcontext);
+            xobject.setStringValue("string", "string" + i);
+            xobject.setLargeStringValue("area", "area" + i);
+            xobject.setIntValue("boolean", i % 2);
+            xobject.setIntValue("int", i);
+            xobject.setStringListValue("stringlist", Arrays.asList("value1", "value2"));
+        }
+
+        getOldcore().getSpyXWiki().saveDocument(this.document, "", true, xcontext);
+
+        this.documentXML = this.document.toXML(xcontext);
+        this.classXML = xclass.toXMLString();
+    }
+
+    /**
+     * @return the serialized document
+     * @throws XWikiException when failing to serialize the document
+     */
+    @Benchmark
+    public String documentToXML() throws XWikiException
+    {
+        return this.document.toXML(getOldcore().getXWikiContext());
+    }
+
+    /**
+     * @return the parsed document
+     * @throws XWikiException when failing to parse the document
+     */
+    @Benchmark
+    public XWikiDocument documentFromXML() throws XWikiException
+    {
+        XWikiDocument parsedDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        parsedDocument.fromXML(this.documentXML);
+
+        return parsedDocument;
+    }
+
+    /**
+     * @return the parsed class
+     * @throws XWikiException when failing to parse the class
+     */
+    @Benchmark
+    public BaseClass classFromXML() throws XWikiException
+    {
+        BaseClass parsedClass = new BaseClass();
+        parsedClass.fromXML(this.classXML);
+
+        return parsedClass;
+    }
+}
@@ -28,7 +28,10 @@
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -52,6 +55,7 @@
 import org.xwiki.eventstream.events.MailEntityDeleteEvent;
 import org.xwiki.eventstream.internal.events.EventStatusAddOrUpdatedEvent;
 import org.xwiki.eventstream.internal.events.EventStatusDeletedEvent;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.observation.ObservationManager;
 
 /**
@@ -129,6 +133,10 @@ public abstract class AbstractAsynchronousEventStore implements EventStore, Init
 
         private O output;
 
+        private boolean silent;
+
+        private boolean failed;
+
         protected EventStoreTask(I input, EventStoreTaskType type, Map<String, Serializable> contextStore)
         {
             this.input = input;
@@ -161,10 +169,63 @@ public EventStoreTaskType getType()
 
         private final Date date;
 
-        DeleteStatusesData(String entityId, Date date)
+        /**
+         * Counted down by each writer once it's ready for the statuses to be deleted.
+         */
+        private final CountDownLatch ready;
+
+        /**
+         * Counted down by the writer in charge of deleting the statuses once it's done.
+         */
+        private final CountDownLatch done;
+
+        DeleteStatusesData(String entityId, Date date, int writers)
         {
             this.entityId = entityId;
             this.date = date;
+
+            if (writers > 1) {
+                this.ready = new CountDownLatch(writers);
+                this.done = new CountDownLatch(1);
+            } else {
+                this.ready = null;
+                this.done = null;
+            }
+        }
+    }
+
+    private final class EventStoreWriter
+    {
+        private final BlockingQueue<EventStoreTask<?, ?>> queue;
+
+        private final Thread thread;
+
+        EventStoreWriter(int index, int count)
+        {
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+            String name = "Asynchronous handler for event store [" + descriptor.getRoleHint() + "]";
+            this.thread =
+                workerThreadManager.newThread(count > 1 ? name + " (" + index + ")" : name, this::run, false);
+            this.thread.setPriority(Thread.NORM_PRIORITY - 1);
+        }
+
+        private void run()
+        {
+            while (!disposed) {
+                EventStoreTask<?, ?> firstTask;
+                try {
+                    firstTask = this.queue.take();
+                } catch (InterruptedException e) {
+                    logger.warn("The thread handling asynchronous storage for event store [{}] has been interrupted",
+                        descriptor.getRoleHint(), e);
+
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                processTasks(this.queue, firstTask);
+            }
         }
     }
 
@@ -183,17 +244,31 @@ public EventStoreTaskType getType()
     @Inject
     private Execution execution;
 
-    private Thread thread;
+    @Inject
+    private WorkerThreadManager workerThreadManager;
+
+    private EventStoreWriter[] writers;
+
+    /**
+     * Used to queue the tasks of a status deletion in all the writers at once.
+     */
+    private final Object deleteStatusesLock = new Object();
+
+    private final ThreadLocal<EventStoreTask<?, ?>> currentTask = new ThreadLocal<>();
 
     private int queueCapacity;
 
-    private BlockingQueue<EventStoreTask<?, ?>> queue;
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final AtomicLong batchTaskCount = new AtomicLong();
+
+    private volatile int lastBatchSize;
 
     private boolean notifyEach;
 
     private boolean notifyAll;
 
-    private boolean disposed;
+    private volatile boolean disposed;
 
     /**
      * Give an estimation of the number of events that are going to be added to the store. Can be negative if there is
@@ -207,22 +282,125 @@ public EventStoreTaskType getType()
     public int getQueueSize()
     {
         int size = 0;
-        for (EventStoreTask<?, ?> task : this.queue) {
-            switch (task.type) {
-                case DELETE_EVENT, DELETE_EVENT_BY_ID:
-                    --size;
-                    break;
-                case SAVE_EVENT:
-                    ++size;
-                    break;
-                default:
-                    break;
+        for (EventStoreWriter writer : this.writers) {
+            for (EventStoreTask<?, ?> task : writer.queue) {
+                switch (task.type) {
+                    case DELETE_EVENT, DELETE_EVENT_BY_ID:
+                        --size;
+                        break;
+                    case SAVE_EVENT:
+                        ++size;
+                        break;
+                    default:
+                        break;
+                }
             }
         }
 
         return size;
     }
 
+    /**
+     * @return the total number of tasks waiting to be processed
+     * @since 17.1.0RC1
+     */
+    public int getPendingTaskCount()
+    {
+        int size = 0;
+        for (EventStoreWriter writer : this.writers) {
+            size += writer.queue.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the number of threads writing in the store
+     * @since 17.1.0RC1
+     */
+    public int getWriterCount()
+    {
+        return this.writers.length;
+    }
+
+    /**
+     * @return the number of batches of tasks processed since the store was initialized
+     * @since 17.1.0RC1
+     */
+    public long getBatchCount()
+    {
+        return this.batchCount.get();
+    }
+
+    /**
+     * @return the number of tasks successfully processed since the store was initialized
+     * @since 17.1.0RC1
+     */
+    public long getBatchTaskCount()
+    {
+        return this.batchTaskCount.get();
+    }
+
+    /**
+     * @return the number of tasks successfully processed in the last batch
+     * @since 17.1.0RC1
+     */
+    public int getLastBatchSize()
+    {
+        return this.lastBatchSize;
+    }
+
+    /**
+     * @return the task currently executed by the calling writer thread, or {@code null} if there is none
+     * @since 17.1.0RC1
+     */
+    protected EventStoreTask<?, ?> getCurrentTask()
+    {
+        return this.currentTask.get();
+    }
+
+    /**
+     * Indicate that a task which was successfully executed failed to be applied to the store (for example because the
+     * store write was delayed and then rejected). The future of the task is completed with the passed cause and the
+     * listeners are not notified.
+     * 
+     * @param task the task which failed
+     * @param cause the reason of the failure
+     * @since 17.1.0RC1
+     */
+    protected void failTask(EventStoreTask<?, ?> task, Exception cause)
+    {
+        task.failed = true;
+        task.future.completeExceptionally(cause);
+    }
+
+    private EventStoreWriter getWriter(String eventId)
+    {
+        if (this.writers.length == 1 || eventId == null) {
+            return this.writers[0];
+        }
+
+        return this.writers[Math.floorMod(eventId.hashCode(), this.writers.length)];
+    }
+
+    private String getEventId(Object input, EventStoreTaskType type)
+    {
+        switch (type) {
+            case SAVE_EVENT, DELETE_EVENT, PREFILTER_EVENT:
+                return ((Event) input).getId();
+            case DELETE_EVENT_BY_ID:
+                return (String) input;
+            case SAVE_STATUS, DELETE_STATUS:
+                Event statusEvent = ((EventStatus) input).getEvent();
+                return statusEvent != null ? statusEvent.getId() : null;
+            case SAVE_MAIL_ENTITY, DELETE_MAIL_ENTITY:
+                Event entityEvent = ((EntityEvent) input).getEvent();
+                return entityEvent != null ? entityEvent.getId() : null;
+            default:
+                return null;
+        }
+    }
+
     private <O, I> CompletableFuture<O> addTask(I input, EventStoreTaskType type)
     {
         // Remember a few standard things from the context
@@ -235,21 +413,62 @@ private <O, I> CompletableFuture<O> addTask(I input, EventStoreTaskType type)
             context = null;
         }
 
+        if (type == EventStoreTaskType.DELETE_STATUSES && this.writers.length > 1) {
+            return addDeleteStatusesTasks(input, type, context);
+        }
+
         EventStoreTask<O, I> task = new EventStoreTask<>(input, type, context);
 
-        addTask(task);
+        addTask(this.writers.length > 1 ? getWriter(getEventId(input, type)) : this.writers[0], task);
 
         return task.future;
     }
 
-    private <O, I> void addTask(EventStoreTask<O, I> task)
+    private <O, I> CompletableFuture<O> addDeleteStatusesTasks(I input, EventStoreTaskType type,
+        Map<String, Serializable> context)
+    {
+        // The task potentially target events associated with any writer: the first writer executes it while the
+        // other ones wait, so that it's applied after and before the same tasks as with a single writer
+        DeleteStatusesData data = (DeleteStatusesData) input;
+        EventStoreTask<O, I> firstTask = null;
+
+        // The tasks of two deletions must be queued in the same order in all the writers, otherwise each deletion could
+        // end up waiting for a writer blocked by the other one
+        synchronized (this.deleteStatusesLock) {
+            for (int i = 0; i < this.writers.length; ++i) {
+                EventStoreTask<O, I> task = new EventStoreTask<>(input, type, context);
+                // Make sure listeners are notified only once
+                task.silent = i > 0;
+                if (i == 0) {
+                    firstTask = task;
+                }
+
+                if (!addTask(this.writers[i], task)) {
+                    // Don't make the writers which already received the task wait for the missing ones
+                    for (int j = i; j < this.writers.length; ++j) {
+                        data.ready.countDown();
+                    }
+
+                    break;
+                }
+            }
+        }
+
+        return firstTask.future;
+    }
+
+    private <O, I> boolean addTask(EventStoreWriter writer, EventStoreTask<O, I> task)
     {
         try {
-            this.queue.put(task);
+            writer.queue.put(task);
+
+            return true;
         } catch (InterruptedException e) {
             task.future.completeExceptionally(e);
 
             Thread.currentThread().interrupt();
+
+            return false;
         }
     }
 
@@ -292,7 +511,8 @@ public CompletableFuture<Optional<EventStatus>> deleteEventStatus(EventStatus st
     @Override
     public CompletableFuture<Void> deleteEventStatuses(String entityId, Date date)
     {
-        return addTask(new DeleteStatusesData(entityId, date), EventStoreTaskType.DELETE_STATUSES);
+        return addTask(new DeleteStatusesData(entityId, date, this.writers.length),
+            EventStoreTaskType.DELETE_STATUSES);
     }
 
     @Override
@@ -307,38 +527,21 @@ public CompletableFuture<Event> prefilterEvent(Event event)
         return addTask(event, EventStoreTaskType.PREFILTER_EVENT);
     }
 
-    private void run()
-    {
-        while (!this.disposed) {
-            EventStoreTask<?, ?> firstTask;
-            try {
-                firstTask = this.queue.take();
-            } catch (InterruptedException e) {
-                this.logger.warn("The thread handling asynchronous storage for event store [{}] has been interrupted",
-                    this.descriptor.getRoleHint(), e);
-
-                Thread.currentThread().interrupt();
-                break;
-            }
-
-            processTasks(firstTask);
-        }
-    }
-
-    private void processTasks(EventStoreTask<?, ?> firstTask)
+    private void processTasks(BlockingQueue<EventStoreTask<?, ?>> queue, EventStoreTask<?, ?> firstTask)
     {
         this.execution.setContext(new ExecutionContext());
 
         // Make sure to not treat more than the queue capacity in a single batch
         List<EventStoreTask<?, ?>> tasks = new ArrayList<>(this.queueCapacity);
         try {
-            for (EventStoreTask<?, ?> task = firstTask; task != null; task = this.queue.poll()) {
+            for (EventStoreTask<?, ?> task = firstTask; task != null; task = queue.poll()) {
                 if (task == EventStoreTask.STOP) {
                     break;
                 }
 
                 try {
                     // Execute the task
+                    this.currentTask.set(task);
                     processTask(task);
 
                     // Add a successful task to the batch
@@ -351,9 +554,15 @@ private void processTasks(EventStoreTask<?, ?> firstTask)
                 } catch (Exception e) {
                     // Indicate that the task failed
                     task.future.completeExceptionally(e);
+                } finally {
+                    this.currentTask.remove();
                 }
             }
         } finally {
+            this.batchCount.incrementAndGet();
+            this.batchTaskCount.addAndGet(tasks.size());
+            this.lastBatchSize = tasks.size();
+
             // Give a chance to the extended class to do something before the tasks are declared complete
             afterTasks(tasks);
 
@@ -382,10 +591,7 @@ private boolean processTask(EventStoreTask<?, ?> task) throws EventStreamExcepti
                 break;
 
             case DELETE_STATUSES:
-                EventStoreTask<Void, DeleteStatusesData> deleteStatusesTask =
-                    (EventStoreTask<Void, DeleteStatusesData>) task;
-                processTaskOutput(deleteStatusesTask,
-                    syncDeleteEventStatuses(deleteStatusesTask.input.entityId, deleteStatusesTask.input.date));
+                processDeleteStatuses((EventStoreTask<Void, DeleteStatusesData>) task);
                 break;
 
             case SAVE_STATUS:
@@ -414,6 +620,55 @@ private boolean processTask(EventStoreTask<?, ?> task) throws EventStreamExcepti
         return false;
     }
 
+    private void processDeleteStatuses(EventStoreTask<Void, DeleteStatusesData> task) throws EventStreamException
+    {
+        DeleteStatusesData data = task.input;
+
+        if (data.ready == null) {
+            processTaskOutput(task, syncDeleteEventStatuses(data.entityId, data.date));
+
+            return;
+        }
+
+        // Make sure the modifications waiting in this writer are visible to the writer deleting the statuses
+        try {
+            syncFlush();
+        } finally {
+            data.ready.countDown();
+        }
+
+        if (task.silent) {
+            // Wait for the statuses to be deleted to make sure the next tasks of this writer are applied after it
+            await(data.done);
+        } else {
+            try {
+                await(data.ready);
+
+                syncDeleteEventStatuses(data.entityId, data.date);
+                syncFlush();
+            } finally {
+                data.done.countDown();
+            }
+        }
+
+        processTaskOutput(task, null);
+    }
+
+    private void await(CountDownLatch latch) throws EventStreamException
+    {
+        try {
+            while (!latch.await(1, TimeUnit.SECONDS)) {
+                if (this.disposed) {
+                    throw new EventStreamException("The event store has been disposed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new EventStreamException("Interrupted while waiting for the other writers of the event store", e);
+        }
+    }
+
     private <O, I> void processTaskOutput(EventStoreTask<O, I> task, O output)
     {
         task.output = output;
@@ -425,6 +680,10 @@ private <O, I> void processTaskOutput(EventStoreTask<O, I> task, O output)
 
     private <O, I> void complete(EventStoreTask<O, I> task, O output)
     {
+        if (task.failed) {
+            return;
+        }
+
         if (task.context != null) {
             // Restore a few things from the context in case the listener need them (for example to lookup the right
             // components for the context of the event)
@@ -440,6 +699,10 @@ private <O, I> void complete(EventStoreTask<O, I> task, O output)
         // and instead should continue as soon as the output value is available.
         task.future.complete(output);
 
+        if (task.silent) {
+            return;
+        }
+
         // Notify event listeners
         Object notificationOuput = task.output;
         boolean skipNotify = false;
@@ -541,6 +804,18 @@ private <O, I> void complete(EventStoreTask<O, I> task, O output)
      */
     protected abstract Optional<Event> syncDeleteEvent(Event event) throws EventStreamException;
 
+    /**
+     * Apply the modifications which were delayed by the current writer (for example to send them in batch). Called
+     * before a task which needs to see the modifications of all writers.
+     * 
+     * @throws EventStreamException when failing to apply the modifications
+     * @since 17.1.0RC1
+     */
+    protected void syncFlush() throws EventStreamException
+    {
+        // Nothing is delayed by default
+    }
+
     protected void afterTasks(List<EventStoreTask<?, ?>> tasks)
     {
         if (this.notifyAll) {
@@ -551,17 +826,32 @@ protected void afterTasks(List<EventStoreTask<?, ?>> tasks)
     }
 
     protected void initialize(int queueCapacity, boolean notifyEach, boolean notifyAll)
+    {
+        initialize(queueCapacity, notifyEach, notifyAll, 1);
+    }
+
+    /**
+     * @param queueCapacity the maximum number of tasks waiting for each writer, and the maximum size of a batch
+     * @param notifyEach true if the tasks should be completed as soon as they are executed
+     * @param notifyAll true if the tasks should be completed after the whole batch is executed
+     * @param threads the number of threads writing in the store, each one handling a subset of the events
+     * @since 17.1.0RC1
+     */
+    protected void initialize(int queueCapacity, boolean notifyEach, boolean notifyAll, int threads)
     {
         this.notifyEach = notifyEach;
         this.notifyAll = !notifyEach && notifyAll;
 
         this.queueCapacity = queueCapacity;
-        this.queue = new LinkedBlockingQueue<>(this.queueCapacity);
 
-        this.thread = new Thread(this::run);
-        this.thread.setName("Asynchronous handler for event store [" + descriptor.getRoleHint() + "]");
-        this.thread.setPriority(Thread.NORM_PRIORITY - 1);
-        this.thread.start();
+        int count = Math.max(1, threads);
+        this.writers = new EventStoreWriter[count];
+        for (int i = 0; i < count; ++i) {
+            this.writers[i] = new EventStoreWriter(i, count);
+        }
+        for (EventStoreWriter writer : this.writers) {
+            writer.thread.start();
+        }
     }
 
     @Override
@@ -569,17 +859,25 @@ public void dispose() throws ComponentLifecycleException
     {
         this.disposed = true;
 
-        // Make sure to wake up the thread
-        addTask(EventStoreTask.STOP);
+        // Make sure to wake up the threads
+        for (EventStoreWriter writer : this.writers) {
+            addTask(writer, EventStoreTask.STOP);
+        }
 
         // Wait for the processing to be over but not more than 10s in case it's stuck for some reason
-        try {
-            this.thread.join(10000);
-        } catch (InterruptedException e) {
-            this.logger.warn("The thread handling asynchronous storage for event store [{}] has been interrupted",
-                this.descriptor.getRoleHint(), e);
+        long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (EventStoreWriter writer : this.writers) {
+            try {
+                writer.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeout - System.nanoTime())));
+            } catch (InterruptedException e) {
+                this.logger.warn("The thread handling asynchronous storage for event store [{}] has been interrupted",
+                    this.descriptor.getRoleHint(), e);
+
+                writer.thread.interrupt();
 
-            this.thread.interrupt();
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
     }
 }
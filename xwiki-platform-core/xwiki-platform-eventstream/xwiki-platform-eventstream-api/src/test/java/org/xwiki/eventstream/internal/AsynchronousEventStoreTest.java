@@ -19,6 +19,7 @@
  */
 package org.xwiki.eventstream.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -28,6 +29,11 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.junit.jupiter.api.Test;
@@ -42,7 +48,10 @@
 import org.xwiki.eventstream.events.EventStreamAddedEvent;
 import org.xwiki.eventstream.events.MailEntityAddedEvent;
 import org.xwiki.eventstream.events.MailEntityDeleteEvent;
+import org.xwiki.eventstream.internal.events.EventStatusDeletedEvent;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.observation.ObservationManager;
+import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectComponentManager;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
@@ -53,9 +62,11 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 
@@ -269,15 +280,63 @@ protected Optional<Event> syncDeleteEvent(Event event) throws EventStreamExcepti
         }
     }
 
+    /**
+     * A store with several writers, completing the tasks after each batch and failing the tasks of the events with an
+     * identifier starting with "failing".
+     */
+    public static class TestBatchAsynchronousEventStore extends TestAbstractAsynchronousEventStore
+    {
+        AtomicInteger deleteStatusesCount = new AtomicInteger();
+
+        @Override
+        public void initialize() throws InitializationException
+        {
+            initialize(10, false, true, 2);
+        }
+
+        @Override
+        protected Void syncDeleteEventStatuses(String entityId, Date date)
+        {
+            this.deleteStatusesCount.incrementAndGet();
+
+            return super.syncDeleteEventStatuses(entityId, date);
+        }
+
+        @Override
+        protected void afterTasks(List<EventStoreTask<?, ?>> tasks)
+        {
+            for (EventStoreTask<?, ?> task : tasks) {
+                if (task.getInput() instanceof Event event && event.getId().startsWith("failing")) {
+                    failTask(task, new EventStreamException("Failed to save [" + event.getId() + "]"));
+                }
+            }
+
+            super.afterTasks(tasks);
+        }
+    }
+
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
     @InjectMockComponents
     private TestAbstractAsynchronousEventStore store;
 
+    @InjectMockComponents
+    private TestBatchAsynchronousEventStore batchStore;
+
     @MockComponent
     private ObservationManager observation;
 
+    @MockComponent
+    private WorkerThreadManager workerThreadManager;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.workerThreadManager.newThread(any(), any(), eq(false)))
+            .thenAnswer(invocation -> new Thread((Runnable) invocation.getArgument(1)));
+    }
+
     private DefaultEvent event(String id)
     {
         DefaultEvent event = new DefaultEvent();
@@ -467,6 +526,68 @@ void prefilter() throws InterruptedException, ExecutionException, EventStreamExc
         assertFalse(this.store.getEvent(event2.getId()).get().isPrefiltered());
     }
 
+    @Test
+    void failedTask() throws Exception
+    {
+        DefaultEvent event = event("id1");
+        DefaultEvent failingEvent = event("failing1");
+
+        this.batchStore.saveEvent(event);
+        CompletableFuture<Event> failingFuture = this.batchStore.saveEvent(failingEvent);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, failingFuture::get);
+        assertEquals("Failed to save [failing1]", exception.getCause().getMessage());
+
+        verify(this.observation, timeout(10000)).notify(any(EventStreamAddedEvent.class), eq(event));
+        verify(this.observation, never()).notify(any(EventStreamAddedEvent.class), eq(failingEvent));
+    }
+
+    @Test
+    void deleteEventStatusesWithSeveralWriters() throws Exception
+    {
+        for (int i = 0; i < 10; ++i) {
+            DefaultEvent event = event("id" + i);
+            event.setDate(new Date(0));
+            this.batchStore.saveEvent(event);
+            this.batchStore.saveEventStatus(eventStatus(event, "entity", true));
+        }
+
+        this.batchStore.deleteEventStatuses("entity", new Date()).get();
+
+        // The statuses saved before by the other writer are deleted too
+        for (int i = 0; i < 10; ++i) {
+            assertTrue(this.batchStore.events.get("id" + i).statuses.isEmpty());
+        }
+
+        // The statuses are searched and the listeners notified only once
+        assertEquals(1, this.batchStore.deleteStatusesCount.get());
+        verify(this.observation, timeout(10000)).notify(any(EventStatusDeletedEvent.class), isNull());
+        verify(this.observation, times(1)).notify(any(EventStatusDeletedEvent.class), isNull());
+    }
+
+    @Test
+    void concurrentDeleteEventStatusesWithSeveralWriters() throws Exception
+    {
+        int count = 50;
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompletableFuture<Void>>> deletions = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                String entity = "entity" + i;
+                deletions.add(threads.submit(() -> this.batchStore.deleteEventStatuses(entity, new Date())));
+            }
+
+            // Each deletion must be applied, without the writers waiting for each other forever
+            for (Future<CompletableFuture<Void>> deletion : deletions) {
+                deletion.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(count, this.batchStore.deleteStatusesCount.get());
+    }
+
     /**
      * Observe for a call to notify on {@link #observation} for a given event and type. Complete the returned
      * {@link CompletableFuture} as soon as notify is called. This allows for tests to wait for notify to be called even
@@ -28,11 +28,16 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -41,6 +46,7 @@
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrQuery.ORDER;
@@ -50,7 +56,9 @@
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.eventstream.EntityEvent;
 import org.xwiki.eventstream.Event;
 import org.xwiki.eventstream.Event.Importance;
@@ -76,6 +84,8 @@
 import org.xwiki.eventstream.query.SortableEventQuery.SortClause;
 import org.xwiki.eventstream.query.SortableEventQuery.SortClause.Order;
 import org.xwiki.eventstream.query.StatusQueryCondition;
+import org.xwiki.eventstream.store.solr.internal.jmx.JMXSolrEventStore;
+import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
@@ -98,6 +108,73 @@ public class SolrEventStore extends AbstractAsynchronousEventStore
 {
     private static final Map<String, SearchFieldMapping> SEARCH_FIELD_MAPPING = new HashMap<>();
 
+    private static final String CONFIGURATION_PREFIX = "eventstream.store.solr.";
+
+    private static final String MBEAN_NAME = "type=eventstream,name=solr";
+
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * The pending atomic updates of the statuses of an event, merged in a single Solr document.
+     * 
+     * @version $Id$
+     */
+    private static final class StatusUpdate
+    {
+        private final SolrInputDocument document;
+
+        private final Set<String> entities = new LinkedHashSet<>();
+
+        private final Map<String, List<String>> read = new LinkedHashMap<>();
+
+        private final Map<String, List<String>> unread = new LinkedHashMap<>();
+
+        private final Map<String, List<String>> mail = new LinkedHashMap<>();
+
+        StatusUpdate(SolrInputDocument document)
+        {
+            this.document = document;
+        }
+    }
+
+    /**
+     * The modifications waiting to be sent to Solr by the current writer thread.
+     * 
+     * @version $Id$
+     */
+    private static final class PendingDocuments
+    {
+        private final List<SolrInputDocument> documents = new ArrayList<>(BATCH_SIZE);
+
+        private final Map<String, StatusUpdate> statusUpdates = new HashMap<>();
+
+        /**
+         * The tasks which produced each pending document, to be able to report a failure to send it.
+         */
+        private final Map<SolrInputDocument, List<EventStoreTask<?, ?>>> tasks = new IdentityHashMap<>();
+
+        private void add(SolrInputDocument document, EventStoreTask<?, ?> task)
+        {
+            this.documents.add(document);
+
+            addTask(document, task);
+        }
+
+        private void addTask(SolrInputDocument document, EventStoreTask<?, ?> task)
+        {
+            if (task != null) {
+                this.tasks.computeIfAbsent(document, k -> new ArrayList<>(1)).add(task);
+            }
+        }
+
+        private void clear()
+        {
+            this.documents.clear();
+            this.statusUpdates.clear();
+            this.tasks.clear();
+        }
+    }
+
     private static class SearchFieldMapping
     {
         String solrFieldName;
@@ -148,41 +225,190 @@ public class SolrEventStore extends AbstractAsynchronousEventStore
     @Named("compactwiki")
     private EntityReferenceSerializer<String> compactwiki;
 
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
     private SolrClient client;
 
+    private final ThreadLocal<PendingDocuments> pending = ThreadLocal.withInitial(PendingDocuments::new);
+
+    private long hardCommitInterval;
+
+    private volatile long lastHardCommit;
+
+    private final AtomicLong commitCount = new AtomicLong();
+
+    private final AtomicLong commitTime = new AtomicLong();
+
+    private volatile long lastCommitTime;
+
     @Override
     public void initialize() throws InitializationException
     {
-        initialize(100, false, true);
+        this.hardCommitInterval = this.configuration.getProperty(CONFIGURATION_PREFIX + "hardCommitInterval", 60000L);
+        this.lastHardCommit = System.currentTimeMillis();
 
         try {
             this.client = this.solr.getClient(EventsSolrCoreInitializer.NAME);
         } catch (SolrException e) {
             throw new InitializationException("Failed to get the events Solr core", e);
         }
+
+        initialize(BATCH_SIZE, false, true, this.configuration.getProperty(CONFIGURATION_PREFIX + "threads", 1));
+
+        this.jmxRegistration.registerMBean(new JMXSolrEventStore(this), MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        super.dispose();
+
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+
+        // Make sure everything which was only soft committed is persisted
+        try {
+            this.client.commit();
+        } catch (Exception e) {
+            this.logger.warn("Failed to commit the events Solr core", e);
+        }
     }
 
     @Override
     protected void afterTasks(List<EventStoreTask<?, ?>> tasks)
     {
         try {
+            flush();
+
             commit();
         } catch (EventStreamException e) {
             this.logger.error("Failed to commit", e);
+
+            // None of the modifications of the batch can be trusted
+            for (EventStoreTask<?, ?> task : tasks) {
+                failTask(task, e);
+            }
         }
 
         super.afterTasks(tasks);
     }
 
     @Override
-    protected Event syncSaveEvent(Event event) throws EventStreamException
+    protected void syncFlush() throws EventStreamException
+    {
+        flush();
+    }
+
+    /**
+     * @return the number of commits executed since the store was initialized
+     * @since 17.1.0RC1
+     */
+    public long getCommitCount()
+    {
+        return this.commitCount.get();
+    }
+
+    /**
+     * @return the total time spent committing, in milliseconds
+     * @since 17.1.0RC1
+     */
+    public long getCommitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.commitTime.get());
+    }
+
+    /**
+     * @return the time spent in the last commit, in milliseconds
+     * @since 17.1.0RC1
+     */
+    public long getLastCommitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.lastCommitTime);
+    }
+
+    private void add(String eventId, SolrInputDocument document) throws EventStreamException
+    {
+        PendingDocuments documents = this.pending.get();
+
+        // A status update cannot be merged with the updates sent before a full document
+        documents.statusUpdates.remove(eventId);
+        documents.add(document, getCurrentTask());
+
+        flushIfFull(documents);
+    }
+
+    private void flushIfFull(PendingDocuments documents) throws EventStreamException
+    {
+        if (documents.documents.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Send all the pending modifications of the current thread to Solr. The tasks which produced a document which could
+     * not be saved are failed.
+     * 
+     * @throws EventStreamException when failing to save a document produced by the task currently executed
+     */
+    private void flush() throws EventStreamException
     {
+        PendingDocuments documents = this.pending.get();
+
+        if (documents.documents.isEmpty()) {
+            return;
+        }
+
+        EventStreamException currentTaskFailure = null;
         try {
-            this.client.add(toSolrInputDocument(event));
+            this.client.add(documents.documents);
         } catch (Exception e) {
-            throw new EventStreamException("Failed to save event", e);
+            this.logger.warn("Failed to save [{}] event documents at once, trying one by one: {}",
+                documents.documents.size(), ExceptionUtils.getRootCauseMessage(e));
+
+            // Isolate the failing documents
+            EventStoreTask<?, ?> currentTask = getCurrentTask();
+            for (SolrInputDocument document : documents.documents) {
+                try {
+                    this.client.add(document);
+                } catch (Exception de) {
+                    EventStreamException failure = new EventStreamException(
+                        String.format("Failed to save the event document with id [%s]",
+                            document.getFieldValue(EventsSolrCoreInitializer.SOLR_FIELD_ID)),
+                        de);
+
+                    List<EventStoreTask<?, ?>> documentTasks = documents.tasks.get(document);
+                    if (documentTasks == null) {
+                        this.logger.error(failure.getMessage(), de);
+                    } else {
+                        for (EventStoreTask<?, ?> task : documentTasks) {
+                            if (task == currentTask) {
+                                // Failed by the exception
+                                currentTaskFailure = failure;
+                            } else {
+                                failTask(task, failure);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            documents.clear();
         }
 
+        if (currentTaskFailure != null) {
+            throw currentTaskFailure;
+        }
+    }
+
+    @Override
+    protected Event syncSaveEvent(Event event) throws EventStreamException
+    {
+        add(event.getId(), toSolrInputDocument(event));
+
         return event;
     }
 
@@ -218,6 +444,10 @@ protected Void syncDeleteEventStatuses(String entityId, Date date) throws EventS
         if (date != null) {
             query.lessOrEq(Event.FIELD_DATE, date);
         }
+
+        // Make sure the search take into account the pending modifications
+        flush();
+
         EventSearchResult results = search(query, Collections.singleton(Event.FIELD_ID));
 
         for (Iterator<Event> it = results.stream().iterator(); it.hasNext();) {
@@ -246,12 +476,7 @@ protected Event syncPrefilterEvent(Event event) throws EventStreamException
 
         this.utils.setAtomic(SolrUtils.ATOMIC_UPDATE_MODIFIER_SET, Event.FIELD_PREFILTERED, true, document);
 
-        try {
-            this.client.add(document);
-        } catch (Exception e) {
-            throw new EventStreamException(
-                String.format("Failed to to set the event [%s] as prefiltered", event.getId()), e);
-        }
+        add(event.getId(), document);
 
         // Update the event so that we return something with the right value
         if (event instanceof DefaultEvent) {
@@ -264,42 +489,63 @@ protected Event syncPrefilterEvent(Event event) throws EventStreamException
     private void saveEventStatus(String eventId, String entityId, boolean read, boolean unread)
         throws EventStreamException
     {
-        SolrInputDocument document = new SolrInputDocument();
+        StatusUpdate update = getStatusUpdate(eventId, entityId);
 
-        this.utils.set(EventsSolrCoreInitializer.SOLR_FIELD_ID, eventId, document);
+        addModifier(update, EventsSolrCoreInitializer.SOLR_FIELD_READLISTENERS, update.read, read, entityId);
+        addModifier(update, EventsSolrCoreInitializer.SOLR_FIELD_UNREADLISTENERS, update.unread, unread, entityId);
 
-        this.utils.setAtomic(
-            read ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
-            EventsSolrCoreInitializer.SOLR_FIELD_READLISTENERS, entityId, document);
-        this.utils.setAtomic(
-            unread ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
-            EventsSolrCoreInitializer.SOLR_FIELD_UNREADLISTENERS, entityId, document);
-
-        try {
-            this.client.add(document);
-        } catch (Exception e) {
-            throw new EventStreamException(
-                String.format("Failed to update the event status for event [%s] and entity id [%s]", eventId, entityId),
-                e);
-        }
+        flushIfFull(this.pending.get());
     }
 
     private void saveMailEntityEvent(String eventId, String entityId, boolean add) throws EventStreamException
     {
-        SolrInputDocument document = new SolrInputDocument();
+        StatusUpdate update = getStatusUpdate(eventId, entityId);
 
-        this.utils.set(EventsSolrCoreInitializer.SOLR_FIELD_ID, eventId, document);
+        addModifier(update, EventsSolrCoreInitializer.SOLR_FIELD_MAILLISTENERS, update.mail, add, entityId);
 
-        this.utils.setAtomic(
-            add ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
-            EventsSolrCoreInitializer.SOLR_FIELD_MAILLISTENERS, entityId, document);
+        flushIfFull(this.pending.get());
+    }
 
-        try {
-            this.client.add(document);
-        } catch (Exception e) {
-            throw new EventStreamException(String.format(
-                "Failed to update the event mail status for event [%s] and entity id [%s]", eventId, entityId), e);
+    /**
+     * Group the status updates of an event in a single atomic update, as long as they target different entities.
+     */
+    private StatusUpdate getStatusUpdate(String eventId, String entityId) throws EventStreamException
+    {
+        PendingDocuments documents = this.pending.get();
+
+        StatusUpdate update = documents.statusUpdates.get(eventId);
+
+        // The order of the modifications of a same entity matters
+        if (update != null && update.entities.contains(entityId)) {
+            flush();
+
+            update = null;
         }
+
+        if (update == null) {
+            SolrInputDocument document = new SolrInputDocument();
+            this.utils.set(EventsSolrCoreInitializer.SOLR_FIELD_ID, eventId, document);
+            update = new StatusUpdate(document);
+
+            documents.documents.add(document);
+            documents.statusUpdates.put(eventId, update);
+        }
+
+        documents.addTask(update.document, getCurrentTask());
+        update.entities.add(entityId);
+
+        return update;
+    }
+
+    private void addModifier(StatusUpdate update, String fieldName, Map<String, List<String>> modifiers, boolean add,
+        String entityId)
+    {
+        modifiers.computeIfAbsent(
+            add ? SolrUtils.ATOMIC_UPDATE_MODIFIER_ADD_DISTINCT : SolrUtils.ATOMIC_UPDATE_MODIFIER_REMOVE,
+            k -> new ArrayList<>()).add(entityId);
+
+        // Several modifiers can be applied to the same field in a single atomic update
+        update.document.setField(fieldName, modifiers);
     }
 
     private SolrInputDocument toSolrInputDocument(Event event)
@@ -356,6 +602,9 @@ private SolrInputDocument toSolrInputDocument(Event event)
     @Override
     protected Optional<Event> syncDeleteEvent(String eventId) throws EventStreamException
     {
+        // Make sure the pending modifications of the event are taken into account
+        flush();
+
         Optional<Event> event = getEvent(eventId);
 
         if (event.isPresent()) {
@@ -373,6 +622,9 @@ protected Optional<Event> syncDeleteEvent(Event event) throws EventStreamExcepti
 
     private void deleteById(String eventId) throws EventStreamException
     {
+        // Make sure the pending modifications are not applied after the delete
+        flush();
+
         try {
             this.client.deleteById(eventId);
         } catch (Exception e) {
@@ -382,10 +634,24 @@ private void deleteById(String eventId) throws EventStreamException
 
     private void commit() throws EventStreamException
     {
+        long start = System.nanoTime();
+
         try {
-            this.client.commit();
+            // Soft commits make the modifications visible without the cost of persisting the index: the durability is
+            // guaranteed in-between by the Solr transaction log
+            long now = System.currentTimeMillis();
+            if (this.hardCommitInterval <= 0 || now - this.lastHardCommit >= this.hardCommitInterval) {
+                this.client.commit();
+                this.lastHardCommit = now;
+            } else {
+                this.client.commit(true, true, true);
+            }
         } catch (Exception e) {
             throw new EventStreamException("Failed to commit", e);
+        } finally {
+            this.lastCommitTime = System.nanoTime() - start;
+            this.commitTime.addAndGet(this.lastCommitTime);
+            this.commitCount.incrementAndGet();
         }
     }
 
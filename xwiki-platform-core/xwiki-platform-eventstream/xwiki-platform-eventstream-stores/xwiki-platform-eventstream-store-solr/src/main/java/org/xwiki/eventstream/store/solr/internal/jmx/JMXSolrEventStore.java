@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.eventstream.store.solr.internal.jmx;
+
+import org.xwiki.eventstream.store.solr.internal.SolrEventStore;
+
+/**
+ * Implementation of the {@link JMXSolrEventStoreMBean} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class JMXSolrEventStore implements JMXSolrEventStoreMBean
+{
+    private final SolrEventStore store;
+
+    /**
+     * @param store the store to monitor
+     */
+    public JMXSolrEventStore(SolrEventStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return this.store.getPendingTaskCount();
+    }
+
+    @Override
+    public int getWriterCount()
+    {
+        return this.store.getWriterCount();
+    }
+
+    @Override
+    public long getBatchCount()
+    {
+        return this.store.getBatchCount();
+    }
+
+    @Override
+    public double getAverageBatchSize()
+    {
+        long batches = this.store.getBatchCount();
+
+        return batches > 0 ? (double) this.store.getBatchTaskCount() / batches : 0;
+    }
+
+    @Override
+    public int getLastBatchSize()
+    {
+        return this.store.getLastBatchSize();
+    }
+
+    @Override
+    public long getCommitCount()
+    {
+        return this.store.getCommitCount();
+    }
+
+    @Override
+    public double getAverageCommitTime()
+    {
+        long commits = this.store.getCommitCount();
+
+        return commits > 0 ? (double) this.store.getCommitTime() / commits : 0;
+    }
+
+    @Override
+    public long getLastCommitTime()
+    {
+        return this.store.getLastCommitTime();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.eventstream.store.solr.internal.jmx;
+
+/**
+ * Interface of the {@link JMXSolrEventStore} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public interface JMXSolrEventStoreMBean
+{
+    /**
+     * @return the total number of tasks waiting to be written in the store
+     */
+    int getQueueSize();
+
+    /**
+     * @return the number of threads writing in the store
+     */
+    int getWriterCount();
+
+    /**
+     * @return the number of batches of tasks processed since the store was initialized
+     */
+    long getBatchCount();
+
+    /**
+     * @return the average number of tasks processed in a batch
+     */
+    double getAverageBatchSize();
+
+    /**
+     * @return the number of tasks processed in the last batch
+     */
+    int getLastBatchSize();
+
+    /**
+     * @return the number of commits executed since the store was initialized
+     */
+    long getCommitCount();
+
+    /**
+     * @return the average time spent in a commit, in milliseconds
+     */
+    double getAverageCommitTime();
+
+    /**
+     * @return the time spent in the last commit, in milliseconds
+     */
+    long getLastCommitTime();
+}
@@ -55,6 +55,7 @@
 import org.xwiki.eventstream.internal.DefaultEventStatus;
 import org.xwiki.eventstream.query.SimpleEventQuery;
 import org.xwiki.eventstream.query.SortableEventQuery.SortClause.Order;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.model.internal.reference.converter.EntityReferenceConverter;
 import org.xwiki.model.internal.reference.converter.WikiReferenceConverter;
 import org.xwiki.model.reference.DocumentReference;
@@ -64,6 +65,7 @@
 import org.xwiki.observation.EventListener;
 import org.xwiki.search.solr.test.SolrComponentList;
 import org.xwiki.test.annotation.AfterComponent;
+import org.xwiki.test.annotation.BeforeComponent;
 import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.junit5.XWikiTempDir;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -81,6 +83,8 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 /**
@@ -165,12 +169,22 @@
     @MockComponent
     private WikiDescriptorManager wikis;
 
+    @MockComponent
+    private WorkerThreadManager workerThreadManager;
+
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
     @InjectMockComponents
     private SolrEventStore eventStore;
 
+    @BeforeComponent
+    public void beforeComponent()
+    {
+        when(this.workerThreadManager.newThread(any(), any(), eq(false)))
+            .thenAnswer(invocation -> new Thread((Runnable) invocation.getArgument(1)));
+    }
+
     @AfterComponent
     public void afterComponent() throws Exception
     {
@@ -394,6 +408,29 @@ void eventStatuses() throws Exception
             EVENT13, EVENT14, EVENT15), new SimpleEventQuery().withStatus("entity1"));
     }
 
+    @Test
+    void successiveEventStatuses() throws Exception
+    {
+        DefaultEvent event = event("successive");
+
+        this.eventStore.saveEvent(event);
+        this.eventStore.saveEventStatus(eventstatus(event, "entity1", true));
+        this.eventStore.saveEventStatus(eventstatus(event, "entity2", true));
+        this.eventStore.saveEventStatus(eventstatus(event, "entity1", false));
+        this.eventStore.saveMailEntityEvent(entityevent(event, "entity1"));
+        this.eventStore.deleteEventStatus(eventstatus(event, "entity2", true));
+        this.eventStore.saveEventStatus(eventstatus(event, "entity3", false)).get();
+
+        assertEquals(Set.of(eventstatus(event, "entity1", false), eventstatus(event, "entity3", false)),
+            new HashSet<>(
+                this.eventStore.getEventStatuses(List.of(event), List.of("entity1", "entity2", "entity3"))));
+        assertSearch(List.of(event), new SimpleEventQuery().withMail("entity1"));
+
+        assertTrue(this.eventStore.getBatchCount() > 0);
+        assertTrue(this.eventStore.getCommitCount() > 0);
+        assertEquals(0, this.eventStore.getPendingTaskCount());
+    }
+
     @Test
     void allSearch()
         throws EventStreamException, InterruptedException, ExecutionException, SolrServerException, IOException
@@ -30,6 +30,7 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -183,7 +184,7 @@ public class ExtensionIndexStore implements Initializable
     @Inject
     private ExtensionIndexSolrUtil extensionIndexSolrUtil;
 
-    private int documentsToStore;
+    private final AtomicInteger documentsToStore = new AtomicInteger();
 
     @Override
     public void initialize() throws InitializationException
@@ -202,7 +203,7 @@ public void initialize() throws InitializationException
     public void commit() throws SolrServerException, IOException
     {
         // Reset counter
-        this.documentsToStore = 0;
+        this.documentsToStore.set(0);
 
         // Commit
         this.client.commit();
@@ -595,8 +596,7 @@ private boolean add(SolrInputDocument document) throws SolrServerException, IOEx
         this.client.add(document);
 
         // Check if it should be auto committed
-        ++this.documentsToStore;
-        if (this.documentsToStore == COMMIT_BATCH_SIZE) {
+        if (this.documentsToStore.incrementAndGet() == COMMIT_BATCH_SIZE) {
             commit();
 
             // The document has been committed
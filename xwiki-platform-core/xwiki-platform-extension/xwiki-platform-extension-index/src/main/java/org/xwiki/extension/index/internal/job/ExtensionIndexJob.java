@@ -27,9 +27,17 @@
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -37,11 +45,16 @@
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.namespace.Namespace;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ExtensionContext;
 import org.xwiki.extension.ExtensionId;
@@ -98,6 +111,13 @@ public class ExtensionIndexJob extends AbstractJob<ExtensionIndexRequest, Defaul
 
     private static final int SEARCH_BATCH_SIZE = 100;
 
+    private static final String CONFIGURATION_THREADS = "extension.index.threads";
+
+    /**
+     * The minimum time in milliseconds between two commits of the validation results.
+     */
+    private static final long COMMIT_INTERVAL = 10000;
+
     private static final JobGroupPath GROUP_PATH = new JobGroupPath(JOB_TYPE, null);
 
     @Inject
@@ -140,8 +160,50 @@ public class ExtensionIndexJob extends AbstractJob<ExtensionIndexRequest, Defaul
     @Named(InstallPlanJob.JOBTYPE)
     private Provider<Job> installPlanJobProvider;
 
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configurationSource;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
     private Collection<String> invalidFlavors;
 
+    /**
+     * The threads used to validate extensions in parallel, or null to validate them in the job thread.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The results of the install plans, shared between the namespaces containing the same installed extensions.
+     */
+    private final Map<InstallPlanKey, Optional<Extension>> installPlans = new ConcurrentHashMap<>();
+
+    private final Map<Namespace, Set<ExtensionId>> installedExtensionIds = new ConcurrentHashMap<>();
+
+    private long lastCommit;
+
+    private boolean pendingCommit;
+
+    /**
+     * The type of namespace is part of the key since the root namespace and a wiki namespace can have the same
+     * installed extensions (the extensions installed on a wiki include the ones installed on the root namespace) but
+     * the plans don't have the same result.
+     */
+    private record InstallPlanKey(ExtensionId extensionId, String namespaceType, boolean rootModificationsAllowed,
+        Set<ExtensionId> installedExtensions)
+    {
+    }
+
+    @FunctionalInterface
+    private interface Validation<T>
+    {
+        boolean validate(T item) throws Exception;
+    }
+
     @Override
     public JobGroupPath getGroupPath()
     {
@@ -188,6 +250,29 @@ protected DefaultExtensionIndexStatus createNewStatus(ExtensionIndexRequest requ
 
     @Override
     protected void runInternal() throws Exception
+    {
+        int threads = this.configurationSource.getProperty(CONFIGURATION_THREADS, 1);
+        if (threads > 1) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki extension index thread %d").daemon(true).priority(Thread.NORM_PRIORITY - 1)
+                .build();
+            this.executor = Executors.newFixedThreadPool(threads, factory);
+        }
+
+        try {
+            index();
+        } finally {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+                this.executor = null;
+            }
+
+            this.installPlans.clear();
+            this.installedExtensionIds.clear();
+        }
+    }
+
+    private void index() throws Exception
     {
         // Gather known invalid flavor so that we skip them
         this.invalidFlavors = this.flavors.getKnownInvalidFlavors();
@@ -211,41 +296,173 @@ protected void runInternal() throws Exception
 
         // 3: Validate latest and recommended extensions versions (only if something was updated or if update was
         // disabled)
-        Map<String, Set<Namespace>> missingExtension = new HashMap<>();
+        Map<String, Set<Namespace>> missingExtension =
+            this.executor != null ? new ConcurrentHashMap<>() : new HashMap<>();
         this.progress.startStep(this);
-        validateLastExtensions(indexedExtensions, missingExtension);
+        if (this.executor != null) {
+            validate(indexedExtensions.entrySet(),
+                entry -> validateLastExtension(entry.getKey(), entry.getValue(), missingExtension));
+        } else {
+            // In the job thread, all the extensions are validated on a namespace before moving to the next one
+            validateLastExtensions(indexedExtensions, missingExtension);
+        }
 
         // 4: Validate older extensions
         this.progress.startStep(this);
         if (!missingExtension.isEmpty()) {
-            validateOldExtensions(missingExtension, indexedExtensions);
+            validate(missingExtension.entrySet(),
+                entry -> validateOlderExtensions(entry.getKey(), entry.getValue(), indexedExtensions));
         }
     }
 
     private void validateLastExtensions(Map<String, SortedSet<Version>> indexedExtensions,
-        Map<String, Set<Namespace>> missingExtension)
+        Map<String, Set<Namespace>> missingExtension) throws Exception
     {
         this.progress.pushLevelProgress(getRequest().getNamespaces().size(), getRequest().getNamespaces());
 
-        for (Namespace namespace : getRequest().getNamespaces()) {
-            this.progress.startStep(getRequest().getNamespaces());
+        try {
+            for (Namespace namespace : getRequest().getNamespaces()) {
+                this.progress.startStep(getRequest().getNamespaces());
+
+                validate(indexedExtensions.entrySet(), entry -> {
+                    try {
+                        return validateExtension(entry.getKey(), namespace, entry.getValue(), missingExtension);
+                    } catch (Exception e) {
+                        this.logger.error("Failed to validate extension with id [{}] on namespace [{}]",
+                            entry.getKey(), namespace, e);
+
+                        return false;
+                    }
+                });
+            }
+        } finally {
+            this.progress.popLevelProgress(getRequest().getNamespaces());
+        }
+    }
 
-            validateExtensions(namespace, indexedExtensions, missingExtension);
+    /**
+     * Validate each item, in the job thread or in parallel depending on the configuration. Each item is always
+     * validated in a single thread.
+     */
+    private <T> void validate(Collection<T> items, Validation<T> validation) throws Exception
+    {
+        this.progress.pushLevelProgress(items.size(), items);
+
+        try {
+            if (this.executor == null) {
+                for (T item : items) {
+                    this.progress.startStep(items);
+                    validate(item, validation);
+                    this.progress.endStep(items);
+                }
+            } else {
+                List<Future<Object>> futures = new ArrayList<>(items.size());
+                for (T item : items) {
+                    futures.add(this.executor.submit(inWorker(() -> {
+                        validate(item, validation);
+
+                        return null;
+                    })));
+                }
+
+                waitFor(futures, items);
+            }
+
+            // Make sure the result of the validation is visible to the next step
+            commit(true);
+        } finally {
+            this.progress.popLevelProgress(items);
         }
+    }
 
-        this.progress.popLevelProgress(getRequest().getNamespaces());
+    private <T> void validate(T item, Validation<T> validation)
+    {
+        try {
+            if (validation.validate(item)) {
+                // Commit regularly since validating extensions can be very slow and we want to get as many
+                // extensions as possible as fast as possible in the search result
+                commit(false);
+            }
+        } catch (Exception e) {
+            this.logger.error("Failed to validate extension [{}]", item, e);
+        }
     }
 
-    private void validateOldExtensions(Map<String, Set<Namespace>> missingExtension,
-        Map<String, SortedSet<Version>> indexedExtensions) throws SolrServerException, IOException
+    private void waitFor(List<Future<Object>> futures, Object progressSource) throws InterruptedException
+    {
+        try {
+            for (Future<Object> future : futures) {
+                this.progress.startStep(progressSource);
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    this.logger.error("Failed to validate extensions", e);
+                }
+                this.progress.endStep(progressSource);
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+
+            throw e;
+        }
+    }
+
+    /**
+     * Wrap a task to execute in a worker thread, with its own execution context and extension session.
+     */
+    private <V> Callable<V> inWorker(Callable<V> task)
+    {
+        return () -> {
+            this.executionContextManager.initialize(new ExecutionContext());
+
+            try {
+                this.extensionContext.pushSession();
+                try {
+                    return task.call();
+                } finally {
+                    this.extensionContext.popSession();
+                }
+            } finally {
+                this.execution.removeContext();
+            }
+        };
+    }
+
+    /**
+     * Commit the validation results. When validating in the job thread the results are committed right away,
+     * otherwise they are committed at most every {@value #COMMIT_INTERVAL} milliseconds, unless forced.
+     */
+    private synchronized void commit(boolean force) throws SolrServerException, IOException
     {
-        // Test older versions
-        this.progress.pushLevelProgress(missingExtension.size(), missingExtension);
-        for (Map.Entry<String, Set<Namespace>> entry : missingExtension.entrySet()) {
-            this.progress.startStep(getRequest().getNamespaces());
-            validateOlderExtensions(entry.getKey(), entry.getValue(), indexedExtensions);
+        long now = System.currentTimeMillis();
+
+        if (this.executor == null && !force) {
+            this.indexStore.commit();
+        } else if (now - this.lastCommit >= COMMIT_INTERVAL || (force && this.pendingCommit)) {
+            this.indexStore.commit();
+
+            this.lastCommit = now;
+            this.pendingCommit = false;
+        } else if (!force) {
+            this.pendingCommit = true;
         }
-        this.progress.popLevelProgress(missingExtension);
+    }
+
+    private boolean validateLastExtension(String extensionId, SortedSet<Version> indexedVersions,
+        Map<String, Set<Namespace>> missingExtensions)
+    {
+        boolean updated = false;
+
+        for (Namespace namespace : getRequest().getNamespaces()) {
+            try {
+                updated |= validateExtension(extensionId, namespace, indexedVersions, missingExtensions);
+            } catch (Exception e) {
+                this.logger.error("Failed to validate extension with id [{}] on namespace [{}]", extensionId,
+                    namespace, e);
+            }
+        }
+
+        return updated;
     }
 
     private void add(ExtensionId extension, Map<String, SortedSet<Version>> extensions)
@@ -265,7 +482,7 @@ private Map<String, SortedSet<Version>> getIndexedExtensions() throws SolrServer
         return extensions;
     }
 
-    private void validateOlderExtensions(String extensionId, Set<Namespace> namespaces,
+    private boolean validateOlderExtensions(String extensionId, Set<Namespace> namespaces,
         Map<String, SortedSet<Version>> indexedExtensions) throws SolrServerException, IOException
     {
         boolean updated = false;
@@ -294,9 +511,7 @@ private void validateOlderExtensions(String extensionId, Set<Namespace> namespac
             }
         }
 
-        if (updated) {
-            this.indexStore.commit();
-        }
+        return updated;
     }
 
     private Version getStopVersion(String extensionId, String namespace)
@@ -460,13 +675,24 @@ private boolean validate(ExtensionId extensionId, Namespace namespace, SortedSet
 
     private Extension tryInstall(ExtensionId extensionId, Namespace namespace)
     {
+        boolean rootModificationsAllowed = isAllowRootModications(namespace);
+
+        // The install plan only depends on the extensions already installed on the namespace so its result can be
+        // reused for other namespaces with the same installed extensions
+        InstallPlanKey key = new InstallPlanKey(extensionId, namespace != null ? namespace.getType() : null,
+            rootModificationsAllowed, getInstalledExtensionIds(namespace));
+        Optional<Extension> result = this.installPlans.get(key);
+        if (result != null) {
+            return result.orElse(null);
+        }
+
         InstallRequest planRequest = new InstallRequest(getRequest());
         planRequest.setId((List<String>) null);
         planRequest.setVerbose(false);
         planRequest.setStatusLogIsolated(true);
 
         planRequest.addExtension(extensionId);
-        planRequest.setRootModificationsAllowed(isAllowRootModications(namespace));
+        planRequest.setRootModificationsAllowed(rootModificationsAllowed);
 
         if (namespace != null) {
             planRequest.addNamespace(namespace.serialize());
@@ -476,23 +702,76 @@ private Extension tryInstall(ExtensionId extensionId, Namespace namespace)
         Job job = this.installPlanJobProvider.get();
         job.initialize(planRequest);
 
-        // Ignore any log produced by the install plan job
-        getStatus().ignoreLogs(true);
+        // Ignore any log produced by the install plan job (the logs of the worker threads are not part of the job log)
+        boolean jobThread = this.executor == null;
+        if (jobThread) {
+            getStatus().ignoreLogs(true);
+        }
         try {
             job.run();
         } finally {
-            getStatus().ignoreLogs(false);
+            if (jobThread) {
+                getStatus().ignoreLogs(false);
+            }
         }
 
+        Extension extension = null;
+        boolean restricted;
         if (job.getStatus().getError() == null) {
             // Get last element of the root tree node
             ExtensionPlanTree tree = ((ExtensionPlan) job.getStatus()).getTree();
             ExtensionPlanNode node = IterableUtils.get(tree, tree.size() - 1);
 
-            return node.getAction().getExtension();
+            extension = node.getAction().getExtension();
+            restricted = isNamespaceRestricted(tree);
+        } else {
+            restricted = isNamespaceRestricted(extensionId);
+        }
+
+        // Extensions which can only be installed on some namespaces don't have the same result everywhere
+        if (!restricted) {
+            this.installPlans.put(key, Optional.ofNullable(extension));
+        }
+
+        return extension;
+    }
+
+    private Set<ExtensionId> getInstalledExtensionIds(Namespace namespace)
+    {
+        return this.installedExtensionIds.computeIfAbsent(namespace != null ? namespace : Namespace.ROOT, key -> {
+            Set<ExtensionId> ids = new HashSet<>();
+            for (InstalledExtension installedExtension : this.installedExtensions
+                .getInstalledExtensions(key.serialize())) {
+                ids.add(installedExtension.getId());
+            }
+
+            return ids;
+        });
+    }
+
+    private boolean isNamespaceRestricted(Collection<? extends ExtensionPlanNode> nodes)
+    {
+        for (ExtensionPlanNode node : nodes) {
+            Extension extension = node.getAction().getExtension();
+            if ((extension != null && extension.getAllowedNamespaces() != null)
+                || isNamespaceRestricted(node.getChildren())) {
+                return true;
+            }
         }
 
-        return null;
+        return false;
+    }
+
+    private boolean isNamespaceRestricted(ExtensionId extensionId)
+    {
+        try {
+            Extension extension = this.extensionManager.resolveExtension(extensionId);
+
+            return extension == null || extension.getAllowedNamespaces() != null;
+        } catch (ResolveException e) {
+            // The extension cannot be resolved, whatever the namespace
+            return false;
+        }
     }
 
     private void addSearchableCompatibleExtension(Extension validExtension, Namespace namespace,
@@ -541,32 +820,6 @@ private boolean validateOldExtension(String extensionId, Namespace namespace, So
         return validateOldExtension(extensionId, namespace, versions, stopVersion, indexedVersions);
     }
 
-    private void validateExtensions(Namespace namespace, Map<String, SortedSet<Version>> indexedExtensions,
-        Map<String, Set<Namespace>> missingExtensions)
-    {
-        this.progress.pushLevelProgress(indexedExtensions.size(), indexedExtensions);
-
-        for (Map.Entry<String, SortedSet<Version>> entry : indexedExtensions.entrySet()) {
-            this.progress.startStep(indexedExtensions);
-
-            String extensionId = entry.getKey();
-            SortedSet<Version> indexedVersions = entry.getValue();
-
-            try {
-                if (validateExtension(extensionId, namespace, indexedVersions, missingExtensions)) {
-                    // Commit right away since validating an extension can be very slow and we want to get as many
-                    // extensions as possible as fast as possible in the search result
-                    this.indexStore.commit();
-                }
-            } catch (Exception e) {
-                this.logger.error("Failed to validate extension with if [{}] on namespace [{}]", extensionId, namespace,
-                    e);
-            }
-        }
-
-        this.progress.popLevelProgress(indexedExtensions);
-    }
-
     private void addLocalExtensions(Map<String, SortedSet<Version>> indexedExtensions)
         throws SearchException, SolrServerException, IOException
     {
@@ -596,22 +849,45 @@ private void addLocalExtensions(Map<String, SortedSet<Version>> indexedExtension
     }
 
     private void addRemoteExtensions(Map<String, SortedSet<Version>> indexedExtensions)
-        throws SolrServerException, IOException
+        throws SolrServerException, IOException, InterruptedException
     {
         boolean updated = false;
 
         Collection<ExtensionRepository> repositories = this.repositoryManager.getRepositories();
+
+        // When running in parallel, search all the repositories at the same time (but each repository is still
+        // searched one page at a time) and index the results in the order of the repositories
+        List<Future<List<IterableResult<Extension>>>> searches = new ArrayList<>(repositories.size());
+        if (this.executor != null) {
+            for (ExtensionRepository repository : repositories) {
+                searches.add(repository instanceof Searchable searchableRepository
+                    ? this.executor.submit(inWorker(() -> search(searchableRepository))) : null);
+            }
+        }
+
         this.progress.pushLevelProgress(repositories);
+        int index = 0;
         for (ExtensionRepository repository : repositories) {
             this.progress.startStep(repositories);
             if (repository instanceof Searchable searchableRepository) {
                 try {
-                    updated |= addRemoteExtensions(searchableRepository, indexedExtensions);
+                    if (this.executor != null) {
+                        for (IterableResult<Extension> result : searches.get(index).get()) {
+                            updated |= addRemoteExtensions(result, indexedExtensions);
+                        }
+                    } else {
+                        updated |= addRemoteExtensions(searchableRepository, indexedExtensions);
+                    }
+                } catch (InterruptedException e) {
+                    searches.stream().filter(Objects::nonNull).forEach(search -> search.cancel(true));
+
+                    throw e;
                 } catch (Exception e) {
                     this.logger.warn("Failed to get remote extension from repository [{}]: {}",
                         repository.getDescriptor(), ExceptionUtils.getRootCauseMessage(e));
                 }
             }
+            ++index;
         }
         this.progress.popLevelProgress(repositories);
 
@@ -620,6 +896,20 @@ private void addRemoteExtensions(Map<String, SortedSet<Version>> indexedExtensio
         }
     }
 
+    private List<IterableResult<Extension>> search(Searchable searchableRepository) throws SearchException
+    {
+        List<IterableResult<Extension>> results = new ArrayList<>();
+
+        for (int offset = 0; true; offset += SEARCH_BATCH_SIZE) {
+            IterableResult<Extension> result = searchableRepository.search("", offset, SEARCH_BATCH_SIZE);
+            results.add(result);
+
+            if (result.getSize() < SEARCH_BATCH_SIZE) {
+                return results;
+            }
+        }
+    }
+
     private boolean addRemoteExtensions(Searchable searchableRepository,
         Map<String, SortedSet<Version>> indexedExtensions) throws SearchException, SolrServerException, IOException
     {
@@ -629,57 +919,67 @@ private boolean addRemoteExtensions(Searchable searchableRepository,
             // Get remote extensions ids
             IterableResult<Extension> result = searchableRepository.search("", offset, SEARCH_BATCH_SIZE);
 
-            for (Extension extension : result) {
-                if (!this.invalidFlavors.contains(extension.getId().getId())
-                    && !this.coreExtensions.exists(extension.getId()) && !this.localExtensions.exists(extension.getId())
-                    && !this.indexStore.exists(extension.getId())) {
-                    // TODO: Resolve the complete extension but it very expensive...
+            updated |= addRemoteExtensions(result, indexedExtensions);
 
-                    // Add the extension to the index
-                    this.indexStore.add(extension, true);
+            if (result.getSize() < SEARCH_BATCH_SIZE) {
+                break;
+            }
+        }
 
-                    add(extension.getId(), indexedExtensions);
+        return updated;
+    }
 
-                    // Make sure only one version is tagged as "last"
-                    SolrQuery solrQuery = new SolrQuery();
-                    solrQuery.addFilterQuery(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_EXTENSIONID + ':'
-                        + this.solrUtils.toCompleteFilterQueryString(extension.getId().getId()));
-                    solrQuery.addFilterQuery(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_LAST + ':' + true);
-                    for (ExtensionId extensionid : this.indexStore.searchExtensionIds(solrQuery)) {
-                        boolean last =
-                            indexedExtensions.get(extension.getId().getId()).last().equals(extensionid.getVersion());
-                        if (!extensionid.getVersion().equals(extension.getId().getVersion())) {
-                            // Update the "last" flag of the already indexed extensions
-                            this.indexStore.updateLast(extensionid, last);
-                        } else if (!last) {
-                            // The new extension is actually not the last one (maybe some local extension is more
-                            // recent)
-                            this.indexStore.updateLast(extensionid, false);
+    private boolean addRemoteExtensions(IterableResult<Extension> result,
+        Map<String, SortedSet<Version>> indexedExtensions) throws SolrServerException, IOException
+    {
+        boolean updated = false;
 
-                        }
-                    }
+        for (Extension extension : result) {
+            if (!this.invalidFlavors.contains(extension.getId().getId())
+                && !this.coreExtensions.exists(extension.getId()) && !this.localExtensions.exists(extension.getId())
+                && !this.indexStore.exists(extension.getId())) {
+                // TODO: Resolve the complete extension but it very expensive...
+
+                // Add the extension to the index
+                this.indexStore.add(extension, true);
+
+                add(extension.getId(), indexedExtensions);
+
+                // Make sure only one version is tagged as "last"
+                SolrQuery solrQuery = new SolrQuery();
+                solrQuery.addFilterQuery(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_EXTENSIONID + ':'
+                    + this.solrUtils.toCompleteFilterQueryString(extension.getId().getId()));
+                solrQuery.addFilterQuery(ExtensionIndexSolrCoreInitializer.SOLR_FIELD_LAST + ':' + true);
+                for (ExtensionId extensionid : this.indexStore.searchExtensionIds(solrQuery)) {
+                    boolean last =
+                        indexedExtensions.get(extension.getId().getId()).last().equals(extensionid.getVersion());
+                    if (!extensionid.getVersion().equals(extension.getId().getVersion())) {
+                        // Update the "last" flag of the already indexed extensions
+                        this.indexStore.updateLast(extensionid, last);
+                    } else if (!last) {
+                        // The new extension is actually not the last one (maybe some local extension is more
+                        // recent)
+                        this.indexStore.updateLast(extensionid, false);
 
-                    updated = true;
-                    getStatus().setExtensionAdded(true);
+                    }
                 }
 
-                // Update recommended and rating
-                if (extension instanceof RemoteExtension remoteExtension) {
-                    SortedSet<Version> versions = indexedExtensions.get(extension.getId().getId());
-                    if (versions != null) {
-                        for (Version version : versions) {
-                            this.indexStore.update(new ExtensionId(extension.getId().getId(), version),
-                                remoteExtension);
+                updated = true;
+                getStatus().setExtensionAdded(true);
+            }
 
-                            updated = true;
-                        }
+            // Update recommended and rating
+            if (extension instanceof RemoteExtension remoteExtension) {
+                SortedSet<Version> versions = indexedExtensions.get(extension.getId().getId());
+                if (versions != null) {
+                    for (Version version : versions) {
+                        this.indexStore.update(new ExtensionId(extension.getId().getId(), version),
+                            remoteExtension);
+
+                        updated = true;
                     }
                 }
             }
-
-            if (result.getSize() < SEARCH_BATCH_SIZE) {
-                break;
-            }
         }
 
         return updated;
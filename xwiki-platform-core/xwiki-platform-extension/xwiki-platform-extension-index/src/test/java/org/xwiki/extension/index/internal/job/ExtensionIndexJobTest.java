@@ -22,24 +22,39 @@
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Provider;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.xwiki.component.namespace.Namespace;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.extension.AbstractExtension;
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManager;
 import org.xwiki.extension.index.internal.ExtensionIndexStore;
+import org.xwiki.extension.job.internal.InstallPlanJob;
 import org.xwiki.extension.repository.ExtensionRepositoryManager;
 import org.xwiki.extension.repository.result.CollectionIterableResult;
 import org.xwiki.extension.repository.search.SearchException;
 import org.xwiki.extension.repository.search.SearchableExtensionRepository;
+import org.xwiki.extension.version.Version;
+import org.xwiki.job.Job;
+import org.xwiki.job.event.status.JobStatus;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.manager.WikiDescriptorManager;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +75,20 @@
     @MockComponent
     private ExtensionRepositoryManager repositoryManager;
 
+    @MockComponent
+    private ExtensionManager extensionManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configurationSource;
+
+    @MockComponent
+    @Named(InstallPlanJob.JOBTYPE)
+    private Provider<Job> installPlanJobProvider;
+
+    @MockComponent
+    private WikiDescriptorManager wikis;
+
     private SearchableExtensionRepository repository1;
 
     private Extension extension11;
@@ -113,4 +142,78 @@ void failingRepository1() throws SolrServerException, IOException, SearchExcepti
         verify(this.indexStore).add(this.extension21, true);
         verify(this.indexStore).add(this.extension22, true);
     }
+
+    @Test
+    void failingRepository1InParallel() throws SolrServerException, IOException, SearchException
+    {
+        when(this.configurationSource.getProperty("extension.index.threads", 1)).thenReturn(2);
+        when(this.repository1.search("", 0, 100)).thenThrow(SearchException.class);
+
+        ExtensionIndexRequest request = new ExtensionIndexRequest(false, true, Collections.emptyList());
+
+        this.job.initialize(request);
+        this.job.run();
+
+        verify(this.indexStore, never()).add(this.extension11, true);
+        verify(this.indexStore, never()).add(this.extension12, true);
+        verify(this.indexStore).add(this.extension21, true);
+        verify(this.indexStore).add(this.extension22, true);
+    }
+
+    @Test
+    void installPlanSharedBetweenNamespaces() throws Exception
+    {
+        ExtensionId extensionId = new ExtensionId("id", "1.0");
+        when(this.indexStore.searchExtensionIds(any())).thenReturn(Set.of(extensionId));
+        when(this.extensionManager.resolveExtension(extensionId)).thenReturn(new TestExtension(extensionId, null));
+        when(this.repositoryManager.resolveVersions("id", 0, -1))
+            .thenReturn(new CollectionIterableResult<Version>(0, 0, List.of()));
+
+        // The install plan fails
+        Job installPlanJob = mock(Job.class);
+        JobStatus installPlanStatus = mock(JobStatus.class);
+        when(installPlanJob.getStatus()).thenReturn(installPlanStatus);
+        when(installPlanStatus.getError()).thenReturn(new Exception());
+        when(this.installPlanJobProvider.get()).thenReturn(installPlanJob);
+
+        ExtensionIndexRequest request = new ExtensionIndexRequest(false, false,
+            List.of(new Namespace("wiki", "wiki1"), new Namespace("wiki", "wiki2")));
+
+        this.job.initialize(request);
+        this.job.run();
+
+        // The namespaces have the same installed extensions
+        verify(installPlanJob, times(1)).run();
+        verify(this.indexStore).updateCompatible(extensionId, "wiki:wiki1", null, true);
+        verify(this.indexStore).updateCompatible(extensionId, "wiki:wiki2", null, true);
+        // The result is committed right away on each namespace when validating in the job thread
+        verify(this.indexStore, times(2)).commit();
+    }
+
+    @Test
+    void installPlanNotSharedBetweenRootAndWiki() throws Exception
+    {
+        ExtensionId extensionId = new ExtensionId("id", "1.0");
+        when(this.indexStore.searchExtensionIds(any())).thenReturn(Set.of(extensionId));
+        when(this.extensionManager.resolveExtension(extensionId)).thenReturn(new TestExtension(extensionId, null));
+        when(this.repositoryManager.resolveVersions("id", 0, -1))
+            .thenReturn(new CollectionIterableResult<Version>(0, 0, List.of()));
+        when(this.wikis.isMainWiki("xwiki")).thenReturn(true);
+
+        // The install plan fails
+        Job installPlanJob = mock(Job.class);
+        JobStatus installPlanStatus = mock(JobStatus.class);
+        when(installPlanJob.getStatus()).thenReturn(installPlanStatus);
+        when(installPlanStatus.getError()).thenReturn(new Exception());
+        when(this.installPlanJobProvider.get()).thenReturn(installPlanJob);
+
+        ExtensionIndexRequest request =
+            new ExtensionIndexRequest(false, false, List.of(Namespace.ROOT, new Namespace("wiki", "xwiki")));
+
+        this.job.initialize(request);
+        this.job.run();
+
+        // Both allow root modifications and have the same installed extensions, but are not the same kind of namespace
+        verify(installPlanJob, times(2)).run();
+    }
 }
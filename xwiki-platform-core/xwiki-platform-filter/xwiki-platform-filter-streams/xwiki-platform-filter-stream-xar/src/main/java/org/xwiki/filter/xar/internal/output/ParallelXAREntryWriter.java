@@ -0,0 +1,198 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.xar.internal.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.filter.FilterException;
+
+/**
+ * Buffer each serialized XAR entry and compress the entries on a pool of threads before writing them, in the order in
+ * which they were produced, to the final zip stream.
+ * <p>
+ * The memory used by the entries waiting to be compressed is bounded by a configurable budget: an entry which does not
+ * fit in what remains of the budget is buffered in a temporary file instead. The compressed data itself is always
+ * gathered in temporary files.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+class ParallelXAREntryWriter
+{
+    private static final String TEMPORARY_PREFIX = "xarentry";
+
+    private static final String TEMPORARY_SUFFIX = ".bin";
+
+    private final ExecutorService executor;
+
+    private final ParallelScatterZipCreator creator;
+
+    private final File temporaryDirectory;
+
+    private final long maxInFlightMemory;
+
+    private long inFlightMemory;
+
+    private ZipArchiveEntry currentEntry;
+
+    private DeferredFileOutputStream currentBuffer;
+
+    private class InFlightInputStream extends ByteArrayInputStream
+    {
+        private final int size;
+
+        InFlightInputStream(byte[] data)
+        {
+            super(data);
+
+            this.size = data.length;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            super.close();
+
+            release(this.size);
+        }
+    }
+
+    /**
+     * @param threads the number of threads used to compress the entries
+     * @param maxInFlightMemory the maximum amount of memory (in bytes) used to keep entries waiting to be compressed
+     * @param temporaryDirectory the directory where to store the temporary files
+     */
+    ParallelXAREntryWriter(int threads, long maxInFlightMemory, File temporaryDirectory)
+    {
+        this.temporaryDirectory = temporaryDirectory;
+        this.maxInFlightMemory = Math.max(0, maxInFlightMemory);
+
+        BasicThreadFactory factory = new BasicThreadFactory.Builder().namingPattern("XAR compression thread %d")
+            .daemon(true).priority(Thread.MIN_PRIORITY).build();
+        this.executor = Executors.newFixedThreadPool(threads, factory);
+
+        this.creator = new ParallelScatterZipCreator(this.executor, () -> new FileBasedScatterGatherBackingStore(
+            File.createTempFile(TEMPORARY_PREFIX, TEMPORARY_SUFFIX, this.temporaryDirectory)));
+    }
+
+    private synchronized int reserveThreshold()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, this.maxInFlightMemory - this.inFlightMemory));
+    }
+
+    private synchronized void reserve(long size)
+    {
+        this.inFlightMemory += size;
+    }
+
+    private synchronized void release(long size)
+    {
+        this.inFlightMemory -= size;
+    }
+
+    /**
+     * @param entryName the name of the entry in the zip file
+     * @return the stream where to write the content of the entry
+     */
+    OutputStream newEntry(String entryName)
+    {
+        this.currentEntry = new ZipArchiveEntry(entryName);
+        this.currentEntry.setMethod(ZipEntry.DEFLATED);
+
+        this.currentBuffer = new DeferredFileOutputStream(reserveThreshold(), TEMPORARY_PREFIX, TEMPORARY_SUFFIX,
+            this.temporaryDirectory);
+
+        return this.currentBuffer;
+    }
+
+    /**
+     * Submit the current entry to the compression threads.
+     *
+     * @throws FilterException when failing to close the current entry
+     */
+    void closeEntry() throws FilterException
+    {
+        try {
+            this.currentBuffer.close();
+        } catch (IOException e) {
+            throw new FilterException("Failed to close the buffer of zip entry [" + this.currentEntry.getName() + "]",
+                e);
+        }
+
+        InputStreamSupplier supplier;
+        if (this.currentBuffer.isInMemory()) {
+            byte[] data = this.currentBuffer.getData();
+            reserve(data.length);
+            supplier = () -> new InFlightInputStream(data);
+        } else {
+            File file = this.currentBuffer.getFile();
+            supplier = () -> {
+                try {
+                    return Files.newInputStream(file.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open the buffer file [" + file + "]", e);
+                }
+            };
+        }
+
+        this.creator.addArchiveEntry(this.currentEntry, supplier);
+
+        this.currentEntry = null;
+        this.currentBuffer = null;
+    }
+
+    /**
+     * Wait for all the entries to be compressed and write them to the passed zip stream.
+     *
+     * @param zipStream the stream where to write the compressed entries
+     * @throws IOException when failing to write the entries
+     */
+    void writeTo(ZipArchiveOutputStream zipStream) throws IOException
+    {
+        try {
+            this.creator.writeTo(zipStream);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IOException("Interrupted while compressing the XAR entries", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress the XAR entries", e);
+        } finally {
+            this.executor.shutdownNow();
+        }
+    }
+}
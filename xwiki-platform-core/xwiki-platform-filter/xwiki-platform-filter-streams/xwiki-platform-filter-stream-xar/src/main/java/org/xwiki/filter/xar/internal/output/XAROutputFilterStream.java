@@ -35,6 +35,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.environment.Environment;
 import org.xwiki.filter.FilterEventParameters;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.event.model.WikiClassFilter;
@@ -90,6 +91,9 @@ public class XAROutputFilterStream extends AbstractBeanOutputFilterStream<XAROut
     @Inject
     private XarObjectPropertySerializerManager propertySerializerManager;
 
+    @Inject
+    private Environment environment;
+
     private XARWikiWriter wikiWriter;
 
     private EntityReference currentSpaceReference;
@@ -186,7 +190,8 @@ public void endWikiFarm(FilterEventParameters parameters) throws FilterException
     public void beginWiki(String name, FilterEventParameters parameters) throws FilterException
     {
         this.wikiWriter = new XARWikiWriter(
-            this.properties.getPackageName() != null ? this.properties.getPackageName() : name, this.properties);
+            this.properties.getPackageName() != null ? this.properties.getPackageName() : name, this.properties,
+            this.environment.getTemporaryDirectory());
     }
 
     @Override
@@ -254,7 +259,7 @@ public void beginWikiDocumentLocale(Locale locale, FilterEventParameters paramet
                 if (this.wikiWriter == null) {
                     this.wikiWriter = new XARWikiWriter(
                         this.properties.getPackageName() != null ? this.properties.getPackageName() : "package",
-                        this.properties);
+                        this.properties, this.environment.getTemporaryDirectory());
                 }
 
                 this.writer = new FilterStreamXMLStreamWriter(
@@ -50,9 +50,12 @@ public class XARWikiWriter implements Closeable
 
     private final ZipArchiveOutputStream zipStream;
 
+    private final ParallelXAREntryWriter parallelWriter;
+
     private XarPackage xarPackage = new XarPackage();
 
-    public XARWikiWriter(String name, XAROutputProperties xarProperties) throws FilterException
+    public XARWikiWriter(String name, XAROutputProperties xarProperties, File temporaryDirectory)
+        throws FilterException
     {
         this.name = name;
         this.xarProperties = xarProperties;
@@ -91,6 +94,14 @@ public XARWikiWriter(String name, XAROutputProperties xarProperties) throws Filt
         // non-ascii characters in the document name using InfoZIP, and the filenames will be correctly
         // converted to the character set of the local file system.
         this.zipStream.setCreateUnicodeExtraFields(ZipArchiveOutputStream.UnicodeExtraFieldPolicy.ALWAYS);
+
+        // Compress the entries in parallel if asked to
+        if (xarProperties.getThreads() > 0) {
+            this.parallelWriter = new ParallelXAREntryWriter(xarProperties.getThreads(),
+                xarProperties.getMaxInFlightMemory(), temporaryDirectory);
+        } else {
+            this.parallelWriter = null;
+        }
     }
 
     public String getName()
@@ -134,6 +145,12 @@ public OutputStream newEntry(LocalDocumentReference reference) throws FilterExce
 
         String entryName = path.toString();
 
+        if (this.parallelWriter != null) {
+            this.xarPackage.addEntry(reference, entryName);
+
+            return this.parallelWriter.newEntry(entryName);
+        }
+
         ZipArchiveEntry zipentry = new ZipArchiveEntry(entryName);
         try {
             this.zipStream.putArchiveEntry(zipentry);
@@ -148,6 +165,12 @@ public OutputStream newEntry(LocalDocumentReference reference) throws FilterExce
 
     public void closeEntry() throws FilterException
     {
+        if (this.parallelWriter != null) {
+            this.parallelWriter.closeEntry();
+
+            return;
+        }
+
         try {
             this.zipStream.closeArchiveEntry();
         } catch (IOException e) {
@@ -167,6 +190,11 @@ private void writePackage() throws FilterException
     @Override
     public void close() throws IOException
     {
+        // Write the entries compressed in parallel
+        if (this.parallelWriter != null) {
+            this.parallelWriter.writeTo(this.zipStream);
+        }
+
         // Add package.xml descriptor
         try {
             writePackage();
@@ -81,6 +81,16 @@ public class XAROutputProperties extends XMLOutputProperties
      */
     private String packageExtensionId;
 
+    /**
+     * @see #getThreads()
+     */
+    private int threads;
+
+    /**
+     * @see #getMaxInFlightMemory()
+     */
+    private long maxInFlightMemory = 32L * 1024 * 1024;
+
     /**
      * @return Indicate if all revisions related informations should be serialized
      */
@@ -137,6 +147,51 @@ public void setOptimized(boolean optimized)
         this.optimized = optimized;
     }
 
+    /**
+     * @return the number of threads used to compress the XAR entries in parallel, 0 to compress them sequentially
+     * @since 17.1.0RC1
+     */
+    @PropertyName("Threads")
+    @PropertyDescription("The number of threads used to compress the XAR entries in parallel"
+        + " (0 to compress them sequentially)")
+    public int getThreads()
+    {
+        return this.threads;
+    }
+
+    /**
+     * @param threads the number of threads used to compress the XAR entries in parallel, 0 to compress them
+     *            sequentially
+     * @since 17.1.0RC1
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * @return the maximum amount of memory (in bytes) used to keep serialized entries waiting to be compressed when
+     *         {@link #getThreads()} is greater than 0, the rest being buffered in temporary files
+     * @since 17.1.0RC1
+     */
+    @PropertyName("Maximum in-flight memory")
+    @PropertyDescription("The maximum amount of memory (in bytes) used to keep serialized entries waiting to be"
+        + " compressed in parallel, the rest being buffered in temporary files")
+    public long getMaxInFlightMemory()
+    {
+        return this.maxInFlightMemory;
+    }
+
+    /**
+     * @param maxInFlightMemory the maximum amount of memory (in bytes) used to keep serialized entries waiting to be
+     *            compressed when {@link #getThreads()} is greater than 0, the rest being buffered in temporary files
+     * @since 17.1.0RC1
+     */
+    public void setMaxInFlightMemory(long maxInFlightMemory)
+    {
+        this.maxInFlightMemory = maxInFlightMemory;
+    }
+
     // package.xml
 
     /**
@@ -47,6 +47,7 @@
 import org.xwiki.doc.tasks.XWikiDocumentIndexingTask;
 import org.xwiki.index.TaskManager;
 import org.xwiki.index.internal.jmx.JMXTasks;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
@@ -96,6 +97,9 @@ public class DefaultTasksManager implements TaskManager, Initializable, Disposab
     @Inject
     private ExecutionContextManager executionContextManager;
 
+    @Inject
+    private WorkerThreadManager workerThreadManager;
+
     @Inject
     private Logger logger;
 
@@ -174,8 +178,7 @@ public void dispose()
      */
     public void startThread()
     {
-        Thread thread = new Thread(this);
-        thread.setName("task-manager-consumer");
+        Thread thread = this.workerThreadManager.newThread("task-manager-consumer", this, false);
         thread.setPriority(NORM_PRIORITY - 1);
         thread.start();
     }
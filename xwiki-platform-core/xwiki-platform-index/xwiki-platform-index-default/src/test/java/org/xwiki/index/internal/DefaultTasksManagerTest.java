@@ -33,6 +33,7 @@
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.Mock;
 import org.xwiki.doc.tasks.XWikiDocumentIndexingTask;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.management.JMXBeanRegistration;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
@@ -54,6 +55,7 @@
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -98,6 +100,9 @@
     @MockComponent
     private TaskExecutor taskExecutor;
 
+    @MockComponent
+    private WorkerThreadManager workerThreadManager;
+
     @Mock
     private TasksStore tasksStore;
 
@@ -109,6 +114,8 @@ void setUp() throws Exception
     {
         when(this.tasksStoreProvider.get()).thenReturn(this.tasksStore);
         when(this.remoteObservationManagerConfiguration.getId()).thenReturn(INSTANCE_ID);
+        when(this.workerThreadManager.newThread(any(), any(), eq(false)))
+            .thenAnswer(invocation -> new Thread((Runnable) invocation.getArgument(1)));
 
         XWikiDocument documentWikiId42 = mock(XWikiDocument.class);
         when(this.tasksStore.getDocument("wikiId", 42)).thenReturn(documentWikiId42);
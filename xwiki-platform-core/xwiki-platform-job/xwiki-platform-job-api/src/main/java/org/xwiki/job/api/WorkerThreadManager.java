@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.job.api;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Create the threads of the background workers (indexers, mail senders, etc.).
+ * <p>
+ * Depending on the configuration ({@code job.workers.virtualThreads} in xwiki.properties) the threads are platform
+ * threads or virtual threads. Virtual threads are a lot cheaper when most of the time of the worker is spent
+ * waiting for I/O (database, Solr, SMTP, etc.) but require a Java version supporting them; platform threads are used
+ * otherwise.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Role
+@Unstable
+public interface WorkerThreadManager
+{
+    /**
+     * @return true if the created threads are virtual threads
+     */
+    boolean isVirtual();
+
+    /**
+     * Create a new (not started) daemon worker thread.
+     *
+     * @param name the name of the thread
+     * @param runnable the code to execute in the thread
+     * @return the new thread
+     */
+    default Thread newThread(String name, Runnable runnable)
+    {
+        return newThread(name, runnable, true);
+    }
+
+    /**
+     * Create a new (not started) worker thread.
+     * <p>
+     * Virtual threads are always daemon threads, so a platform thread is created for a non daemon worker even when
+     * virtual threads are enabled.
+     *
+     * @param name the name of the thread
+     * @param runnable the code to execute in the thread
+     * @param daemon true if the thread should not prevent the JVM from exiting
+     * @return the new thread
+     */
+    Thread newThread(String name, Runnable runnable, boolean daemon);
+}
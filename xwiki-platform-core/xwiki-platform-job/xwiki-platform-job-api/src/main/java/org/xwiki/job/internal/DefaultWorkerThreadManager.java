@@ -0,0 +1,98 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.job.internal;
+
+import java.util.concurrent.ThreadFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.job.api.WorkerThreadManager;
+
+/**
+ * Default implementation of {@link WorkerThreadManager}.
+ * <p>
+ * Virtual threads are created through reflection since the platform is still compiled for a Java version which does
+ * not provide them.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Singleton
+public class DefaultWorkerThreadManager implements WorkerThreadManager, Initializable
+{
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The factory returned by {@code Thread.ofVirtual().factory()}, or null if virtual threads are disabled or not
+     * supported.
+     */
+    private ThreadFactory virtualThreadFactory;
+
+    @Override
+    public void initialize()
+    {
+        if (Boolean.TRUE.equals(this.configuration.getProperty("job.workers.virtualThreads", Boolean.class))) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                this.virtualThreadFactory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+            } catch (Exception e) {
+                this.logger.warn("Virtual threads are not supported by this Java version, platform threads will be"
+                    + " used instead: {}", ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    @Override
+    public boolean isVirtual()
+    {
+        return this.virtualThreadFactory != null;
+    }
+
+    @Override
+    public Thread newThread(String name, Runnable runnable, boolean daemon)
+    {
+        Thread thread;
+
+        if (daemon && this.virtualThreadFactory != null) {
+            thread = this.virtualThreadFactory.newThread(runnable);
+        } else {
+            thread = new Thread(runnable);
+            thread.setDaemon(daemon);
+        }
+
+        thread.setName(name);
+
+        return thread;
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.xwiki.lesscss.internal;
 
+import java.util.Collections;
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -56,4 +59,42 @@ public boolean isGenerateInlineSourceMaps()
     {
         return configurationSource.getProperty(CONFIGURATION_PREFIX + "generateInlineSourceMaps", false);
     }
+
+    /**
+     * @return whether the compiled CSS should also be stored on disk so that it can be reused after a restart or by
+     *         other cluster members sharing the same permanent directory
+     * @since 17.1.0RC1
+     */
+    public boolean isCompiledCSSStoreEnabled()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "store.enabled", true);
+    }
+
+    /**
+     * @return whether the skins should be compiled in the background when XWiki is started
+     * @since 17.1.0RC1
+     */
+    public boolean isWarmupEnabled()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "warmup.enabled", true);
+    }
+
+    /**
+     * @return the skins to compile in the background when XWiki is started, the default skin of the main wiki if empty
+     * @since 17.1.0RC1
+     */
+    public List<String> getWarmupSkins()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "warmup.skins", Collections.emptyList());
+    }
+
+    /**
+     * @return the color themes to compile in the background for each skin when XWiki is started, the default color
+     *         theme of the main wiki if empty
+     * @since 17.1.0RC1
+     */
+    public List<String> getWarmupColorThemes()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "warmup.colorThemes", Collections.emptyList());
+    }
 }
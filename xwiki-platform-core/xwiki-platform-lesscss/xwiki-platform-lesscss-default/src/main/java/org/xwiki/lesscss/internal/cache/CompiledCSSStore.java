@@ -0,0 +1,227 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+
+/**
+ * Store the result of the LESS compilations on disk so that it survives a restart and can be shared between cluster
+ * members using the same permanent directory.
+ * <p>
+ * An entry is identified by a hash of the compiled LESS code, the skin and the compilation options. Since the LESS code
+ * can import other skin files, the hash of each imported file is stored along with the CSS and checked again before
+ * reusing it.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = CompiledCSSStore.class)
+@Singleton
+public class CompiledCSSStore
+{
+    /**
+     * Read the current content of an imported LESS file.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface ImportReader
+    {
+        /**
+         * @param name the name of the imported file
+         * @return the current content of the file
+         * @throws Exception when failing to read the file
+         */
+        String read(String name) throws Exception;
+    }
+
+    private static final String FOLDER = "cache/lesscss";
+
+    private static final String CSS_EXTENSION = ".css";
+
+    private static final String IMPORTS_EXTENSION = ".imports";
+
+    private static final String TMP_EXTENSION = ".tmp";
+
+    /**
+     * Entries which have not been used since that long are removed.
+     */
+    private static final long EXPIRATION = TimeUnit.DAYS.toMillis(30);
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private LESSConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param lessCode the LESS code to compile
+     * @param skin the skin holding the imported files
+     * @param inlineSourceMap whether the CSS contains inline source maps
+     * @return the key of the compilation result or {@code null} if the store is disabled
+     */
+    public String getKey(String lessCode, String skin, boolean inlineSourceMap)
+    {
+        if (!this.configuration.isCompiledCSSStoreEnabled()) {
+            return null;
+        }
+
+        return DigestUtils.sha256Hex(skin + '\n' + inlineSourceMap + '\n' + lessCode);
+    }
+
+    /**
+     * @param key the key of the compilation result, as returned by {@link #getKey(String, String, boolean)}
+     * @param importReader used to check that the imported files did not change since the compilation
+     * @return the stored CSS or {@code null} if there is none or if it's not up to date anymore
+     */
+    public String get(String key, ImportReader importReader)
+    {
+        if (key == null) {
+            return null;
+        }
+
+        File cssFile = getFile(key, CSS_EXTENSION);
+        File importsFile = getFile(key, IMPORTS_EXTENSION);
+        if (!cssFile.exists() || !importsFile.exists()) {
+            return null;
+        }
+
+        try {
+            Properties imports = new Properties();
+            try (InputStream stream = Files.newInputStream(importsFile.toPath())) {
+                imports.load(stream);
+            }
+
+            for (String name : imports.stringPropertyNames()) {
+                if (!imports.getProperty(name).equals(DigestUtils.sha256Hex(importReader.read(name)))) {
+                    this.logger.debug("The imported LESS file [{}] changed since the compilation [{}].", name, key);
+
+                    return null;
+                }
+            }
+
+            String css = FileUtils.readFileToString(cssFile, StandardCharsets.UTF_8);
+
+            // Remember that the entry is still used
+            cssFile.setLastModified(System.currentTimeMillis());
+
+            return css;
+        } catch (Exception e) {
+            this.logger.warn("Failed to read the stored LESS compilation result [{}]: {}", key,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
+    /**
+     * @param key the key of the compilation result, as returned by {@link #getKey(String, String, boolean)}
+     * @param importedContents the content of each file imported during the compilation
+     * @param css the result of the compilation
+     */
+    public void set(String key, Map<String, String> importedContents, String css)
+    {
+        if (key == null) {
+            return;
+        }
+
+        Properties imports = new Properties();
+        importedContents.forEach((name, content) -> imports.setProperty(name, DigestUtils.sha256Hex(content)));
+
+        try {
+            FileUtils.forceMkdir(getFolder());
+
+            // Write in temporary files and move them to not expose partial content to other cluster members. The
+            // imports are written last so that the CSS is only reused once the state it was compiled from is known.
+            Path cssTmpFile = Files.createTempFile(getFolder().toPath(), key, TMP_EXTENSION);
+            Files.writeString(cssTmpFile, css, StandardCharsets.UTF_8);
+            move(cssTmpFile, getFile(key, CSS_EXTENSION));
+
+            Path importsTmpFile = Files.createTempFile(getFolder().toPath(), key, TMP_EXTENSION);
+            try (OutputStream stream = Files.newOutputStream(importsTmpFile)) {
+                imports.store(stream, null);
+            }
+            move(importsTmpFile, getFile(key, IMPORTS_EXTENSION));
+        } catch (IOException e) {
+            this.logger.warn("Failed to store the LESS compilation result [{}]: {}", key,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        removeExpiredEntries();
+    }
+
+    private void move(Path source, File target) throws IOException
+    {
+        try {
+            Files.move(source, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private void removeExpiredEntries()
+    {
+        File[] cssFiles = getFolder().listFiles((dir, name) -> name.endsWith(CSS_EXTENSION));
+        if (cssFiles != null) {
+            long expirationDate = System.currentTimeMillis() - EXPIRATION;
+            for (File cssFile : cssFiles) {
+                if (cssFile.lastModified() < expirationDate) {
+                    String key = cssFile.getName().substring(0, cssFile.getName().length() - CSS_EXTENSION.length());
+                    FileUtils.deleteQuietly(cssFile);
+                    FileUtils.deleteQuietly(getFile(key, IMPORTS_EXTENSION));
+                }
+            }
+        }
+    }
+
+    private File getFolder()
+    {
+        return new File(this.environment.getPermanentDirectory(), FOLDER);
+    }
+
+    private File getFile(String key, String extension)
+    {
+        return new File(getFolder(), key + extension);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.compiler;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.DefaultJobStatus;
+import org.xwiki.job.DefaultRequest;
+import org.xwiki.lesscss.compiler.LESSCompiler;
+import org.xwiki.lesscss.compiler.LESSCompilerException;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.lesscss.resources.LESSResourceReference;
+import org.xwiki.lesscss.resources.LESSResourceReferenceFactory;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.XWikiRequest;
+import com.xpn.xwiki.web.XWikiServletRequestStub;
+
+/**
+ * Compile the main style of the configured skins and color themes in the background so that the first users don't
+ * have to wait for it.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named(LESSWarmupJob.JOBTYPE)
+public class LESSWarmupJob extends AbstractJob<DefaultRequest, DefaultJobStatus<DefaultRequest>>
+{
+    /**
+     * The id of the job.
+     */
+    public static final String JOBTYPE = "lesscss.warmup";
+
+    private static final String COLOR_THEME_PARAMETER = "colorTheme";
+
+    @Inject
+    private LESSCompiler lessCompiler;
+
+    @Inject
+    private LESSResourceReferenceFactory lessResourceReferenceFactory;
+
+    @Inject
+    private LESSConfiguration lessConfiguration;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public String getType()
+    {
+        return JOBTYPE;
+    }
+
+    @Override
+    protected void runInternal() throws Exception
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        List<String> skins = this.lessConfiguration.getWarmupSkins();
+        if (skins.isEmpty()) {
+            skins = Collections.singletonList(xcontext.getWiki().getSkin(xcontext));
+        }
+
+        List<String> colorThemes = this.lessConfiguration.getWarmupColorThemes();
+        if (colorThemes.isEmpty()) {
+            // The color theme comes from the preferences when it's not passed in the request
+            colorThemes = Collections.singletonList(null);
+        }
+
+        LESSResourceReference styleReference =
+            this.lessResourceReferenceFactory.createReferenceForSkinFile(CachedLESSCompiler.MAIN_SKIN_STYLE_FILENAME);
+
+        this.progressManager.pushLevelProgress(skins.size() * colorThemes.size(), this);
+
+        XWikiRequest currentRequest = xcontext.getRequest();
+        try {
+            for (String skin : skins) {
+                for (String colorTheme : colorThemes) {
+                    this.progressManager.startStep(this);
+
+                    compile(styleReference, skin, colorTheme, xcontext);
+
+                    this.progressManager.endStep(this);
+                }
+            }
+        } finally {
+            xcontext.setRequest(currentRequest);
+
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void compile(LESSResourceReference styleReference, String skin, String colorTheme, XWikiContext xcontext)
+    {
+        // The color theme to use is taken from the request
+        XWikiServletRequestStub request = new XWikiServletRequestStub();
+        if (colorTheme != null) {
+            request.put(COLOR_THEME_PARAMETER, colorTheme);
+        }
+        xcontext.setRequest(request);
+
+        try {
+            this.lessCompiler.compile(styleReference, false, true, skin, false);
+        } catch (LESSCompilerException e) {
+            this.logger.warn("Failed to compile the style of skin [{}] with color theme [{}]: {}", skin, colorTheme,
+                e.getMessage());
+        }
+    }
+}
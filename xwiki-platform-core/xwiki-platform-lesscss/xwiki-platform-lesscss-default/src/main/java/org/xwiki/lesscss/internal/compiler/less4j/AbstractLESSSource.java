@@ -19,6 +19,8 @@
  */
 package org.xwiki.lesscss.internal.compiler.less4j;
 
+import java.util.Map;
+
 import org.xwiki.skin.Resource;
 import org.xwiki.skin.Skin;
 import org.xwiki.template.TemplateManager;
@@ -37,6 +39,8 @@ public abstract class AbstractLESSSource extends LessSource
 
     protected Skin skin;
     
+    protected Map<String, String> importedContents;
+
     private String folder;
 
     /**
@@ -46,10 +50,24 @@ public abstract class AbstractLESSSource extends LessSource
      * @param folder the folder in which the template is located
      */
     public AbstractLESSSource(TemplateManager templateManager, Skin skin, String folder)
+    {
+        this(templateManager, skin, folder, null);
+    }
+
+    /**
+     * @param templateManager the template manager component
+     * @param skin the skin holding the templates
+     * @param folder the folder in which the template is located
+     * @param importedContents where to record the content of the imported templates, {@code null} to not record it
+     * @since 17.1.0RC1
+     */
+    public AbstractLESSSource(TemplateManager templateManager, Skin skin, String folder,
+        Map<String, String> importedContents)
     {
         this.templateManager = templateManager;
         this.skin = skin;
         this.folder = folder;
+        this.importedContents = importedContents;
     }
     
     @Override
@@ -58,7 +76,7 @@ public LessSource relativeSource(String filename) throws FileNotFound
         String template = folder + "/" + filename;
         Resource resource = skin.getResource(template);
         if (resource != null) {
-            return new TemplateLESSSource(templateManager, skin, template);
+            return new TemplateLESSSource(templateManager, skin, template, importedContents);
         }
 
         // The file has not been found
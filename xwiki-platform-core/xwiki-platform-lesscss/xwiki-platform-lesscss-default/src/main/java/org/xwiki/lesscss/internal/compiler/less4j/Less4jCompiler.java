@@ -19,10 +19,15 @@
  */
 package org.xwiki.lesscss.internal.compiler.less4j;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.lesscss.internal.cache.CompiledCSSStore;
+import org.xwiki.skin.Skin;
 import org.xwiki.skin.SkinManager;
 import org.xwiki.template.TemplateManager;
 
@@ -47,6 +52,9 @@
     @Inject
     private SkinManager skinManager;
 
+    @Inject
+    private CompiledCSSStore store;
+
     /**
      * Compile the LESS code and get the included files from the skin templates.
      * @param lessCode code to compile
@@ -57,14 +65,28 @@
      */
     public String compile(String lessCode, String skin, boolean inlineSourceMap) throws Less4jException
     {
-        LessCompiler lessCompiler = new DefaultLessCompiler();
-        LessCompiler.Configuration options = new LessCompiler.Configuration();
-        options.setCompressing(true);
-        options.getSourceMapConfiguration().setInline(inlineSourceMap);
-        options.getSourceMapConfiguration().setIncludeSourcesContent(true);
-        LessSource lessSource = 
-            new CustomContentLESSSource(lessCode, templateManager, skinManager.getSkin(skin));
-        LessCompiler.CompilationResult lessResult = lessCompiler.compile(lessSource, options);
-        return lessResult.getCss();
+        Skin skinObject = skinManager.getSkin(skin);
+
+        // Reuse the result of a previous compilation of the same code if the imported files did not change
+        String key = this.store.getKey(lessCode, skin, inlineSourceMap);
+        String css = this.store.get(key,
+            templateName -> new TemplateLESSSource(templateManager, skinObject, templateName).getContent());
+
+        if (css == null) {
+            LessCompiler lessCompiler = new DefaultLessCompiler();
+            LessCompiler.Configuration options = new LessCompiler.Configuration();
+            options.setCompressing(true);
+            options.getSourceMapConfiguration().setInline(inlineSourceMap);
+            options.getSourceMapConfiguration().setIncludeSourcesContent(true);
+            Map<String, String> importedContents = new LinkedHashMap<>();
+            LessSource lessSource =
+                new CustomContentLESSSource(lessCode, templateManager, skinObject, importedContents);
+            LessCompiler.CompilationResult lessResult = lessCompiler.compile(lessSource, options);
+            css = lessResult.getCss();
+
+            this.store.set(key, importedContents, css);
+        }
+
+        return css;
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link CompiledCSSStore}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class CompiledCSSStoreTest
+{
+    @InjectMockComponents
+    private CompiledCSSStore store;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private LESSConfiguration configuration;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        when(this.configuration.isCompiledCSSStoreEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void getKey()
+    {
+        String key = this.store.getKey("@import 'style.less.vm';", "skin", false);
+
+        assertEquals(key, this.store.getKey("@import 'style.less.vm';", "skin", false));
+        assertNotEquals(key, this.store.getKey("@import 'style.less.vm';", "skin", true));
+        assertNotEquals(key, this.store.getKey("@import 'style.less.vm';", "otherskin", false));
+        assertNotEquals(key, this.store.getKey("@import 'other.less';", "skin", false));
+    }
+
+    @Test
+    void setAndGet()
+    {
+        String key = this.store.getKey("@import 'style.less.vm';", "skin", false);
+
+        Map<String, String> imports = new HashMap<>();
+        imports.put("less/style.less.vm", "@color: red;");
+        imports.put("less/variables.less", "@size: 1px;");
+
+        assertNull(this.store.get(key, imports::get));
+
+        this.store.set(key, imports, ".css{}");
+
+        assertEquals(".css{}", this.store.get(key, imports::get));
+
+        // Modify one of the imported files
+        imports.put("less/variables.less", "@size: 2px;");
+
+        assertNull(this.store.get(key, imports::get));
+    }
+
+    @Test
+    void getWhenImportCannotBeRead()
+    {
+        String key = this.store.getKey("@import 'style.less.vm';", "skin", false);
+
+        this.store.set(key, Map.of("less/style.less.vm", "@color: red;"), ".css{}");
+
+        assertNull(this.store.get(key, name -> {
+            throw new Exception("Missing file");
+        }));
+    }
+
+    @Test
+    void disabled()
+    {
+        when(this.configuration.isCompiledCSSStoreEnabled()).thenReturn(false);
+
+        String key = this.store.getKey("@import 'style.less.vm';", "skin", false);
+
+        assertNull(key);
+
+        this.store.set(key, Map.of(), ".css{}");
+
+        assertNull(this.store.get(key, name -> null));
+    }
+}
@@ -19,10 +19,12 @@
  */
 package org.xwiki.livedata;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * The interface used to store and retrieve live data entries.
@@ -68,6 +70,56 @@ default Optional<Object> get(Object entryId, String property) throws LiveDataExc
      */
     LiveData get(LiveDataQuery query) throws LiveDataException;
 
+    /**
+     * Executes a query on the live data and passes the matching entries, one by one, to the given consumer. The entries
+     * are retrieved in batches so that very large results can be processed without keeping them in memory. The limit
+     * of the query is ignored: all the entries starting from the query offset are consumed.
+     * <p>
+     * The default implementation calls {@link #get(LiveDataQuery)} for each batch. Implementations able to walk their
+     * result with a cursor are encouraged to override it.
+     *
+     * @param query the query used to filter and sort the live data entries
+     * @param batchSize the maximum number of entries to retrieve at once
+     * @param consumer the consumer of the entries that match the given query
+     * @throws LiveDataException if the live data query execution or the consumer fails
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    default void forEach(LiveDataQuery query, int batchSize, LiveDataEntryConsumer consumer) throws LiveDataException
+    {
+        Long offset = query.getOffset();
+        Integer limit = query.getLimit();
+
+        try {
+            long currentOffset = offset != null ? offset : 0;
+            query.setLimit(batchSize);
+
+            while (true) {
+                query.setOffset(currentOffset);
+
+                LiveData liveData = get(query);
+                List<Map<String, Object>> entries = liveData.getEntries();
+                if (entries.isEmpty()) {
+                    break;
+                }
+
+                for (Map<String, Object> entry : entries) {
+                    consumer.accept(entry);
+                }
+
+                currentOffset += entries.size();
+
+                // Some sources return less entries than asked (e.g. because of rights) so we rely on the count too
+                if (entries.size() < batchSize && currentOffset >= liveData.getCount()) {
+                    break;
+                }
+            }
+        } finally {
+            query.setOffset(offset);
+            query.setLimit(limit);
+        }
+    }
+
     /**
      * Creates a new entry or updates an existing one.
      * 
@@ -19,7 +19,9 @@
  */
 package org.xwiki.livedata;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -157,6 +159,47 @@ public Optional<Object> save(Map<String, Object> entry)
         assertEquals("oldValue", previousValue.get());
     }
 
+    @Test
+    void forEach() throws Exception
+    {
+        List<Long> offsets = new ArrayList<>();
+        LiveDataEntryStore liveDataEntryStore = new LiveDataEntryStore()
+        {
+            @Override
+            public Optional<Map<String, Object>> get(Object entryId)
+            {
+                return Optional.empty();
+            }
+
+            @Override
+            public LiveData get(LiveDataQuery query)
+            {
+                offsets.add(query.getOffset());
+
+                LiveData liveData = new LiveData();
+                liveData.setCount(5);
+                for (long i = query.getOffset(); i < Math.min(5, query.getOffset() + query.getLimit()); i++) {
+                    liveData.getEntries().add(Map.of("index", i));
+                }
+                return liveData;
+            }
+        };
+
+        LiveDataQuery query = new LiveDataQuery();
+        query.setOffset(1L);
+        query.setLimit(10);
+
+        List<Object> indexes = new ArrayList<>();
+        liveDataEntryStore.forEach(query, 2, entry -> indexes.add(entry.get("index")));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), indexes);
+        assertEquals(List.of(1L, 3L, 5L), offsets);
+
+        // The query is left untouched
+        assertEquals(Long.valueOf(1), query.getOffset());
+        assertEquals(Integer.valueOf(10), query.getLimit());
+    }
+
     private LiveDataEntryStore initLiveDataEntryStore(Optional<Map<String, Object>> entry)
     {
         return new LiveDataEntryStore()
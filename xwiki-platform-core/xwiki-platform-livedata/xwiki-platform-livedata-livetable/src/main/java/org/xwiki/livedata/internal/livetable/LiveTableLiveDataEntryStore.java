@@ -36,6 +36,7 @@
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.livedata.LiveData;
 import org.xwiki.livedata.LiveDataConfiguration;
+import org.xwiki.livedata.LiveDataEntryConsumer;
 import org.xwiki.livedata.LiveDataEntryStore;
 import org.xwiki.livedata.LiveDataException;
 import org.xwiki.livedata.LiveDataQuery;
@@ -72,6 +73,15 @@ public class LiveTableLiveDataEntryStore extends WithParameters implements LiveD
 
     private static final String DOC_PREFIX = "doc.";
 
+    private static final String TOTAL_ROWS = "totalrows";
+
+    private static final String ROWS = "rows";
+
+    /**
+     * Ask the live table results to not count all the matching rows.
+     */
+    private static final String COUNT_PARAMETER = "count";
+
     private static final String UNDEFINED_CLASS_ERROR_MESSAGE =
         "Can't update object properties if the object type (class name) is undefined.";
 
@@ -99,23 +109,87 @@ public Optional<Map<String, Object>> get(Object entryId)
     public LiveData get(LiveDataQuery query) throws LiveDataException
     {
         try {
-            // We need to allow backslash escaping because some live table sources are generating the JSON by hand
-            // instead of serializing a map.
-            ObjectMapper objectMapper =
-                JsonMapper.builder().enable(JsonReadFeature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER).build();
+            ObjectMapper objectMapper = createObjectMapper();
             JsonNode liveTableResults = getLiveTableResultsJSON(query, objectMapper);
             LiveData liveData = new LiveData();
-            liveData.setCount(liveTableResults.path("totalrows").asLong());
-            JsonNode rows = liveTableResults.path("rows");
-            if (rows.isArray()) {
-                liveData.getEntries().addAll(convertLiveTableRowsToLiveDataEntries((ArrayNode) rows, objectMapper));
-            }
+            liveData.setCount(liveTableResults.path(TOTAL_ROWS).asLong());
+            liveData.getEntries().addAll(getEntries(liveTableResults, objectMapper));
             return liveData;
         } catch (Exception e) {
             throw new LiveDataException("Failed to execute the live data query.", e);
         }
     }
 
+    @Override
+    public void forEach(LiveDataQuery query, int batchSize, LiveDataEntryConsumer consumer) throws LiveDataException
+    {
+        Long offset = query.getOffset();
+        Integer limit = query.getLimit();
+        Source originalSource = query.getSource();
+
+        // The live table results count all the matching rows for each batch, which is useless when walking through all
+        // of them, so ask them to only tell if there might be more rows.
+        Source source = new Source(ROLE_HINT);
+        if (originalSource != null) {
+            source.getParameters().putAll(originalSource.getParameters());
+        }
+        source.getParameters().put(COUNT_PARAMETER, Boolean.FALSE.toString());
+
+        try {
+            ObjectMapper objectMapper = createObjectMapper();
+            long currentOffset = offset != null ? offset : 0;
+            query.setSource(source);
+            query.setLimit(batchSize);
+
+            while (true) {
+                query.setOffset(currentOffset);
+
+                JsonNode liveTableResults = getLiveTableResultsJSON(query, objectMapper);
+                List<Map<String, Object>> entries = getEntries(liveTableResults, objectMapper);
+                if (entries.isEmpty()) {
+                    break;
+                }
+
+                for (Map<String, Object> entry : entries) {
+                    consumer.accept(entry);
+                }
+
+                currentOffset += entries.size();
+
+                // Custom live table results pages ignore the count parameter and might filter some rows
+                if (entries.size() < batchSize && currentOffset >= liveTableResults.path(TOTAL_ROWS).asLong()) {
+                    break;
+                }
+            }
+        } catch (LiveDataException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LiveDataException("Failed to execute the live data query.", e);
+        } finally {
+            query.setSource(originalSource);
+            query.setOffset(offset);
+            query.setLimit(limit);
+        }
+    }
+
+    private ObjectMapper createObjectMapper()
+    {
+        // We need to allow backslash escaping because some live table sources are generating the JSON by hand
+        // instead of serializing a map.
+        return JsonMapper.builder().enable(JsonReadFeature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER).build();
+    }
+
+    private List<Map<String, Object>> getEntries(JsonNode liveTableResults, ObjectMapper objectMapper)
+        throws Exception
+    {
+        JsonNode rows = liveTableResults.path(ROWS);
+        if (rows.isArray()) {
+            return convertLiveTableRowsToLiveDataEntries((ArrayNode) rows, objectMapper);
+        }
+
+        return List.of();
+    }
+
     private JsonNode getLiveTableResultsJSON(LiveDataQuery query, ObjectMapper objectMapper) throws Exception
     {
         // Merge the parameters of this live data source with the parameters from the given query.
@@ -19,8 +19,10 @@
  */
 package org.xwiki.livedata.internal.livetable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -50,10 +52,12 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -140,6 +144,43 @@ void getFromTemplate() throws Exception
         assertEquals(expectedLiveData, this.entryStore.get(new LiveDataQuery()));
     }
 
+    @Test
+    void forEachWithoutCounting() throws Exception
+    {
+        this.entryStore.getParameters().put("template", "getdocuments");
+
+        when(this.resultsRenderer.getLiveTableResultsFromTemplate(eq("getdocuments"), any())).then(invocation -> {
+            LiveDataQuery batchQuery = invocation.getArgument(1);
+
+            // The rows are not counted, the live table results only tell if there might be more rows
+            assertEquals("false", batchQuery.getSource().getParameters().get("count"));
+            assertEquals(2, batchQuery.getLimit());
+
+            Map<String, Object> liveTableResults = new HashMap<>();
+            if (batchQuery.getOffset() == 0) {
+                liveTableResults.put("totalrows", 3);
+                liveTableResults.put("rows", asList(Map.of("doc_fullName", "A"), Map.of("doc_fullName", "B")));
+            } else {
+                liveTableResults.put("totalrows", 3);
+                liveTableResults.put("rows", asList(Map.of("doc_fullName", "C")));
+            }
+
+            return this.objectMapper.writeValueAsString(liveTableResults);
+        });
+
+        LiveDataQuery query = new LiveDataQuery();
+        List<Object> names = new ArrayList<>();
+        this.entryStore.forEach(query, 2, entry -> names.add(entry.get("doc.fullName")));
+
+        assertEquals(asList("A", "B", "C"), names);
+        verify(this.resultsRenderer, times(2)).getLiveTableResultsFromTemplate(eq("getdocuments"), any());
+
+        // The query is restored
+        assertNull(query.getSource());
+        assertNull(query.getOffset());
+        assertNull(query.getLimit());
+    }
+
     @Test
     void getFromResultPage() throws Exception
     {
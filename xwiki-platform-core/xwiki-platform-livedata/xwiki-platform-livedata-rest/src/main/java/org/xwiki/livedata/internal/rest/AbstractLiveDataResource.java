@@ -26,6 +26,8 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.ws.rs.core.UriBuilder;
@@ -36,6 +38,9 @@
 import org.xwiki.livedata.LiveDataException;
 import org.xwiki.livedata.LiveDataPropertyDescriptor;
 import org.xwiki.livedata.LiveDataQuery;
+import org.xwiki.livedata.LiveDataQuery.Constraint;
+import org.xwiki.livedata.LiveDataQuery.Filter;
+import org.xwiki.livedata.LiveDataQuery.SortEntry;
 import org.xwiki.livedata.LiveDataSourceManager;
 import org.xwiki.livedata.rest.LiveDataEntriesResource;
 import org.xwiki.livedata.rest.LiveDataEntryResource;
@@ -64,6 +69,8 @@ public abstract class AbstractLiveDataResource extends XWikiResource
 {
     private static final String SOURCE_PARAMS_PREFIX = "sourceParams.";
 
+    private static final String FILTERS_PREFIX = "filters.";
+
     @Inject
     protected LiveDataSourceManager liveDataSourceManager;
 
@@ -78,6 +85,83 @@ protected LiveDataConfiguration getLiveDataConfig(String sourceId) throws LiveDa
         return this.defaultLiveDataConfigResolver.resolve(config);
     }
 
+    /**
+     * Resolve the live data configuration corresponding to the given query parameters.
+     *
+     * @since 17.1.0RC1
+     */
+    protected LiveDataConfiguration initConfig(String sourceId, List<String> properties, List<String> matchAll,
+        List<String> sort, List<Boolean> descending, long offset, int limit) throws LiveDataException
+    {
+        // Workaround for https://github.com/restlet/restlet-framework-java/issues/922 (JaxRs multivalue
+        // query-params gives list with null element).
+        List<String> actualProperties = properties.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<String> actualMatchAll = matchAll.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<String> actualSort = sort.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<Boolean> actualDescending = descending.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        return getConfig(sourceId, actualProperties, actualMatchAll, actualSort, actualDescending, offset, limit);
+    }
+
+    private LiveDataConfiguration getConfig(String sourceId, List<String> properties, List<String> matchAll,
+        List<String> sort, List<Boolean> descending, long offset, int limit) throws LiveDataException
+    {
+        LiveDataQuery query = new LiveDataQuery();
+        query.setSource(getLiveDataQuerySource(sourceId));
+        query.setProperties(properties.stream().filter(StringUtils::isNotEmpty).collect(Collectors.toList()));
+        query.setFilters(getFilters(matchAll));
+        query.setSort(getSort(sort, descending));
+        query.setOffset(offset);
+        query.setLimit(limit);
+
+        LiveDataConfiguration config = new LiveDataConfiguration();
+        config.setQuery(query);
+        return this.defaultLiveDataConfigResolver.resolve(config);
+    }
+
+    private List<SortEntry> getSort(List<String> sortList, List<Boolean> descendingList)
+    {
+        List<SortEntry> sortEntries = new ArrayList<>();
+        for (int i = 0; i < sortList.size(); i++) {
+            String property = sortList.get(i);
+            boolean descending = i < descendingList.size() ? descendingList.get(i) : false;
+            sortEntries.add(new SortEntry(property, descending));
+        }
+        return sortEntries;
+    }
+
+    private List<Filter> getFilters(List<String> matchAll)
+    {
+        List<Filter> filters = new ArrayList<>();
+        this.uriInfo.getQueryParameters().forEach((key, values) -> {
+            if (key.startsWith(FILTERS_PREFIX)) {
+                String property = key.substring(FILTERS_PREFIX.length());
+                Filter filter = getFilter(property, matchAll.contains(property), values);
+                if (!filter.getConstraints().isEmpty()) {
+                    filters.add(filter);
+                }
+            }
+        });
+        return filters;
+    }
+
+    private Filter getFilter(String property, boolean matchAll, List<String> constraints)
+    {
+        Filter filter = new Filter();
+        filter.setProperty(property);
+        filter.setMatchAll(matchAll);
+        String operatorSeparator = ":";
+        for (String constraint : constraints) {
+            // All constraint should have an operator.
+            if (constraint.contains(operatorSeparator)) {
+                String[] parts = constraint.split(operatorSeparator, 2);
+                String value = parts[1];
+                String operator = StringUtils.isBlank(parts[0]) ? null : parts[0];
+                filter.getConstraints().add(new Constraint(value, operator));
+            }
+        }
+        return filter;
+    }
+
     protected LiveDataQuery.Source getLiveDataQuerySource(String sourceId)
     {
         LiveDataQuery.Source source = new LiveDataQuery.Source(sourceId);
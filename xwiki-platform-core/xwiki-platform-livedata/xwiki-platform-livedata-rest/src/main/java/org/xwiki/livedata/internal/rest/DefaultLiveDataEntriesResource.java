@@ -20,10 +20,8 @@
 package org.xwiki.livedata.internal.rest;
 
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -32,16 +30,12 @@
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
-import org.apache.commons.lang3.StringUtils;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.livedata.LiveData;
 import org.xwiki.livedata.LiveDataConfiguration;
 import org.xwiki.livedata.LiveDataEntryStore;
 import org.xwiki.livedata.LiveDataException;
 import org.xwiki.livedata.LiveDataQuery;
-import org.xwiki.livedata.LiveDataQuery.Constraint;
-import org.xwiki.livedata.LiveDataQuery.Filter;
-import org.xwiki.livedata.LiveDataQuery.SortEntry;
 import org.xwiki.livedata.LiveDataSource;
 import org.xwiki.livedata.rest.LiveDataEntriesResource;
 import org.xwiki.livedata.rest.LiveDataEntryResource;
@@ -62,8 +56,6 @@
 @Named("org.xwiki.livedata.internal.rest.DefaultLiveDataEntriesResource")
 public class DefaultLiveDataEntriesResource extends AbstractLiveDataResource implements LiveDataEntriesResource
 {
-    private static final String FILTERS_PREFIX = "filters.";
-
     @Inject
     private LiveDataResourceContextInitializer contextInitializer;
 
@@ -103,66 +95,6 @@ public Response addEntry(String sourceId, String namespace, Entry entry) throws
         }
     }
 
-    private LiveDataConfiguration getConfig(String sourceId, List<String> properties, List<String> matchAll,
-        List<String> sort, List<Boolean> descending, long offset, int limit) throws LiveDataException
-    {
-        LiveDataQuery query = new LiveDataQuery();
-        query.setSource(getLiveDataQuerySource(sourceId));
-        query.setProperties(properties.stream().filter(StringUtils::isNotEmpty).collect(Collectors.toList()));
-        query.setFilters(getFilters(matchAll));
-        query.setSort(getSort(sort, descending));
-        query.setOffset(offset);
-        query.setLimit(limit);
-
-        LiveDataConfiguration config = new LiveDataConfiguration();
-        config.setQuery(query);
-        return this.defaultLiveDataConfigResolver.resolve(config);
-    }
-
-    private List<SortEntry> getSort(List<String> sortList, List<Boolean> descendingList)
-    {
-        List<SortEntry> sortEntries = new ArrayList<>();
-        for (int i = 0; i < sortList.size(); i++) {
-            String property = sortList.get(i);
-            boolean descending = i < descendingList.size() ? descendingList.get(i) : false;
-            sortEntries.add(new SortEntry(property, descending));
-        }
-        return sortEntries;
-    }
-
-    private List<Filter> getFilters(List<String> matchAll)
-    {
-        List<Filter> filters = new ArrayList<>();
-        this.uriInfo.getQueryParameters().forEach((key, values) -> {
-            if (key.startsWith(FILTERS_PREFIX)) {
-                String property = key.substring(FILTERS_PREFIX.length());
-                Filter filter = getFilter(property, matchAll.contains(property), values);
-                if (!filter.getConstraints().isEmpty()) {
-                    filters.add(filter);
-                }
-            }
-        });
-        return filters;
-    }
-
-    private Filter getFilter(String property, boolean matchAll, List<String> constraints)
-    {
-        Filter filter = new Filter();
-        filter.setProperty(property);
-        filter.setMatchAll(matchAll);
-        String operatorSeparator = ":";
-        for (String constraint : constraints) {
-            // All constraint should have an operator.
-            if (constraint.contains(operatorSeparator)) {
-                String[] parts = constraint.split(operatorSeparator, 2);
-                String value = parts[1];
-                String operator = StringUtils.isBlank(parts[0]) ? null : parts[0];
-                filter.getConstraints().add(new Constraint(value, operator));
-            }
-        }
-        return filter;
-    }
-
     private Entries createEntries(LiveData liveData, String idProperty, LiveDataQuery.Source source, String namespace)
     {
         Link self = new Link().withRel(Relations.SELF).withHref(this.uriInfo.getAbsolutePath().toString());
@@ -176,18 +108,6 @@ private Entries createEntries(LiveData liveData, String idProperty, LiveDataQuer
         return (Entries) new Entries().withEntries(entries).withCount(liveData.getCount()).withLinks(self, parent);
     }
 
-    private LiveDataConfiguration initConfig(String sourceId, List<String> properties, List<String> matchAll,
-        List<String> sort, List<Boolean> descending, long offset, int limit) throws LiveDataException
-    {
-        // Workaround for https://github.com/restlet/restlet-framework-java/issues/922 (JaxRs multivalue
-        // query-params gives list with null element).
-        List<String> actualProperties = properties.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        List<String> actualMatchAll = matchAll.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        List<String> actualSort = sort.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        List<Boolean> actualDescending = descending.stream().filter(Objects::nonNull).collect(Collectors.toList());
-        return getConfig(sourceId, actualProperties, actualMatchAll, actualSort, actualDescending, offset, limit);
-    }
-
     private Entries getEntries(String namespace, long offset, int limit, LiveDataConfiguration config)
         throws LiveDataException
     {
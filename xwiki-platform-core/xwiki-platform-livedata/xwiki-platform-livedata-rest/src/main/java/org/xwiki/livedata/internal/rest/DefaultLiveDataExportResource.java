@@ -0,0 +1,85 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.internal.rest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.livedata.LiveDataConfiguration;
+import org.xwiki.livedata.LiveDataException;
+import org.xwiki.livedata.LiveDataPropertyDescriptor;
+import org.xwiki.livedata.LiveDataSource;
+import org.xwiki.livedata.rest.LiveDataExportResource;
+import org.xwiki.rest.internal.export.ExportFormat;
+import org.xwiki.rest.internal.export.StreamingExporter;
+
+/**
+ * Default implementation of {@link LiveDataExportResource}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named("org.xwiki.livedata.internal.rest.DefaultLiveDataExportResource")
+public class DefaultLiveDataExportResource extends AbstractLiveDataResource implements LiveDataExportResource
+{
+    @Inject
+    private LiveDataResourceContextInitializer contextInitializer;
+
+    @Inject
+    private StreamingExporter exporter;
+
+    @Override
+    public Response export(String sourceId, String namespace, List<String> properties, List<String> matchAll,
+        List<String> sort, List<Boolean> descending, long offset, String format) throws Exception
+    {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+
+        this.contextInitializer.initialize(namespace);
+
+        LiveDataConfiguration config = initConfig(sourceId, properties, matchAll, sort, descending, offset, -1);
+        Optional<LiveDataSource> source = this.liveDataSourceManager.get(config.getQuery().getSource(), namespace);
+        if (source.isEmpty()) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+
+        List<String> columns = config.getQuery().getProperties();
+        if (columns.isEmpty()) {
+            columns = config.getMeta().getPropertyDescriptors().stream().map(LiveDataPropertyDescriptor::getId)
+                .toList();
+        }
+
+        return this.exporter.export(exportFormat, sourceId, columns,
+            writer -> source.get().getEntries().forEach(config.getQuery(), this.exporter.getBatchSize(), entry -> {
+                try {
+                    writer.write(entry);
+                } catch (IOException e) {
+                    throw new LiveDataException("Failed to write the live data entry", e);
+                }
+            }));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livedata.rest;
+
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.livedata.LiveDataSource;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Exports all the entries of an existing {@link LiveDataSource} matching a query.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Path("/liveData/sources/{sourceId}/export")
+@Unstable
+public interface LiveDataExportResource
+{
+    /**
+     * Streams all the live data entries matching the query, as CSV or NDJSON. The query parameters are the same as
+     * the ones of {@link LiveDataEntriesResource#getEntries} except that there's no limit: the entries are retrieved by
+     * batches and written to the response as soon as they are available.
+     *
+     * @param sourceId indicates the {@link LiveDataSource} component implementation
+     * @param namespace the component manager name-space where to look for {@link LiveDataSource} implementations; if
+     *            not specified then the context / current name-space is used
+     * @param properties the list of properties to export; if not specified then all the properties of the source are
+     *            exported
+     * @param matchAll the list of properties for which to match all filter constraints
+     * @param sort the list of properties to sort on
+     * @param descending indicates the sort direction for the properties specified by the {@code sort} parameter
+     * @param offset the index of the first entry to export
+     * @param format {@code csv} or {@code ndjson}
+     * @return the response streaming the live data entries that match the query
+     * @throws Exception if preparing the export fails
+     */
+    @GET
+    Response export(
+        @PathParam("sourceId") String sourceId,
+        @QueryParam("namespace") @DefaultValue("") String namespace,
+        @QueryParam("properties") List<String> properties,
+        @QueryParam("matchAll") List<String> matchAll,
+        @QueryParam("sort") List<String> sort,
+        @QueryParam("descending") List<Boolean> descending,
+        @QueryParam("offset") @DefaultValue("0") long offset,
+        @QueryParam("format") @DefaultValue("csv") String format
+    ) throws Exception;
+}
@@ -19,6 +19,7 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.Collection;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -39,6 +40,7 @@
 import org.xwiki.localization.TranslationBundleDoesNotExistsException;
 import org.xwiki.localization.TranslationBundleFactory;
 import org.xwiki.localization.TranslationBundleFactoryDoesNotExistsException;
+import org.xwiki.localization.internal.TranslationIndex.LocaleIndex;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.renderer.BlockRenderer;
 import org.xwiki.rendering.renderer.printer.DefaultWikiPrinter;
@@ -68,6 +70,12 @@ public class DefaultLocalizationManager implements LocalizationManager
     @Inject
     private TranslationBundleContext bundleContext;
 
+    /**
+     * Used to avoid searching all the bundles and rendering the translations again and again.
+     */
+    @Inject
+    private TranslationIndex index;
+
     /**
      * The logger to log.
      */
@@ -77,7 +85,15 @@ public class DefaultLocalizationManager implements LocalizationManager
     @Override
     public Translation getTranslation(String key, Locale locale)
     {
-        for (TranslationBundle bundle : this.bundleContext.getBundles()) {
+        Collection<TranslationBundle> bundles = this.bundleContext.getBundles();
+
+        return this.index.getLocaleIndex(bundles, locale).getTranslation(key,
+            k -> searchTranslation(bundles, k, locale));
+    }
+
+    private Translation searchTranslation(Collection<TranslationBundle> bundles, String key, Locale locale)
+    {
+        for (TranslationBundle bundle : bundles) {
             try {
                 Translation translation = bundle.getTranslation(key, locale);
                 if (translation != null && translation.getLocale().equals(locale)) {
@@ -91,7 +107,7 @@ public Translation getTranslation(String key, Locale locale)
         // Try parent locale
         Locale parentLocale = LocaleUtils.getParentLocale(locale);
         if (parentLocale != null) {
-            return getTranslation(key, parentLocale);
+            return searchTranslation(bundles, key, parentLocale);
         }
 
         return null;
@@ -116,7 +132,19 @@ public String getTranslation(String key, Locale locale, Syntax targetSyntax, Obj
     {
         String result;
 
-        Translation translation = getTranslation(key, locale);
+        Collection<TranslationBundle> bundles = this.bundleContext.getBundles();
+        LocaleIndex localeIndex = this.index.getLocaleIndex(bundles, locale);
+
+        // The rendering of a translation without parameters is always the same
+        boolean memoize = parameters == null || parameters.length == 0;
+        if (memoize) {
+            result = localeIndex.getRendering(key, targetSyntax);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        Translation translation = localeIndex.getTranslation(key, k -> searchTranslation(bundles, k, locale));
         if (translation == null) {
             result = null;
         } else {
@@ -125,6 +153,10 @@ public String getTranslation(String key, Locale locale, Syntax targetSyntax, Obj
             BlockRenderer renderer = getSyntaxRenderer(targetSyntax);
             renderer.render(block, wikiPrinter);
             result = wikiPrinter.toString();
+
+            if (memoize) {
+                localeIndex.setRendering(key, targetSyntax, result);
+            }
         }
 
         return result;
@@ -0,0 +1,217 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.syntax.Syntax;
+
+/**
+ * Remember, for each combination of current wiki and current bundles, the translation found for each key and the
+ * rendering of the translations which don't have parameters.
+ * <p>
+ * The current bundles depend on the current wiki and the current user (user scoped translations are registered in the
+ * user component manager). The index has to be invalidated each time the content of a bundle changes.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = TranslationIndex.class)
+@Singleton
+public class TranslationIndex
+{
+    /**
+     * The maximum number of combinations of bundles to remember.
+     */
+    private static final int MAX_INDEXES = 100;
+
+    /**
+     * The maximum number of keys to remember for each locale, to protect the memory from lookups of random keys.
+     */
+    private static final int MAX_KEYS = 50000;
+
+    private static final Object MISSING = new Object();
+
+    @Inject
+    private ModelContext modelContext;
+
+    private final Map<IndexKey, Map<Locale, LocaleIndex>> indexes =
+        Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IndexKey, Map<Locale, LocaleIndex>> eldest)
+            {
+                return size() > MAX_INDEXES;
+            }
+        });
+
+    private static final class IndexKey
+    {
+        private final String wiki;
+
+        private final List<TranslationBundle> bundles;
+
+        private final int hashCode;
+
+        IndexKey(String wiki, List<TranslationBundle> bundles)
+        {
+            this.wiki = wiki;
+            this.bundles = bundles;
+            this.hashCode = Objects.hash(wiki, bundles);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj instanceof IndexKey) {
+                IndexKey other = (IndexKey) obj;
+
+                return this.hashCode == other.hashCode && this.wiki.equals(other.wiki)
+                    && this.bundles.equals(other.bundles);
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * The translations of a given locale for a given combination of bundles.
+     *
+     * @version $Id$
+     */
+    public static final class LocaleIndex
+    {
+        private final Map<String, Object> translations = new ConcurrentHashMap<>();
+
+        private final Map<String, String> renderings = new ConcurrentHashMap<>();
+
+        /**
+         * @param key the translation key
+         * @param loader the function used to search the translation when it's not indexed yet
+         * @return the translation or null if none could be found
+         */
+        public Translation getTranslation(String key, Function<String, Translation> loader)
+        {
+            Object translation = this.translations.get(key);
+
+            if (translation == null) {
+                translation = loader.apply(key);
+                if (translation == null) {
+                    translation = MISSING;
+                }
+
+                if (this.translations.size() < MAX_KEYS) {
+                    this.translations.put(key, translation);
+                }
+            }
+
+            return translation != MISSING ? (Translation) translation : null;
+        }
+
+        /**
+         * @param key the translation key
+         * @param syntax the target syntax
+         * @return the remembered rendering of the translation without parameters, or null if there isn't any
+         */
+        public String getRendering(String key, Syntax syntax)
+        {
+            return this.renderings.get(getRenderingKey(key, syntax));
+        }
+
+        /**
+         * @param key the translation key
+         * @param syntax the target syntax
+         * @param rendering the rendering of the translation without parameters
+         */
+        public void setRendering(String key, Syntax syntax, String rendering)
+        {
+            if (this.renderings.size() < MAX_KEYS) {
+                this.renderings.put(getRenderingKey(key, syntax), rendering);
+            }
+        }
+
+        private String getRenderingKey(String key, Syntax syntax)
+        {
+            return syntax.toIdString() + '/' + key;
+        }
+    }
+
+    /**
+     * @param bundles the current bundles
+     * @param locale the locale of the translations
+     * @return the index of the translations of the passed locale and bundles
+     */
+    public LocaleIndex getLocaleIndex(Collection<TranslationBundle> bundles, Locale locale)
+    {
+        IndexKey key = new IndexKey(getCurrentWiki(), new ArrayList<>(bundles));
+
+        return this.indexes.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).computeIfAbsent(locale,
+            l -> new LocaleIndex());
+    }
+
+    /**
+     * Forget all the indexed translations, usually because the content of a bundle changed.
+     */
+    public void invalidate()
+    {
+        this.indexes.clear();
+    }
+
+    private String getCurrentWiki()
+    {
+        EntityReference currentReference = this.modelContext.getCurrentEntityReference();
+        if (currentReference != null) {
+            EntityReference wikiReference = currentReference.extractReference(EntityType.WIKI);
+            if (wikiReference != null) {
+                return wikiReference.getName();
+            }
+        }
+
+        return "";
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+import org.xwiki.localization.internal.TranslationIndex.LocaleIndex;
+import org.xwiki.model.ModelContext;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link TranslationIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class TranslationIndexTest
+{
+    @InjectMockComponents
+    private TranslationIndex index;
+
+    @MockComponent
+    private ModelContext modelContext;
+
+    private final TranslationBundle bundle1 = mock(TranslationBundle.class);
+
+    private final TranslationBundle bundle2 = mock(TranslationBundle.class);
+
+    @Test
+    void getLocaleIndex()
+    {
+        when(this.modelContext.getCurrentEntityReference()).thenReturn(new WikiReference("wiki1"));
+
+        LocaleIndex localeIndex = this.index.getLocaleIndex(List.of(this.bundle1, this.bundle2), Locale.ENGLISH);
+
+        assertSame(localeIndex, this.index.getLocaleIndex(List.of(this.bundle1, this.bundle2), Locale.ENGLISH));
+        assertNotSame(localeIndex, this.index.getLocaleIndex(List.of(this.bundle1, this.bundle2), Locale.FRENCH));
+        assertNotSame(localeIndex, this.index.getLocaleIndex(List.of(this.bundle1), Locale.ENGLISH));
+
+        when(this.modelContext.getCurrentEntityReference()).thenReturn(new WikiReference("wiki2"));
+
+        assertNotSame(localeIndex, this.index.getLocaleIndex(List.of(this.bundle1, this.bundle2), Locale.ENGLISH));
+    }
+
+    @Test
+    void getTranslation()
+    {
+        Translation translation = mock(Translation.class);
+        LocaleIndex localeIndex = this.index.getLocaleIndex(List.of(this.bundle1), Locale.ENGLISH);
+
+        assertSame(translation, localeIndex.getTranslation("key", key -> translation));
+        assertSame(translation, localeIndex.getTranslation("key", key -> fail("Translation should be indexed")));
+
+        assertNull(localeIndex.getTranslation("missing", key -> null));
+        assertNull(localeIndex.getTranslation("missing", key -> fail("Missing translation should be indexed")));
+    }
+
+    @Test
+    void getRendering()
+    {
+        LocaleIndex localeIndex = this.index.getLocaleIndex(List.of(this.bundle1), Locale.ENGLISH);
+
+        assertNull(localeIndex.getRendering("key", Syntax.PLAIN_1_0));
+
+        localeIndex.setRendering("key", Syntax.PLAIN_1_0, "rendering");
+
+        assertEquals("rendering", localeIndex.getRendering("key", Syntax.PLAIN_1_0));
+        assertNull(localeIndex.getRendering("key", Syntax.XHTML_1_0));
+    }
+
+    @Test
+    void invalidate()
+    {
+        Translation translation = mock(Translation.class);
+        LocaleIndex localeIndex = this.index.getLocaleIndex(List.of(this.bundle1), Locale.ENGLISH);
+        localeIndex.getTranslation("key", key -> translation);
+
+        this.index.invalidate();
+
+        LocaleIndex newLocaleIndex = this.index.getLocaleIndex(List.of(this.bundle1), Locale.ENGLISH);
+        assertNotSame(localeIndex, newLocaleIndex);
+        assertNull(newLocaleIndex.getTranslation("key", key -> null));
+    }
+}
@@ -31,6 +31,7 @@
 import org.xwiki.localization.Translation;
 import org.xwiki.localization.internal.DefaultLocalizationManager;
 import org.xwiki.localization.internal.DefaultTranslationBundleContext;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.localization.messagetool.internal.MessageToolTranslationMessageParser;
 import org.xwiki.model.internal.DefaultModelContext;
 import org.xwiki.rendering.internal.parser.plain.PlainTextBlockParser;
@@ -47,7 +48,7 @@
 
 @ComponentList({MessageToolTranslationMessageParser.class, PlainTextBlockParser.class,
     ContextComponentManagerProvider.class, DefaultLocalizationManager.class, DefaultTranslationBundleContext.class,
-    DefaultExecution.class, DefaultModelContext.class, RootClassLoaderTranslationBundle.class})
+    DefaultExecution.class, DefaultModelContext.class, RootClassLoaderTranslationBundle.class, TranslationIndex.class})
 @ComponentTest
 public class RootClassLoaderTranslationBundleTest
 {
@@ -36,6 +36,7 @@
 import org.xwiki.localization.Translation;
 import org.xwiki.localization.TranslationBundle;
 import org.xwiki.localization.internal.AbstractTranslationBundle;
+import org.xwiki.localization.wiki.internal.AbstractDocumentTranslationBundle;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
@@ -67,6 +68,8 @@ public class XWikiPreferencesWikiTranslationBundle extends AbstractTranslationBu
      */
     private static final String JOIN_SEPARATOR = ",";
 
+    private ComponentManager componentManager;
+
     private ObservationManager observation;
 
     private DocumentAccessBridge documentAccessBridge;
@@ -89,6 +92,7 @@ public XWikiPreferencesWikiTranslationBundle(String wiki, XWikiPreferencesTransl
         this.wiki = wiki;
         this.parent = parent;
 
+        this.componentManager = componentManager;
         this.observation = componentManager.getInstance(ObservationManager.class);
         this.documentAccessBridge = componentManager.getInstance(DocumentAccessBridge.class);
         this.resolver = componentManager.getInstance(DocumentReferenceResolver.TYPE_STRING);
@@ -161,6 +165,8 @@ public List<Event> getEvents()
     public void onEvent(Event arg0, Object arg1, Object arg2)
     {
         intializeBundles();
+
+        AbstractDocumentTranslationBundle.invalidateIndex(this.componentManager);
     }
 
     // Bundle
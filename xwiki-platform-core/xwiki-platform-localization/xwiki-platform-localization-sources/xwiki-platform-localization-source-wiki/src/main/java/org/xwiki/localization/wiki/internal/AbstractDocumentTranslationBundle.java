@@ -44,6 +44,7 @@
 import org.xwiki.localization.internal.DefaultLocalizedTranslationBundle;
 import org.xwiki.localization.internal.DefaultTranslation;
 import org.xwiki.localization.internal.LocalizedTranslationBundle;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.localization.message.TranslationMessage;
 import org.xwiki.localization.message.TranslationMessageParser;
 import org.xwiki.model.reference.DocumentReference;
@@ -257,6 +258,27 @@ public void onEvent(Event event, Object source, Object data)
                 this.bundleCache.remove(document.getDefaultLocale());
             }
         }
+
+        // Make sure the translations of this bundle are not remembered by the index
+        invalidateIndex(this.componentManager);
+    }
+
+    /**
+     * Invalidate the translation index, if it exists.
+     *
+     * @param componentManager the component manager to use to access the index
+     * @since 17.1.0RC1
+     */
+    public static void invalidateIndex(ComponentManager componentManager)
+    {
+        if (componentManager.hasComponent(TranslationIndex.class)) {
+            try {
+                componentManager.<TranslationIndex>getInstance(TranslationIndex.class).invalidate();
+            } catch (ComponentLookupException e) {
+                LoggerFactory.getLogger(AbstractDocumentTranslationBundle.class)
+                    .error("Failed to lookup the translation index", e);
+            }
+        }
     }
 
     @Override
@@ -38,6 +38,7 @@
 import org.xwiki.localization.TranslationBundleFactory;
 import org.xwiki.localization.internal.DefaultLocalizationManager;
 import org.xwiki.localization.internal.DefaultTranslationBundleContext;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.localization.messagetool.internal.MessageToolTranslationMessageParser;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.internal.DefaultModelContext;
@@ -83,6 +84,7 @@
     DocumentTranslationBundleFactory.class,
     DefaultLocalizationManager.class,
     DefaultTranslationBundleContext.class,
+    TranslationIndex.class,
     TranslationDocumentClassInitializer.class,
     DefaultModelContext.class,
     PlainTextBlockRenderer.class,
@@ -121,4 +121,34 @@ default int getSendQueueCapacity()
     {
         return 1000;
     }
+
+    /**
+     * @return the number of threads sending mails in parallel, each one with its own connection to the SMTP server
+     * @since 17.1.0RC1
+     */
+    default int getSendThreads()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the types of mails (see {@link ExtendedMimeMessage#getType()}) which are sent before any other mail
+     *         waiting in the send queue, usually because a user is waiting for them (password reset, etc.); they still
+     *         go through the prepare queue and wait for some room in the send queue like the other mails
+     * @since 17.1.0RC1
+     */
+    default List<String> getPriorityMailTypes()
+    {
+        return List.of();
+    }
+
+    /**
+     * @return the minimum delay to wait between two mails sent to the same SMTP host, whatever the thread sending them,
+     *         in milliseconds
+     * @since 17.1.0RC1
+     */
+    default long getHostSendWaitTime()
+    {
+        return 0;
+    }
 }
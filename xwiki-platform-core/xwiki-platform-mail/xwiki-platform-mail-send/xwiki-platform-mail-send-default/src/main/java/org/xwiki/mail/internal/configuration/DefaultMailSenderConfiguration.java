@@ -104,6 +104,17 @@ public class DefaultMailSenderConfiguration implements MailSenderConfiguration
     private static final String PREPARE_QUEUE_CAPACITY_PROPERTY = "prepareQueueCapacity";
     private static final String SEND_QUEUE_CAPACITY_PROPERTY = "sendQueueCapacity";
 
+    private static final String SEND_THREADS_PROPERTY = "sendThreads";
+
+    private static final String PRIORITY_TYPES_PROPERTY = "priorityTypes";
+
+    private static final String HOST_SEND_WAIT_TIME_PROPERTY = "hostSendWaitTime";
+
+    /**
+     * The types of the mails sent by XWiki when a user is waiting for them.
+     */
+    private static final List<String> PRIORITY_TYPES_DEFAULT = List.of("Reset Password", "Forgot Username");
+
     /**
      * The default size of the prepare queue.
      */
@@ -349,6 +360,26 @@ public int getSendQueueCapacity()
             SEND_QUEUE_CAPACITY_DEFAULT);
     }
 
+    @Override
+    public int getSendThreads()
+    {
+        return Math.max(1, this.xwikiPropertiesSource.getProperty(PREFIX + SEND_THREADS_PROPERTY, 1));
+    }
+
+    @Override
+    public List<String> getPriorityMailTypes()
+    {
+        List<String> types = this.xwikiPropertiesSource.getProperty(PREFIX + PRIORITY_TYPES_PROPERTY, List.class);
+
+        return types != null ? types : PRIORITY_TYPES_DEFAULT;
+    }
+
+    @Override
+    public long getHostSendWaitTime()
+    {
+        return this.xwikiPropertiesSource.getProperty(PREFIX + HOST_SEND_WAIT_TIME_PROPERTY, 0L);
+    }
+
     private boolean isMainWiki()
     {
         return this.wikiDescriptorManager.isMainWiki(this.wikiDescriptorManager.getCurrentWikiId());
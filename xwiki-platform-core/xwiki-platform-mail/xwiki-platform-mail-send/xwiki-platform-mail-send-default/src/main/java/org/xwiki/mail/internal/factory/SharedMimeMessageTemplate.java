@@ -0,0 +1,301 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.mail.internal.factory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.mail.Address;
+import javax.mail.BodyPart;
+import javax.mail.Header;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Part;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.InternetHeaders;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import javax.mail.internet.ParameterList;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.mail.ExtendedMimeMessage;
+import org.xwiki.mail.internal.factory.attachment.AttachmentMimeBodyPartFactory;
+import org.xwiki.xml.XMLUtils;
+
+/**
+ * A message rendered once and then personalized for each recipient.
+ * <p>
+ * The rendered message can contain the following slots, in its subject and in its text parts, which are replaced by
+ * the corresponding value for each recipient:
+ * <ul>
+ * <li>{@value #SLOT_EMAIL}: the email address of the recipient</li>
+ * <li>{@value #SLOT_NAME}: the name of the recipient, or its email address if it's unknown</li>
+ * </ul>
+ * The content of the parts which don't contain any slot (attachments, images, etc.) is shared by all the created
+ * messages.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class SharedMimeMessageTemplate
+{
+    /**
+     * The slot replaced by the email address of the recipient.
+     */
+    public static final String SLOT_EMAIL = "%recipient.email%";
+
+    /**
+     * The slot replaced by the name of the recipient.
+     */
+    public static final String SLOT_NAME = "%recipient.name%";
+
+    private static final String SLOT_PREFIX = "%recipient.";
+
+    private static final String HEADER_SUBJECT = "Subject";
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+
+    private static final String HEADER_CONTENT_TRANSFER_ENCODING = "Content-Transfer-Encoding";
+
+    private static final String PARAMETER_BOUNDARY = "boundary";
+
+    private final MimeMessage template;
+
+    private final String subject;
+
+    /**
+     * The text of the parts containing slots.
+     */
+    private final Map<Part, String> personalizedParts = new IdentityHashMap<>();
+
+    /**
+     * The raw (still encoded) content of the parts which don't contain any slot.
+     */
+    private final Map<Part, byte[]> sharedContents = new IdentityHashMap<>();
+
+    /**
+     * @param message the rendered message
+     * @throws MessagingException when failing to read the rendered message
+     */
+    public SharedMimeMessageTemplate(MimeMessage message) throws MessagingException
+    {
+        // Load the whole message in memory so that its parts can be shared safely between the created messages
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            message.writeTo(stream);
+        } catch (IOException e) {
+            throw new MessagingException("Failed to serialize the rendered message", e);
+        }
+        this.template = new MimeMessage(message.getSession(), new ByteArrayInputStream(stream.toByteArray()));
+
+        this.subject = this.template.getSubject();
+
+        try {
+            prepare(this.template);
+        } catch (IOException e) {
+            throw new MessagingException("Failed to read the content of the rendered message", e);
+        }
+    }
+
+    private void prepare(Part part) throws MessagingException, IOException
+    {
+        // The content of the attachments is now in memory, the temporary files are not needed anymore
+        String[] temporaryFiles = part.getHeader(AttachmentMimeBodyPartFactory.TMP_ATTACHMENT_LOCATION_FILE_HEADER);
+        if (temporaryFiles != null) {
+            for (String temporaryFile : temporaryFiles) {
+                FileUtils.deleteQuietly(new File(temporaryFile));
+            }
+            part.removeHeader(AttachmentMimeBodyPartFactory.TMP_ATTACHMENT_LOCATION_FILE_HEADER);
+        }
+
+        Object content = part.getContent();
+        if (content instanceof Multipart) {
+            Multipart multipart = (Multipart) content;
+            for (int i = 0; i < multipart.getCount(); ++i) {
+                prepare(multipart.getBodyPart(i));
+            }
+        } else if (content instanceof String && part.isMimeType("text/*")
+            && ((String) content).contains(SLOT_PREFIX)) {
+            this.personalizedParts.put(part, (String) content);
+        } else if (part instanceof MimeBodyPart) {
+            try (InputStream stream = ((MimeBodyPart) part).getRawInputStream()) {
+                this.sharedContents.put(part, IOUtils.toByteArray(stream));
+            }
+        }
+    }
+
+    /**
+     * @param recipient the recipient of the message
+     * @return a new message personalized for the passed recipient (the recipient is not added to the message)
+     * @throws MessagingException when failing to create the message
+     */
+    public ExtendedMimeMessage createMessage(Address recipient) throws MessagingException
+    {
+        ExtendedMimeMessage message = new ExtendedMimeMessage();
+
+        // Copy the headers, except the ones which are specific to each message
+        Enumeration<Header> headers = this.template.getAllHeaders();
+        while (headers.hasMoreElements()) {
+            Header header = headers.nextElement();
+            if (!StringUtils.equalsAnyIgnoreCase(header.getName(), HEADER_SUBJECT, HEADER_MESSAGE_ID,
+                HEADER_CONTENT_TYPE, HEADER_CONTENT_TRANSFER_ENCODING)) {
+                message.addHeader(header.getName(), header.getValue());
+            }
+        }
+
+        if (this.subject != null) {
+            message.setSubject(personalize(this.subject, recipient, false), "UTF-8");
+        }
+
+        Object content = createContent(this.template, recipient);
+        if (content instanceof Multipart) {
+            message.setContent((Multipart) content);
+        } else if (content instanceof String) {
+            message.setContent(content, this.template.getContentType());
+        } else {
+            message.setDataHandler(this.template.getDataHandler());
+        }
+
+        return message;
+    }
+
+    private Object createContent(Part part, Address recipient) throws MessagingException
+    {
+        String text = this.personalizedParts.get(part);
+        if (text != null) {
+            return personalize(text, recipient, part.isMimeType("text/html"));
+        }
+
+        try {
+            Object content = part.getContent();
+            if (content instanceof Multipart) {
+                Multipart multipart = (Multipart) content;
+                MimeMultipart newMultipart = new PersonalizedMultipart(new ContentType(multipart.getContentType()));
+                for (int i = 0; i < multipart.getCount(); ++i) {
+                    newMultipart.addBodyPart(createBodyPart(multipart.getBodyPart(i), recipient));
+                }
+
+                return newMultipart;
+            }
+
+            return content;
+        } catch (IOException e) {
+            throw new MessagingException("Failed to read the content of the rendered message", e);
+        }
+    }
+
+    private BodyPart createBodyPart(BodyPart part, Address recipient) throws MessagingException
+    {
+        byte[] sharedContent = this.sharedContents.get(part);
+        if (sharedContent != null) {
+            // Nothing specific to the recipient in this part: copy it (a part can only belong to one message) but share
+            // its content
+            InternetHeaders headers = new InternetHeaders();
+            Enumeration<Header> partHeaders = part.getAllHeaders();
+            while (partHeaders.hasMoreElements()) {
+                Header header = partHeaders.nextElement();
+                headers.addHeader(header.getName(), header.getValue());
+            }
+
+            return new MimeBodyPart(headers, sharedContent);
+        }
+
+        Object content = createContent(part, recipient);
+
+        MimeBodyPart newPart = new MimeBodyPart();
+        Enumeration<Header> headers = part.getAllHeaders();
+        while (headers.hasMoreElements()) {
+            Header header = headers.nextElement();
+            if (!StringUtils.equalsAnyIgnoreCase(header.getName(), HEADER_CONTENT_TYPE,
+                HEADER_CONTENT_TRANSFER_ENCODING)) {
+                newPart.addHeader(header.getName(), header.getValue());
+            }
+        }
+        if (content instanceof Multipart) {
+            newPart.setContent((Multipart) content);
+        } else {
+            newPart.setContent(content, part.getContentType());
+        }
+
+        return newPart;
+    }
+
+    private String personalize(String text, Address recipient, boolean html)
+    {
+        if (!text.contains(SLOT_PREFIX)) {
+            return text;
+        }
+
+        String email;
+        String name;
+        if (recipient instanceof InternetAddress) {
+            InternetAddress address = (InternetAddress) recipient;
+            email = address.getAddress();
+            name = StringUtils.defaultIfEmpty(address.getPersonal(), email);
+        } else {
+            email = recipient.toString();
+            name = email;
+        }
+
+        if (html) {
+            email = XMLUtils.escape(email);
+            name = XMLUtils.escape(name);
+        }
+
+        return StringUtils.replaceEach(text, new String[] { SLOT_EMAIL, SLOT_NAME }, new String[] { email, name });
+    }
+
+    /**
+     * A multipart with the same content type parameters as the rendered one, except for the boundary.
+     */
+    private static final class PersonalizedMultipart extends MimeMultipart
+    {
+        private PersonalizedMultipart(ContentType renderedContentType) throws MessagingException
+        {
+            super(renderedContentType.getSubType());
+
+            ContentType newContentType = new ContentType(this.contentType);
+            ParameterList parameters = renderedContentType.getParameterList();
+            if (parameters != null) {
+                Enumeration<String> names = parameters.getNames();
+                while (names.hasMoreElements()) {
+                    String name = names.nextElement();
+                    if (!name.equalsIgnoreCase(PARAMETER_BOUNDARY)) {
+                        newContentType.setParameter(name, parameters.get(name));
+                    }
+                }
+            }
+
+            this.contentType = newContentType.toString();
+        }
+    }
+}
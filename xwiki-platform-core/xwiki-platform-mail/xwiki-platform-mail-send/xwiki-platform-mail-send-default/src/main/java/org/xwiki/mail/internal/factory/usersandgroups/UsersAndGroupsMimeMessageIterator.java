@@ -30,11 +30,15 @@
 import org.xwiki.context.Execution;
 import org.xwiki.mail.ExtendedMimeMessage;
 import org.xwiki.mail.MimeMessageFactory;
+import org.xwiki.mail.internal.factory.SharedMimeMessageTemplate;
 import org.xwiki.model.reference.DocumentReferenceResolver;
 
 /**
  * Generate messages from a list of group references, a list of user references and a list of email addresses. Handles
  * duplicates so that an email address is sent the message only once.
+ * <p>
+ * When the {@value #PARAMETER_RENDER_ONCE} parameter is {@code true} the factory is called only once and the result is
+ * personalized for each recipient (see {@link SharedMimeMessageTemplate} for the supported slots).
  *
  * @version $Id$
  * @since 6.4.2
@@ -42,12 +46,21 @@
  */
 public class UsersAndGroupsMimeMessageIterator implements Iterator<MimeMessage>, Iterable<MimeMessage>
 {
+    /**
+     * The parameter indicating if the message should be created only once and then personalized for each recipient.
+     *
+     * @since 17.1.0RC1
+     */
+    public static final String PARAMETER_RENDER_ONCE = "renderOnce";
+
     private MimeMessageFactory<MimeMessage> factory;
 
     private Iterator<Address> addressIterator;
 
     private Map<String, Object> parameters;
 
+    private SharedMimeMessageTemplate template;
+
     /**
      * @param source the list of group and user references from which to extract the list of recipients and a list of
      *        emails to send the messages to
@@ -89,8 +102,7 @@ public MimeMessage next()
         Address address = this.addressIterator.next();
 
         try {
-            Map<String, Object> factoryParameters = (Map<String, Object>) this.parameters.get("parameters");
-            message = this.factory.createMessage(this.parameters.get("source"), factoryParameters);
+            message = createMessage(address);
             message.addRecipient(Message.RecipientType.TO, address);
 
             // Set the Message Type if passed in parameters
@@ -105,6 +117,22 @@ public MimeMessage next()
         return message;
     }
 
+    private MimeMessage createMessage(Address address) throws MessagingException
+    {
+        Map<String, Object> factoryParameters = (Map<String, Object>) this.parameters.get("parameters");
+
+        if (Boolean.TRUE.equals(this.parameters.get(PARAMETER_RENDER_ONCE))) {
+            if (this.template == null) {
+                this.template = new SharedMimeMessageTemplate(
+                    this.factory.createMessage(this.parameters.get("source"), factoryParameters));
+            }
+
+            return this.template.createMessage(address);
+        }
+
+        return this.factory.createMessage(this.parameters.get("source"), factoryParameters);
+    }
+
     @Override
     public void remove()
     {
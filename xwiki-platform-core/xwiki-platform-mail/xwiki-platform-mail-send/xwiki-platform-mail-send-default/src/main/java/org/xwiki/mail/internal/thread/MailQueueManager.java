@@ -84,6 +84,19 @@ default boolean addMessageToQueue(T mailQueueItem, long timeout, TimeUnit unit)
      */
     T peekMessage();
 
+    /**
+     * Get the next mail to process which is not already being processed. The mail stays in the queue until
+     * {@link #removeMessageFromQueue(MailQueueItem)} is called. The default implementation only supports a single
+     * thread processing the queue.
+     *
+     * @return the next mail waiting to be processed, or {@code null} if there is none
+     * @since 17.1.0RC1
+     */
+    default T pollMessage()
+    {
+        return peekMessage();
+    }
+
     /**
      * Removes the next mail on the queue.
      *
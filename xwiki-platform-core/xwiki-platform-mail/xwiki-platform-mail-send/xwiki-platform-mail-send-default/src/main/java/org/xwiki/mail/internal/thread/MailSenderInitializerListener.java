@@ -33,6 +33,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
 
@@ -72,6 +73,9 @@ public class MailSenderInitializerListener implements EventListener, Disposable
     @Named("send")
     private MailRunnable sendMailRunnable;
 
+    @Inject
+    private WorkerThreadManager workerThreadManager;
+
     private Thread prepareMailThread;
 
     private Thread sendMailThread;
@@ -92,15 +96,11 @@ public List<Event> getEvents()
     public void onEvent(Event event, Object o, Object o1)
     {
         // Step 1: Start the Mail Prepare Thread
-        this.prepareMailThread = new Thread(this.prepareMailRunnable);
-        this.prepareMailThread.setName("Mail Prepare Thread");
-        this.prepareMailThread.setDaemon(true);
+        this.prepareMailThread = this.workerThreadManager.newThread("Mail Prepare Thread", this.prepareMailRunnable);
         this.prepareMailThread.start();
 
         // Step 2: Start the Mail Sender Thread
-        this.sendMailThread = new Thread(this.sendMailRunnable);
-        this.sendMailThread.setName("Mail Sender Thread");
-        this.sendMailThread.setDaemon(true);
+        this.sendMailThread = this.workerThreadManager.newThread("Mail Sender Thread", this.sendMailRunnable);
         this.sendMailThread.start();
 
     }
@@ -191,8 +191,11 @@ private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem ite
 
         // Step 4: Put the MimeMessage id on the Mail Send Queue for sending
         // Extract the wiki id from the context
+        // Mails a user is waiting for (password reset, etc.) are sent before the other waiting mails
+        boolean priority = message.getType() != null
+            && this.configuration.getPriorityMailTypes().contains(message.getType());
         SendMailQueueItem smqi = new SendMailQueueItem(message.getUniqueMessageId(),
-            item.getSession(), listener, item.getBatchId(), extractWikiId(item));
+            item.getSession(), listener, item.getBatchId(), extractWikiId(item), priority);
         try {
             // Note: addMessageToQueue() will throw an InterruptedException exception if the add is interrupted or
             // return false if the timeout has been reached before the message could be added to the send queue.
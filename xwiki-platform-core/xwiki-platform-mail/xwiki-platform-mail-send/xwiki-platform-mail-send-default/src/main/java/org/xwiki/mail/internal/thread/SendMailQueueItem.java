@@ -21,6 +21,7 @@
 
 import javax.mail.Session;
 
+import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.xwiki.mail.MailListener;
 
 /**
@@ -35,6 +36,8 @@ public class SendMailQueueItem extends AbstractMailQueueItem
 
     private String wikiId;
 
+    private boolean priority;
+
     /**
      * @param uniqueMessageId see {@link #getUniqueMessageId()}
      * @param session see {@link #getSession()}
@@ -44,10 +47,26 @@ public class SendMailQueueItem extends AbstractMailQueueItem
      */
     public SendMailQueueItem(String uniqueMessageId, Session session, MailListener listener, String batchId,
         String wikiId)
+    {
+        this(uniqueMessageId, session, listener, batchId, wikiId, false);
+    }
+
+    /**
+     * @param uniqueMessageId see {@link #getUniqueMessageId()}
+     * @param session see {@link #getSession()}
+     * @param listener see {@link #getListener()}
+     * @param batchId see {@link #getBatchId()}
+     * @param wikiId see {@link #getWikiId()}
+     * @param priority see {@link #isPriority()}
+     * @since 17.1.0RC1
+     */
+    public SendMailQueueItem(String uniqueMessageId, Session session, MailListener listener, String batchId,
+        String wikiId, boolean priority)
     {
         super(session, listener, batchId);
         this.uniqueMessageId = uniqueMessageId;
         this.wikiId = wikiId;
+        this.priority = priority;
     }
 
     /**
@@ -66,12 +85,25 @@ public String getWikiId()
         return this.wikiId;
     }
 
+    /**
+     * @return true if the mail should be sent before the other waiting mails
+     * @since 17.1.0RC1
+     */
+    public boolean isPriority()
+    {
+        return this.priority;
+    }
+
     @Override
     public String toString()
     {
-        return prepareToString()
+        ToStringBuilder builder = prepareToString()
             .append("messageId", getUniqueMessageId())
-            .append("wikiId", getWikiId())
-            .toString();
+            .append("wikiId", getWikiId());
+        if (isPriority()) {
+            builder.append("priority", true);
+        }
+
+        return builder.toString();
     }
 }
@@ -19,7 +19,13 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -29,6 +35,14 @@
 
 /**
  * Handles all operations on the Send Mail Queue.
+ * <p>
+ * Since several threads can send mails in parallel, the mails are handed to them (see {@link #pollMessage()}) in an
+ * order which is fair between the batches: priority mails first, then one mail of each waiting batch in turn, so that
+ * a big batch (notifications digest, etc.) does not delay the other mails until it's fully sent.
+ * <p>
+ * Note that this only affects the order in which the mails already in this queue are sent: priority mails are not a
+ * separate lane, they still go through the prepare queue in order and wait for some room in this bounded queue, like
+ * any other mail.
  *
  * @version $Id$
  * @since 6.4
@@ -41,9 +55,100 @@ public class SendMailQueueManager extends AbstractMailQueueManager<SendMailQueue
     @Inject
     private MailSenderConfiguration configuration;
 
+    /**
+     * The priority mails not yet handed to a sending thread.
+     */
+    private final Deque<SendMailQueueItem> priorityItems = new ArrayDeque<>();
+
+    /**
+     * The other mails not yet handed to a sending thread, indexed by batch, in the order in which the batches should be
+     * served.
+     */
+    private final Map<String, Deque<SendMailQueueItem>> batchItems = new LinkedHashMap<>();
+
     @Override
     public void initialize()
     {
         this.mailQueue = new LinkedBlockingQueue<>(this.configuration.getSendQueueCapacity());
     }
+
+    @Override
+    public void addToQueue(SendMailQueueItem mailQueueItem)
+    {
+        super.addToQueue(mailQueueItem);
+
+        schedule(mailQueueItem);
+    }
+
+    @Override
+    @Deprecated(since = "15.0RC1")
+    public void addMessage(SendMailQueueItem mailQueueItem, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        addMessageToQueue(mailQueueItem, timeout, unit);
+    }
+
+    @Override
+    public boolean addMessageToQueue(SendMailQueueItem mailQueueItem, long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        boolean added = super.addMessageToQueue(mailQueueItem, timeout, unit);
+
+        if (added) {
+            schedule(mailQueueItem);
+        }
+
+        return added;
+    }
+
+    private synchronized void schedule(SendMailQueueItem mailQueueItem)
+    {
+        if (mailQueueItem.isPriority()) {
+            this.priorityItems.add(mailQueueItem);
+        } else {
+            this.batchItems.computeIfAbsent(mailQueueItem.getBatchId(), k -> new ArrayDeque<>()).add(mailQueueItem);
+        }
+    }
+
+    @Override
+    public synchronized SendMailQueueItem pollMessage()
+    {
+        SendMailQueueItem mailQueueItem = this.priorityItems.poll();
+
+        if (mailQueueItem == null) {
+            Iterator<Map.Entry<String, Deque<SendMailQueueItem>>> iterator = this.batchItems.entrySet().iterator();
+            if (iterator.hasNext()) {
+                Map.Entry<String, Deque<SendMailQueueItem>> entry = iterator.next();
+                mailQueueItem = entry.getValue().poll();
+
+                // Move the batch at the end of the line
+                iterator.remove();
+                if (!entry.getValue().isEmpty()) {
+                    this.batchItems.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return mailQueueItem;
+    }
+
+    @Override
+    public boolean removeMessageFromQueue(SendMailQueueItem mailQueueItem)
+    {
+        // Make sure the mail is not handed to a sending thread anymore, in case it was removed before being processed
+        unschedule(mailQueueItem);
+
+        return super.removeMessageFromQueue(mailQueueItem);
+    }
+
+    private synchronized void unschedule(SendMailQueueItem mailQueueItem)
+    {
+        if (mailQueueItem.isPriority()) {
+            this.priorityItems.remove(mailQueueItem);
+        } else {
+            Deque<SendMailQueueItem> items = this.batchItems.get(mailQueueItem.getBatchId());
+            if (items != null && items.remove(mailQueueItem) && items.isEmpty()) {
+                this.batchItems.remove(mailQueueItem.getBatchId());
+            }
+        }
+    }
 }
@@ -19,7 +19,11 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -29,19 +33,25 @@
 import javax.mail.Session;
 import javax.mail.Transport;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.context.ExecutionContextException;
 import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.mail.ExtendedMimeMessage;
 import org.xwiki.mail.MailContentStore;
 import org.xwiki.mail.MailListener;
+import org.xwiki.mail.internal.configuration.DefaultMailSenderConfiguration;
 
 import com.xpn.xwiki.XWikiContext;
 
 /**
  * Runnable that regularly check for mails on a Queue, and for each mail tries to send it.
+ * <p>
+ * The mails are sent by a configurable number of threads (the one executing this runnable and additional ones it
+ * starts), each one with its own connection to the SMTP server.
  *
  * @version $Id$
  * @since 6.4
@@ -64,14 +74,49 @@ public class SendMailRunnable extends AbstractMailRunnable
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    private Transport currentTransport;
+    @Inject
+    private WorkerThreadManager workerThreadManager;
 
-    private Session currentSession;
+    /**
+     * The connection to the SMTP server of each sending thread.
+     */
+    private final ThreadLocal<SMTPConnection> connections = ThreadLocal.withInitial(SMTPConnection::new);
 
-    private int count;
+    /**
+     * The time at which the next mail can be sent to each SMTP host.
+     */
+    private final Map<String, Long> hostSendTimes = new ConcurrentHashMap<>();
+
+    private static final class SMTPConnection
+    {
+        private Transport transport;
+
+        private Session session;
+
+        private int count;
+    }
 
     @Override
     public void run()
+    {
+        // Start the additional sending threads
+        int threads = Math.max(1, this.configuration.getSendThreads());
+        List<Thread> workers = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; ++i) {
+            Thread worker =
+                this.workerThreadManager.newThread(Thread.currentThread().getName() + " " + i, this::runWorker);
+            worker.start();
+            workers.add(worker);
+        }
+
+        try {
+            runWorker();
+        } finally {
+            stopWorkers(workers);
+        }
+    }
+
+    private void runWorker()
     {
         try {
             // Make sure we initialize an execution context.
@@ -86,6 +131,30 @@ public void run()
         }
     }
 
+    private void stopWorkers(List<Thread> workers)
+    {
+        for (Thread worker : workers) {
+            // Make sure the Thread goes out of sleep if it's sleeping so that it stops immediately.
+            worker.interrupt();
+        }
+
+        // The current thread is usually stopped by being interrupted: clear the flag to be able to wait for the other
+        // threads, and restore it at the end
+        boolean interrupted = Thread.interrupted();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                this.logger.debug("Interrupted while waiting for the Mail Sender Threads to stop", e);
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void prepareContext() throws ExecutionContextException
     {
         // Create a single execution context and use it for the send mail thread.
@@ -105,13 +174,21 @@ private void runInternal()
     {
         do {
             try {
-                // Handle next message in the queue
-                if (this.sendMailQueueManager.hasMessage()) {
-                    // Important: only remove the mail item from the queue after the mail has been sent as
+                // Handle next message in the queue (which is not already handled by another sending thread)
+                SendMailQueueItem mailItem = this.sendMailQueueManager.pollMessage();
+                if (mailItem != null) {
+                    // Important: only remove the mail item from the queue after the mail has been sent (or failed) as
                     // otherwise, MailSender.waitTillSent() may return before the mail is actually sent!
-                    SendMailQueueItem mailItem = this.sendMailQueueManager.peekMessage();
                     try {
+                        // Email throttling: make sure the SMTP host is not flooded by the various sending threads
+                        waitHostSendWaitTime(mailItem);
+
                         sendMail(mailItem);
+                    } catch (InterruptedException e) {
+                        // The thread is stopped before the mail could be sent
+                        onSendMessageFatalError(mailItem, e);
+
+                        throw e;
                     } finally {
                         this.sendMailQueueManager.removeMessageFromQueue(mailItem);
                     }
@@ -151,31 +228,30 @@ protected void sendMail(SendMailQueueItem item)
             // Step 1: Load the message from the filesystem store
             message = this.mailContentStore.load(item.getSession(), item.getBatchId(), item.getUniqueMessageId());
         } catch (Exception e) {
-            if (listener != null) {
-                listener.onSendMessageFatalError(item.getUniqueMessageId(), e, Collections.emptyMap());
-            }
+            onSendMessageFatalError(item, e);
             return;
         }
 
+        SMTPConnection connection = this.connections.get();
         try {
             // Step 2: If the current Session in use is different from the one passed then close
             // the current Transport, get a new one and reconnect.
             // Also do that every 100 mails sent.
             // TODO: explain why!
-            if (item.getSession() != this.currentSession || (this.count % 100) == 0) {
+            if (item.getSession() != connection.session || (connection.count % 100) == 0) {
                 closeTransport();
-                this.currentSession = item.getSession();
-                this.currentTransport = this.currentSession.getTransport("smtp");
-                this.currentTransport.connect();
-            } else if (!this.currentTransport.isConnected()) {
-                this.currentTransport.connect();
+                connection.session = item.getSession();
+                connection.transport = connection.session.getTransport("smtp");
+                connection.transport.connect();
+            } else if (!connection.transport.isConnected()) {
+                connection.transport.connect();
             }
 
             // Step 3: Send the mail
             // Unlike the static send method, the sendMessage method does not call the saveChanges method on the
             // message; this prevent the MessageID header to be changed.
-            this.currentTransport.sendMessage(message, message.getAllRecipients());
-            this.count++;
+            connection.transport.sendMessage(message, message.getAllRecipients());
+            connection.count++;
 
             // Step 4: Notify the user of the success if a listener has been provided
             // Note that the listener is in charge of deleting the message from the mail content store.
@@ -190,6 +266,30 @@ protected void sendMail(SendMailQueueItem item)
         }
     }
 
+    private void onSendMessageFatalError(SendMailQueueItem item, Exception exception)
+    {
+        MailListener listener = item.getListener();
+        if (listener != null) {
+            listener.onSendMessageFatalError(item.getUniqueMessageId(), exception, Collections.emptyMap());
+        }
+    }
+
+    private void waitHostSendWaitTime(SendMailQueueItem item) throws InterruptedException
+    {
+        long hostSendWaitTime = this.configuration.getHostSendWaitTime();
+        if (hostSendWaitTime > 0) {
+            String host = StringUtils.defaultString(
+                item.getSession().getProperty(DefaultMailSenderConfiguration.JAVAMAIL_SMTP_HOST));
+            long now = System.currentTimeMillis();
+            // Reserve the next slot for this host
+            long sendTime = this.hostSendTimes.merge(host, now,
+                (previous, current) -> Math.max(previous + hostSendWaitTime, current));
+            if (sendTime > now) {
+                Thread.sleep(sendTime - now);
+            }
+        }
+    }
+
     private void waitSendWaitTime() throws InterruptedException
     {
         long sendWaitTime = this.configuration.getSendWaitTime();
@@ -198,9 +298,10 @@ private void waitSendWaitTime() throws InterruptedException
 
     private void closeTransport()
     {
-        if (this.currentTransport != null) {
+        SMTPConnection connection = this.connections.get();
+        if (connection.transport != null) {
             try {
-                this.currentTransport.close();
+                connection.transport.close();
             } catch (MessagingException e) {
                 this.logger.warn("Failed to close JavaMail Transport connection. Reason [{}]",
                     ExceptionUtils.getRootCauseMessage(e));
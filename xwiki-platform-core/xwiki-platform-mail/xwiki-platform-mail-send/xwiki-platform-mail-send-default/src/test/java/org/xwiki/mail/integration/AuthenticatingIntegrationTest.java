@@ -41,11 +41,13 @@
 import org.xwiki.bridge.event.ApplicationReadyEvent;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.environment.internal.EnvironmentConfiguration;
 import org.xwiki.environment.internal.StandardEnvironment;
+import org.xwiki.job.internal.DefaultWorkerThreadManager;
 import org.xwiki.mail.MailSender;
 import org.xwiki.mail.MailSenderConfiguration;
 import org.xwiki.mail.MimeBodyPartFactory;
@@ -101,7 +103,8 @@
     PrepareMailRunnable.class,
     PrepareMailQueueManager.class,
     SendMailQueueManager.class,
-    FileSystemMailContentStore.class
+    FileSystemMailContentStore.class,
+    DefaultWorkerThreadManager.class
 })
 // @formatter:on
 public class AuthenticatingIntegrationTest extends AbstractMailIntegrationTest
@@ -151,6 +154,7 @@ public void registerConfiguration() throws Exception
         when(xwikiContextProvider.get()).thenReturn(Mockito.mock(XWikiContext.class));
 
         this.componentManager.registerMockComponent(ExecutionContextManager.class);
+        this.componentManager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
         this.componentManager.registerMockComponent(Execution.class);
 
         this.componentManager.registerMockComponent(new DefaultParameterizedType(null, Copier.class,
@@ -22,11 +22,15 @@
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.inject.Provider;
 import javax.mail.BodyPart;
@@ -47,12 +51,14 @@
 import org.xwiki.bridge.event.ApplicationReadyEvent;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.environment.Environment;
 import org.xwiki.environment.internal.EnvironmentConfiguration;
 import org.xwiki.environment.internal.StandardEnvironment;
+import org.xwiki.job.internal.DefaultWorkerThreadManager;
 import org.xwiki.mail.MailListener;
 import org.xwiki.mail.MailSender;
 import org.xwiki.mail.MailSenderConfiguration;
@@ -110,7 +116,8 @@
     PrepareMailRunnable.class,
     PrepareMailQueueManager.class,
     SendMailQueueManager.class,
-    FileSystemMailContentStore.class
+    FileSystemMailContentStore.class,
+    DefaultWorkerThreadManager.class
 })
 // @formatter:on
 public class JavaIntegrationTest extends AbstractMailIntegrationTest
@@ -146,6 +153,8 @@ public void registerConfiguration() throws Exception
 
         this.configuration = new TestMailSenderConfiguration(
             this.greenMail.getSmtp().getPort(), null, null, new Properties());
+        // Send the mails with several threads to make sure they don't step on each other
+        this.configuration.setSendThreads(2);
         this.componentManager.registerComponent(MailSenderConfiguration.class, this.configuration);
 
         // Set the current wiki in the Context
@@ -160,6 +169,7 @@ public void registerConfiguration() throws Exception
         when(xwikiContextProvider.get()).thenReturn(xcontext);
 
         this.componentManager.registerMockComponent(ExecutionContextManager.class);
+        this.componentManager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
         this.componentManager.registerMockComponent(Execution.class);
 
         this.componentManager.registerMockComponent(new DefaultParameterizedType(null, Copier.class,
@@ -272,6 +282,34 @@ public void sendTextMail() throws Exception
         // messages ;) But we checked that we received 9 emails above so that's good enough.
     }
 
+    @Test
+    void sendSeveralMailsWithSeveralThreads() throws Exception
+    {
+        Session session = Session.getInstance(this.configuration.getAllProperties());
+
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            MimeMessage message = new MimeMessage(session);
+            message.setSubject("subject" + i);
+            message.setRecipient(RecipientType.TO, new InternetAddress("john" + i + "@doe.com"));
+            message.setText("some text here");
+            messages.add(message);
+        }
+
+        MailListener memoryMailListener = this.componentManager.getInstance(MailListener.class, "memory");
+        this.sender.sendAsynchronously(messages, session, memoryMailListener);
+        memoryMailListener.getMailStatusResult().waitTillProcessed(30000L);
+
+        // Verify that each mail has been received exactly once
+        this.greenMail.waitForIncomingEmail(30000L, 10);
+        Set<String> subjects = new HashSet<>();
+        for (MimeMessage message : this.greenMail.getReceivedMessages()) {
+            subjects.add(message.getSubject());
+        }
+        assertEquals(10, this.greenMail.getReceivedMessages().length);
+        assertEquals(10, subjects.size());
+    }
+
     @Test
     public void sendHTMLAndCalendarInvitationMail() throws Exception
     {
@@ -40,12 +40,14 @@
 import org.xwiki.component.internal.ContextComponentManagerProvider;
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.context.internal.DefaultExecution;
 import org.xwiki.environment.internal.EnvironmentConfiguration;
 import org.xwiki.environment.internal.StandardEnvironment;
+import org.xwiki.job.internal.DefaultWorkerThreadManager;
 import org.xwiki.mail.MailSenderConfiguration;
 import org.xwiki.mail.MailState;
 import org.xwiki.mail.internal.DefaultMailSender;
@@ -109,7 +111,8 @@
     PrepareMailRunnable.class,
     PrepareMailQueueManager.class,
     SendMailQueueManager.class,
-    FileSystemMailContentStore.class
+    FileSystemMailContentStore.class,
+    DefaultWorkerThreadManager.class
 })
 // @formatter:on
 public class ScriptingIntegrationTest extends AbstractMailIntegrationTest
@@ -148,6 +151,7 @@ public void registerConfiguration() throws Exception
         when(xwikiContextProvider.get()).thenReturn(Mockito.mock(XWikiContext.class));
 
         this.componentManager.registerMockComponent(ExecutionContextManager.class);
+        this.componentManager.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
         this.componentManager.registerMockComponent(new DefaultParameterizedType(null, Copier.class,
             ExecutionContext.class));
 
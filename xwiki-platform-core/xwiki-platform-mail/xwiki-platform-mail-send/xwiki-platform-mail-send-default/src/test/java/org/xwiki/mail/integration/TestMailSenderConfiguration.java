@@ -42,6 +42,8 @@ public class TestMailSenderConfiguration extends DefaultMailSenderConfiguration
 
     private List<String> bccAddresses = new ArrayList<>();
 
+    private int sendThreads = 1;
+
     public TestMailSenderConfiguration(int port, String username, String password, Properties additionalProperties)
     {
         this.port = port;
@@ -116,8 +118,19 @@ public int getSendQueueCapacity()
         return 10;
     }
 
+    @Override
+    public int getSendThreads()
+    {
+        return this.sendThreads;
+    }
+
     public void setBCCAddresses(List<String> addresses)
     {
         this.bccAddresses = addresses;
     }
+
+    public void setSendThreads(int sendThreads)
+    {
+        this.sendThreads = sendThreads;
+    }
 }
@@ -20,6 +20,7 @@
 package org.xwiki.mail.internal.configuration;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 import javax.inject.Named;
@@ -291,4 +292,27 @@ public void getPortWhenMailConfigDoesntExist()
 
         assertEquals(25, this.configuration.getPort());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSendThreads()
+    {
+        when(this.xwikiPropertiesSource.getProperty("mail.sender.sendThreads", 1)).thenReturn(4);
+
+        assertEquals(4, this.configuration.getSendThreads());
+
+        when(this.xwikiPropertiesSource.getProperty("mail.sender.sendThreads", 1)).thenReturn(0);
+
+        assertEquals(1, this.configuration.getSendThreads());
+    }
+
+    @Test
+    void getPriorityMailTypes()
+    {
+        assertEquals(Arrays.asList("Reset Password", "Forgot Username"), this.configuration.getPriorityMailTypes());
+
+        when(this.xwikiPropertiesSource.getProperty("mail.sender.priorityTypes", List.class))
+            .thenReturn(Arrays.asList("Custom"));
+
+        assertEquals(Arrays.asList("Custom"), this.configuration.getPriorityMailTypes());
+    }
+}
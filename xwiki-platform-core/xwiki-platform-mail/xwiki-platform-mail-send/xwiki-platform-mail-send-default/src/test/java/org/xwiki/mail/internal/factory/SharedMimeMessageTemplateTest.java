@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.mail.internal.factory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.mail.Multipart;
+import javax.mail.Session;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.mail.ExtendedMimeMessage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for {@link SharedMimeMessageTemplate}.
+ *
+ * @version $Id$
+ */
+class SharedMimeMessageTemplateTest
+{
+    @Test
+    void createMessage() throws Exception
+    {
+        MimeMessage message = new MimeMessage((Session) null);
+        message.setFrom(new InternetAddress("sender@doe.com"));
+        message.setSubject("Hello %recipient.name%");
+
+        MimeMultipart alternative = new MimeMultipart("alternative");
+        MimeBodyPart textPart = new MimeBodyPart();
+        textPart.setText("Dear %recipient.name% <%recipient.email%>");
+        alternative.addBodyPart(textPart);
+        MimeBodyPart htmlPart = new MimeBodyPart();
+        htmlPart.setContent("<p>Dear %recipient.name%</p>", "text/html; charset=UTF-8");
+        alternative.addBodyPart(htmlPart);
+        MimeBodyPart alternativePart = new MimeBodyPart();
+        alternativePart.setContent(alternative);
+
+        MimeMultipart mixed = new MimeMultipart("mixed");
+        mixed.addBodyPart(alternativePart);
+        MimeBodyPart attachmentPart = new MimeBodyPart();
+        attachmentPart.setText("attachment");
+        attachmentPart.setFileName("file.txt");
+        mixed.addBodyPart(attachmentPart);
+        message.setContent(mixed);
+        message.saveChanges();
+
+        SharedMimeMessageTemplate template = new SharedMimeMessageTemplate(message);
+
+        ExtendedMimeMessage john = template.createMessage(new InternetAddress("john@doe.com", "John & Co"));
+        ExtendedMimeMessage mary = template.createMessage(new InternetAddress("mary@doe.com"));
+
+        assertEquals("Hello John & Co", john.getSubject());
+        assertEquals("Hello mary@doe.com", mary.getSubject());
+        assertEquals("sender@doe.com", ((InternetAddress) john.getFrom()[0]).getAddress());
+        assertNotEquals(message.getMessageID(), john.getMessageID());
+
+        Multipart johnMixed = (Multipart) john.getContent();
+        Multipart maryMixed = (Multipart) mary.getContent();
+        Multipart johnAlternative = (Multipart) johnMixed.getBodyPart(0).getContent();
+        assertEquals("Dear John & Co <john@doe.com>", johnAlternative.getBodyPart(0).getContent());
+        assertEquals("<p>Dear John &#38; Co</p>", johnAlternative.getBodyPart(1).getContent());
+        Multipart maryAlternative = (Multipart) maryMixed.getBodyPart(0).getContent();
+        assertEquals("Dear mary@doe.com <mary@doe.com>", maryAlternative.getBodyPart(0).getContent());
+
+        // The attachment is copied in each message, with the same content
+        assertNotSame(johnMixed.getBodyPart(1), maryMixed.getBodyPart(1));
+        assertSame(johnMixed, johnMixed.getBodyPart(1).getParent());
+        assertSame(maryMixed, maryMixed.getBodyPart(1).getParent());
+        assertEquals("file.txt", johnMixed.getBodyPart(1).getFileName());
+        assertEquals("attachment", johnMixed.getBodyPart(1).getContent());
+        assertEquals("attachment", maryMixed.getBodyPart(1).getContent());
+    }
+
+    @Test
+    void createMessageKeepsMultipartParameters() throws Exception
+    {
+        String rendered = "From: sender@doe.com\r\n"
+            + "Subject: Hello\r\n"
+            + "MIME-Version: 1.0\r\n"
+            + "Content-Type: multipart/related; type=\"text/html\"; boundary=\"rendered\"\r\n"
+            + "\r\n"
+            + "--rendered\r\n"
+            + "Content-Type: text/html; charset=UTF-8\r\n"
+            + "\r\n"
+            + "<p>Dear %recipient.name%</p><img src=\"cid:image\"/>\r\n"
+            + "--rendered\r\n"
+            + "Content-Type: image/png\r\n"
+            + "Content-ID: <image>\r\n"
+            + "Content-Transfer-Encoding: base64\r\n"
+            + "\r\n"
+            + "iVBORw0KGgo=\r\n"
+            + "--rendered--\r\n";
+        MimeMessage message = new MimeMessage((Session) null,
+            new ByteArrayInputStream(rendered.getBytes(StandardCharsets.UTF_8)));
+
+        SharedMimeMessageTemplate template = new SharedMimeMessageTemplate(message);
+
+        ExtendedMimeMessage john = template.createMessage(new InternetAddress("john@doe.com", "John"));
+        john.saveChanges();
+
+        ContentType contentType = new ContentType(john.getContentType());
+        assertEquals("multipart/related", contentType.getBaseType());
+        assertEquals("text/html", contentType.getParameter("type"));
+        assertNotEquals("rendered", contentType.getParameter("boundary"));
+
+        Multipart related = (Multipart) john.getContent();
+        assertEquals("<p>Dear John</p><img src=\"cid:image\"/>", related.getBodyPart(0).getContent());
+        assertEquals("<image>", ((MimeBodyPart) related.getBodyPart(1)).getContentID());
+        assertEquals("base64", ((MimeBodyPart) related.getBodyPart(1)).getEncoding());
+
+        // The rendered message is left untouched
+        Multipart renderedRelated = (Multipart) message.getContent();
+        assertEquals(2, renderedRelated.getCount());
+        assertSame(renderedRelated, renderedRelated.getBodyPart(1).getParent());
+    }
+}
@@ -24,8 +24,10 @@
 import java.util.Iterator;
 import java.util.Map;
 
+import javax.mail.Address;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
@@ -34,6 +36,7 @@
 import org.junit.Test;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.mail.ExtendedMimeMessage;
 import org.xwiki.mail.MimeMessageFactory;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
@@ -113,6 +116,43 @@ public void getMimeMessageWithSingleUserReferenceAndEmail() throws Exception
         verify(message).addRecipient(Message.RecipientType.TO, new InternetAddress("mary@doe.com"));
     }
 
+    @Test
+    public void getMimeMessageWhenRenderOnce() throws Exception
+    {
+        DocumentReference userReference = new DocumentReference("userwiki", "userspace", "userpage");
+        setUpUserPageMocks(userReference, "john@doe.com");
+        Map<String, Object> source = new HashMap<>();
+        source.put("users", Collections.singletonList(userReference));
+        source.put("emails", Collections.singletonList("mary@doe.com"));
+        DocumentReference templateReference = new DocumentReference("templatewiki", "templatespace", "templatepage");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("source", templateReference);
+        parameters.put("type", "test");
+        parameters.put(UsersAndGroupsMimeMessageIterator.PARAMETER_RENDER_ONCE, true);
+
+        MimeMessage message = new MimeMessage((Session) null);
+        message.setSubject("Hello %recipient.email%");
+        message.setText("content");
+        when(this.factory.createMessage(templateReference, null)).thenReturn(message);
+
+        Iterator<MimeMessage> iterator = new UsersAndGroupsMimeMessageIterator(source, this.factory, parameters,
+            this.resolver, this.execution);
+
+        MimeMessage message1 = iterator.next();
+        MimeMessage message2 = iterator.next();
+        assertFalse(iterator.hasNext());
+
+        verify(this.factory).createMessage(templateReference, null);
+
+        assertEquals("Hello john@doe.com", message1.getSubject());
+        assertArrayEquals(new Address[] { new InternetAddress("john@doe.com") },
+            message1.getRecipients(Message.RecipientType.TO));
+        assertEquals("test", ExtendedMimeMessage.wrap(message1).getType());
+        assertEquals("Hello mary@doe.com", message2.getSubject());
+        assertArrayEquals(new Address[] { new InternetAddress("mary@doe.com") },
+            message2.getRecipients(Message.RecipientType.TO));
+    }
+
     @Test
     public void getMimeMessageWhenErrorCreatingMessage() throws Exception
     {
@@ -0,0 +1,107 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.mail.internal.thread;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.mail.MailSenderConfiguration;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SendMailQueueManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SendMailQueueManagerTest
+{
+    @InjectMockComponents
+    private SendMailQueueManager queueManager;
+
+    @MockComponent
+    private MailSenderConfiguration configuration;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getSendQueueCapacity()).thenReturn(10);
+    }
+
+    private SendMailQueueItem item(String batchId, boolean priority)
+    {
+        return new SendMailQueueItem(batchId + "-message", null, null, batchId, "wiki", priority);
+    }
+
+    @Test
+    void pollMessageIsFairBetweenBatches() throws Exception
+    {
+        SendMailQueueItem batch1Item1 = item("batch1", false);
+        SendMailQueueItem batch1Item2 = item("batch1", false);
+        SendMailQueueItem batch1Item3 = item("batch1", false);
+        SendMailQueueItem batch2Item1 = item("batch2", false);
+        SendMailQueueItem priorityItem = item("batch3", true);
+
+        this.queueManager.addToQueue(batch1Item1);
+        this.queueManager.addToQueue(batch1Item2);
+        this.queueManager.addToQueue(batch1Item3);
+        this.queueManager.addMessageToQueue(batch2Item1, 1, TimeUnit.SECONDS);
+        this.queueManager.addMessageToQueue(priorityItem, 1, TimeUnit.SECONDS);
+
+        assertSame(priorityItem, this.queueManager.pollMessage());
+        assertSame(batch1Item1, this.queueManager.pollMessage());
+        assertSame(batch2Item1, this.queueManager.pollMessage());
+        assertSame(batch1Item2, this.queueManager.pollMessage());
+        assertSame(batch1Item3, this.queueManager.pollMessage());
+        assertNull(this.queueManager.pollMessage());
+
+        // The mails are still in the queue until they are removed
+        assertTrue(this.queueManager.hasMessage());
+
+        this.queueManager.removeMessageFromQueue(priorityItem);
+        this.queueManager.removeMessageFromQueue(batch1Item1);
+        this.queueManager.removeMessageFromQueue(batch1Item2);
+        this.queueManager.removeMessageFromQueue(batch1Item3);
+        this.queueManager.removeMessageFromQueue(batch2Item1);
+
+        assertFalse(this.queueManager.hasMessage());
+    }
+
+    @Test
+    void removeMessageFromQueueBeforePoll()
+    {
+        SendMailQueueItem item = item("batch", false);
+
+        this.queueManager.addToQueue(item);
+        this.queueManager.removeMessageFromQueue(item);
+
+        assertNull(this.queueManager.pollMessage());
+        assertFalse(this.queueManager.hasMessage());
+    }
+}
@@ -51,6 +51,7 @@
 import com.xpn.xwiki.XWikiContext;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -73,12 +74,13 @@
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
+    private MailSenderConfiguration configuration;
+
     @BeforeComponent
     public void beforeInitializable() throws Exception
     {
-        MailSenderConfiguration configuration =
-            this.componentManager.registerMockComponent(MailSenderConfiguration.class);
-        when(configuration.getSendQueueCapacity()).thenReturn(10);
+        this.configuration = this.componentManager.registerMockComponent(MailSenderConfiguration.class);
+        when(this.configuration.getSendQueueCapacity()).thenReturn(10);
     }
 
     @BeforeEach
@@ -220,4 +222,69 @@ public void sendMailWhenMailRetrievalFails() throws Exception
         }
         assertEquals(2, errorCount);
     }
+
+    @Test
+    void sendMailWhenStoppedWhileWaitingForHost() throws Exception
+    {
+        // The second mail has to wait a long time before being sent to the same host
+        when(this.configuration.getHostSendWaitTime()).thenReturn(600000L);
+
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "xwiki-unknown");
+        Session session = Session.getInstance(properties);
+
+        MimeMessage msg1 = new MimeMessage(session);
+        msg1.setText("Content1");
+        ExtendedMimeMessage message1 = new ExtendedMimeMessage(msg1);
+        String id1 = message1.getUniqueMessageId();
+        MimeMessage msg2 = new MimeMessage(session);
+        msg2.setText("Content2");
+        ExtendedMimeMessage message2 = new ExtendedMimeMessage(msg2);
+        String id2 = message2.getUniqueMessageId();
+
+        MemoryMailListener listener = this.componentManager.getInstance(MailListener.class, "memory");
+        String batchId = UUID.randomUUID().toString();
+        listener.onPrepareBegin(batchId, Collections.emptyMap());
+        ((UpdateableMailStatusResult) listener.getMailStatusResult()).setTotalSize(2);
+
+        listener.onPrepareMessageSuccess(message1, Collections.emptyMap());
+        SendMailQueueItem item1 = new SendMailQueueItem(id1, session, listener, batchId, "xwiki");
+        listener.onPrepareMessageSuccess(message2, Collections.emptyMap());
+        SendMailQueueItem item2 = new SendMailQueueItem(id2, session, listener, batchId, "xwiki");
+
+        MailQueueManager mailQueueManager = this.componentManager.getInstance(
+            new DefaultParameterizedType(null, MailQueueManager.class, SendMailQueueItem.class));
+
+        MailContentStore contentStore = this.componentManager.getInstance(MailContentStore.class, "filesystem");
+        when(contentStore.load(session, batchId, id1)).thenReturn(message1);
+        when(contentStore.load(session, batchId, id2)).thenReturn(message2);
+
+        mailQueueManager.addToQueue(item1);
+        mailQueueManager.addToQueue(item2);
+
+        Thread thread = new Thread(this.sendMailRunnable);
+        thread.start();
+
+        try {
+            // Wait for the first mail to have been processed
+            long timeout = System.currentTimeMillis() + 10000L;
+            while (listener.getMailStatusResult().getProcessedMailCount() < 1
+                && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10L);
+            }
+        } finally {
+            // Stop the thread while it's waiting to send the second mail
+            this.sendMailRunnable.stopProcessing();
+            thread.interrupt();
+            thread.join();
+        }
+
+        // The second mail is not sent but it's marked as failed and removed from the queue, so that nobody waits for
+        // it
+        assertTrue(listener.getMailStatusResult().isProcessed());
+        Iterator<MailStatus> statuses = listener.getMailStatusResult().getByState(MailState.SEND_FATAL_ERROR);
+        assertTrue(statuses.hasNext());
+        assertEquals(id2, statuses.next().getMessageId());
+        assertFalse(mailQueueManager.hasMessage());
+    }
 }
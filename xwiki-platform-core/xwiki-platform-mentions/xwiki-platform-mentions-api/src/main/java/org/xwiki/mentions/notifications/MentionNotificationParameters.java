@@ -30,6 +30,8 @@
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.xwiki.mentions.MentionLocation;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.stability.Unstable;
 import org.xwiki.text.XWikiToStringBuilder;
 
 /**
@@ -63,6 +65,8 @@ public class MentionNotificationParameters implements Serializable
 
     private final String version;
 
+    private transient XDOM xdom;
+
     /**
      * @param authorReference the reference of the author of the change that produced the mentions
      * @param entityReference the entity holding the mentions (a page content, a comment...)
@@ -166,6 +170,32 @@ public String getVersion()
         return this.version;
     }
 
+    /**
+     * @return the parsed content in which the mentions were found, when it is still available (it's not serialized and
+     *     it's not part of the identity of the parameters), {@code null} otherwise
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public XDOM getXDOM()
+    {
+        return this.xdom;
+    }
+
+    /**
+     * Keep the parsed content in which the mentions were found so that the consumers of the mentions (e.g., to extract
+     * a quote) don't have to load and parse it again.
+     *
+     * @param xdom the parsed content in which the mentions were found
+     * @return the current object
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public MentionNotificationParameters setXDOM(XDOM xdom)
+    {
+        this.xdom = xdom;
+        return this;
+    }
+
     /**
      * Add new mention to a map.
      *
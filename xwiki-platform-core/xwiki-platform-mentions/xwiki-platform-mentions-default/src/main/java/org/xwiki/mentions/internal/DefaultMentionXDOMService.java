@@ -32,6 +32,7 @@
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -122,4 +123,10 @@ public Optional<XDOM> parse(String payload, Syntax syntax)
         }
         return oxdom;
     }
+
+    @Override
+    public boolean isMentionFree(String payload)
+    {
+        return !StringUtils.containsIgnoreCase(payload, MENTION_MACRO_NAME);
+    }
 }
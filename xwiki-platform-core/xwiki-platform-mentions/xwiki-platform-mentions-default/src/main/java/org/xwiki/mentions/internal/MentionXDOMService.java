@@ -63,4 +63,14 @@
      * @return The result of the parsing. Empty if the parsing failed
      */
     Optional<XDOM> parse(String payload, Syntax syntax);
+
+    /**
+     * Cheap check made before parsing a content: a mention macro cannot be found in a content which doesn't contain
+     * the name of the macro.
+     *
+     * @param payload the string to analyze
+     * @return {@code true} if the payload cannot contain any mention, in which case there's no need to parse it
+     * @since 17.1.0RC1
+     */
+    boolean isMentionFree(String payload);
 }
@@ -187,7 +187,10 @@ private String getQuoteFromXDOM(MentionNotificationParameters mentionNotificatio
         String extractedQuote;
         if (this.configuration.isQuoteActivated()) {
             XDOM xdom;
-            if (MentionLocation.DOCUMENT.equals(mentionNotificationParameters.getLocation())) {
+            if (mentionNotificationParameters.getXDOM() != null) {
+                // Reuse the content parsed during the analysis. It's cloned since the quote extraction can modify it.
+                xdom = mentionNotificationParameters.getXDOM().clone();
+            } else if (MentionLocation.DOCUMENT.equals(mentionNotificationParameters.getLocation())) {
                 xdom = doc.getXDOM();
             } else {
                 String name = entityReference.getName();
@@ -76,8 +76,12 @@ public List<MentionNotificationParameters> analyze(XWikiDocument doc,
     {
         Syntax syntax = doc.getSyntax();
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
-        handleContentOnCreate(doc.getXDOM(), documentReference, version, authorReference, DOCUMENT)
-            .ifPresent(mentionNotificationParametersList::add);
+        if (!this.xdomService.isMentionFree(doc.getContent())) {
+            XDOM xdom = doc.getXDOM();
+            handleContentOnCreate(xdom, documentReference, version, authorReference, DOCUMENT)
+                .map(parameters -> parameters.setXDOM(xdom))
+                .ifPresent(mentionNotificationParametersList::add);
+        }
         mentionNotificationParametersList
             .addAll(traverseXObjectsOnCreate(doc.getXObjects(), version, authorReference, syntax));
         return mentionNotificationParametersList;
@@ -163,11 +167,13 @@ private List<MentionNotificationParameters> handleBaseObjectOnCreate(BaseObject
             if (o instanceof LargeStringProperty) {
                 LargeStringProperty largeStringProperty = (LargeStringProperty) o;
                 String content = largeStringProperty.getValue();
-                this.xdomService
-                    .parse(content, syntax)
-                    .flatMap(xdom -> handleContentOnCreate(xdom, largeStringProperty.getReference(), version,
-                        authorReference, TEXT_FIELD))
-                    .ifPresent(mentionNotificationParametersList::add);
+                if (!this.xdomService.isMentionFree(content)) {
+                    this.xdomService
+                        .parse(content, syntax)
+                        .flatMap(xdom -> handleContentOnCreate(xdom, largeStringProperty.getReference(), version,
+                            authorReference, TEXT_FIELD).map(parameters -> parameters.setXDOM(xdom)))
+                        .ifPresent(mentionNotificationParametersList::add);
+                }
             }
         }
         return mentionNotificationParametersList;
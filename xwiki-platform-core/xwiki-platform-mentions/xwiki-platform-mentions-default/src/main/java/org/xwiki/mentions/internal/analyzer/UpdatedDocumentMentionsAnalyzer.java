@@ -88,8 +88,15 @@ public List<MentionNotificationParameters> analyze(XWikiDocument oldDoc, XWikiDo
         String version, String authorReference)
     {
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
-        handleUpdatedContent(oldDoc.getXDOM(), newDoc.getXDOM(), documentReference, version, authorReference, DOCUMENT)
-            .ifPresent(mentionNotificationParametersList::add);
+        // An unchanged content, or a content without any mention, cannot introduce new mentions. Checking it on the
+        // raw content avoids parsing both versions of the document.
+        boolean sameSyntax = Objects.equals(oldDoc.getSyntax(), newDoc.getSyntax());
+        if (mayIntroduceMentions(sameSyntax ? oldDoc.getContent() : null, newDoc.getContent())) {
+            XDOM newXDOM = newDoc.getXDOM();
+            handleUpdatedContent(oldDoc.getXDOM(), newXDOM, documentReference, version, authorReference, DOCUMENT)
+                .map(parameters -> parameters.setXDOM(newXDOM))
+                .ifPresent(mentionNotificationParametersList::add);
+        }
         mentionNotificationParametersList
             .addAll(traverseXObjectsOnUpdate(oldDoc.getXObjects(), newDoc.getXObjects(), version, authorReference,
                 newDoc.getSyntax()));
@@ -250,17 +257,35 @@ private Optional<MentionNotificationParameters> handleProperty(Optional<BaseObje
         LargeStringProperty largeStringProperty,
         String version, MentionLocation location, String authorReference, Syntax syntax)
     {
-        Optional<XDOM> oldDom = oldBaseObject.flatMap(it -> ofNullable(it.getField(largeStringProperty.getName())))
-            .filter(it -> it instanceof LargeStringProperty)
-            .flatMap(it -> this.xdomService.parse(((LargeStringProperty) it).getValue(), syntax));
-        return this.xdomService.parse(largeStringProperty.getValue(), syntax).flatMap(xdom -> {
+        Optional<String> oldValue =
+            oldBaseObject.flatMap(it -> ofNullable(it.getField(largeStringProperty.getName())))
+                .filter(it -> it instanceof LargeStringProperty)
+                .map(it -> ((LargeStringProperty) it).getValue());
+        String value = largeStringProperty.getValue();
+        if (!mayIntroduceMentions(oldValue.orElse(null), value)) {
+            return Optional.empty();
+        }
+
+        return this.xdomService.parse(value, syntax).flatMap(xdom -> {
             EntityReference entityReference = largeStringProperty.getReference();
-            return oldDom
-                .map(value -> handleUpdatedContent(value, xdom, entityReference, version, authorReference, location))
-                .orElseGet(() -> handleCreatedContent(xdom, entityReference, version, authorReference, location));
+            return oldValue.flatMap(it -> this.xdomService.parse(it, syntax))
+                .map(oldDom -> handleUpdatedContent(oldDom, xdom, entityReference, version, authorReference, location))
+                .orElseGet(() -> handleCreatedContent(xdom, entityReference, version, authorReference, location))
+                .map(parameters -> parameters.setXDOM(xdom));
         });
     }
 
+    /**
+     * @param oldContent the content before the update, {@code null} if it didn't exist or can't be compared
+     * @param newContent the content after the update
+     * @return {@code true} if the new content needs to be parsed to search for new mentions, {@code false} when it's
+     *     unchanged or when it cannot contain any mention
+     */
+    private boolean mayIntroduceMentions(String oldContent, String newContent)
+    {
+        return !this.xdomService.isMentionFree(newContent) && (oldContent == null || !oldContent.equals(newContent));
+    }
+
     /**
      * Handles the analysis of the mentions of a created content to search for mentions to notify.
      *
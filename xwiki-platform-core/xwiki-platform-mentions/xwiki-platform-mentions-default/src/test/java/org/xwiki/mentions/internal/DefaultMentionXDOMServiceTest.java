@@ -54,6 +54,7 @@
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -215,6 +216,15 @@ void parseComponentLookupException() throws Exception
         assertEquals(Optional.empty(), actual);
     }
 
+    @Test
+    void isMentionFree()
+    {
+        assertTrue(this.xdomService.isMentionFree(null));
+        assertTrue(this.xdomService.isMentionFree("ABC"));
+        assertFalse(this.xdomService.isMentionFree("ABC {{mention reference=\"XWiki.U1\"/}}"));
+        assertFalse(this.xdomService.isMentionFree("{{Mention reference=\"XWiki.U1\"/}}"));
+    }
+
     private MacroBlock initMentionMacro(String reference, String anchor)
     {
         HashMap<String, String> parameters = new HashMap<>();
@@ -49,7 +49,10 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.xwiki.annotation.Annotation.SELECTION_FIELD;
 import static org.xwiki.mentions.DisplayStyle.FIRST_NAME;
@@ -451,6 +454,77 @@ void analyzeNewMentionInUpdatedAnnotationField()
         ), analyze);
     }
 
+    @Test
+    void analyzeUnchangedContentIsNotParsed()
+    {
+        XWikiDocument oldDoc = mock(XWikiDocument.class);
+        XWikiDocument newDoc = mock(XWikiDocument.class);
+
+        String content = "{{mention reference=\"XWiki.U1\"/}}";
+        when(oldDoc.getContent()).thenReturn(content);
+        when(newDoc.getContent()).thenReturn(content);
+        when(oldDoc.getSyntax()).thenReturn(XWIKI_2_1);
+        when(newDoc.getSyntax()).thenReturn(XWIKI_2_1);
+
+        Map<DocumentReference, List<BaseObject>> oldXObjects = new HashMap<>();
+        BaseObject oldAWMField = mock(BaseObject.class);
+        LargeStringProperty oldLSP = new LargeStringProperty();
+        oldLSP.setValue(content);
+        when(oldAWMField.getField("lspfield")).thenReturn(oldLSP);
+        oldXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(oldAWMField));
+        when(oldDoc.getXObjects()).thenReturn(oldXObjects);
+        Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
+        BaseObject newAWMField = mock(BaseObject.class);
+        when(newAWMField.getXClassReference()).thenReturn(ACLASS_DOCUMENT_REFERENCE);
+        LargeStringProperty newLSP = new LargeStringProperty();
+        newLSP.setName("lspfield");
+        newLSP.setValue(content);
+        newLSP.setObject(newAWMField);
+        when(newAWMField.getProperties()).thenReturn(new Object[] { newLSP });
+        newXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(newAWMField));
+        when(newDoc.getXObjects()).thenReturn(newXObjects);
+
+        List<MentionNotificationParameters> analyze =
+            this.updatedDocumentMentionsAnalyzer.analyze(oldDoc, newDoc, DOCUMENT_REFERENCE, "1.1", AUTHOR);
+
+        assertEquals(asList(), analyze);
+        verify(oldDoc, never()).getXDOM();
+        verify(newDoc, never()).getXDOM();
+        verify(this.xdomService, never()).parse(any(), any());
+    }
+
+    @Test
+    void analyzeMentionFreeContentIsNotParsed()
+    {
+        XWikiDocument oldDoc = mock(XWikiDocument.class);
+        XWikiDocument newDoc = mock(XWikiDocument.class);
+
+        when(oldDoc.getContent()).thenReturn("v1.0");
+        when(newDoc.getContent()).thenReturn("v1.1");
+        when(this.xdomService.isMentionFree("v1.1")).thenReturn(true);
+
+        Map<DocumentReference, List<BaseObject>> newXObjects = new HashMap<>();
+        BaseObject newAWMField = mock(BaseObject.class);
+        when(newAWMField.getXClassReference()).thenReturn(ACLASS_DOCUMENT_REFERENCE);
+        LargeStringProperty newLSP = new LargeStringProperty();
+        newLSP.setName("lspfield");
+        newLSP.setValue("NEW AWM CONTENT");
+        newLSP.setObject(newAWMField);
+        when(newAWMField.getProperties()).thenReturn(new Object[] { newLSP });
+        newXObjects.put(ACLASS_DOCUMENT_REFERENCE, asList(newAWMField));
+        when(newDoc.getXObjects()).thenReturn(newXObjects);
+        when(newDoc.getSyntax()).thenReturn(XWIKI_2_1);
+        when(this.xdomService.isMentionFree("NEW AWM CONTENT")).thenReturn(true);
+
+        List<MentionNotificationParameters> analyze =
+            this.updatedDocumentMentionsAnalyzer.analyze(oldDoc, newDoc, DOCUMENT_REFERENCE, "1.1", AUTHOR);
+
+        assertEquals(asList(), analyze);
+        verify(oldDoc, never()).getXDOM();
+        verify(newDoc, never()).getXDOM();
+        verify(this.xdomService, never()).parse(any(), any());
+    }
+
     private MacroBlock buildMentionMacro(String reference, String anchor, DisplayStyle displayStyle)
     {
         Map<String, String> parameters = new HashMap<>();
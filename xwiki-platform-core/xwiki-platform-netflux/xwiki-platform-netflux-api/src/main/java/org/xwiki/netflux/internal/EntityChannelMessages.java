@@ -0,0 +1,161 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.netflux.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.text.XWikiToStringBuilder;
+
+/**
+ * A batch of messages sent to an entity channel on one cluster member, to be relayed to the users connected to the
+ * same entity channel on the other cluster members.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class EntityChannelMessages implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String origin;
+
+    private final long sequence;
+
+    private final EntityReference entityReference;
+
+    private final ArrayList<String> path;
+
+    private final ArrayList<Message> messages = new ArrayList<>();
+
+    /**
+     * A message sent to the channel.
+     *
+     * @version $Id$
+     */
+    public static class Message implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String sender;
+
+        private final String content;
+
+        /**
+         * @param sender the name of the Netflux user who sent the message
+         * @param content the content of the message
+         */
+        public Message(String sender, String content)
+        {
+            this.sender = sender;
+            this.content = content;
+        }
+
+        /**
+         * @return the name of the Netflux user who sent the message
+         */
+        public String getSender()
+        {
+            return this.sender;
+        }
+
+        /**
+         * @return the content of the message
+         */
+        public String getContent()
+        {
+            return this.content;
+        }
+    }
+
+    /**
+     * @param origin the identifier of the cluster member which sent the messages
+     * @param sequence the position of this batch among the batches sent by the origin, used to relay them in order
+     * @param entityReference the entity the channel is associated with
+     * @param path the channel path, used to identify the channel among all the channels associated to the same entity
+     */
+    public EntityChannelMessages(String origin, long sequence, EntityReference entityReference, List<String> path)
+    {
+        this.origin = origin;
+        this.sequence = sequence;
+        this.entityReference = entityReference;
+        this.path = new ArrayList<>(path);
+    }
+
+    /**
+     * @return the identifier of the cluster member which sent the messages
+     */
+    public String getOrigin()
+    {
+        return this.origin;
+    }
+
+    /**
+     * @return the position of this batch among the batches sent by the origin
+     */
+    public long getSequence()
+    {
+        return this.sequence;
+    }
+
+    /**
+     * @return the entity the channel is associated with
+     */
+    public EntityReference getEntityReference()
+    {
+        return this.entityReference;
+    }
+
+    /**
+     * @return the channel path, used to identify the channel among all the channels associated to the same entity
+     */
+    public List<String> getPath()
+    {
+        return Collections.unmodifiableList(this.path);
+    }
+
+    /**
+     * @return the messages, in the order in which they were sent
+     */
+    public List<Message> getMessages()
+    {
+        return Collections.unmodifiableList(this.messages);
+    }
+
+    /**
+     * @param sender the name of the Netflux user who sent the message
+     * @param content the content of the message
+     */
+    public void add(String sender, String content)
+    {
+        this.messages.add(new Message(sender, content));
+    }
+
+    @Override
+    public String toString()
+    {
+        return new XWikiToStringBuilder(this).append("origin", this.origin).append("sequence", this.sequence)
+            .append("entity", this.entityReference).append("path", this.path).append("size", this.messages.size())
+            .build();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.netflux.internal;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import jakarta.websocket.Session;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.netflux.EntityChannel;
+import org.xwiki.netflux.EntityChannelStore;
+import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
+
+/**
+ * Relay the messages sent to the entity channels between the cluster members, so that the users editing the same
+ * entity can be connected to different cluster members.
+ * <p>
+ * Each cluster member has its own Netflux channel for a given entity channel (identified by its entity and path). The
+ * messages sent to the local channel are collected by {@link EntityChannelRelayBot}, grouped per channel during
+ * {@value #BATCH_DELAY} milliseconds and sent through the {@link EntityChannelBus}. On the other side, they are
+ * delivered to the users connected to the local channel associated with the same entity channel.
+ * <p>
+ * Ordering is only guaranteed per cluster member: the messages sent through a given cluster member are delivered
+ * everywhere in the order in which they were sent (batches carry a sequence number, see
+ * {@link EntityChannelMessages#getSequence()}), but there is no total order per entity channel. The local messages
+ * and the relayed messages are interleaved differently in the history of each cluster member's channel, so users
+ * connected to different cluster members (and users joining later, who replay the history of their local channel) can
+ * see concurrent messages in a different order. This is fine for the editors relying on this channel as long as they
+ * resolve concurrent messages themselves (as ChainPad does, with the parent of each patch), but a total order would
+ * require a single cluster member (or the remote bus) to sequence all the messages of a channel.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = EntityChannelRelay.class)
+@Singleton
+public class EntityChannelRelay implements Initializable, Disposable
+{
+    /**
+     * The time during which the messages sent to a channel are collected before being sent to the other cluster
+     * members, in milliseconds.
+     */
+    static final long BATCH_DELAY = 10;
+
+    /**
+     * The interval at which the sequences received for the local channels which were removed are forgotten, in
+     * minutes.
+     */
+    private static final long PRUNE_INTERVAL = 5;
+
+    @Inject
+    private EntityChannelStore entityChannels;
+
+    @Inject
+    private ChannelStore channels;
+
+    @Inject
+    private Provider<EntityChannelBus> busProvider;
+
+    @Inject
+    private RemoteObservationManagerConfiguration remoteObservationConfiguration;
+
+    @Inject
+    private Logger logger;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The messages waiting to be sent, indexed by local channel key.
+     */
+    private final Map<String, EntityChannelMessages> pending = new HashMap<>();
+
+    /**
+     * The sequence of the last batch received from each cluster member, indexed by local channel key.
+     */
+    private final Map<String, Map<String, Long>> received = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+            new BasicThreadFactory.Builder().namingPattern("Netflux entity channel relay").daemon(true).build());
+        this.executor.scheduleWithFixedDelay(this::pruneReceived, PRUNE_INTERVAL, PRUNE_INTERVAL, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * @return {@code true} if the messages should be relayed, i.e. when the remote observation is enabled
+     */
+    public boolean isEnabled()
+    {
+        return this.remoteObservationConfiguration.isEnabled();
+    }
+
+    /**
+     * Queue a message sent to a local channel so that it's relayed to the other cluster members.
+     *
+     * @param entityChannel the entity channel the message was sent to
+     * @param sender the name of the Netflux user who sent the message
+     * @param content the content of the message
+     */
+    public void send(EntityChannel entityChannel, String sender, String content)
+    {
+        String key = entityChannel.getKey();
+
+        synchronized (this.pending) {
+            EntityChannelMessages messages = this.pending.get(key);
+            if (messages == null) {
+                messages = new EntityChannelMessages(this.origin, this.sequence.incrementAndGet(),
+                    entityChannel.getEntityReference(), entityChannel.getPath());
+                this.pending.put(key, messages);
+
+                // The executor has a single thread so the batches are sent in the order in which they were created
+                this.executor.schedule(() -> flush(key), BATCH_DELAY, TimeUnit.MILLISECONDS);
+            }
+
+            messages.add(sender, content);
+        }
+    }
+
+    private void flush(String key)
+    {
+        EntityChannelMessages messages;
+        synchronized (this.pending) {
+            messages = this.pending.remove(key);
+        }
+
+        if (messages != null) {
+            try {
+                this.busProvider.get().send(messages);
+            } catch (Exception e) {
+                this.logger.warn("Failed to relay the messages [{}]: {}", messages, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deliver the messages sent to an entity channel of another cluster member to the users connected to the same
+     * entity channel on this cluster member, and add them to the history of the local channel so that they are also
+     * sent to the users joining it later.
+     * <p>
+     * The messages of a given cluster member are delivered in the order in which they were sent (older or duplicated
+     * batches are ignored), but they are interleaved with the local messages in the order in which they are received,
+     * which may differ from the order seen by the other cluster members.
+     *
+     * @param messages the messages received from another cluster member
+     */
+    public void receive(EntityChannelMessages messages)
+    {
+        if (this.origin.equals(messages.getOrigin())) {
+            return;
+        }
+
+        // Nobody can be interested in the messages if there is no local channel
+        Optional<EntityChannel> entityChannel =
+            this.entityChannels.getChannel(messages.getEntityReference(), messages.getPath());
+        Channel channel = entityChannel.map(found -> this.channels.get(found.getKey())).orElse(null);
+        if (channel != null && isNew(messages, channel.getKey())) {
+            for (EntityChannelMessages.Message message : messages.getMessages()) {
+                String text = toNetfluxMessage(message, channel.getKey());
+                // Keep the history of the local channel in sync with the one of the channel the message was sent to
+                synchronized (channel) {
+                    channel.getMessages().add(text);
+                }
+                for (User user : channel.getConnectedUsers()) {
+                    sendText(user, text);
+                }
+            }
+        }
+    }
+
+    private boolean isNew(EntityChannelMessages messages, String channelKey)
+    {
+        synchronized (this.received) {
+            Map<String, Long> channelReceived = this.received.computeIfAbsent(channelKey, key -> new HashMap<>());
+            Long previous = channelReceived.get(messages.getOrigin());
+            if (previous != null && previous >= messages.getSequence()) {
+                this.logger.debug("Ignoring the messages [{}] which were already relayed.", messages);
+
+                return false;
+            }
+
+            channelReceived.put(messages.getOrigin(), messages.getSequence());
+
+            return true;
+        }
+    }
+
+    /**
+     * Forget the sequences received for the local channels which don't exist anymore.
+     */
+    void pruneReceived()
+    {
+        synchronized (this.received) {
+            this.received.keySet().removeIf(channelKey -> this.channels.get(channelKey) == null);
+        }
+    }
+
+    private void sendText(User user, String text)
+    {
+        Session session = user.getSession();
+        try {
+            // Make sure the messages are written one after the other
+            synchronized (session) {
+                session.getBasicRemote().sendText(text);
+            }
+        } catch (IOException | IllegalStateException e) {
+            this.logger.debug("Failed to relay a message to the Netflux user [{}]: {}", user.getName(),
+                e.getMessage());
+        }
+    }
+
+    /**
+     * @return the message in the format Netflux uses to notify the users of a channel about a message sent to it
+     */
+    private String toNetfluxMessage(EntityChannelMessages.Message message, String channelKey)
+    {
+        StringBuilder text = new StringBuilder("[0,");
+        quote(message.getSender(), text);
+        text.append(',');
+        quote(MessageDispatcher.COMMAND_MSG, text);
+        text.append(',');
+        quote(channelKey, text);
+        text.append(',');
+        quote(message.getContent(), text);
+        text.append(']');
+
+        return text.toString();
+    }
+
+    private void quote(String value, StringBuilder text)
+    {
+        text.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if (c < ' ') {
+                text.append(String.format("\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        text.append('"');
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.netflux.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.netflux.EntityChannelStore;
+
+/**
+ * A bot that joins the entity channels in order to relay their messages to the other cluster members.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ * @see EntityChannelRelay
+ */
+@Component
+@Singleton
+@Named("EntityChannelRelayBot")
+public class EntityChannelRelayBot extends AbstractBot
+{
+    @Inject
+    private EntityChannelStore entityChannels;
+
+    /**
+     * Lazily initialized to not start the relay when there is no cluster.
+     */
+    @Inject
+    private Provider<EntityChannelRelay> relayProvider;
+
+    @Override
+    public boolean onJoinChannel(Channel channel)
+    {
+        return this.relayProvider.get().isEnabled() && this.entityChannels.getChannel(channel.getKey()).isPresent();
+    }
+
+    @Override
+    public void onChannelMessage(Channel channel, User sender, String messageType, String message)
+    {
+        // Only the messages with content are relayed, the other cluster members have their own join, leave and ping
+        // messages.
+        if (MessageDispatcher.COMMAND_MSG.equals(messageType)) {
+            this.entityChannels.getChannel(channel.getKey())
+                .ifPresent(entityChannel -> this.relayProvider.get().send(entityChannel, sender.getName(), message));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.netflux.internal;
+
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.netflux.EntityChannel;
+import org.xwiki.netflux.EntityChannelStore;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link EntityChannelRelay}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class EntityChannelRelayTest
+{
+    private static final DocumentReference DOCUMENT = new DocumentReference("wiki", "Space", "Page");
+
+    private static final List<String> PATH = List.of("en", "events", "wysiwyg");
+
+    @InjectMockComponents
+    private EntityChannelRelay relay;
+
+    @MockComponent
+    private EntityChannelStore entityChannels;
+
+    @MockComponent
+    private ChannelStore channels;
+
+    @MockComponent
+    private EntityChannelBus bus;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private RemoteEndpoint.Basic remote;
+
+    private Channel channel = new Channel("local");
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.session.getBasicRemote()).thenReturn(this.remote);
+        User user = new User(this.session, "bob");
+        this.channel.getUsers().put(user.getName(), user);
+
+        when(this.entityChannels.getChannel(DOCUMENT, PATH))
+            .thenReturn(Optional.of(new EntityChannel(DOCUMENT, PATH, "local")));
+        when(this.channels.get("local")).thenReturn(this.channel);
+    }
+
+    @Test
+    void send()
+    {
+        EntityChannel entityChannel = new EntityChannel(DOCUMENT, PATH, "local");
+
+        this.relay.send(entityChannel, "alice", "first");
+        this.relay.send(entityChannel, "bob", "second");
+
+        ArgumentCaptor<EntityChannelMessages> captor = ArgumentCaptor.forClass(EntityChannelMessages.class);
+        verify(this.bus, timeout(5000)).send(captor.capture());
+
+        EntityChannelMessages messages = captor.getValue();
+        assertEquals(DOCUMENT, messages.getEntityReference());
+        assertEquals(PATH, messages.getPath());
+        assertEquals(2, messages.getMessages().size());
+        assertEquals("alice", messages.getMessages().get(0).getSender());
+        assertEquals("first", messages.getMessages().get(0).getContent());
+        assertEquals("bob", messages.getMessages().get(1).getSender());
+        assertEquals("second", messages.getMessages().get(1).getContent());
+
+        // The messages sent by this cluster member are not relayed back to its users
+        this.relay.receive(messages);
+
+        verify(this.session, never()).getBasicRemote();
+    }
+
+    @Test
+    void receive() throws Exception
+    {
+        EntityChannelMessages messages = new EntityChannelMessages("remote", 1, DOCUMENT, PATH);
+        messages.add("alice", "[\"patch\"]");
+
+        this.relay.receive(messages);
+
+        String text = "[0,\"alice\",\"MSG\",\"local\",\"[\\\"patch\\\"]\"]";
+        verify(this.remote).sendText(text);
+        // The users joining the local channel later get the message from its history
+        assertEquals(List.of(text), this.channel.getMessages());
+
+        // The same batch is not relayed twice
+        this.relay.receive(messages);
+
+        verify(this.remote).sendText(text);
+        assertEquals(List.of(text), this.channel.getMessages());
+    }
+
+    @Test
+    void pruneReceived() throws Exception
+    {
+        EntityChannelMessages messages = new EntityChannelMessages("remote", 1, DOCUMENT, PATH);
+        messages.add("alice", "text");
+
+        this.relay.receive(messages);
+
+        // The local channel still exists
+        this.relay.pruneReceived();
+        this.relay.receive(messages);
+
+        assertEquals(1, this.channel.getMessages().size());
+
+        // The local channel was removed
+        when(this.channels.get("local")).thenReturn(null);
+        this.relay.pruneReceived();
+
+        // The sequence was forgotten
+        when(this.channels.get("local")).thenReturn(this.channel);
+        this.relay.receive(messages);
+
+        assertEquals(2, this.channel.getMessages().size());
+    }
+
+    @Test
+    void receiveWithoutLocalChannel() throws Exception
+    {
+        EntityChannelMessages messages =
+            new EntityChannelMessages("remote", 1, DOCUMENT, List.of("en", "events", "wiki"));
+        messages.add("alice", "text");
+
+        when(this.entityChannels.getChannel(DOCUMENT, messages.getPath())).thenReturn(Optional.empty());
+
+        this.relay.receive(messages);
+
+        verify(this.session, never()).getBasicRemote();
+    }
+}
@@ -35,18 +35,18 @@
 import org.xwiki.notifications.filters.watch.WatchedEntitiesConfiguration;
 import org.xwiki.notifications.filters.watch.WatchedEntitiesManager;
 import org.xwiki.notifications.filters.watch.WatchedEntityFactory;
-import org.xwiki.observation.AbstractEventListener;
-import org.xwiki.observation.ObservationContext;
-import org.xwiki.observation.event.BeginEvent;
-import org.xwiki.observation.event.BeginFoldEvent;
 import org.xwiki.observation.event.Event;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.AsyncDocumentEventListener;
 import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Automatically watch modified documents.
+ * <p>
+ * Checking the preferences of the author and saving the watched location can be slow, so this is done in the
+ * background to not slow down the save of the document.
  * 
  * @version $Id$
  * @since 9.8RC1
@@ -54,31 +54,19 @@
 @Component
 @Named(AutomaticWatchModeListener.LISTENER_NAME)
 @Singleton
-public class AutomaticWatchModeListener extends AbstractEventListener
+public class AutomaticWatchModeListener implements AsyncDocumentEventListener
 {
     /**
      * The name of the listener.
      */
     public static final String LISTENER_NAME = "AutomaticNotificationsWatchModeListener";
 
-    /**
-     * The skipped events group matcher.
-     */
-    private static final BeginEvent SKIPPED_EVENTS = event -> event instanceof BeginFoldEvent;
-
     /**
      * The events to match.
      */
     private static final List<Event> LISTENER_EVENTS = Arrays.asList(new DocumentCreatedEvent(),
             new DocumentUpdatedEvent());
 
-    /**
-     * Used to detect if certain events are not independent, i.e. executed in the context of other events, case in which
-     * they should be skipped.
-     */
-    @Inject
-    private ObservationContext observationContext;
-
     @Inject
     private WatchedEntitiesManager watchedEntitiesManager;
 
@@ -91,20 +79,30 @@ public class AutomaticWatchModeListener extends AbstractEventListener
     @Inject
     private Logger logger;
 
-    /**
-     * Default constructor.
-     */
-    public AutomaticWatchModeListener()
+    @Override
+    public String getName()
+    {
+        return LISTENER_NAME;
+    }
+
+    @Override
+    public List<Event> getEvents()
     {
-        super(LISTENER_NAME, LISTENER_EVENTS);
+        return LISTENER_EVENTS;
     }
 
     @Override
-    public void onEvent(Event event, Object source, Object data)
+    public boolean isFoldedEventSkipped()
     {
         // Does not auto-watch updated or created documents when they are in the context of other events.
-        if (configuration.isEnabled() && !observationContext.isIn(SKIPPED_EVENTS)) {
-            documentModifiedHandler(event, (XWikiDocument) source, (XWikiContext) data);
+        return true;
+    }
+
+    @Override
+    public void onEvent(Event event, XWikiDocument document, XWikiContext xcontext)
+    {
+        if (configuration.isEnabled()) {
+            documentModifiedHandler(event, document, xcontext);
         }
     }
 
@@ -0,0 +1,171 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.filters.watch.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.notifications.filters.watch.AutomaticWatchMode;
+import org.xwiki.notifications.filters.watch.WatchedEntitiesConfiguration;
+import org.xwiki.notifications.filters.watch.WatchedEntitiesManager;
+import org.xwiki.notifications.filters.watch.WatchedEntityFactory;
+import org.xwiki.notifications.filters.watch.WatchedLocationReference;
+import org.xwiki.observation.ObservationContext;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.AsyncDocumentEventDispatcher;
+import com.xpn.xwiki.internal.observation.ListenerStatistics;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AutomaticWatchModeListener} through the {@link AsyncDocumentEventDispatcher}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList(AutomaticWatchModeListener.class)
+class AutomaticWatchModeListenerTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private static final DocumentReference USER_REFERENCE = new DocumentReference("wiki", "XWiki", "User");
+
+    @InjectMockComponents
+    private AsyncDocumentEventDispatcher dispatcher;
+
+    @MockComponent
+    private ConfigurationSource configurationSource;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private ListenerStatistics statistics;
+
+    @MockComponent
+    private ObservationContext observationContext;
+
+    @MockComponent
+    private WatchedEntitiesManager watchedEntitiesManager;
+
+    @MockComponent
+    private WatchedEntityFactory factory;
+
+    @MockComponent
+    private WatchedEntitiesConfiguration configuration;
+
+    private XWikiDocument document;
+
+    private XWikiContext xcontext;
+
+    private WatchedLocationReference watchedLocation;
+
+    @BeforeComponent
+    void beforeComponent(MockitoComponentManager componentManager) throws Exception
+    {
+        componentManager.registerComponent(ComponentManager.class, "context", componentManager);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.configurationSource.getProperty("observation.asyncDocumentListeners.threads", 2)).thenReturn(1);
+        when(this.configurationSource.getProperty("observation.asyncDocumentListeners.queueSize", 1000))
+            .thenReturn(10);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return null;
+        }).when(this.statistics).record(any(), any(), any());
+
+        // The listener is called with a copy of the context
+        ExecutionContext executionContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(executionContext);
+        ExecutionContext clonedExecutionContext = new ExecutionContext();
+        this.xcontext = mock(XWikiContext.class);
+        clonedExecutionContext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, this.xcontext);
+        when(this.executionContextManager.clone(executionContext)).thenReturn(clonedExecutionContext);
+        XWiki xwiki = mock(XWiki.class);
+        when(this.xcontext.getWiki()).thenReturn(xwiki);
+        when(xwiki.exists(USER_REFERENCE, this.xcontext)).thenReturn(true);
+
+        // The listener is called with a copy of the document
+        this.document = mock(XWikiDocument.class);
+        when(this.document.getDocumentReference()).thenReturn(DOCUMENT_REFERENCE);
+        XWikiDocument documentCopy = mock(XWikiDocument.class);
+        when(documentCopy.getDocumentReference()).thenReturn(DOCUMENT_REFERENCE);
+        when(documentCopy.getAuthorReference()).thenReturn(USER_REFERENCE);
+        when(this.document.clone()).thenReturn(documentCopy);
+
+        when(this.configuration.isEnabled()).thenReturn(true);
+        when(this.configuration.getAutomaticWatchMode(USER_REFERENCE)).thenReturn(AutomaticWatchMode.ALL);
+        this.watchedLocation = mock(WatchedLocationReference.class);
+        when(this.factory.createWatchedLocationReference(DOCUMENT_REFERENCE)).thenReturn(this.watchedLocation);
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.dispatcher.dispose();
+    }
+
+    @Test
+    void onDocumentUpdated() throws Exception
+    {
+        this.dispatcher.onEvent(new DocumentUpdatedEvent(DOCUMENT_REFERENCE), this.document, null);
+
+        verify(this.watchedEntitiesManager, timeout(10000)).watchEntity(this.watchedLocation, USER_REFERENCE);
+    }
+
+    @Test
+    void onDocumentUpdatedInFoldEvent() throws Exception
+    {
+        when(this.observationContext.isIn(any())).thenReturn(true);
+
+        this.dispatcher.onEvent(new DocumentUpdatedEvent(DOCUMENT_REFERENCE), this.document, null);
+
+        verify(this.executionContextManager, never()).clone(any());
+        verify(this.watchedEntitiesManager, never()).watchEntity(any(), any());
+    }
+}
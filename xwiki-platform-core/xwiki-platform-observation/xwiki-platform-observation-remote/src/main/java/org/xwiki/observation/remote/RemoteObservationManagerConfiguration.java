@@ -22,6 +22,7 @@
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.stability.Unstable;
 
 /**
  * Provide configuration for remote observation manager.
@@ -56,4 +57,27 @@ default String getId()
     {
         return null;
     }
+
+    /**
+     * @return the format used to encode the events sent to the other cluster members: {@code binary} for the compact
+     *     codec (which allows sending several events in the same message) or {@code java} for the Java serialization of
+     *     each event
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    default String getEncoding()
+    {
+        return "java";
+    }
+
+    /**
+     * @return the maximum time, in milliseconds, to wait for other events before sending an event, so that events
+     *     produced close to each other are sent in the same network message, or 0 to send each event immediately
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    default long getBatchWindow()
+    {
+        return 0;
+    }
 }
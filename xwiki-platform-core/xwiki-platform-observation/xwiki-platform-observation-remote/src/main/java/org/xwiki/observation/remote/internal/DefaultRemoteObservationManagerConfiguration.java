@@ -83,6 +83,18 @@ public String getNetworkAdapter()
         return this.configurationSource.getProperty("observation.remote.networkadapter", "jgroups");
     }
 
+    @Override
+    public String getEncoding()
+    {
+        return this.configurationSource.getProperty("observation.remote.encoding", "binary");
+    }
+
+    @Override
+    public long getBatchWindow()
+    {
+        return this.configurationSource.getProperty("observation.remote.batchWindow", 5L);
+    }
+
     @Override
     public String getId()
     {
@@ -0,0 +1,137 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.codec;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.observation.event.Event;
+
+/**
+ * The fields of an event class which can be written without Java serialization.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+final class RecordDescriptor
+{
+    private static final Set<String> SERIALIZATION_METHODS =
+        Set.of("writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve");
+
+    private final Constructor<?> constructor;
+
+    private final List<Field> fields;
+
+    private final Map<String, Field> fieldsByName;
+
+    private RecordDescriptor(Constructor<?> constructor, List<Field> fields, Map<String, Field> fieldsByName)
+    {
+        this.constructor = constructor;
+        this.fields = fields;
+        this.fieldsByName = fieldsByName;
+    }
+
+    /**
+     * @param type the class of the event
+     * @return the descriptor, or null if the class is not a serializable event or customizes its serialization
+     */
+    static RecordDescriptor create(Class<?> type)
+    {
+        if (!Event.class.isAssignableFrom(type) || !Serializable.class.isAssignableFrom(type)
+            || Externalizable.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            List<Field> fields = new ArrayList<>();
+            Map<String, Field> fieldsByName = new HashMap<>();
+            for (Class<?> current = type; current != null && Serializable.class.isAssignableFrom(current);
+                current = current.getSuperclass()) {
+                for (Method method : current.getDeclaredMethods()) {
+                    if (SERIALIZATION_METHODS.contains(method.getName())) {
+                        return null;
+                    }
+                }
+
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        if (fieldsByName.put(field.getName(), field) != null) {
+                            // Shadowed fields are not supported
+                            return null;
+                        }
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+
+            return new RecordDescriptor(constructor, Collections.unmodifiableList(fields), fieldsByName);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            // No default constructor or inaccessible members
+            return null;
+        }
+    }
+
+    /**
+     * @return the fields to write
+     */
+    List<Field> getFields()
+    {
+        return this.fields;
+    }
+
+    /**
+     * @param name the name of the field
+     * @return the field, or null if the class does not have such a field (anymore)
+     */
+    Field getField(String name)
+    {
+        return this.fieldsByName.get(name);
+    }
+
+    /**
+     * @return a new instance of the class, to set the fields of
+     * @throws IOException when failing to create the instance
+     */
+    Object newInstance() throws IOException
+    {
+        try {
+            return this.constructor.newInstance();
+        } catch (Exception e) {
+            throw new IOException("Failed to create an instance of [" + this.constructor.getDeclaringClass() + "]",
+                e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Compact binary format for a sequence of {@link RemoteEventData}, much smaller and faster to produce than the Java
+ * serialization of each event.
+ * <p>
+ * The format is based on the shape of the common platform events instead of a generic object graph:
+ * <ul>
+ * <li>all the strings of a message (class and field names, references elements, versions, etc.) are written only once
+ * in a table at the beginning of the message and then referenced by index</li>
+ * <li>strings, numbers, booleans, locales, {@link java.util.HashMap}s and {@link java.util.ArrayList}s are written
+ * with a one byte tag</li>
+ * <li>{@link EntityReference}s are written as a chain of type/name/parameters</li>
+ * <li>the standard event filters are written as their kind and filter</li>
+ * <li>{@link org.xwiki.observation.event.Event}s without custom serialization are written as the list of their
+ * fields</li>
+ * <li>anything else falls back on Java serialization</li>
+ * </ul>
+ * <p>
+ * Each event is written in its own block so that an event which cannot be read (for example because its class is not
+ * available) does not prevent reading the other events of the message.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = RemoteEventDataCodec.class)
+@Singleton
+public class RemoteEventDataCodec
+{
+    /**
+     * The first bytes of an encoded message, which cannot be mistaken with a Java serialized message.
+     */
+    static final byte[] MAGIC = {'X', 'R', 'E'};
+
+    /**
+     * The version of the format.
+     */
+    static final byte VERSION = 2;
+
+    static final int TAG_NULL = 0;
+
+    static final int TAG_STRING = 1;
+
+    static final int TAG_TRUE = 2;
+
+    static final int TAG_FALSE = 3;
+
+    static final int TAG_INTEGER = 4;
+
+    static final int TAG_LONG = 5;
+
+    static final int TAG_MAP = 6;
+
+    static final int TAG_LIST = 7;
+
+    static final int TAG_LOCALE = 8;
+
+    static final int TAG_REFERENCE = 9;
+
+    static final int TAG_FILTER = 10;
+
+    static final int TAG_RECORD = 11;
+
+    static final int TAG_SERIALIZED = 12;
+
+    static final int FILTER_ALWAYS = 0;
+
+    static final int FILTER_FIXED = 1;
+
+    static final int FILTER_REGEX = 2;
+
+    private final Map<Class<?>, Optional<RecordDescriptor>> descriptors = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Optional<Constructor<?>>> referenceConstructors = new ConcurrentHashMap<>();
+
+    /**
+     * @param buffer the received bytes
+     * @param offset the index of the first byte of the message
+     * @param length the length of the message
+     * @return true if the passed bytes were produced by this codec
+     */
+    public boolean isEncoded(byte[] buffer, int offset, int length)
+    {
+        if (buffer == null || length <= MAGIC.length) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (buffer[offset + i] != MAGIC[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param events the events to encode in the same message, in the order in which they should be notified
+     * @return the encoded message
+     * @throws IOException when failing to encode one of the events
+     */
+    public byte[] encode(List<RemoteEventData> events) throws IOException
+    {
+        return new RemoteEventDataWriter(this).write(events);
+    }
+
+    /**
+     * @param buffer the received bytes
+     * @param offset the index of the first byte of the message
+     * @param length the length of the message
+     * @param classLoader the class loader to use to resolve the events classes
+     * @return the decoded events, in the order in which they were encoded
+     * @throws IOException when failing to decode the message or one of its events
+     */
+    public List<RemoteEventData> decode(byte[] buffer, int offset, int length, ClassLoader classLoader)
+        throws IOException
+    {
+        return decode(buffer, offset, length, classLoader, null);
+    }
+
+    /**
+     * @param buffer the received bytes
+     * @param offset the index of the first byte of the message
+     * @param length the length of the message
+     * @param classLoader the class loader to use to resolve the events classes
+     * @param errorHandler called with the error and the index of each event which could not be decoded, the other
+     *            events of the message are still decoded; when null the first failure is thrown
+     * @return the decoded events, in the order in which they were encoded
+     * @throws IOException when failing to decode the message
+     */
+    public List<RemoteEventData> decode(byte[] buffer, int offset, int length, ClassLoader classLoader,
+        ObjIntConsumer<Exception> errorHandler) throws IOException
+    {
+        if (!isEncoded(buffer, offset, length)) {
+            throw new IOException("The message was not produced by the remote event codec");
+        }
+
+        return new RemoteEventDataReader(this, classLoader).read(buffer, offset, length, errorHandler);
+    }
+
+    /**
+     * @param type the class of the object to write or read
+     * @return the description of the fields to write and read, or null if the class should use Java serialization
+     */
+    RecordDescriptor getRecordDescriptor(Class<?> type)
+    {
+        return this.descriptors.computeIfAbsent(type, key -> Optional.ofNullable(RecordDescriptor.create(key)))
+            .orElse(null);
+    }
+
+    /**
+     * @param type the class of the reference to create
+     * @return the constructor taking an {@link EntityReference}, or null if there is none
+     */
+    Constructor<?> getReferenceConstructor(Class<?> type)
+    {
+        return this.referenceConstructors.computeIfAbsent(type, key -> {
+            try {
+                return Optional.of(key.getConstructor(EntityReference.class));
+            } catch (NoSuchMethodException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+}
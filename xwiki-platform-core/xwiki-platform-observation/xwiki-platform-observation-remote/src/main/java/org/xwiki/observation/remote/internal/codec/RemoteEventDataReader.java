@@ -0,0 +1,378 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.observation.event.filter.AlwaysMatchingEventFilter;
+import org.xwiki.observation.event.filter.FixedNameEventFilter;
+import org.xwiki.observation.event.filter.RegexEventFilter;
+import org.xwiki.observation.remote.RemoteEventData;
+
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_ALWAYS;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_FIXED;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_REGEX;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_FALSE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_FILTER;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_INTEGER;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LIST;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LOCALE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LONG;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_MAP;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_NULL;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_RECORD;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_REFERENCE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_SERIALIZED;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_STRING;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_TRUE;
+
+/**
+ * Read one message of the {@link RemoteEventDataCodec} format.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+final class RemoteEventDataReader
+{
+    private static final int MAX_INITIAL_CAPACITY = 64;
+
+    private final RemoteEventDataCodec codec;
+
+    private final ClassLoader classLoader;
+
+    private final List<String> strings = new ArrayList<>();
+
+    private DataInputStream input;
+
+    RemoteEventDataReader(RemoteEventDataCodec codec, ClassLoader classLoader)
+    {
+        this.codec = codec;
+        this.classLoader = classLoader != null ? classLoader : getClass().getClassLoader();
+    }
+
+    List<RemoteEventData> read(byte[] buffer, int offset, int length, ObjIntConsumer<Exception> errorHandler)
+        throws IOException
+    {
+        this.input = new DataInputStream(new ByteArrayInputStream(buffer, offset, length));
+
+        this.input.skipNBytes(RemoteEventDataCodec.MAGIC.length);
+        int version = this.input.readUnsignedByte();
+        if (version != RemoteEventDataCodec.VERSION) {
+            throw new IOException("Unsupported remote event codec version [" + version + "]");
+        }
+
+        int stringsSize = readSize();
+        for (int i = 0; i < stringsSize; ++i) {
+            this.strings.add(new String(readBytes(readSize()), StandardCharsets.UTF_8));
+        }
+
+        int size = readSize();
+        List<RemoteEventData> events = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        DataInputStream message = this.input;
+        for (int i = 0; i < size; ++i) {
+            int blockSize = readSize();
+            if (blockSize > message.available()) {
+                throw new IOException("Unexpected end of remote event message");
+            }
+
+            // Read the event from its own block so that a failure does not prevent reading the next events
+            int blockOffset = offset + length - message.available();
+            message.skipNBytes(blockSize);
+            this.input = new DataInputStream(new ByteArrayInputStream(buffer, blockOffset, blockSize));
+            try {
+                events.add(readEvent());
+            } catch (IOException | RuntimeException e) {
+                if (errorHandler == null) {
+                    throw e instanceof IOException ioException ? ioException
+                        : new IOException("Failed to read the remote event [" + i + "]", e);
+                }
+
+                errorHandler.accept(e, i);
+            } finally {
+                this.input = message;
+            }
+        }
+
+        return events;
+    }
+
+    private RemoteEventData readEvent() throws IOException
+    {
+        Serializable event = (Serializable) readValue();
+        Serializable source = (Serializable) readValue();
+        Serializable data = (Serializable) readValue();
+
+        return new RemoteEventData(event, source, data);
+    }
+
+    private Object readValue() throws IOException
+    {
+        int tag = this.input.readUnsignedByte();
+
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString();
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INTEGER:
+                return (int) readLong();
+            case TAG_LONG:
+                return readLong();
+            case TAG_MAP:
+                return readMap();
+            case TAG_LIST:
+                return readList();
+            case TAG_LOCALE:
+                return Locale.forLanguageTag(readString());
+            case TAG_REFERENCE:
+                return readReference();
+            case TAG_FILTER:
+                return readFilter();
+            case TAG_RECORD:
+                return readRecord();
+            case TAG_SERIALIZED:
+                return readSerialized();
+            default:
+                throw new IOException("Unknown remote event codec tag [" + tag + "]");
+        }
+    }
+
+    private Map<Object, Object> readMap() throws IOException
+    {
+        int size = readSize();
+        Map<Object, Object> map = new HashMap<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < size; ++i) {
+            map.put(readValue(), readValue());
+        }
+
+        return map;
+    }
+
+    private List<Object> readList() throws IOException
+    {
+        int size = readSize();
+        List<Object> list = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < size; ++i) {
+            list.add(readValue());
+        }
+
+        return list;
+    }
+
+    private EntityReference readReference() throws IOException
+    {
+        Class<?> type = loadClass(readString());
+        if (!EntityReference.class.isAssignableFrom(type)) {
+            throw new IOException("Class [" + type + "] is not an entity reference");
+        }
+
+        EntityReference reference = null;
+        int size = readSize();
+        for (int i = 0; i < size; ++i) {
+            EntityType entityType = EntityType.valueOf(readString());
+            String name = readString();
+
+            int parametersSize = readSize();
+            Map<String, Serializable> parameters = null;
+            if (parametersSize > 0) {
+                parameters = new HashMap<>(Math.min(parametersSize, MAX_INITIAL_CAPACITY));
+                for (int j = 0; j < parametersSize; ++j) {
+                    parameters.put(readString(), (Serializable) readValue());
+                }
+            }
+
+            reference = new EntityReference(name, entityType, reference, parameters);
+        }
+
+        if (reference == null || type == EntityReference.class) {
+            return reference;
+        }
+
+        Constructor<?> constructor = this.codec.getReferenceConstructor(type);
+        if (constructor == null) {
+            return reference;
+        }
+
+        try {
+            return (EntityReference) constructor.newInstance(reference);
+        } catch (Exception e) {
+            throw new IOException("Failed to create a reference of type [" + type + "]", e);
+        }
+    }
+
+    private Object readFilter() throws IOException
+    {
+        int kind = readSize();
+
+        switch (kind) {
+            case FILTER_ALWAYS:
+                return new AlwaysMatchingEventFilter();
+            case FILTER_FIXED:
+                return new FixedNameEventFilter(readString());
+            case FILTER_REGEX:
+                return new RegexEventFilter(readString());
+            default:
+                throw new IOException("Unknown remote event codec filter [" + kind + "]");
+        }
+    }
+
+    private Object readRecord() throws IOException
+    {
+        Class<?> type = loadClass(readString());
+        RecordDescriptor descriptor = this.codec.getRecordDescriptor(type);
+        if (descriptor == null) {
+            throw new IOException("Class [" + type + "] cannot be read as a record");
+        }
+
+        Object value = descriptor.newInstance();
+
+        int size = readSize();
+        for (int i = 0; i < size; ++i) {
+            String name = readString();
+            Object fieldValue = readValue();
+
+            // Ignore fields which don't exist anymore
+            Field field = descriptor.getField(name);
+            if (field != null) {
+                try {
+                    field.set(value, fieldValue);
+                } catch (Exception e) {
+                    throw new IOException("Failed to set the field [" + field + "]", e);
+                }
+            }
+        }
+
+        return value;
+    }
+
+    private Object readSerialized() throws IOException
+    {
+        byte[] serialized = readBytes(readSize());
+
+        try (ObjectInputStream stream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return stream.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Failed to unserialize a remote event value", e);
+        }
+    }
+
+    private Class<?> loadClass(String name) throws IOException
+    {
+        try {
+            return Class.forName(name, false, this.classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Failed to load the class [" + name + "]", e);
+        }
+    }
+
+    private String readString() throws IOException
+    {
+        int index = readSize();
+        if (index >= this.strings.size()) {
+            throw new IOException("Unknown string index [" + index + "]");
+        }
+
+        return this.strings.get(index);
+    }
+
+    private byte[] readBytes(int length) throws IOException
+    {
+        // Protect against corrupted sizes
+        if (length > this.input.available()) {
+            throw new IOException("Unexpected end of remote event message");
+        }
+
+        byte[] bytes = new byte[length];
+        this.input.readFully(bytes);
+
+        return bytes;
+    }
+
+    private long readLong() throws IOException
+    {
+        long value = readVarLong();
+
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readSize() throws IOException
+    {
+        long size = readVarLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size [" + size + "]");
+        }
+
+        return (int) size;
+    }
+
+    private long readVarLong() throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = this.input.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length number");
+    }
+
+    private final class ClassLoaderObjectInputStream extends ObjectInputStream
+    {
+        ClassLoaderObjectInputStream(InputStream input) throws IOException
+        {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            try {
+                return Class.forName(desc.getName(), false, RemoteEventDataReader.this.classLoader);
+            } catch (ClassNotFoundException e) {
+                // Primitive types and classes not visible from the class loader
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
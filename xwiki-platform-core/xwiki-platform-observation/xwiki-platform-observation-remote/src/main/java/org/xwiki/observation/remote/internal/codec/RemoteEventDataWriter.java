@@ -0,0 +1,291 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.observation.event.filter.AlwaysMatchingEventFilter;
+import org.xwiki.observation.event.filter.FixedNameEventFilter;
+import org.xwiki.observation.event.filter.RegexEventFilter;
+import org.xwiki.observation.remote.RemoteEventData;
+
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_ALWAYS;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_FIXED;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.FILTER_REGEX;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_FALSE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_FILTER;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_INTEGER;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LIST;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LOCALE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_LONG;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_MAP;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_NULL;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_RECORD;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_REFERENCE;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_SERIALIZED;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_STRING;
+import static org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec.TAG_TRUE;
+
+/**
+ * Write one message of the {@link RemoteEventDataCodec} format.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+final class RemoteEventDataWriter
+{
+    private final RemoteEventDataCodec codec;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+    private final DataOutputStream output = new DataOutputStream(this.bytes);
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    RemoteEventDataWriter(RemoteEventDataCodec codec)
+    {
+        this.codec = codec;
+    }
+
+    byte[] write(List<RemoteEventData> events) throws IOException
+    {
+        // Each event is written in its own block so that the receiver can skip an event it fails to read
+        List<byte[]> blocks = new ArrayList<>(events.size());
+        for (RemoteEventData event : events) {
+            this.bytes.reset();
+            writeValue(event.getEvent());
+            writeValue(event.getSource());
+            writeValue(event.getData());
+            this.output.flush();
+
+            blocks.add(this.bytes.toByteArray());
+        }
+
+        this.bytes.reset();
+        this.output.write(RemoteEventDataCodec.MAGIC);
+        this.output.writeByte(RemoteEventDataCodec.VERSION);
+
+        // The strings of all the events, referenced by index in the blocks
+        writeSize(this.strings.size());
+        for (String string : this.strings.keySet()) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeSize(utf8.length);
+            this.output.write(utf8);
+        }
+
+        writeSize(blocks.size());
+        for (byte[] block : blocks) {
+            writeSize(block.length);
+            this.output.write(block);
+        }
+
+        this.output.flush();
+
+        return this.bytes.toByteArray();
+    }
+
+    private void writeValue(Object value) throws IOException
+    {
+        if (value == null) {
+            this.output.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            this.output.writeByte(TAG_STRING);
+            writeString(string);
+        } else if (value instanceof Boolean bool) {
+            this.output.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer integer) {
+            this.output.writeByte(TAG_INTEGER);
+            writeLong(integer);
+        } else if (value instanceof Long longValue) {
+            this.output.writeByte(TAG_LONG);
+            writeLong(longValue);
+        } else if (value.getClass() == HashMap.class) {
+            writeMap((Map<?, ?>) value);
+        } else if (value.getClass() == ArrayList.class) {
+            writeList((List<?>) value);
+        } else if (value instanceof EntityReference reference) {
+            writeReference(reference);
+        } else if (!writeLocale(value) && !writeFilter(value)) {
+            RecordDescriptor descriptor = this.codec.getRecordDescriptor(value.getClass());
+            if (descriptor != null) {
+                writeRecord(value, descriptor);
+            } else {
+                writeSerialized(value);
+            }
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException
+    {
+        this.output.writeByte(TAG_MAP);
+        writeSize(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeList(List<?> list) throws IOException
+    {
+        this.output.writeByte(TAG_LIST);
+        writeSize(list.size());
+        for (Object element : list) {
+            writeValue(element);
+        }
+    }
+
+    private boolean writeLocale(Object value) throws IOException
+    {
+        if (value instanceof Locale locale) {
+            String tag = locale.toLanguageTag();
+            // Legacy locales which cannot be represented as a language tag fall back on Java serialization
+            if (Locale.forLanguageTag(tag).equals(locale)) {
+                this.output.writeByte(TAG_LOCALE);
+                writeString(tag);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void writeReference(EntityReference reference) throws IOException
+    {
+        this.output.writeByte(TAG_REFERENCE);
+        writeString(reference.getClass().getName());
+
+        List<EntityReference> chain = reference.getReversedReferenceChain();
+        writeSize(chain.size());
+        for (EntityReference element : chain) {
+            writeString(element.getType().name());
+            writeString(element.getName());
+
+            Map<String, Serializable> parameters = element.getParameters();
+            writeSize(parameters.size());
+            for (Map.Entry<String, Serializable> parameter : parameters.entrySet()) {
+                writeString(parameter.getKey());
+                writeValue(parameter.getValue());
+            }
+        }
+    }
+
+    private boolean writeFilter(Object value) throws IOException
+    {
+        Class<?> type = value.getClass();
+
+        if (type == AlwaysMatchingEventFilter.class) {
+            this.output.writeByte(TAG_FILTER);
+            writeSize(FILTER_ALWAYS);
+        } else if (type == FixedNameEventFilter.class) {
+            this.output.writeByte(TAG_FILTER);
+            writeSize(FILTER_FIXED);
+            writeString(((FixedNameEventFilter) value).getFilter());
+        } else if (type == RegexEventFilter.class) {
+            this.output.writeByte(TAG_FILTER);
+            writeSize(FILTER_REGEX);
+            writeString(((RegexEventFilter) value).getFilter());
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private void writeRecord(Object value, RecordDescriptor descriptor) throws IOException
+    {
+        this.output.writeByte(TAG_RECORD);
+        writeString(value.getClass().getName());
+
+        List<Field> fields = descriptor.getFields();
+        writeSize(fields.size());
+        for (Field field : fields) {
+            writeString(field.getName());
+            try {
+                writeValue(field.get(value));
+            } catch (IllegalAccessException e) {
+                throw new IOException("Failed to read the field [" + field + "]", e);
+            }
+        }
+    }
+
+    private void writeSerialized(Object value) throws IOException
+    {
+        if (!(value instanceof Serializable)) {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(serialized)) {
+            stream.writeObject(value);
+        }
+
+        this.output.writeByte(TAG_SERIALIZED);
+        writeSize(serialized.size());
+        serialized.writeTo(this.output);
+    }
+
+    private void writeString(String string) throws IOException
+    {
+        Integer index = this.strings.get(string);
+
+        if (index == null) {
+            index = this.strings.size();
+            this.strings.put(string, index);
+        }
+
+        writeSize(index);
+    }
+
+    private void writeLong(long value) throws IOException
+    {
+        // Zigzag encoding to keep small negative values short
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeSize(int size) throws IOException
+    {
+        writeVarLong(size);
+    }
+
+    private void writeVarLong(long value) throws IOException
+    {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            this.output.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        this.output.writeByte((int) remaining);
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.xwiki.observation.remote.internal.jgroups;
 
+import java.io.IOException;
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -32,6 +35,7 @@
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.observation.remote.RemoteEventData;
 import org.xwiki.observation.remote.RemoteObservationManager;
+import org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec;
 import org.xwiki.observation.remote.jgroups.JGroupsReceiver;
 
 /**
@@ -59,6 +63,9 @@ public class DefaultJGroupsReceiver extends ReceiverAdapter implements JGroupsRe
     @Inject
     private ClassLoaderManager classLoaderManager;
 
+    @Inject
+    private RemoteEventDataCodec codec;
+
     /**
      * The logger to log.
      */
@@ -84,13 +91,44 @@ public RemoteObservationManager getRemoteObservationManager()
     @Override
     public void receive(Message msg)
     {
-        if (msg instanceof BytesMessage) {
-            RemoteEventData remoteEvent = (RemoteEventData) ((BytesMessage) msg)
-                .getObject(this.classLoaderManager.getURLClassLoader(null, false));
+        if (msg instanceof BytesMessage bytesMessage) {
+            ClassLoader classLoader = this.classLoaderManager.getURLClassLoader(null, false);
 
-            this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
+            if (this.codec.isEncoded(bytesMessage.getArray(), bytesMessage.getOffset(), bytesMessage.getLength())) {
+                receiveEncoded(bytesMessage, classLoader);
+            } else {
+                // Java serialized event
+                RemoteEventData remoteEvent = (RemoteEventData) bytesMessage.getObject(classLoader);
 
-            getRemoteObservationManager().notify(remoteEvent);
+                notifyRemoteEvent(remoteEvent);
+            }
         }
     }
+
+    private void receiveEncoded(BytesMessage message, ClassLoader classLoader)
+    {
+        List<RemoteEventData> remoteEvents;
+        try {
+            // Skip the events which cannot be decoded instead of losing the whole message
+            remoteEvents = this.codec.decode(message.getArray(), message.getOffset(), message.getLength(), classLoader,
+                (e, index) -> this.logger.error("Failed to decode the remote event [{}] of the message from [{}]",
+                    index, message.getSrc(), e));
+        } catch (IOException e) {
+            this.logger.error("Failed to decode JGroups remote events message from [{}]", message.getSrc(), e);
+
+            return;
+        }
+
+        // Notify the events in the order in which they were sent
+        for (RemoteEventData remoteEvent : remoteEvents) {
+            notifyRemoteEvent(remoteEvent);
+        }
+    }
+
+    private void notifyRemoteEvent(RemoteEventData remoteEvent)
+    {
+        this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
+
+        getRemoteObservationManager().notify(remoteEvent);
+    }
 }
@@ -23,6 +23,7 @@
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.text.MessageFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -47,6 +48,8 @@
 import org.xwiki.observation.remote.NetworkAdapter;
 import org.xwiki.observation.remote.RemoteEventData;
 import org.xwiki.observation.remote.RemoteEventException;
+import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
+import org.xwiki.observation.remote.internal.codec.RemoteEventDataCodec;
 import org.xwiki.observation.remote.jgroups.JGroupsReceiver;
 
 /**
@@ -65,6 +68,13 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
      */
     public static final String CONFIGURATION_PATH = "observation/remote/jgroups/";
 
+    private static final String ENCODING_BINARY = "binary";
+
+    /**
+     * The maximum number of events sent in the same message.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
     /**
      * Used to lookup the receiver corresponding to the channel identifier.
      */
@@ -77,26 +87,121 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
     @Inject
     private Logger logger;
 
+    @Inject
+    private RemoteObservationManagerConfiguration configuration;
+
+    @Inject
+    private RemoteEventDataCodec codec;
+
     /**
      * The network channels.
      */
     private Map<String, JChannel> channels = new ConcurrentHashMap<>();
 
+    private Boolean binary;
+
+    private RemoteEventBatcher batcher;
+
     @Override
     public void send(RemoteEventData remoteEvent)
     {
         this.logger.debug("Send JGroups remote event [{}]", remoteEvent.toString());
 
-        // Send the message to the whole group
-        Message message = new BytesMessage(null,  remoteEvent);
+        if (!batch(remoteEvent)) {
+            sendBatch(List.of(remoteEvent));
+        }
+    }
+
+    private synchronized boolean batch(RemoteEventData remoteEvent)
+    {
+        // Add the event while holding the lock so that a concurrent flush cannot stop the batcher before the event is
+        // queued
+        RemoteEventBatcher currentBatcher = getBatcher();
+        if (currentBatcher != null) {
+            currentBatcher.add(remoteEvent);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean isBinary()
+    {
+        if (this.binary == null) {
+            this.binary = ENCODING_BINARY.equals(this.configuration.getEncoding());
+        }
+
+        return this.binary;
+    }
 
+    private synchronized RemoteEventBatcher getBatcher()
+    {
+        // Batching relies on the binary encoding to send several events in a single message
+        if (this.batcher == null && isBinary()) {
+            long window = this.configuration.getBatchWindow();
+            if (window > 0) {
+                this.batcher = new RemoteEventBatcher(window, MAX_BATCH_SIZE, this::sendBatch);
+            }
+        }
+
+        return this.batcher;
+    }
+
+    private void flush()
+    {
+        RemoteEventBatcher currentBatcher;
+        synchronized (this) {
+            currentBatcher = this.batcher;
+            this.batcher = null;
+        }
+
+        if (currentBatcher != null) {
+            try {
+                currentBatcher.stop();
+            } catch (InterruptedException e) {
+                this.logger.warn("Interrupted while sending the pending remote events");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sendBatch(List<RemoteEventData> remoteEvents)
+    {
+        if (isBinary()) {
+            try {
+                byte[] bytes = this.codec.encode(remoteEvents);
+                sendMessage(new BytesMessage(null, bytes, 0, bytes.length), remoteEvents);
+
+                return;
+            } catch (Exception e) {
+                this.logger.warn("Failed to encode remote events {}, falling back on Java serialization",
+                    remoteEvents, e);
+            }
+        }
+
+        for (RemoteEventData remoteEvent : remoteEvents) {
+            Message message;
+            try {
+                message = new BytesMessage(null, remoteEvent);
+            } catch (Exception e) {
+                this.logger.error("Failed to serialize remote event [{}]", remoteEvent, e);
+
+                continue;
+            }
+
+            sendMessage(message, remoteEvent);
+        }
+    }
+
+    private void sendMessage(Message message, Object content)
+    {
         // Send message to JGroups channels
         for (Map.Entry<String, JChannel> entry : this.channels.entrySet()) {
             try {
                 entry.getValue().send(message);
             } catch (Exception e) {
-                this.logger.error("Failed to send message [{}] to the channel [{}]", remoteEvent.toString(),
-                    entry.getKey(), e);
+                this.logger.error("Failed to send message [{}] to the channel [{}]", content, entry.getKey(), e);
             }
         }
     }
@@ -138,6 +243,9 @@ public void stopChannel(String channelId) throws RemoteEventException
             throw new RemoteEventException(MessageFormat.format("Channel [{0}] is not started", channelId));
         }
 
+        // Make sure the pending events are sent before closing the channel
+        flush();
+
         channel.close();
 
         this.channels.remove(channelId);
@@ -226,6 +334,9 @@ private InputStream getChannelConfiguration(String channelId) throws IOException
     @Override
     public void stopAllChannels() throws RemoteEventException
     {
+        // Make sure the pending events are sent before closing the channels
+        flush();
+
         for (Map.Entry<String, JChannel> channelEntry : this.channels.entrySet()) {
             channelEntry.getValue().close();
         }
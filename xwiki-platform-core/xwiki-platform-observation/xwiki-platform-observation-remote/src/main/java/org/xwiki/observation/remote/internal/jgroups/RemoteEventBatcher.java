@@ -0,0 +1,122 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Group the events sent during a short window of time so that they are sent in a single network message. The events
+ * are always sent in the order in which they were added.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+final class RemoteEventBatcher implements Runnable
+{
+    private static final RemoteEventData STOP = new RemoteEventData();
+
+    private final BlockingQueue<RemoteEventData> queue = new LinkedBlockingQueue<>();
+
+    private final long window;
+
+    private final int maxSize;
+
+    private final Consumer<List<RemoteEventData>> sender;
+
+    private final Thread thread;
+
+    /**
+     * @param window the maximum time in milliseconds to wait for other events after the first event of a batch
+     * @param maxSize the maximum number of events in a batch
+     * @param sender called (from the batcher thread) with each batch to send
+     */
+    RemoteEventBatcher(long window, int maxSize, Consumer<List<RemoteEventData>> sender)
+    {
+        this.window = TimeUnit.MILLISECONDS.toNanos(window);
+        this.maxSize = maxSize;
+        this.sender = sender;
+
+        this.thread = new Thread(this, "XWiki remote events sender");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @param event the event to send with the next batch
+     */
+    void add(RemoteEventData event)
+    {
+        this.queue.add(event);
+    }
+
+    /**
+     * Send the pending events and stop the thread.
+     *
+     * @throws InterruptedException when interrupted while waiting for the pending events to be sent
+     */
+    void stop() throws InterruptedException
+    {
+        this.queue.add(STOP);
+        this.thread.join();
+    }
+
+    @Override
+    public void run()
+    {
+        boolean running = true;
+
+        while (running) {
+            List<RemoteEventData> batch = new ArrayList<>();
+
+            try {
+                RemoteEventData event = this.queue.take();
+                long deadline = System.nanoTime() + this.window;
+                while (event != null) {
+                    if (event == STOP) {
+                        running = false;
+                        break;
+                    }
+
+                    batch.add(event);
+                    if (batch.size() >= this.maxSize) {
+                        break;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    event = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : this.queue.poll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                this.sender.accept(batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.ObjectReference;
+import org.xwiki.observation.event.AbstractFilterableEvent;
+import org.xwiki.observation.event.filter.EventFilter;
+import org.xwiki.observation.event.filter.RegexEventFilter;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.test.TestEvent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link RemoteEventDataCodec}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class RemoteEventDataCodecTest
+{
+    @InjectMockComponents
+    private RemoteEventDataCodec codec;
+
+    public static class DocumentEvent extends AbstractFilterableEvent
+    {
+        private static final long serialVersionUID = 1L;
+
+        private EntityReference reference;
+
+        private int count;
+
+        public DocumentEvent()
+        {
+        }
+
+        public DocumentEvent(EventFilter filter, EntityReference reference, int count)
+        {
+            super(filter);
+
+            this.reference = reference;
+            this.count = count;
+        }
+    }
+
+    private List<RemoteEventData> roundTrip(List<RemoteEventData> events) throws IOException
+    {
+        byte[] bytes = this.codec.encode(events);
+
+        assertTrue(this.codec.isEncoded(bytes, 0, bytes.length));
+
+        return this.codec.decode(bytes, 0, bytes.length, getClass().getClassLoader());
+    }
+
+    private HashMap<String, Serializable> documentData(int index)
+    {
+        HashMap<String, Serializable> data = new HashMap<>();
+        data.put("docreference", new DocumentReference("wiki", List.of("Space", "Sub"), "Page" + index, Locale.FRENCH));
+        data.put("docversion", index + ".1");
+        data.put("contextuser", "xwiki:XWiki.Admin");
+
+        return data;
+    }
+
+    @Test
+    void encodeAndDecode() throws IOException
+    {
+        ArrayList<Serializable> list = new ArrayList<>(List.of(-1, Long.MAX_VALUE, true, false, Locale.ROOT));
+        List<RemoteEventData> events = List.of(new RemoteEventData(new TestEvent(), "source", documentData(1)),
+            new RemoteEventData(new TestEvent(), list, null),
+            new RemoteEventData(new TestEvent(), new Date(42), "données"));
+
+        List<RemoteEventData> result = roundTrip(events);
+
+        assertEquals(3, result.size());
+        for (int i = 0; i < events.size(); ++i) {
+            assertEquals(events.get(i).getEvent(), result.get(i).getEvent());
+            assertEquals(events.get(i).getSource(), result.get(i).getSource());
+            assertEquals(events.get(i).getData(), result.get(i).getData());
+        }
+
+        DocumentReference documentReference =
+            (DocumentReference) ((Map<?, ?>) result.get(0).getData()).get("docreference");
+        assertEquals(Locale.FRENCH, documentReference.getLocale());
+    }
+
+    @Test
+    void encodeAndDecodeEventFields() throws IOException
+    {
+        ObjectReference reference =
+            new ObjectReference("XWiki.XWikiComments[0]", new DocumentReference("wiki", "Space", "Page"));
+        DocumentEvent event = new DocumentEvent(new RegexEventFilter("wiki:.*"), reference, 2);
+
+        DocumentEvent result =
+            (DocumentEvent) roundTrip(List.of(new RemoteEventData(event, null, null))).get(0).getEvent();
+
+        assertEquals(RegexEventFilter.class, result.getEventFilter().getClass());
+        assertEquals("wiki:.*", result.getEventFilter().getFilter());
+        assertInstanceOf(ObjectReference.class, result.reference);
+        assertEquals(reference, result.reference);
+        assertEquals(2, result.count);
+    }
+
+    @Test
+    void encodeUnserializable()
+    {
+        List<RemoteEventData> events =
+            List.of(new RemoteEventData(new TestEvent(), null, new ArrayList<>(List.of(new Object()))));
+
+        assertThrows(IOException.class, () -> this.codec.encode(events));
+    }
+
+    @Test
+    void isEncoded() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(new RemoteEventData(new TestEvent(), null, null));
+        }
+
+        assertFalse(this.codec.isEncoded(bytes.toByteArray(), 0, bytes.size()));
+        assertThrows(IOException.class, () -> this.codec.decode(bytes.toByteArray(), 0, bytes.size(), null));
+    }
+
+    @Test
+    void encodeSmallerThanJavaSerialization() throws IOException
+    {
+        List<RemoteEventData> events = new ArrayList<>();
+        int javaSize = 0;
+        for (int i = 0; i < 100; ++i) {
+            RemoteEventData event = new RemoteEventData(
+                new DocumentEvent(new RegexEventFilter("wiki:Space.Page" + i), null, i), "source", documentData(i));
+            events.add(event);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+                stream.writeObject(event);
+            }
+            javaSize += bytes.size();
+        }
+
+        byte[] encoded = this.codec.encode(events);
+
+        assertTrue(encoded.length * 5 < javaSize,
+            "Expected the encoded events to be much smaller than Java serialization but got " + encoded.length
+                + " bytes instead of " + javaSize);
+        assertEquals(100, this.codec.decode(encoded, 0, encoded.length, null).size());
+    }
+
+    @Test
+    void decodeSkipsEventsWhichCannotBeDecoded() throws IOException
+    {
+        List<RemoteEventData> events = List.of(new RemoteEventData(new TestEvent(), "first", null),
+            new RemoteEventData(new DocumentEvent(new RegexEventFilter("wiki:.*"), null, 1), "second", null),
+            new RemoteEventData(new TestEvent(), "third", null));
+        byte[] bytes = this.codec.encode(events);
+
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader())
+        {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+            {
+                if (name.equals(DocumentEvent.class.getName())) {
+                    throw new ClassNotFoundException(name);
+                }
+
+                return super.loadClass(name, resolve);
+            }
+        };
+
+        List<Integer> failures = new ArrayList<>();
+        List<RemoteEventData> result =
+            this.codec.decode(bytes, 0, bytes.length, classLoader, (e, index) -> failures.add(index));
+
+        assertEquals(List.of(1), failures);
+        assertEquals(2, result.size());
+        assertEquals("first", result.get(0).getSource());
+        assertEquals("third", result.get(1).getSource());
+
+        assertThrows(IOException.class, () -> this.codec.decode(bytes, 0, bytes.length, classLoader));
+    }
+}
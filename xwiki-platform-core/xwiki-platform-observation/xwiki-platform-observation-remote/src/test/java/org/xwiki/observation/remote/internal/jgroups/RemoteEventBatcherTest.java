@@ -0,0 +1,77 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.observation.remote.RemoteEventData;
+import org.xwiki.observation.remote.test.TestEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Validate {@link RemoteEventBatcher}.
+ *
+ * @version $Id$
+ */
+class RemoteEventBatcherTest
+{
+    @Test
+    void sendInOrder() throws InterruptedException
+    {
+        List<List<RemoteEventData>> batches = new ArrayList<>();
+        RemoteEventBatcher batcher = new RemoteEventBatcher(1000, 4, batches::add);
+
+        List<RemoteEventData> events = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            RemoteEventData event = new RemoteEventData(new TestEvent(), i, null);
+            events.add(event);
+            batcher.add(event);
+        }
+
+        // Send the pending events
+        batcher.stop();
+
+        assertEquals(List.of(4, 4, 2), batches.stream().map(List::size).toList());
+        assertEquals(events, batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void sendAfterWindow() throws InterruptedException
+    {
+        List<List<RemoteEventData>> batches = new CopyOnWriteArrayList<>();
+        RemoteEventBatcher batcher = new RemoteEventBatcher(1, 100, batches::add);
+
+        batcher.add(new RemoteEventData(new TestEvent(), null, null));
+
+        // Don't stop the batcher, the event should be sent once the window is over
+        for (int i = 0; i < 100 && batches.isEmpty(); ++i) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(batches.isEmpty());
+
+        batcher.stop();
+    }
+}
@@ -217,6 +217,7 @@
 import com.xpn.xwiki.internal.event.XObjectPropertyDeletedEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyUpdatedEvent;
+import com.xpn.xwiki.internal.mandatory.MandatoryDocumentInitializerExecutor;
 import com.xpn.xwiki.internal.mandatory.XWikiPreferencesDocumentInitializer;
 import com.xpn.xwiki.internal.render.OldRendering;
 import com.xpn.xwiki.internal.render.groovy.ParseGroovyFromString;
@@ -1413,30 +1414,19 @@ private void initializeStores() throws ComponentLookupException
     public void initializeMandatoryDocuments(XWikiContext context)
     {
         if (context.get("initdone") == null) {
-            @SuppressWarnings("deprecation")
-            List<MandatoryDocumentInitializer> initializers =
-                Utils.getComponentList(MandatoryDocumentInitializer.class);
-
             getObservationManager().notify(MandatoryDocumentsInitializingEvent.EVENT, null);
 
-            getProgress().pushLevelProgress(initializers.size(), this);
-
-            try {
-                for (MandatoryDocumentInitializer initializer : initializers) {
-                    getProgress().startStep(this);
-
-                    initializeMandatoryDocument(initializer, context);
-
-                    getProgress().endStep(this);
-                }
-            } finally {
-                getProgress().popLevelProgress(this);
-            }
+            getMandatoryDocumentInitializerExecutor().initialize(context);
 
             getObservationManager().notify(MandatoryDocumentsInitializedEvent.EVENT, null);
         }
     }
 
+    private MandatoryDocumentInitializerExecutor getMandatoryDocumentInitializerExecutor()
+    {
+        return Utils.getComponent(MandatoryDocumentInitializerExecutor.class);
+    }
+
     private void initializeMandatoryDocument(String wiki, MandatoryDocumentInitializer initializer,
         XWikiContext context)
     {
@@ -1445,31 +1435,12 @@ private void initializeMandatoryDocument(String wiki, MandatoryDocumentInitializ
         try {
             context.setWikiId(wiki);
 
-            initializeMandatoryDocument(initializer, context);
+            getMandatoryDocumentInitializerExecutor().initialize(initializer, context);
         } finally {
             context.setWikiId(currentWiki);
         }
     }
 
-    private void initializeMandatoryDocument(MandatoryDocumentInitializer initializer, XWikiContext context)
-    {
-        try {
-            DocumentReference documentReference =
-                getCurrentReferenceDocumentReferenceResolver().resolve(initializer.getDocumentReference());
-
-            if (documentReference.getWikiReference().getName().equals(context.getWikiId())) {
-                XWikiDocument document = context.getWiki().getDocument(documentReference, context);
-
-                if (initializer.updateDocument(document)) {
-                    saveDocument(document,
-                        localizePlainOrKey("core.model.xclass.mandatoryUpdateProperty.versionSummary"), context);
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.error("Failed to initialize mandatory document [{}]", initializer.getDocumentReference(), e);
-        }
-    }
-
     public XWikiStoreInterface getNotCacheStore()
     {
         XWikiStoreInterface store = getStore();
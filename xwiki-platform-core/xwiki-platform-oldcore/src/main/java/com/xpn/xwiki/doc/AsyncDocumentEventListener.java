@@ -0,0 +1,83 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.doc;
+
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+import org.xwiki.observation.event.Event;
+import org.xwiki.stability.Unstable;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * A listener of the document events ({@link org.xwiki.bridge.event.DocumentCreatedEvent},
+ * {@link org.xwiki.bridge.event.DocumentUpdatedEvent} and {@link org.xwiki.bridge.event.DocumentDeletedEvent}) which
+ * does not need to be executed by the thread which saved or deleted the document.
+ * <p>
+ * The events are queued once the document is saved (or deleted) in the store and the listeners are called in the
+ * background, with a copy of the context of the thread which produced the event and a copy of the document. The
+ * events of a given document are always handled in the order in which they were produced but the events of different
+ * documents can be handled in parallel. Only the events produced by the current cluster member are sent to these
+ * listeners. Unlike an {@link org.xwiki.observation.EventListener}, such a listener cannot rely on the state of the
+ * observation context (e.g., the events in which the document event was produced), see
+ * {@link #isFoldedEventSkipped()}.
+ * <p>
+ * This is meant for expensive listeners (indexing, notifications, etc.) that should not slow down the save of a
+ * document.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Role
+@Unstable
+public interface AsyncDocumentEventListener
+{
+    /**
+     * @return the name of the listener, used in the logs and the statistics
+     */
+    String getName();
+
+    /**
+     * @return the list of document events the listener is configured to receive
+     */
+    List<Event> getEvents();
+
+    /**
+     * @return {@code true} if the events produced in the context of a
+     *         {@link org.xwiki.observation.event.BeginFoldEvent} (e.g., while installing an extension or moving a
+     *         space) should not be sent to this listener
+     */
+    default boolean isFoldedEventSkipped()
+    {
+        return false;
+    }
+
+    /**
+     * The {@link org.xwiki.observation.event.Event} callback method that gets called when an event matching one of the
+     * events returned by {@link #getEvents()} is produced.
+     *
+     * @param event the event which was produced
+     * @param document the document associated to the event (the event source), or a copy of it when the event is
+     *            handled in the background
+     * @param xcontext the copy of the context in which the event was produced
+     */
+    void onEvent(Event event, XWikiDocument document, XWikiContext xcontext);
+}
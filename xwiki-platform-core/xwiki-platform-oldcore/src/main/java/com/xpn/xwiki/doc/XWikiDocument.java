@@ -51,6 +51,7 @@
 import java.util.TreeMap;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -666,7 +667,14 @@ public Set<Entry<DocumentReference, List<BaseObject>>> entrySet()
     /**
      * @see #getOriginalDocument()
      */
-    private XWikiDocument originalDocument;
+    private volatile XWikiDocument originalDocument;
+
+    /**
+     * Always read before {@link #originalDocument}: it's only cleared after the loaded original document is set.
+     *
+     * @see #setOriginalDocumentLoader(Supplier)
+     */
+    private volatile Supplier<XWikiDocument> originalDocumentLoader;
 
     /**
      * If the document should always be rendered in restricted mode.
@@ -1200,6 +1208,16 @@ public void setRCSVersion(Version version)
     @Override
     public XWikiDocument getOriginalDocument()
     {
+        Supplier<XWikiDocument> loader = this.originalDocumentLoader;
+        if (loader != null) {
+            XWikiDocument document = loader.get();
+
+            this.originalDocument = document;
+            this.originalDocumentLoader = null;
+
+            return document;
+        }
+
         return this.originalDocument;
     }
 
@@ -1211,6 +1229,36 @@ public XWikiDocument getOriginalDocument()
     public void setOriginalDocument(XWikiDocument originalDocument)
     {
         this.originalDocument = originalDocument;
+        this.originalDocumentLoader = null;
+    }
+
+    /**
+     * Indicate how to get the original document when it's expensive to get and might not be needed, for example when
+     * it has to be loaded from the document history. The loader is called the first time
+     * {@link #getOriginalDocument()} is called and is shared with the clones of this document, so it should remember
+     * the document it returned.
+     *
+     * @param originalDocumentLoader provide the original document representing this document instance before any
+     *            change was made to it
+     * @see #getOriginalDocument()
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public void setOriginalDocumentLoader(Supplier<XWikiDocument> originalDocumentLoader)
+    {
+        this.originalDocumentLoader = originalDocumentLoader;
+        this.originalDocument = null;
+    }
+
+    /**
+     * @return the loader of the original document if it was not called yet, {@code null} otherwise
+     * @see #setOriginalDocumentLoader(Supplier)
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public Supplier<XWikiDocument> getOriginalDocumentLoader()
+    {
+        return this.originalDocumentLoader;
     }
 
     /**
@@ -4559,6 +4607,7 @@ public void clone(XWikiDocument document)
 
         this.elements = document.elements;
 
+        this.originalDocumentLoader = document.originalDocumentLoader;
         this.originalDocument = document.originalDocument;
     }
 
@@ -4653,6 +4702,7 @@ private XWikiDocument cloneInternal(DocumentReference newDocumentReference, bool
 
             doc.elements = this.elements;
 
+            doc.originalDocumentLoader = this.originalDocumentLoader;
             doc.originalDocument = this.originalDocument;
         } catch (Exception e) {
             // This should not happen
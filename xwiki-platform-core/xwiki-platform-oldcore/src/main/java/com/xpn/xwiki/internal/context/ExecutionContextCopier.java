@@ -0,0 +1,121 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.context;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextInitializer;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.velocity.internal.VelocityExecutionContextInitializer;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.XWikiServletRequest;
+import com.xpn.xwiki.web.XWikiServletRequestStub;
+import com.xpn.xwiki.web.XWikiServletResponseStub;
+
+/**
+ * Copy an {@link ExecutionContext} so that it can be used by another thread while the current thread keeps using the
+ * original one.
+ * <p>
+ * Additionally to {@link ExecutionContextManager#clone(ExecutionContext)}, which shares the {@link XWikiContext}
+ * instance with the original context, the {@link XWikiContext} is cloned, its request and response are stubbed and its
+ * URL factory is recreated. The Velocity context is reset so that it's created again for the copy when needed. The
+ * store session and transaction are execution context properties which are not inherited by the clone, so the copy
+ * does not share them with the original context (contrary to {@code XWikiStoreInterface#cleanUp}, which would rollback
+ * the transaction of the thread producing the copy).
+ * <p>
+ * Note: the clone of the {@link XWikiContext} is still rather shallow, since many fields are still shared with the
+ * original one.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = ExecutionContextCopier.class)
+@Singleton
+public class ExecutionContextCopier
+{
+    private static final String STUB_URL = "http://www.mystuburl.com/";
+
+    @Inject
+    private Provider<ExecutionContextManager> executionContextManagerProvider;
+
+    @Inject
+    @Named("velocity")
+    private Provider<ExecutionContextInitializer> velocityExecutionContextInitializerProvider;
+
+    /**
+     * @param originalExecutionContext the execution context to copy
+     * @return the copy of the execution context, with its own {@link XWikiContext}
+     * @throws ExecutionContextException when failing to copy the execution context
+     */
+    public ExecutionContext copy(ExecutionContext originalExecutionContext) throws ExecutionContextException
+    {
+        ExecutionContext clonedExecutionContext =
+            this.executionContextManagerProvider.get().clone(originalExecutionContext);
+
+        XWikiContext xcontext =
+            (XWikiContext) originalExecutionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+        if (xcontext != null) {
+            copy(xcontext).declareInExecutionContext(clonedExecutionContext);
+        }
+
+        // Make sure a new Velocity context is created for the copy (the current one is bound to the original context)
+        clonedExecutionContext.removeProperty(VelocityExecutionContextInitializer.VELOCITY_CONTEXT_ID);
+        this.velocityExecutionContextInitializerProvider.get().initialize(clonedExecutionContext);
+
+        return clonedExecutionContext;
+    }
+
+    private XWikiContext copy(XWikiContext originalXWikiContext)
+    {
+        XWikiContext clonedXWikiContext = originalXWikiContext.clone();
+
+        // The current request and response won't mean anything anymore in another thread
+        if (originalXWikiContext.getRequest() != null) {
+            clonedXWikiContext
+                .setRequest(new XWikiServletRequest(new XWikiServletRequestStub(originalXWikiContext.getRequest())));
+        }
+        clonedXWikiContext.setResponse(new XWikiServletResponseStub());
+
+        if (clonedXWikiContext.getURL() == null) {
+            try {
+                clonedXWikiContext.setURL(new URL(STUB_URL));
+            } catch (MalformedURLException e) {
+                // The URL is clearly well formed
+            }
+        }
+
+        if (originalXWikiContext.getWiki() != null && originalXWikiContext.getURLFactory() != null) {
+            clonedXWikiContext.setURLFactory(originalXWikiContext.getWiki().getURLFactoryService()
+                .createURLFactory(originalXWikiContext.getMode(), originalXWikiContext));
+        }
+
+        return clonedXWikiContext;
+    }
+}
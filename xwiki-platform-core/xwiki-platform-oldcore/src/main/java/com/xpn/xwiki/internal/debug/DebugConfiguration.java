@@ -59,4 +59,31 @@ public boolean isMinify()
 
         return this.properties.getProperty("debug.minify", true);
     }
+
+    /**
+     * @return the minimum time (in milliseconds) a profiled span should take to be listed among the slowest spans
+     * @since 17.1.0RC1
+     */
+    public long getProfilerSlowSpanThreshold()
+    {
+        return this.properties.getProperty("debug.profiler.slowSpanThreshold", 100L);
+    }
+
+    /**
+     * @return the time (in seconds) during which the slowest spans are remembered
+     * @since 17.1.0RC1
+     */
+    public long getProfilerWindow()
+    {
+        return this.properties.getProperty("debug.profiler.window", 600L);
+    }
+
+    /**
+     * @return the maximum number of slowest spans to remember, 0 to disable the aggregation
+     * @since 17.1.0RC1
+     */
+    public int getProfilerMaxSlowSpans()
+    {
+        return this.properties.getProperty("debug.profiler.maxSlowSpans", 100);
+    }
 }
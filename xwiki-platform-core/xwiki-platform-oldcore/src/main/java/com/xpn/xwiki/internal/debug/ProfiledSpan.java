@@ -0,0 +1,84 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.Date;
+
+/**
+ * A span which took more than the configured threshold, as kept by {@link RequestProfiler}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class ProfiledSpan
+{
+    private final String name;
+
+    private final long duration;
+
+    private final long date;
+
+    ProfiledSpan(String name, long duration, long date)
+    {
+        this.name = name;
+        this.duration = duration;
+        this.date = date;
+    }
+
+    /**
+     * @return the description of the span (for example the executed query or the rendered template)
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * @return the time spent in the span, in milliseconds
+     */
+    public double getDuration()
+    {
+        return this.duration / 1_000_000D;
+    }
+
+    /**
+     * @return when the span ended
+     */
+    public Date getDate()
+    {
+        return new Date(this.date);
+    }
+
+    long getDurationNanos()
+    {
+        return this.duration;
+    }
+
+    long getTime()
+    {
+        return this.date;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s (%.3f ms)", this.name, getDuration());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.helpers.MessageFormatter;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.job.event.status.JobProgressManager;
+
+import com.xpn.xwiki.web.XWikiAction;
+
+/**
+ * Measure the hot paths of a request (queries, right checks, etc.).
+ * <p>
+ * When the request is profiled (see {@link XWikiAction#ACTION_PROGRESS}) each span is added as a step of the action
+ * progress so that it's displayed in the tree of the debug mode. Whatever the request, the spans which took more than
+ * {@code debug.profiler.slowSpanThreshold} are remembered during {@code debug.profiler.window} so that the slowest ones
+ * can be listed.
+ * <p>
+ * Usage:
+ * 
+ * <pre>
+ * {@code
+ * try (RequestProfiler.Span span = this.profiler.start(this, "Execute query [{}]", statement)) {
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = RequestProfiler.class)
+@Singleton
+public class RequestProfiler implements Initializable
+{
+    /**
+     * A running span, to close when the measured code is done.
+     *
+     * @version $Id$
+     */
+    public final class Span implements AutoCloseable
+    {
+        private final Object source;
+
+        private final String message;
+
+        private final Object[] arguments;
+
+        private final boolean profiled;
+
+        private final long start;
+
+        private Span(Object source, String message, Object[] arguments, boolean profiled)
+        {
+            this.source = source;
+            this.message = message;
+            this.arguments = arguments;
+            this.profiled = profiled;
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close()
+        {
+            long duration = System.nanoTime() - this.start;
+
+            if (this.profiled) {
+                progress.endStep(this.source);
+            }
+
+            if (maxSlowSpans > 0 && duration >= threshold) {
+                addSlowSpan(MessageFormatter.arrayFormat(this.message, this.arguments).getMessage(), duration);
+            }
+        }
+    }
+
+    private static final Comparator<ProfiledSpan> SLOWEST_FIRST =
+        Comparator.comparingLong(ProfiledSpan::getDurationNanos).reversed();
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private JobProgressManager progress;
+
+    @Inject
+    private DebugConfiguration configuration;
+
+    private final List<ProfiledSpan> slowSpans = new ArrayList<>();
+
+    private long threshold;
+
+    private long window;
+
+    private int maxSlowSpans;
+
+    @Override
+    public void initialize()
+    {
+        this.threshold = TimeUnit.MILLISECONDS.toNanos(this.configuration.getProfilerSlowSpanThreshold());
+        this.window = TimeUnit.SECONDS.toMillis(this.configuration.getProfilerWindow());
+        this.maxSlowSpans = this.configuration.getProfilerMaxSlowSpans();
+    }
+
+    /**
+     * @return true if the current request is profiled
+     */
+    public boolean isProfiled()
+    {
+        ExecutionContext econtext = this.execution.getContext();
+
+        return econtext != null && econtext.getProperty(XWikiAction.ACTION_PROGRESS) != null;
+    }
+
+    /**
+     * Start a new span. The message and arguments are only formatted when the span ends up being displayed.
+     *
+     * @param source who is executing the span
+     * @param message the description of the span, in the SLF4J format
+     * @param arguments the arguments of the message
+     * @return the running span
+     */
+    public Span start(Object source, String message, Object... arguments)
+    {
+        boolean profiled = isProfiled();
+
+        if (profiled) {
+            this.progress.startStep(source, null, message, arguments);
+        }
+
+        return new Span(source, message, arguments, profiled);
+    }
+
+    /**
+     * @param limit the maximum number of spans to return
+     * @return the spans which took the most time during the configured window, starting with the slowest
+     */
+    public List<ProfiledSpan> getSlowestSpans(int limit)
+    {
+        synchronized (this.slowSpans) {
+            removeExpired(System.currentTimeMillis());
+
+            return new ArrayList<>(this.slowSpans.subList(0, Math.min(limit, this.slowSpans.size())));
+        }
+    }
+
+    /**
+     * Forget about all the slow spans.
+     */
+    public void reset()
+    {
+        synchronized (this.slowSpans) {
+            this.slowSpans.clear();
+        }
+    }
+
+    private void addSlowSpan(String name, long duration)
+    {
+        long now = System.currentTimeMillis();
+        ProfiledSpan span = new ProfiledSpan(name, duration, now);
+
+        synchronized (this.slowSpans) {
+            removeExpired(now);
+
+            // Keep the list sorted from the slowest to the fastest span
+            int index = Collections.binarySearch(this.slowSpans, span, SLOWEST_FIRST);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < this.maxSlowSpans) {
+                this.slowSpans.add(index, span);
+                if (this.slowSpans.size() > this.maxSlowSpans) {
+                    this.slowSpans.remove(this.slowSpans.size() - 1);
+                }
+            }
+        }
+    }
+
+    private void removeExpired(long now)
+    {
+        this.slowSpans.removeIf(span -> now - span.getTime() > this.window);
+    }
+}
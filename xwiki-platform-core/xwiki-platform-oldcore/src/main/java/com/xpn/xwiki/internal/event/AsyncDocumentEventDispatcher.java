@@ -0,0 +1,266 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.ObservationContext;
+import org.xwiki.observation.event.BeginEvent;
+import org.xwiki.observation.event.BeginFoldEvent;
+import org.xwiki.observation.event.Event;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.AsyncDocumentEventListener;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.ExecutionContextCopier;
+import com.xpn.xwiki.internal.observation.ListenerStatistics;
+
+/**
+ * Forward the document events to the {@link AsyncDocumentEventListener} components, in background threads.
+ * <p>
+ * The events are distributed between a fixed number of single thread executors according to the reference of the
+ * document, which guarantees that the events of a given document are handled in the order in which they were produced.
+ * The queue of each executor is bounded: when it's full the thread producing the event waits. Since the thread
+ * producing the event can keep modifying the document, the listeners receive a copy of it.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named(AsyncDocumentEventDispatcher.NAME)
+@Singleton
+public class AsyncDocumentEventDispatcher extends AbstractEventListener implements Disposable
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "com.xpn.xwiki.internal.event.AsyncDocumentEventDispatcher";
+
+    private static final String CONFIGURATION_THREADS = "observation.asyncDocumentListeners.threads";
+
+    private static final String CONFIGURATION_QUEUESIZE = "observation.asyncDocumentListeners.queueSize";
+
+    private static final BeginEvent FOLD_EVENTS = event -> event instanceof BeginFoldEvent;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Provider<ConfigurationSource> configurationProvider;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<ExecutionContextCopier> executionContextCopierProvider;
+
+    @Inject
+    private Provider<ListenerStatistics> statisticsProvider;
+
+    @Inject
+    private RemoteObservationManagerContext remoteObservationManagerContext;
+
+    @Inject
+    private ObservationContext observationContext;
+
+    @Inject
+    private Logger logger;
+
+    private ThreadPoolExecutor[] executors;
+
+    /**
+     * Default constructor.
+     */
+    public AsyncDocumentEventDispatcher()
+    {
+        super(NAME, new DocumentCreatedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent());
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.executors != null) {
+                for (ExecutorService executor : this.executors) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+    }
+
+    private synchronized ThreadPoolExecutor[] getExecutors()
+    {
+        if (this.executors == null) {
+            ConfigurationSource configuration = this.configurationProvider.get();
+            int threads = Math.max(0, configuration.getProperty(CONFIGURATION_THREADS, 2));
+            int queueSize = Math.max(1, configuration.getProperty(CONFIGURATION_QUEUESIZE, 1000));
+
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki asynchronous document event thread %d").daemon(true).build();
+            // When the queue is full, wait for some room instead of executing the event in the current thread, which
+            // would break the order of the events of the document
+            RejectedExecutionHandler waitPolicy = (runnable, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("The asynchronous document event dispatcher is disposed");
+                }
+                try {
+                    executor.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new RejectedExecutionException("Interrupted while waiting for room in the queue", e);
+                }
+            };
+
+            ThreadPoolExecutor[] newExecutors = new ThreadPoolExecutor[threads];
+            for (int i = 0; i < threads; ++i) {
+                newExecutors[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueSize), factory, waitPolicy);
+            }
+            this.executors = newExecutors;
+        }
+
+        return this.executors;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        // Only the events produced by this cluster member are handled
+        if (this.remoteObservationManagerContext.isRemoteState()) {
+            return;
+        }
+
+        List<AsyncDocumentEventListener> listeners = getListeners(event);
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        XWikiDocument document = (XWikiDocument) source;
+
+        ThreadPoolExecutor[] currentExecutors = getExecutors();
+        if (currentExecutors.length == 0) {
+            // Asynchronous dispatch is disabled
+            dispatch(event, document, (XWikiContext) data, listeners);
+
+            return;
+        }
+
+        // Each event is handled with its own copy of the current context (including the XWiki context, which keeps
+        // being used by the current thread)
+        ExecutionContext executionContext;
+        try {
+            executionContext = this.executionContextCopierProvider.get().copy(this.execution.getContext());
+        } catch (ExecutionContextException e) {
+            this.logger.warn("Failed to copy the execution context, handling event [{}] in the current thread",
+                event, e);
+
+            dispatch(event, document, (XWikiContext) data, listeners);
+
+            return;
+        }
+
+        // The document can still be modified by the current thread once the event is sent
+        XWikiDocument documentCopy = document.clone();
+
+        // All the events of a given document go through the same executor
+        ThreadPoolExecutor executor =
+            currentExecutors[Math.floorMod(document.getDocumentReference().hashCode(), currentExecutors.length)];
+        try {
+            executor.execute(() -> {
+                this.execution.setContext(executionContext);
+
+                try {
+                    dispatch(event, documentCopy,
+                        (XWikiContext) executionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY), listeners);
+                } finally {
+                    this.execution.removeContext();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.logger.warn("Failed to queue event [{}] for document [{}]: {}", event,
+                document.getDocumentReferenceWithLocale(), e.getMessage());
+        }
+    }
+
+    private List<AsyncDocumentEventListener> getListeners(Event event)
+    {
+        List<AsyncDocumentEventListener> listeners = new ArrayList<>();
+
+        try {
+            for (AsyncDocumentEventListener listener : this.componentManagerProvider.get()
+                .<AsyncDocumentEventListener>getInstanceList(AsyncDocumentEventListener.class)) {
+                // The observation context is not available anymore when the listener is called so the folded events
+                // are filtered here
+                if (listener.getEvents().stream().anyMatch(listenerEvent -> listenerEvent.matches(event))
+                    && !(listener.isFoldedEventSkipped() && this.observationContext.isIn(FOLD_EVENTS))) {
+                    listeners.add(listener);
+                }
+            }
+        } catch (ComponentLookupException e) {
+            this.logger.error("Failed to get the asynchronous document event listeners", e);
+        }
+
+        return listeners;
+    }
+
+    private void dispatch(Event event, XWikiDocument document, XWikiContext xcontext,
+        List<AsyncDocumentEventListener> listeners)
+    {
+        ListenerStatistics statistics = this.statisticsProvider.get();
+        for (AsyncDocumentEventListener listener : listeners) {
+            try {
+                statistics.record(listener.getName(), event, () -> listener.onEvent(event, document, xcontext));
+            } catch (Exception e) {
+                this.logger.error("Failed to send event [{}] for document [{}] to listener [{}]", event,
+                    document.getDocumentReferenceWithLocale(), listener.getName(), e);
+            }
+        }
+    }
+}
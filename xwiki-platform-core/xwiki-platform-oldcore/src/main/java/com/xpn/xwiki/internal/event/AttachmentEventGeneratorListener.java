@@ -26,11 +26,11 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.apache.commons.lang3.StringUtils;
 import org.xwiki.bridge.event.DocumentCreatedEvent;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.diff.Delta;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
@@ -65,6 +65,9 @@ public class AttachmentEventGeneratorListener implements EventListener
     @Inject
     private EntityReferenceSerializer<String> defaultEntityReferenceSerializer;
 
+    @Inject
+    private DocumentEventChanges documentChanges;
+
     @Override
     public String getName()
     {
@@ -81,24 +84,24 @@ public List<Event> getEvents()
     public void onEvent(Event event, Object source, Object data)
     {
         XWikiDocument doc = (XWikiDocument) source;
-        XWikiDocument originalDoc = doc.getOriginalDocument();
         XWikiContext context = (XWikiContext) data;
 
+        // Don't ask for the original document: it's expensive to get for a document received from another cluster
+        // member and the changes are enough to produce the events
         if (event instanceof DocumentUpdatedEvent) {
-            onDocumentUpdatedEvent(originalDoc, doc, context);
+            onDocumentChangedEvent(doc, false, context);
         } else if (event instanceof DocumentDeletedEvent) {
-            onDocumentDeletedEvent(originalDoc, doc, context);
+            onDocumentChangedEvent(doc, true, context);
         } else if (event instanceof DocumentCreatedEvent) {
-            onDocumentCreatedEvent(originalDoc, doc, context);
+            onDocumentCreatedEvent(doc, context);
         }
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
      * @param context the XWiki context
      */
-    private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentCreatedEvent(XWikiDocument doc, XWikiContext context)
     {
         ObservationManager observation = Utils.getComponent(ObservationManager.class);
 
@@ -110,36 +113,20 @@ private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc
     }
 
     /**
-     * @param originalDoc the previous version of the document
-     * @param doc the new version of the document
-     * @param context the XWiki context
-     */
-    private void onDocumentDeletedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
-    {
-        ObservationManager observation = Utils.getComponent(ObservationManager.class);
-
-        for (XWikiAttachment attachment : originalDoc.getAttachmentList()) {
-            String reference =
-                this.defaultEntityReferenceSerializer.serialize(attachment.getDoc().getDocumentReference());
-            observation.notify(new AttachmentDeletedEvent(reference, attachment.getFilename()), doc, context);
-        }
-    }
-
-    /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
+     * @param deleted true if the document was deleted
      * @param context the XWiki context
      */
-    private void onDocumentUpdatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentChangedEvent(XWikiDocument doc, boolean deleted, XWikiContext context)
     {
         ObservationManager observation = Utils.getComponent(ObservationManager.class);
 
         String reference = this.defaultEntityReferenceSerializer.serialize(doc.getDocumentReference());
 
-        for (AttachmentDiff diff : doc.getAttachmentDiff(originalDoc, doc, context)) {
-            if (StringUtils.isEmpty(diff.getOrigVersion())) {
+        for (AttachmentDiff diff : this.documentChanges.getAttachmentDiff(doc, deleted, context)) {
+            if (diff.getType() == Delta.Type.INSERT) {
                 observation.notify(new AttachmentAddedEvent(reference, diff.getFileName()), doc, context);
-            } else if (StringUtils.isEmpty(diff.getNewVersion())) {
+            } else if (diff.getType() == Delta.Type.DELETE) {
                 observation.notify(new AttachmentDeletedEvent(reference, diff.getFileName()), doc, context);
             } else {
                 observation.notify(new AttachmentUpdatedEvent(reference, diff.getFileName()), doc, context);
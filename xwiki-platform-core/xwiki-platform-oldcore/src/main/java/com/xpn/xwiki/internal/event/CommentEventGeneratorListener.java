@@ -35,6 +35,7 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.mandatory.XWikiCommentsDocumentInitializer;
 import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseObjectReference;
 
 /**
  * Produce comments related events based on {@link XObjectEvent object events}.
@@ -75,7 +76,6 @@ public CommentEventGeneratorListener()
     public void onEvent(Event event, Object source, Object data)
     {
         XWikiDocument doc = (XWikiDocument) source;
-        XWikiDocument originalDoc = doc.getOriginalDocument();
         XWikiContext context = (XWikiContext) data;
 
         XObjectEvent objectEvent = (XObjectEvent) event;
@@ -83,8 +83,9 @@ public void onEvent(Event event, Object source, Object data)
         String reference = this.defaultEntityReferenceSerializer.serialize(doc.getDocumentReference());
 
         if (event instanceof XObjectDeletedEvent) {
-            BaseObject obj = originalDoc.getXObject((ObjectReference) objectEvent.getReference());
-            String number = String.valueOf(obj.getNumber());
+            // Don't ask for the original document (expensive to get for a document received from another cluster
+            // member) since the number of the deleted object is part of its reference
+            String number = String.valueOf(new BaseObjectReference(objectEvent.getReference()).getObjectNumber());
             this.observation.notify(new CommentDeletedEvent(reference, number), source, context);
         } else {
             BaseObject obj = doc.getXObject((ObjectReference) objectEvent.getReference());
@@ -0,0 +1,252 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.diff.Delta;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.AttachmentDiff;
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.observation.remote.converter.LazyOriginalDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.ObjectDiff;
+import com.xpn.xwiki.objects.PropertyInterface;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+/**
+ * Provide the changes made to a document by a document event to the listeners which generate more specific events.
+ * <p>
+ * The changes of a document received from another cluster member are the ones sent with the event, so that the
+ * original document doesn't have to be loaded from the history or the recycle bin. The changes of a local document
+ * are computed once and shared by the listeners of the same event.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = DocumentEventChanges.class)
+@Singleton
+public class DocumentEventChanges
+{
+    private static final String CONTEXT_KEY = DocumentEventChanges.class.getName();
+
+    private static final class Changes
+    {
+        private final XWikiDocument document;
+
+        private final XWikiDocument originalDocument;
+
+        private final boolean deleted;
+
+        private List<List<ObjectDiff>> objectDiff;
+
+        private List<List<ObjectDiff>> classDiff;
+
+        private List<AttachmentDiff> attachmentDiff;
+
+        Changes(XWikiDocument document, XWikiDocument originalDocument, boolean deleted)
+        {
+            this.document = document;
+            this.originalDocument = originalDocument;
+            this.deleted = deleted;
+        }
+
+        boolean matches(XWikiDocument document, XWikiDocument originalDocument, boolean deleted)
+        {
+            return this.document == document && this.originalDocument == originalDocument && this.deleted == deleted;
+        }
+    }
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * @param document the document of the event
+     * @param deleted true if the document was deleted, in which case all the objects of the original document are
+     *            reported as removed
+     * @param xcontext the XWiki context
+     * @return the changes made to the objects of the document, as returned by
+     *         {@link XWikiDocument#getObjectDiff(XWikiDocument, XWikiDocument, XWikiContext)} but without the
+     *         values of the properties when the document comes from another cluster member
+     */
+    public List<List<ObjectDiff>> getObjectDiff(XWikiDocument document, boolean deleted, XWikiContext xcontext)
+    {
+        LazyOriginalDocument remoteOriginal = getRemoteOriginal(document);
+        if (remoteOriginal != null && remoteOriginal.getObjectDiff() != null) {
+            return remoteOriginal.getObjectDiff();
+        }
+
+        Changes changes = getChanges(document, deleted);
+        if (changes.objectDiff == null) {
+            if (changes.originalDocument == null) {
+                changes.objectDiff = Collections.emptyList();
+            } else if (deleted) {
+                changes.objectDiff = getDeletedObjectDiff(changes.originalDocument);
+            } else {
+                changes.objectDiff = document.getObjectDiff(changes.originalDocument, document, xcontext);
+            }
+        }
+
+        return changes.objectDiff;
+    }
+
+    /**
+     * @param document the document of the event
+     * @param deleted true if the document was deleted, in which case all the properties of the class of the original
+     *            document are reported as removed
+     * @param xcontext the XWiki context
+     * @return the changes made to the class of the document, as returned by
+     *         {@link XWikiDocument#getClassDiff(XWikiDocument, XWikiDocument, XWikiContext)}
+     */
+    public List<List<ObjectDiff>> getClassDiff(XWikiDocument document, boolean deleted, XWikiContext xcontext)
+    {
+        LazyOriginalDocument remoteOriginal = getRemoteOriginal(document);
+        if (remoteOriginal != null && remoteOriginal.getClassDiff() != null) {
+            return remoteOriginal.getClassDiff();
+        }
+
+        Changes changes = getChanges(document, deleted);
+        if (changes.classDiff == null) {
+            if (changes.originalDocument == null) {
+                changes.classDiff = Collections.emptyList();
+            } else if (deleted) {
+                changes.classDiff = getDeletedClassDiff(changes.originalDocument);
+            } else {
+                changes.classDiff = document.getClassDiff(changes.originalDocument, document, xcontext);
+            }
+        }
+
+        return changes.classDiff;
+    }
+
+    /**
+     * @param document the document of the event
+     * @param deleted true if the document was deleted, in which case all the attachments of the original document are
+     *            reported as deleted
+     * @param xcontext the XWiki context
+     * @return the changes made to the attachments of the document, as returned by
+     *         {@link XWikiDocument#getAttachmentDiff(XWikiDocument, XWikiDocument, XWikiContext)} but without the
+     *         attachments when the document comes from another cluster member
+     */
+    public List<AttachmentDiff> getAttachmentDiff(XWikiDocument document, boolean deleted, XWikiContext xcontext)
+    {
+        LazyOriginalDocument remoteOriginal = getRemoteOriginal(document);
+        if (remoteOriginal != null && remoteOriginal.getAttachmentDiff() != null) {
+            return remoteOriginal.getAttachmentDiff();
+        }
+
+        Changes changes = getChanges(document, deleted);
+        if (changes.attachmentDiff == null) {
+            if (changes.originalDocument == null) {
+                changes.attachmentDiff = Collections.emptyList();
+            } else if (deleted) {
+                changes.attachmentDiff = getDeletedAttachmentDiff(changes.originalDocument);
+            } else {
+                changes.attachmentDiff = document.getAttachmentDiff(changes.originalDocument, document, xcontext);
+            }
+        }
+
+        return changes.attachmentDiff;
+    }
+
+    private LazyOriginalDocument getRemoteOriginal(XWikiDocument document)
+    {
+        Supplier<XWikiDocument> loader = document.getOriginalDocumentLoader();
+
+        return loader instanceof LazyOriginalDocument ? (LazyOriginalDocument) loader : null;
+    }
+
+    private Changes getChanges(XWikiDocument document, boolean deleted)
+    {
+        XWikiDocument originalDocument = document.getOriginalDocument();
+
+        ExecutionContext econtext = this.execution.getContext();
+        if (econtext == null) {
+            return new Changes(document, originalDocument, deleted);
+        }
+
+        // Only remember the last document since all the listeners of an event are called one after the other
+        Changes changes = (Changes) econtext.getProperty(CONTEXT_KEY);
+        if (changes == null || !changes.matches(document, originalDocument, deleted)) {
+            changes = new Changes(document, originalDocument, deleted);
+            econtext.setProperty(CONTEXT_KEY, changes);
+        }
+
+        return changes;
+    }
+
+    private List<List<ObjectDiff>> getDeletedObjectDiff(XWikiDocument originalDocument)
+    {
+        List<List<ObjectDiff>> diff = new ArrayList<>();
+
+        for (List<BaseObject> xobjects : originalDocument.getXObjects().values()) {
+            for (BaseObject xobject : xobjects) {
+                if (xobject != null) {
+                    List<ObjectDiff> objectDiff = new ArrayList<>();
+                    objectDiff.add(new ObjectDiff(xobject.getXClassReference(), xobject.getNumber(),
+                        xobject.getGuid(), ObjectDiff.ACTION_OBJECTREMOVED, "", "", "", ""));
+                    for (PropertyInterface property : (Collection<PropertyInterface>) xobject.getFieldList()) {
+                        objectDiff.add(new ObjectDiff(xobject.getXClassReference(), xobject.getNumber(),
+                            xobject.getGuid(), ObjectDiff.ACTION_PROPERTYREMOVED, property.getName(), "", "", ""));
+                    }
+                    diff.add(objectDiff);
+                }
+            }
+        }
+
+        return diff;
+    }
+
+    private List<List<ObjectDiff>> getDeletedClassDiff(XWikiDocument originalDocument)
+    {
+        BaseClass xclass = originalDocument.getXClass();
+
+        List<ObjectDiff> classDiff = new ArrayList<>();
+        for (PropertyInterface property : (Collection<PropertyInterface>) xclass.getFieldList()) {
+            classDiff.add(new ObjectDiff(xclass.getXClassReference(), xclass.getNumber(), "",
+                ObjectDiff.ACTION_PROPERTYREMOVED, property.getName(), "", "", ""));
+        }
+
+        return classDiff.isEmpty() ? Collections.emptyList() : Collections.singletonList(classDiff);
+    }
+
+    private List<AttachmentDiff> getDeletedAttachmentDiff(XWikiDocument originalDocument)
+    {
+        List<AttachmentDiff> diff = new ArrayList<>();
+
+        for (XWikiAttachment attachment : originalDocument.getAttachmentList()) {
+            diff.add(new AttachmentDiff(attachment.getFilename(), Delta.Type.DELETE, attachment, null));
+        }
+
+        return diff;
+    }
+}
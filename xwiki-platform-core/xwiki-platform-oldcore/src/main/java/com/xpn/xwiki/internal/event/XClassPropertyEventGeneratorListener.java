@@ -31,6 +31,7 @@
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.ClassPropertyReference;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.event.Event;
@@ -39,7 +40,6 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.ObjectDiff;
 import com.xpn.xwiki.objects.PropertyInterface;
-import com.xpn.xwiki.objects.classes.BaseClass;
 
 /**
  * Produce {@link XClassPropertyEvent property events} based on document events.
@@ -61,6 +61,9 @@ public class XClassPropertyEventGeneratorListener implements EventListener
     @Inject
     private ObservationManager observation;
 
+    @Inject
+    private DocumentEventChanges documentChanges;
+
     @Override
     public String getName()
     {
@@ -77,24 +80,24 @@ public List<Event> getEvents()
     public void onEvent(Event event, Object source, Object data)
     {
         XWikiDocument doc = (XWikiDocument) source;
-        XWikiDocument originalDoc = doc.getOriginalDocument();
         XWikiContext context = (XWikiContext) data;
 
+        // Don't ask for the original document: it's expensive to get for a document received from another cluster
+        // member and the changes are enough to produce the events
         if (event instanceof DocumentUpdatedEvent) {
-            onDocumentUpdatedEvent(originalDoc, doc, context);
+            onDocumentChangedEvent(doc, false, context);
         } else if (event instanceof DocumentDeletedEvent) {
-            onDocumentDeletedEvent(originalDoc, doc, context);
+            onDocumentChangedEvent(doc, true, context);
         } else if (event instanceof DocumentCreatedEvent) {
-            onDocumentCreatedEvent(originalDoc, doc, context);
+            onDocumentCreatedEvent(doc, context);
         }
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
      * @param context the XWiki context
      */
-    private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentCreatedEvent(XWikiDocument doc, XWikiContext context)
     {
         for (PropertyInterface property : (Collection<PropertyInterface>) doc.getXClass().getFieldList()) {
             this.observation.notify(new XClassPropertyAddedEvent(property.getReference()), doc, context);
@@ -102,39 +105,23 @@ private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
+     * @param deleted true if the document was deleted
      * @param context the XWiki context
      */
-    private void onDocumentDeletedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentChangedEvent(XWikiDocument doc, boolean deleted, XWikiContext context)
     {
-        for (PropertyInterface property : (Collection<PropertyInterface>) originalDoc.getXClass().getFieldList()) {
-            this.observation.notify(new XClassPropertyDeletedEvent(property.getReference()), doc, context);
-        }
-    }
-
-    /**
-     * @param originalDoc the previous version of the document
-     * @param doc the new version of the document
-     * @param context the XWiki context
-     */
-    private void onDocumentUpdatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
-    {
-        BaseClass baseClass = doc.getXClass();
-        BaseClass baseClassOriginal = originalDoc.getXClass();
-
-        for (List<ObjectDiff> objectChanges : doc.getClassDiff(originalDoc, doc, context)) {
+        for (List<ObjectDiff> objectChanges : this.documentChanges.getClassDiff(doc, deleted, context)) {
             for (ObjectDiff diff : objectChanges) {
-                PropertyInterface property = baseClass.getField(diff.getPropName());
-                PropertyInterface propertyOriginal = baseClassOriginal.getField(diff.getPropName());
+                ClassPropertyReference reference =
+                    new ClassPropertyReference(diff.getPropName(), doc.getDocumentReference());
 
                 if (ObjectDiff.ACTION_PROPERTYREMOVED.equals(diff.getAction())) {
-                    this.observation.notify(
-                        new XClassPropertyDeletedEvent(propertyOriginal.getReference()), doc, context);
+                    this.observation.notify(new XClassPropertyDeletedEvent(reference), doc, context);
                 } else if (ObjectDiff.ACTION_PROPERTYADDED.equals(diff.getAction())) {
-                    this.observation.notify(new XClassPropertyAddedEvent(property.getReference()), doc, context);
+                    this.observation.notify(new XClassPropertyAddedEvent(reference), doc, context);
                 } else if (ObjectDiff.ACTION_PROPERTYCHANGED.equals(diff.getAction())) {
-                    this.observation.notify(new XClassPropertyUpdatedEvent(property.getReference()), doc, context);
+                    this.observation.notify(new XClassPropertyUpdatedEvent(reference), doc, context);
                 }
             }
         }
@@ -31,6 +31,8 @@
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.ObjectPropertyReference;
+import org.xwiki.model.reference.ObjectReference;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.event.Event;
@@ -38,6 +40,7 @@
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseObjectReference;
 import com.xpn.xwiki.objects.ObjectDiff;
 import com.xpn.xwiki.objects.PropertyInterface;
 
@@ -61,6 +64,9 @@ public class XObjectEventGeneratorListener implements EventListener
     @Inject
     private ObservationManager observation;
 
+    @Inject
+    private DocumentEventChanges documentChanges;
+
     @Override
     public String getName()
     {
@@ -77,24 +83,24 @@ public List<Event> getEvents()
     public void onEvent(Event event, Object source, Object data)
     {
         XWikiDocument doc = (XWikiDocument) source;
-        XWikiDocument originalDoc = doc.getOriginalDocument();
         XWikiContext context = (XWikiContext) data;
 
+        // Don't ask for the original document: it's expensive to get for a document received from another cluster
+        // member and the changes are enough to produce the events
         if (event instanceof DocumentUpdatedEvent) {
-            onDocumentUpdatedEvent(originalDoc, doc, context);
+            onDocumentUpdatedEvent(doc, context);
         } else if (event instanceof DocumentDeletedEvent) {
-            onDocumentDeletedEvent(originalDoc, doc, context);
+            onDocumentDeletedEvent(doc, context);
         } else if (event instanceof DocumentCreatedEvent) {
-            onDocumentCreatedEvent(originalDoc, doc, context);
+            onDocumentCreatedEvent(doc, context);
         }
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
      * @param context the XWiki context
      */
-    private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentCreatedEvent(XWikiDocument doc, XWikiContext context)
     {
         for (List<BaseObject> xobjects : doc.getXObjects().values()) {
             for (BaseObject xobject : xobjects) {
@@ -109,75 +115,78 @@ private void onDocumentCreatedEvent(XWikiDocument originalDoc, XWikiDocument doc
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
      * @param context the XWiki context
      */
-    private void onDocumentDeletedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentDeletedEvent(XWikiDocument doc, XWikiContext context)
     {
-        for (List<BaseObject> xobjects : originalDoc.getXObjects().values()) {
-            for (BaseObject xobject : xobjects) {
-                if (xobject != null) {
-                    this.observation.notify(new XObjectDeletedEvent(xobject.getReference()), doc, context);
-                    for (PropertyInterface property : (Collection<PropertyInterface>) xobject.getFieldList()) {
-                        this.observation.notify(new XObjectPropertyDeletedEvent(property.getReference()), doc, context);
-                    }
+        for (List<ObjectDiff> objectChanges : this.documentChanges.getObjectDiff(doc, true, context)) {
+            for (ObjectDiff diff : objectChanges) {
+                ObjectReference objectReference = getObjectReference(doc, diff);
+                if (ObjectDiff.ACTION_OBJECTREMOVED.equals(diff.getAction())) {
+                    this.observation.notify(new XObjectDeletedEvent(objectReference), doc, context);
+                } else {
+                    this.observation.notify(new XObjectPropertyDeletedEvent(
+                        new ObjectPropertyReference(diff.getPropName(), objectReference)), doc, context);
                 }
             }
         }
     }
 
     /**
-     * @param originalDoc the previous version of the document
      * @param doc the new version of the document
      * @param context the XWiki context
      */
-    private void onDocumentUpdatedEvent(XWikiDocument originalDoc, XWikiDocument doc, XWikiContext context)
+    private void onDocumentUpdatedEvent(XWikiDocument doc, XWikiContext context)
     {
-        for (List<ObjectDiff> objectChanges : doc.getObjectDiff(originalDoc, doc, context)) {
-            boolean modified = false;
+        for (List<ObjectDiff> objectChanges : this.documentChanges.getObjectDiff(doc, false, context)) {
+            // An added or removed object starts with a marker and is not reported as updated
+            String objectAction = objectChanges.get(0).getAction();
+            boolean modified = ObjectDiff.ACTION_OBJECTADDED.equals(objectAction)
+                || ObjectDiff.ACTION_OBJECTREMOVED.equals(objectAction);
             for (ObjectDiff diff : objectChanges) {
-                BaseObject xobject = doc.getXObject(diff.getXClassReference(), diff.getNumber());
-                BaseObject xobjectOriginal = originalDoc.getXObject(diff.getXClassReference(), diff.getNumber());
+                ObjectReference objectReference = getObjectReference(doc, diff);
                 if (ObjectDiff.ACTION_OBJECTREMOVED.equals(diff.getAction())) {
-                    this.observation.notify(new XObjectDeletedEvent(xobjectOriginal.getReference()), doc, context);
+                    this.observation.notify(new XObjectDeletedEvent(objectReference), doc, context);
                 } else {
                     if (ObjectDiff.ACTION_OBJECTADDED.equals(diff.getAction())) {
-                        this.observation.notify(new XObjectAddedEvent(xobject.getReference()), doc, context);
+                        this.observation.notify(new XObjectAddedEvent(objectReference), doc, context);
                     } else {
-                        if (!modified && xobject != null && xobjectOriginal != null) {
-                            this.observation.notify(new XObjectUpdatedEvent(xobject.getReference()), doc, context);
+                        if (!modified) {
+                            this.observation.notify(new XObjectUpdatedEvent(objectReference), doc, context);
                             modified = true;
                         }
 
-                        onObjectPropertyModified(doc, diff, context);
+                        onObjectPropertyModified(doc, objectReference, diff, context);
                     }
                 }
             }
         }
     }
 
+    private ObjectReference getObjectReference(XWikiDocument doc, ObjectDiff diff)
+    {
+        return new BaseObjectReference(diff.getXClassReference(), diff.getNumber(), doc.getDocumentReference());
+    }
+
     /**
      * Generate object property related events.
      *
      * @param doc the new version of the document
+     * @param objectReference the reference of the object
      * @param diff the diff entry
      * @param context the XWiki context
      */
-    private void onObjectPropertyModified(XWikiDocument doc, ObjectDiff diff, XWikiContext context)
+    private void onObjectPropertyModified(XWikiDocument doc, ObjectReference objectReference, ObjectDiff diff,
+        XWikiContext context)
     {
+        ObjectPropertyReference propertyReference = new ObjectPropertyReference(diff.getPropName(), objectReference);
         if (ObjectDiff.ACTION_PROPERTYREMOVED.equals(diff.getAction())) {
-            BaseObject object = doc.getOriginalDocument().getXObject(diff.getXClassReference(), diff.getNumber());
-            PropertyInterface property = object.getField(diff.getPropName());
-            this.observation.notify(new XObjectPropertyDeletedEvent(property.getReference()), doc, context);
-        } else {
-            BaseObject object = doc.getXObject(diff.getXClassReference(), diff.getNumber());
-            PropertyInterface property = object.getField(diff.getPropName());
-            if (ObjectDiff.ACTION_PROPERTYADDED.equals(diff.getAction())) {
-                this.observation.notify(new XObjectPropertyAddedEvent(property.getReference()), doc, context);
-            } else if (ObjectDiff.ACTION_PROPERTYCHANGED.equals(diff.getAction())) {
-                this.observation.notify(new XObjectPropertyUpdatedEvent(property.getReference()), doc, context);
-            }
+            this.observation.notify(new XObjectPropertyDeletedEvent(propertyReference), doc, context);
+        } else if (ObjectDiff.ACTION_PROPERTYADDED.equals(diff.getAction())) {
+            this.observation.notify(new XObjectPropertyAddedEvent(propertyReference), doc, context);
+        } else if (ObjectDiff.ACTION_PROPERTYCHANGED.equals(diff.getAction())) {
+            this.observation.notify(new XObjectPropertyUpdatedEvent(propertyReference), doc, context);
         }
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.environment.Environment;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+
+/**
+ * Remember, for each wiki, which version of each mandatory document was produced by which version of its
+ * initializers, so that documents which did not change since the last initialization can be skipped without loading
+ * them.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = MandatoryDocumentFingerprintStore.class)
+@Singleton
+public class MandatoryDocumentFingerprintStore
+{
+    private static final String FOLDER = "mandatory";
+
+    private static final char SEPARATOR = '/';
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private Provider<QueryManager> queryManagerProvider;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, Map<String, String>> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * @param initializers the initializers of a document
+     * @return the fingerprint of the passed initializers or null if it's not possible to compute a reliable one
+     */
+    public String getFingerprint(Collection<MandatoryDocumentInitializer> initializers)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (MandatoryDocumentInitializer initializer : initializers) {
+            CodeSource codeSource = initializer.getClass().getProtectionDomain().getCodeSource();
+            URL location = codeSource != null ? codeSource.getLocation() : null;
+
+            if (location == null || !"file".equals(location.getProtocol())) {
+                // Impossible to know if the initializer changed
+                return null;
+            }
+
+            // The location usually contains the version of the JAR, but the last modified date is also taken into
+            // account to support snapshots
+            File file = FileUtils.toFile(location);
+            builder.append(initializer.getClass().getName());
+            builder.append('@');
+            builder.append(location);
+            builder.append('#');
+            builder.append(file.lastModified());
+            builder.append(';');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Get the current version of the passed documents with a single query, without loading them.
+     *
+     * @param wiki the identifier of the wiki
+     * @param documents the local references of the documents
+     * @return the current version of each existing document, indexed by local reference
+     */
+    public Map<String, String> getVersions(String wiki, List<String> documents)
+    {
+        Map<String, String> versions = new HashMap<>(documents.size());
+
+        if (!documents.isEmpty()) {
+            try {
+                Query query = this.queryManagerProvider.get().createQuery(
+                    "select doc.fullName, doc.version from XWikiDocument doc"
+                        + " where (doc.language is null or doc.language = '') and doc.fullName in (:documents)",
+                    Query.HQL);
+                query.setWiki(wiki);
+                query.bindValue("documents", documents);
+
+                for (Object[] result : query.<Object[]>execute()) {
+                    versions.put((String) result[0], (String) result[1]);
+                }
+            } catch (QueryException e) {
+                this.logger.warn("Failed to get the current version of mandatory documents in wiki [{}]: {}", wiki,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return versions;
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param document the local reference of the document
+     * @param fingerprint the current fingerprint of the document initializers
+     * @param version the current version of the document in the database
+     * @return true if the document was initialized by the same initializers and did not change since
+     */
+    public boolean isUnchanged(String wiki, String document, String fingerprint, String version)
+    {
+        if (fingerprint == null || version == null) {
+            return false;
+        }
+
+        return Objects.equals(getFingerprints(wiki).get(document), fingerprint + SEPARATOR + version);
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param document the local reference of the document
+     * @param fingerprint the current fingerprint of the document initializers
+     * @param version the version of the document after its initialization
+     */
+    public void setInitialized(String wiki, String document, String fingerprint, String version)
+    {
+        if (fingerprint != null && version != null) {
+            getFingerprints(wiki).put(document, fingerprint + SEPARATOR + version);
+        } else {
+            getFingerprints(wiki).remove(document);
+        }
+    }
+
+    /**
+     * Persist the fingerprints of the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void save(String wiki)
+    {
+        Map<String, String> wikiFingerprints = getFingerprints(wiki);
+
+        Properties properties = new Properties();
+        properties.putAll(wikiFingerprints);
+
+        File file = getFile(wiki);
+        synchronized (wikiFingerprints) {
+            try {
+                FileUtils.forceMkdirParent(file);
+                try (OutputStream stream = Files.newOutputStream(file.toPath())) {
+                    properties.store(stream, null);
+                }
+            } catch (IOException e) {
+                this.logger.warn("Failed to save the mandatory documents fingerprints of wiki [{}]: {}", wiki,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private Map<String, String> getFingerprints(String wiki)
+    {
+        return this.fingerprints.computeIfAbsent(wiki, this::load);
+    }
+
+    private Map<String, String> load(String wiki)
+    {
+        Map<String, String> wikiFingerprints = new ConcurrentHashMap<>();
+
+        File file = getFile(wiki);
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (InputStream stream = Files.newInputStream(file.toPath())) {
+                properties.load(stream);
+
+                wikiFingerprints.putAll(properties.stringPropertyNames().stream()
+                    .collect(Collectors.toMap(key -> key, properties::getProperty)));
+            } catch (IOException e) {
+                this.logger.warn("Failed to load the mandatory documents fingerprints of wiki [{}]: {}", wiki,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return wikiFingerprints;
+    }
+
+    private File getFile(String wiki)
+    {
+        return new File(new File(this.environment.getPermanentDirectory(), FOLDER), wiki + ".properties");
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.ExecutionContextCopier;
+
+/**
+ * Execute the {@link MandatoryDocumentInitializer}s of a wiki.
+ * <p>
+ * Initializers are executed by order of priority. Depending on the configuration, the initializers sharing the same
+ * priority can be executed in parallel (the initializers targeting the same document are always executed in sequence)
+ * and the documents which did not change since the last time their initializers were executed can be skipped without
+ * loading them.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = MandatoryDocumentInitializerExecutor.class)
+@Singleton
+public class MandatoryDocumentInitializerExecutor implements Disposable
+{
+    private static final String CONFIGURATION_THREADS = "xwiki.store.mandatoryDocuments.threads";
+
+    private static final String CONFIGURATION_SKIPUNCHANGED = "xwiki.store.mandatoryDocuments.skipUnchanged";
+
+    private static final String VERSION_SUMMARY_KEY = "core.model.xclass.mandatoryUpdateProperty.versionSummary";
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> resolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    @Named("xwikicfg")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private MandatoryDocumentFingerprintStore fingerprints;
+
+    @Inject
+    private Provider<ContextualLocalizationManager> localizationProvider;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<ExecutionContextCopier> executionContextCopierProvider;
+
+    @Inject
+    private JobProgressManager progress;
+
+    @Inject
+    private Logger logger;
+
+    private ExecutorService executor;
+
+    /**
+     * The initializers targeting the same document.
+     */
+    private final class DocumentInitializers
+    {
+        private final DocumentReference reference;
+
+        private final String localReference;
+
+        private final List<MandatoryDocumentInitializer> initializers = new ArrayList<>();
+
+        private String fingerprint;
+
+        private DocumentInitializers(DocumentReference reference)
+        {
+            this.reference = reference;
+            this.localReference = localSerializer.serialize(reference);
+        }
+
+        private void initialize(XWikiContext xcontext)
+        {
+            XWikiDocument document = null;
+            for (MandatoryDocumentInitializer initializer : this.initializers) {
+                document = MandatoryDocumentInitializerExecutor.this.initialize(initializer, xcontext);
+
+                if (document == null) {
+                    // Don't remember a document which failed to be initialized
+                    break;
+                }
+            }
+
+            // The fingerprint is only computed when unchanged documents can be skipped
+            if (this.fingerprint != null) {
+                fingerprints.setInitialized(this.reference.getWikiReference().getName(), this.localReference,
+                    this.fingerprint, document != null && !document.isNew() ? document.getVersion() : null);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+        }
+    }
+
+    private int getThreads()
+    {
+        return this.configuration.getProperty(CONFIGURATION_THREADS, 1);
+    }
+
+    private boolean isSkipUnchanged()
+    {
+        return this.configuration.getProperty(CONFIGURATION_SKIPUNCHANGED, 0) == 1;
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null) {
+            BasicThreadFactory factory = new BasicThreadFactory.Builder()
+                .namingPattern("XWiki mandatory document initialization thread %d").daemon(true).build();
+            this.executor = Executors.newFixedThreadPool(getThreads(), factory);
+        }
+
+        return this.executor;
+    }
+
+    /**
+     * Execute all the available initializers in the current wiki.
+     *
+     * @param xcontext the XWiki context
+     */
+    public void initialize(XWikiContext xcontext)
+    {
+        String wiki = xcontext.getWikiId();
+
+        // Gather the initializers targeting the current wiki by priority and target document
+        Map<Integer, Map<DocumentReference, DocumentInitializers>> initializers = getInitializers(xcontext);
+
+        int total = initializers.values().stream().mapToInt(Map::size).sum();
+
+        boolean skipUnchanged = isSkipUnchanged();
+        Map<String, String> versions = Map.of();
+        if (skipUnchanged) {
+            List<String> documents = new ArrayList<>(total);
+            initializers.values().forEach(m -> m.values().forEach(d -> documents.add(d.localReference)));
+            versions = this.fingerprints.getVersions(wiki, documents);
+        }
+
+        long begin = System.currentTimeMillis();
+        int skipped = 0;
+
+        this.progress.pushLevelProgress(total, this);
+
+        try {
+            for (Map<DocumentReference, DocumentInitializers> priorityInitializers : initializers.values()) {
+                List<DocumentInitializers> toInitialize = new ArrayList<>(priorityInitializers.size());
+                for (DocumentInitializers documentInitializers : priorityInitializers.values()) {
+                    if (skipUnchanged) {
+                        documentInitializers.fingerprint =
+                            this.fingerprints.getFingerprint(documentInitializers.initializers);
+                    }
+
+                    if (skipUnchanged && this.fingerprints.isUnchanged(wiki, documentInitializers.localReference,
+                        documentInitializers.fingerprint, versions.get(documentInitializers.localReference))) {
+                        this.logger.debug("Skipping unchanged mandatory document [{}]", documentInitializers.reference);
+
+                        ++skipped;
+                        this.progress.startStep(this);
+                        this.progress.endStep(this);
+                    } else {
+                        toInitialize.add(documentInitializers);
+                    }
+                }
+
+                initialize(toInitialize, xcontext);
+            }
+        } finally {
+            this.progress.popLevelProgress(this);
+
+            if (skipUnchanged) {
+                this.fingerprints.save(wiki);
+            }
+        }
+
+        this.logger.debug("Initialized [{}] mandatory documents ([{}] skipped as unchanged) of wiki [{}] in [{}] ms",
+            total - skipped, skipped, wiki, System.currentTimeMillis() - begin);
+    }
+
+    private void initialize(List<DocumentInitializers> documents, XWikiContext xcontext)
+    {
+        if (getThreads() <= 1 || documents.size() <= 1) {
+            for (DocumentInitializers documentInitializers : documents) {
+                this.progress.startStep(this);
+                documentInitializers.initialize(xcontext);
+                this.progress.endStep(this);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>(documents.size());
+            for (DocumentInitializers documentInitializers : documents) {
+                futures.add(submit(documentInitializers, xcontext));
+            }
+
+            for (Future<?> future : futures) {
+                this.progress.startStep(this);
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+
+                    return;
+                } catch (ExecutionException e) {
+                    this.logger.error("Failed to initialize mandatory documents", e);
+                } finally {
+                    this.progress.endStep(this);
+                }
+            }
+        }
+    }
+
+    private Future<?> submit(DocumentInitializers documentInitializers, XWikiContext xcontext)
+    {
+        // Each initialization task works with its own copy of the current context (including the XWiki context, since
+        // the tasks run in parallel)
+        ExecutionContext executionContext;
+        try {
+            executionContext = this.executionContextCopierProvider.get().copy(this.execution.getContext());
+        } catch (ExecutionContextException e) {
+            this.logger.warn("Failed to copy the execution context, initializing document [{}] in the current thread",
+                documentInitializers.reference, e);
+
+            documentInitializers.initialize(xcontext);
+
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return getExecutor().submit(() -> {
+            this.execution.setContext(executionContext);
+
+            try {
+                documentInitializers
+                    .initialize((XWikiContext) executionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY));
+            } finally {
+                this.execution.removeContext();
+            }
+        });
+    }
+
+    /**
+     * Execute the passed initializer in the current wiki.
+     *
+     * @param initializer the initializer to execute
+     * @param xcontext the XWiki context
+     * @return the initialized document or null if the initializer is not targeting the current wiki or failed
+     */
+    public XWikiDocument initialize(MandatoryDocumentInitializer initializer, XWikiContext xcontext)
+    {
+        long begin = System.currentTimeMillis();
+
+        try {
+            DocumentReference documentReference = this.resolver.resolve(initializer.getDocumentReference());
+
+            if (documentReference.getWikiReference().getName().equals(xcontext.getWikiId())) {
+                XWikiDocument document = xcontext.getWiki().getDocument(documentReference, xcontext);
+
+                if (initializer.updateDocument(document)) {
+                    xcontext.getWiki().saveDocument(document, getVersionSummary(), xcontext);
+                }
+
+                this.logger.debug("Executed mandatory document initializer [{}] for document [{}] in [{}] ms",
+                    initializer.getClass().getName(), documentReference, System.currentTimeMillis() - begin);
+
+                return document;
+            }
+        } catch (Exception e) {
+            this.logger.error("Failed to initialize mandatory document [{}]", initializer.getDocumentReference(), e);
+        }
+
+        return null;
+    }
+
+    private String getVersionSummary()
+    {
+        return StringUtils.defaultString(this.localizationProvider.get().getTranslationPlain(VERSION_SUMMARY_KEY),
+            VERSION_SUMMARY_KEY);
+    }
+
+    private Map<Integer, Map<DocumentReference, DocumentInitializers>> getInitializers(XWikiContext xcontext)
+    {
+        ComponentManager componentManager = this.componentManagerProvider.get();
+
+        Map<Integer, Map<DocumentReference, DocumentInitializers>> initializers = new TreeMap<>();
+        for (ComponentDescriptor<MandatoryDocumentInitializer> descriptor : componentManager
+            .<MandatoryDocumentInitializer>getComponentDescriptorList(MandatoryDocumentInitializer.class)) {
+            try {
+                MandatoryDocumentInitializer initializer =
+                    componentManager.getInstance(MandatoryDocumentInitializer.class, descriptor.getRoleHint());
+
+                DocumentReference documentReference = this.resolver.resolve(initializer.getDocumentReference());
+
+                if (documentReference.getWikiReference().getName().equals(xcontext.getWikiId())) {
+                    initializers.computeIfAbsent(descriptor.getRoleHintPriority(), k -> new LinkedHashMap<>())
+                        .computeIfAbsent(documentReference, DocumentInitializers::new).initializers.add(initializer);
+                }
+            } catch (ComponentLookupException e) {
+                this.logger.error("Failed to lookup mandatory document initializer [{}]", descriptor.getRoleHint(),
+                    e);
+            }
+        }
+
+        return initializers;
+    }
+}
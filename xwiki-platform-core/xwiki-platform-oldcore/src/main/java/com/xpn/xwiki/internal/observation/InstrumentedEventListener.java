@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.util.List;
+
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Wrap an {@link EventListener} to record the time it spends handling the events.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class InstrumentedEventListener implements EventListener
+{
+    private final EventListener listener;
+
+    private final ListenerStatistics statistics;
+
+    /**
+     * @param listener the instrumented listener
+     * @param statistics the statistics to update
+     */
+    public InstrumentedEventListener(EventListener listener, ListenerStatistics statistics)
+    {
+        this.listener = listener;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the instrumented listener
+     */
+    public EventListener getListener()
+    {
+        return this.listener;
+    }
+
+    @Override
+    public String getName()
+    {
+        return this.listener.getName();
+    }
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return this.listener.getEvents();
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        this.statistics.record(getName(), event, () -> this.listener.onEvent(event, source, data));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of the calls of a given listener for a given type of event.
+ * <p>
+ * The durations are inclusive: they contain the time spent in the listeners of the events produced by the listener.
+ * The percentiles are approximated using an histogram with power of two buckets (in microseconds).
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class ListenerEventStatistics
+{
+    private static final int BUCKETS = 40;
+
+    private final String listener;
+
+    private final String event;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalTime = new LongAdder();
+
+    private final AtomicLong maxTime = new AtomicLong();
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder allocationSamples = new LongAdder();
+
+    private final LongAdder sampledAllocatedBytes = new LongAdder();
+
+    /**
+     * @param listener the name of the listener
+     * @param event the type of event
+     */
+    public ListenerEventStatistics(String listener, String event)
+    {
+        this.listener = listener;
+        this.event = event;
+    }
+
+    /**
+     * @param nanos the time spent in the listener, in nanoseconds
+     * @return the number of calls recorded so far, including this one
+     */
+    long record(long nanos)
+    {
+        this.count.increment();
+        this.totalTime.add(nanos);
+        this.maxTime.accumulateAndGet(nanos, Math::max);
+
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        this.histogram.incrementAndGet(bucket);
+
+        return this.count.sum();
+    }
+
+    /**
+     * @param bytes the memory allocated by the thread while executing the listener
+     */
+    void recordAllocation(long bytes)
+    {
+        this.allocationSamples.increment();
+        this.sampledAllocatedBytes.add(bytes);
+    }
+
+    /**
+     * @return the name of the listener
+     */
+    public String getListener()
+    {
+        return this.listener;
+    }
+
+    /**
+     * @return the type of event
+     */
+    public String getEvent()
+    {
+        return this.event;
+    }
+
+    /**
+     * @return the number of calls of the listener for this type of event
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the total time spent in the listener for this type of event, in milliseconds
+     */
+    public double getTotalTime()
+    {
+        return toMillis(this.totalTime.sum());
+    }
+
+    /**
+     * @return the average time spent in the listener for this type of event, in milliseconds
+     */
+    public double getAverageTime()
+    {
+        long currentCount = getCount();
+
+        return currentCount > 0 ? toMillis(this.totalTime.sum()) / currentCount : 0;
+    }
+
+    /**
+     * @return the longest time spent in the listener for this type of event, in milliseconds
+     */
+    public double getMaxTime()
+    {
+        return toMillis(this.maxTime.get());
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the (upper bound approximation of the) time under which this percentage of the calls were executed, in
+     *     milliseconds
+     */
+    public double getPercentileTime(double percentile)
+    {
+        long total = 0;
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            buckets[i] = this.histogram.get(i);
+            total += buckets[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile / 100);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            cumulated += buckets[i];
+            if (cumulated >= threshold) {
+                // The bucket i contains the durations lower than 2^i microseconds
+                return Math.min((1L << i) / 1000D, getMaxTime());
+            }
+        }
+
+        return getMaxTime();
+    }
+
+    /**
+     * @return the estimated average number of bytes allocated by a call of the listener, or -1 if unknown
+     */
+    public long getAverageAllocatedBytes()
+    {
+        long samples = this.allocationSamples.sum();
+
+        return samples > 0 ? this.sampledAllocatedBytes.sum() / samples : -1;
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / 1000000D;
+    }
+}
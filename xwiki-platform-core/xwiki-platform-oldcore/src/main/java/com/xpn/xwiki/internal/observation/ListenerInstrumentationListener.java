@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
+
+/**
+ * Replace the registered event listener components with an {@link InstrumentedEventListener}, when the application is
+ * ready and when new listener components are registered (e.g., when installing an extension).
+ * <p>
+ * Since the {@link ObservationManager} does not provide a way to intercept the calls to the listeners, each listener is
+ * removed and registered again wrapped in an {@link InstrumentedEventListener}, with the same priority. The wrapper
+ * is removed when the listener component is unregistered (e.g., when uninstalling or upgrading an extension), since
+ * the observation manager can't associate it with the component anymore.
+ * <p>
+ * Removing and registering the listener again is not atomic: an event sent by another thread in between is not
+ * received by the listener (e.g., a security cache invalidation would be missed, leaving a stale rights cache), and the
+ * order of the listener among the listeners with the same priority may change. This is why the instrumentation is
+ * disabled by default and should only be enabled while investigating a performance problem.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named(ListenerInstrumentationListener.NAME)
+@Singleton
+// Make sure the observation manager registered the new listener components before trying to instrument them
+@Priority(ComponentDescriptor.DEFAULT_PRIORITY * 10)
+public class ListenerInstrumentationListener implements EventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "com.xpn.xwiki.internal.observation.ListenerInstrumentationListener";
+
+    private static final List<Event> EVENTS =
+        Arrays.asList(new ApplicationReadyEvent(), new ComponentDescriptorAddedEvent(EventListener.class),
+            new ComponentDescriptorRemovedEvent(EventListener.class));
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    private Provider<ObservationManager> observationManagerProvider;
+
+    @Inject
+    private Provider<ListenerStatistics> statisticsProvider;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, InstrumentedEventListener> instrumentedListeners = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return EVENTS;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof ComponentDescriptorRemovedEvent) {
+            if (data instanceof ComponentDescriptor) {
+                removeInstrumented((ComponentDescriptor<EventListener>) data);
+            }
+
+            return;
+        }
+
+        ListenerStatistics statistics = this.statisticsProvider.get();
+        if (!statistics.isEnabled()) {
+            return;
+        }
+
+        if (event instanceof ApplicationReadyEvent) {
+            this.ready = true;
+
+            for (ComponentDescriptor<EventListener> descriptor : this.componentManagerProvider.get()
+                .<EventListener>getComponentDescriptorList(EventListener.class)) {
+                instrument(this.componentManagerProvider.get(), descriptor, statistics);
+            }
+        } else if (this.ready && source instanceof ComponentManager && data instanceof ComponentDescriptor) {
+            // The listeners registered before the application is ready are instrumented all at once
+            instrument((ComponentManager) source, (ComponentDescriptor<EventListener>) data, statistics);
+        }
+    }
+
+    private void instrument(ComponentManager componentManager, ComponentDescriptor<EventListener> descriptor,
+        ListenerStatistics statistics)
+    {
+        try {
+            EventListener listener = componentManager.getInstance(EventListener.class, descriptor.getRoleHint());
+
+            if (listener == this) {
+                return;
+            }
+
+            ObservationManager observationManager = this.observationManagerProvider.get();
+            // Only replace the listener if it's the one actually registered
+            if (observationManager.getListener(listener.getName()) == listener) {
+                InstrumentedEventListener instrumentedListener = new InstrumentedEventListener(listener, statistics);
+                observationManager.removeListener(listener.getName());
+                observationManager.addListener(instrumentedListener, descriptor.getRoleHintPriority());
+                this.instrumentedListeners.put(listener.getName(), instrumentedListener);
+            }
+        } catch (ComponentLookupException e) {
+            this.logger.warn("Failed to instrument the event listener with hint [{}]: {}", descriptor.getRoleHint(),
+                e.getMessage());
+        }
+    }
+
+    private void removeInstrumented(ComponentDescriptor<EventListener> descriptor)
+    {
+        // The observation manager removes the listener which is an instance of the implementation of the unregistered
+        // component, which is never the case of the wrapper
+        ObservationManager observationManager = this.observationManagerProvider.get();
+        for (Iterator<InstrumentedEventListener> it = this.instrumentedListeners.values().iterator(); it.hasNext();) {
+            InstrumentedEventListener instrumentedListener = it.next();
+
+            if (instrumentedListener.getListener().getClass() == descriptor.getImplementation()) {
+                it.remove();
+
+                if (observationManager.getListener(instrumentedListener.getName()) == instrumentedListener) {
+                    observationManager.removeListener(instrumentedListener.getName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.internal.observation.jmx.JMXListenerStatistics;
+
+/**
+ * Gather the time spent by each event listener for each type of event.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = ListenerStatistics.class)
+@Singleton
+public class ListenerStatistics implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "org.xwiki:type=observation,name=listeners";
+
+    private static final String CONFIGURATION_PREFIX = "observation.instrumentation.";
+
+    @Inject
+    private Provider<ConfigurationSource> configurationProvider;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, Map<String, ListenerEventStatistics>> statistics = new ConcurrentHashMap<>();
+
+    private boolean enabled;
+
+    private long slowThreshold;
+
+    private int allocationSampling;
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    private ObjectName objectName;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        ConfigurationSource configuration = this.configurationProvider.get();
+        this.enabled = configuration.getProperty(CONFIGURATION_PREFIX + "enabled", false);
+        this.slowThreshold =
+            TimeUnit.MILLISECONDS.toNanos(configuration.getProperty(CONFIGURATION_PREFIX + "slowThreshold", 1000L));
+        this.allocationSampling = configuration.getProperty(CONFIGURATION_PREFIX + "allocationSampling", 64);
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (this.allocationSampling > 0 && bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+            this.threadBean = (com.sun.management.ThreadMXBean) bean;
+        }
+
+        if (this.enabled) {
+            try {
+                this.objectName = new ObjectName(MBEAN_NAME);
+
+                MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                if (mbs.isRegistered(this.objectName)) {
+                    mbs.unregisterMBean(this.objectName);
+                }
+                mbs.registerMBean(new JMXListenerStatistics(this), this.objectName);
+            } catch (Exception e) {
+                this.logger.warn("Failed to register the listener statistics against the JMX Server", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (this.objectName != null && mbs.isRegistered(this.objectName)) {
+                mbs.unregisterMBean(this.objectName);
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to unregister the listener statistics from the JMX Server", e);
+        }
+    }
+
+    /**
+     * @return true if the listeners should be instrumented, false by default since instrumenting the listeners means
+     *         replacing them while events are being sent (see {@link ListenerInstrumentationListener})
+     */
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    /**
+     * @param listener the name of the listener
+     * @param event the event
+     * @return the statistics of the listener for this type of event
+     */
+    public ListenerEventStatistics getStatistics(String listener, Event event)
+    {
+        String name = String.valueOf(listener);
+
+        return this.statistics.computeIfAbsent(name, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(event.getClass().getName(), key -> new ListenerEventStatistics(name, key));
+    }
+
+    /**
+     * Call the listener and record the time it took (and sometimes the memory it allocated).
+     *
+     * @param listener the name of the listener
+     * @param event the event sent to the listener
+     * @param call the call to the listener
+     */
+    public void record(String listener, Event event, Runnable call)
+    {
+        if (!this.enabled) {
+            call.run();
+
+            return;
+        }
+
+        ListenerEventStatistics eventStatistics = getStatistics(listener, event);
+
+        // Measuring the allocated memory is a bit more expensive than measuring the time, so it's only done for a
+        // sample of the calls
+        boolean allocation =
+            this.threadBean != null && eventStatistics.getCount() % this.allocationSampling == 0;
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = allocation ? this.threadBean.getThreadAllocatedBytes(threadId) : 0;
+        long begin = System.nanoTime();
+
+        try {
+            call.run();
+        } finally {
+            long duration = System.nanoTime() - begin;
+
+            eventStatistics.record(duration);
+            if (allocation) {
+                eventStatistics.recordAllocation(this.threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore);
+            }
+
+            if (duration >= this.slowThreshold) {
+                this.logger.warn("Listener [{}] took [{}] ms to handle event [{}]", listener,
+                    TimeUnit.NANOSECONDS.toMillis(duration), event);
+            }
+        }
+    }
+
+    /**
+     * @return the statistics of all the listeners and types of events, starting with the ones which took the most time
+     */
+    public List<ListenerEventStatistics> getStatistics()
+    {
+        List<ListenerEventStatistics> list = new ArrayList<>();
+        this.statistics.values().forEach(listenerStatistics -> list.addAll(listenerStatistics.values()));
+        list.sort(Comparator.comparingDouble(ListenerEventStatistics::getTotalTime).reversed());
+
+        return list;
+    }
+
+    /**
+     * Forget all the gathered statistics.
+     */
+    public void reset()
+    {
+        this.statistics.clear();
+    }
+}
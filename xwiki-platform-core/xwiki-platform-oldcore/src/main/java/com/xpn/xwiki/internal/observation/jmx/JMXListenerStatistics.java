@@ -0,0 +1,76 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.jmx;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.xpn.xwiki.internal.observation.ListenerEventStatistics;
+import com.xpn.xwiki.internal.observation.ListenerStatistics;
+
+/**
+ * Implementation of the {@link JMXListenerStatisticsMBean} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class JMXListenerStatistics implements JMXListenerStatisticsMBean
+{
+    private final ListenerStatistics statistics;
+
+    /**
+     * @param statistics the statistics to expose
+     */
+    public JMXListenerStatistics(ListenerStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public long getCallCount()
+    {
+        return this.statistics.getStatistics().stream().mapToLong(ListenerEventStatistics::getCount).sum();
+    }
+
+    @Override
+    public double getTotalTime()
+    {
+        return this.statistics.getStatistics().stream().mapToDouble(ListenerEventStatistics::getTotalTime).sum();
+    }
+
+    @Override
+    public String[] getSlowestListeners(int limit)
+    {
+        List<ListenerEventStatistics> list = this.statistics.getStatistics();
+
+        return list.stream().limit(Math.max(0, limit))
+            .map(entry -> String.format(Locale.ROOT,
+                "%s [%s]: count=%d, total=%.3f, average=%.3f, p95=%.3f, max=%.3f, allocated=%d", entry.getListener(),
+                entry.getEvent(), entry.getCount(), entry.getTotalTime(), entry.getAverageTime(),
+                entry.getPercentileTime(95), entry.getMaxTime(), entry.getAverageAllocatedBytes()))
+            .toArray(String[]::new);
+    }
+
+    @Override
+    public void reset()
+    {
+        this.statistics.reset();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.jmx;
+
+/**
+ * Interface of the {@link JMXListenerStatistics} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public interface JMXListenerStatisticsMBean
+{
+    /**
+     * @return the total number of calls of the listeners
+     */
+    long getCallCount();
+
+    /**
+     * @return the total time spent in the listeners, in milliseconds
+     */
+    double getTotalTime();
+
+    /**
+     * @param limit the maximum number of entries to return
+     * @return the listeners and types of events which took the most time, one per line with the number of calls, the
+     *     total, average, 95th percentile and max time in milliseconds, and the average allocated bytes
+     */
+    String[] getSlowestListeners(int limit);
+
+    /**
+     * Forget all the gathered statistics.
+     */
+    void reset();
+}
@@ -20,7 +20,9 @@
 package com.xpn.xwiki.internal.observation.remote.converter;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -29,13 +31,16 @@
 import org.slf4j.Logger;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.diff.Delta;
 import org.xwiki.localization.LocaleUtils;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.remote.converter.AbstractEventConverter;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.AttachmentDiff;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.ObjectDiff;
 import com.xpn.xwiki.store.XWikiCacheStore;
 import com.xpn.xwiki.util.XWikiStubContextProvider;
 
@@ -61,6 +66,12 @@ public abstract class AbstractXWikiEventConverter extends AbstractEventConverter
 
     protected static final String ORIGDOC_LANGUAGE = "origdoclanguage";
 
+    protected static final String ORIGDOC_OBJECTDIFF = "origdocobjectdiff";
+
+    protected static final String ORIGDOC_CLASSDIFF = "origdocclassdiff";
+
+    protected static final String ORIGDOC_ATTACHMENTDIFF = "origdocattachmentdiff";
+
     /**
      * The logger to log.
      */
@@ -79,6 +90,12 @@ public abstract class AbstractXWikiEventConverter extends AbstractEventConverter
     @Inject
     private XWikiStubContextProvider stubContextProvider;
 
+    /**
+     * Count the loads of documents which were deferred.
+     */
+    @Inject
+    protected RemoteDocumentLoadStatistics loadStatistics;
+
     /**
      * @param context the XWiki context to serialize
      * @return the serialized version of the context
@@ -94,17 +111,19 @@ protected Serializable serializeXWikiContext(XWikiContext context)
     }
 
     /**
-     * @return a stub XWikiContext, null if none can be generated (XWiki has never been accessed yet)
+     * @return the XWiki context of the current thread, or a stub XWikiContext, null if none can be generated (XWiki
+     *         has never been accessed yet)
      */
-    private XWikiContext getXWikiStubContext()
+    protected XWikiContext getXWikiStubContext()
     {
         ExecutionContext context = this.execution.getContext();
-        XWikiContext xcontext = (XWikiContext) context.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+        XWikiContext xcontext =
+            context != null ? (XWikiContext) context.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY) : null;
 
         if (xcontext == null) {
             xcontext = this.stubContextProvider.createStubContext();
 
-            if (xcontext != null) {
+            if (xcontext != null && context != null) {
                 xcontext.declareInExecutionContext(context);
             }
         }
@@ -159,6 +178,92 @@ protected Serializable serializeXWikiDocument(XWikiDocument document)
         return remoteDataMap;
     }
 
+    /**
+     * Send the changes made to the document with the event so that the listeners of the other members, which most of
+     * the time only need to know what changed, don't have to load the original document.
+     *
+     * @param objectDiff the changes made to the objects of the document
+     * @param classDiff the changes made to the class of the document
+     * @param attachmentDiff the changes made to the attachments of the document
+     * @param remoteDataMap the serialized version of the document
+     * @since 17.1.0RC1
+     */
+    protected void serializeDocumentChanges(List<List<ObjectDiff>> objectDiff, List<List<ObjectDiff>> classDiff,
+        List<AttachmentDiff> attachmentDiff, Map<String, Serializable> remoteDataMap)
+    {
+        remoteDataMap.put(ORIGDOC_OBJECTDIFF, serializeObjectDiff(objectDiff));
+        remoteDataMap.put(ORIGDOC_CLASSDIFF, serializeObjectDiff(classDiff));
+
+        // The name and type of each changed attachment
+        ArrayList<String> remoteAttachmentDiff = new ArrayList<>(attachmentDiff.size() * 2);
+        for (AttachmentDiff diff : attachmentDiff) {
+            remoteAttachmentDiff.add(diff.getFileName());
+            remoteAttachmentDiff.add(diff.getType().name());
+        }
+        remoteDataMap.put(ORIGDOC_ATTACHMENTDIFF, remoteAttachmentDiff);
+    }
+
+    private ArrayList<ArrayList<Serializable>> serializeObjectDiff(List<List<ObjectDiff>> diff)
+    {
+        // The class and number of each changed object followed by the action and name of each changed property
+        ArrayList<ArrayList<Serializable>> remoteDiff = new ArrayList<>(diff.size());
+        for (List<ObjectDiff> objectDiff : diff) {
+            ArrayList<Serializable> remoteObjectDiff = new ArrayList<>(2 + objectDiff.size() * 2);
+            remoteObjectDiff.add(objectDiff.get(0).getXClassReference());
+            remoteObjectDiff.add(objectDiff.get(0).getNumber());
+            for (ObjectDiff entry : objectDiff) {
+                remoteObjectDiff.add(entry.getAction());
+                remoteObjectDiff.add(entry.getPropName());
+            }
+            remoteDiff.add(remoteObjectDiff);
+        }
+
+        return remoteDiff;
+    }
+
+    /**
+     * @param originalDocument the original document to associate with the changes sent with the event, if any
+     * @param remoteDataMap the serialized version of the document
+     * @since 17.1.0RC1
+     */
+    protected void unserializeDocumentChanges(LazyOriginalDocument originalDocument,
+        Map<String, Serializable> remoteDataMap)
+    {
+        List<String> remoteAttachmentDiff = (List<String>) remoteDataMap.get(ORIGDOC_ATTACHMENTDIFF);
+
+        // Older members don't send the changes
+        if (remoteAttachmentDiff != null) {
+            List<AttachmentDiff> attachmentDiff = new ArrayList<>(remoteAttachmentDiff.size() / 2);
+            for (int i = 0; i < remoteAttachmentDiff.size(); i += 2) {
+                attachmentDiff.add(new AttachmentDiff(remoteAttachmentDiff.get(i),
+                    Delta.Type.valueOf(remoteAttachmentDiff.get(i + 1)), null, null));
+            }
+
+            originalDocument.setChanges(unserializeObjectDiff(remoteDataMap.get(ORIGDOC_OBJECTDIFF)),
+                unserializeObjectDiff(remoteDataMap.get(ORIGDOC_CLASSDIFF)), attachmentDiff);
+        }
+    }
+
+    private List<List<ObjectDiff>> unserializeObjectDiff(Serializable remoteData)
+    {
+        List<List<Serializable>> remoteDiff = (List<List<Serializable>>) remoteData;
+
+        List<List<ObjectDiff>> diff = new ArrayList<>(remoteDiff.size());
+        for (List<Serializable> remoteObjectDiff : remoteDiff) {
+            DocumentReference xclassReference = (DocumentReference) remoteObjectDiff.get(0);
+            int number = (Integer) remoteObjectDiff.get(1);
+
+            List<ObjectDiff> objectDiff = new ArrayList<>(remoteObjectDiff.size() / 2 - 1);
+            for (int i = 2; i < remoteObjectDiff.size(); i += 2) {
+                objectDiff.add(new ObjectDiff(xclassReference, number, "", (String) remoteObjectDiff.get(i),
+                    (String) remoteObjectDiff.get(i + 1), "", null, null));
+            }
+            diff.add(objectDiff);
+        }
+
+        return diff;
+    }
+
     protected XWikiDocument getDocument(XWikiDocument document, String version, XWikiContext xcontext)
         throws XWikiException
     {
@@ -202,17 +307,24 @@ protected XWikiDocument unserializeDocument(Serializable remoteData) throws XWik
             document = getDocument(document, version, xcontext);
         }
 
-        String origVersion = (String) remoteDataMap.get(ORIGDOC_VERSION);
-        if (origVersion != null) {
-            origDoc = getDocument(origDoc, origVersion, xcontext);
-        }
-
         // Clone the document to be sure we don't leave an inconsistent document state in the cache
         // TODO: optimize when https://jira.xwiki.org/browse/XWIKI-22510 is fixed
         document = document.clone();
 
         // Set the original document expected by listeners (so that they can know what changed)
-        document.setOriginalDocument(origDoc);
+        String origVersion = (String) remoteDataMap.get(ORIGDOC_VERSION);
+        if (origVersion != null) {
+            // Most listeners only need the reference of the document so the previous version, which generally has to
+            // be loaded from the history, is only loaded when a listener asks for it
+            XWikiDocument origDocPlaceholder = origDoc;
+            LazyOriginalDocument originalDocument = new LazyOriginalDocument(origDocPlaceholder,
+                loaderContext -> getDocument(origDocPlaceholder, origVersion, loaderContext),
+                this::getXWikiStubContext, this.loadStatistics, this.logger);
+            unserializeDocumentChanges(originalDocument, remoteDataMap);
+            document.setOriginalDocumentLoader(originalDocument);
+        } else {
+            document.setOriginalDocument(origDoc);
+        }
 
         return document;
     }
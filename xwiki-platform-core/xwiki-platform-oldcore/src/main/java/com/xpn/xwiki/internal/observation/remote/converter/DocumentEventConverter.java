@@ -25,6 +25,7 @@
 import java.util.Map;
 import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -44,6 +45,7 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDeletedDocument;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.DocumentEventChanges;
 import com.xpn.xwiki.store.XWikiCacheStore;
 import com.xpn.xwiki.store.XWikiRecycleBinStoreInterface;
 
@@ -73,14 +75,29 @@ public class DocumentEventConverter extends AbstractXWikiEventConverter
         }
     };
 
+    @Inject
+    private DocumentEventChanges documentChanges;
+
     @Override
     public boolean toRemote(LocalEventData localEvent, RemoteEventData remoteEvent)
     {
         if (EVENTS.contains(localEvent.getEvent().getClass())) {
+            XWikiDocument document = (XWikiDocument) localEvent.getSource();
+            XWikiContext xcontext = (XWikiContext) localEvent.getData();
+
+            Map<String, Serializable> remoteDocument = (Map<String, Serializable>) serializeXWikiDocument(document);
+            if (localEvent.getEvent() instanceof DocumentUpdatedEvent
+                || localEvent.getEvent() instanceof DocumentDeletedEvent) {
+                boolean deleted = localEvent.getEvent() instanceof DocumentDeletedEvent;
+                serializeDocumentChanges(this.documentChanges.getObjectDiff(document, deleted, xcontext),
+                    this.documentChanges.getClassDiff(document, deleted, xcontext),
+                    this.documentChanges.getAttachmentDiff(document, deleted, xcontext), remoteDocument);
+            }
+
             // fill the remote event
             remoteEvent.setEvent((Serializable) localEvent.getEvent());
-            remoteEvent.setSource(serializeXWikiDocument((XWikiDocument) localEvent.getSource()));
-            remoteEvent.setData(serializeXWikiContext((XWikiContext) localEvent.getData()));
+            remoteEvent.setSource((Serializable) remoteDocument);
+            remoteEvent.setData(serializeXWikiContext(xcontext));
 
             return true;
         }
@@ -117,7 +134,6 @@ public boolean fromRemote(RemoteEventData remoteEvent, LocalEventData localEvent
     }
 
     private XWikiDocument unserializeDeletedDocument(Serializable remoteData, XWikiContext xcontext)
-        throws XWikiException
     {
         Map<String, Serializable> remoteDataMap = (Map<String, Serializable>) remoteData;
 
@@ -127,6 +143,24 @@ private XWikiDocument unserializeDeletedDocument(Serializable remoteData, XWikiC
         XWikiDocument doc = new XWikiDocument(docReference, locale);
         XWikiDocument origDoc = new XWikiDocument(docReference, locale);
 
+        // Most listeners only need the reference of the deleted document so it's only restored from the trash when a
+        // listener asks for it
+        LazyOriginalDocument originalDocument = new LazyOriginalDocument(origDoc,
+            loaderContext -> getDeletedDocument(origDoc, loaderContext), this::getXWikiStubContext,
+            this.loadStatistics, this.logger);
+        unserializeDocumentChanges(originalDocument, remoteDataMap);
+        doc.setOriginalDocumentLoader(originalDocument);
+
+        // Force invalidating the cache to be sure it return (and keep) the right document
+        if (xcontext.getWiki().getStore() instanceof XWikiCacheStore) {
+            ((XWikiCacheStore) xcontext.getWiki().getStore()).invalidate(doc);
+        }
+
+        return doc;
+    }
+
+    private XWikiDocument getDeletedDocument(XWikiDocument origDoc, XWikiContext xcontext) throws XWikiException
+    {
         // We have to get deleted document from the trash (hoping it is in the trash...)
         XWiki xwiki = xcontext.getWiki();
         XWikiRecycleBinStoreInterface store = xwiki.getRecycleBinStore();
@@ -134,22 +168,15 @@ private XWikiDocument unserializeDeletedDocument(Serializable remoteData, XWikiC
         if (deletedDocuments != null && deletedDocuments.length > 0) {
             long index = deletedDocuments[0].getId();
             try {
-                origDoc = store.restoreFromRecycleBin(index, xcontext, true);
+                return store.restoreFromRecycleBin(index, xcontext, true);
             } catch (Exception e) {
                 // The deleted document can be found in the database but there is an issue with the content
                 // Better a partial notification than no notification at all (what most listeners care about is the
                 // reference of the deleted document)
-                this.logger.error("Failed to restore deleted document [{}]", docReference, e);
+                this.logger.error("Failed to restore deleted document [{}]", origDoc.getDocumentReference(), e);
             }
         }
 
-        doc.setOriginalDocument(origDoc);
-
-        // Force invalidating the cache to be sure it return (and keep) the right document
-        if (xcontext.getWiki().getStore() instanceof XWikiCacheStore) {
-            ((XWikiCacheStore) xcontext.getWiki().getStore()).invalidate(doc);
-        }
-
-        return doc;
+        return origDoc;
     }
 }
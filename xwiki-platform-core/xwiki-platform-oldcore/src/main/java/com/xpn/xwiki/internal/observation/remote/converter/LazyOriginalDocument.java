@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.remote.converter;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.AttachmentDiff;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.ObjectDiff;
+
+/**
+ * Load the original document of a document received from another cluster member the first time it's asked.
+ * <p>
+ * When the other member sent them, also provide the changes made to the document so that listeners which only need
+ * to know what changed don't have to load the original document.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class LazyOriginalDocument implements Supplier<XWikiDocument>
+{
+    /**
+     * Load the original document.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    interface Loader
+    {
+        /**
+         * @param xcontext the XWiki context of the thread asking for the original document
+         * @return the original document
+         * @throws XWikiException when failing to load the document
+         */
+        XWikiDocument load(XWikiContext xcontext) throws XWikiException;
+    }
+
+    private final XWikiDocument placeholder;
+
+    private final Loader loader;
+
+    private final Supplier<XWikiContext> contextProvider;
+
+    private final RemoteDocumentLoadStatistics statistics;
+
+    private final Logger logger;
+
+    private List<List<ObjectDiff>> objectDiff;
+
+    private List<List<ObjectDiff>> classDiff;
+
+    private List<AttachmentDiff> attachmentDiff;
+
+    private XWikiDocument document;
+
+    /**
+     * @param placeholder the document to return when the original document cannot be loaded
+     * @param loader load the original document
+     * @param contextProvider provide the XWiki context of the thread which loads the original document
+     * @param statistics counts the deferred and actual loads
+     * @param logger the logger used to report loading failures
+     */
+    LazyOriginalDocument(XWikiDocument placeholder, Loader loader, Supplier<XWikiContext> contextProvider,
+        RemoteDocumentLoadStatistics statistics, Logger logger)
+    {
+        this.placeholder = placeholder;
+        this.loader = loader;
+        this.contextProvider = contextProvider;
+        this.statistics = statistics;
+        this.logger = logger;
+
+        this.statistics.onDeferred();
+    }
+
+    /**
+     * @param objectDiff the changes made to the objects of the document, as sent by the other cluster member
+     * @param classDiff the changes made to the class of the document, as sent by the other cluster member
+     * @param attachmentDiff the changes made to the attachments of the document, as sent by the other cluster member
+     */
+    void setChanges(List<List<ObjectDiff>> objectDiff, List<List<ObjectDiff>> classDiff,
+        List<AttachmentDiff> attachmentDiff)
+    {
+        this.objectDiff = objectDiff;
+        this.classDiff = classDiff;
+        this.attachmentDiff = attachmentDiff;
+    }
+
+    /**
+     * @return the changes made to the objects of the document (without the values of the properties), {@code null} if
+     *         the other cluster member did not send them
+     */
+    public List<List<ObjectDiff>> getObjectDiff()
+    {
+        return this.objectDiff;
+    }
+
+    /**
+     * @return the changes made to the class of the document, {@code null} if the other cluster member did not send
+     *         them
+     */
+    public List<List<ObjectDiff>> getClassDiff()
+    {
+        return this.classDiff;
+    }
+
+    /**
+     * @return the changes made to the attachments of the document (without the attachments), {@code null} if the
+     *         other cluster member did not send them
+     */
+    public List<AttachmentDiff> getAttachmentDiff()
+    {
+        return this.attachmentDiff;
+    }
+
+    @Override
+    public synchronized XWikiDocument get()
+    {
+        if (this.document == null) {
+            this.statistics.onLoaded();
+
+            try {
+                this.document = this.loader.load(this.contextProvider.get());
+            } catch (Exception e) {
+                // Better a partial notification than no notification at all (what most listeners care about is the
+                // reference of the document)
+                this.logger.error("Failed to load the original version of document [{}]",
+                    this.placeholder.getDocumentReferenceWithLocale(), e);
+
+                this.document = this.placeholder;
+            }
+        }
+
+        return this.document;
+    }
+}
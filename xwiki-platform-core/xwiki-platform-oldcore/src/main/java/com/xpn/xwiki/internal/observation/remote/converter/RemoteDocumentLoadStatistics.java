@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.remote.converter;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+
+import com.xpn.xwiki.internal.observation.remote.converter.jmx.JMXRemoteDocumentLoads;
+
+/**
+ * Count the loads of the documents associated to the events received from other cluster members, and in particular the
+ * loads which were avoided because no listener asked for the document.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = RemoteDocumentLoadStatistics.class)
+@Singleton
+public class RemoteDocumentLoadStatistics implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "org.xwiki:type=observation,name=remotedocuments";
+
+    @Inject
+    private Logger logger;
+
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    private final AtomicLong loadCount = new AtomicLong();
+
+    private ObjectName objectName;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.objectName = new ObjectName(MBEAN_NAME);
+
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (mbs.isRegistered(this.objectName)) {
+                mbs.unregisterMBean(this.objectName);
+            }
+            mbs.registerMBean(new JMXRemoteDocumentLoads(this), this.objectName);
+        } catch (Exception e) {
+            this.logger.warn("Failed to register the remote document loads statistics against the JMX Server", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (this.objectName != null && mbs.isRegistered(this.objectName)) {
+                mbs.unregisterMBean(this.objectName);
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to unregister the remote document loads statistics from the JMX Server", e);
+        }
+    }
+
+    /**
+     * Called when the load of a document is deferred until someone asks for it.
+     */
+    public void onDeferred()
+    {
+        this.deferredCount.incrementAndGet();
+    }
+
+    /**
+     * Called when a deferred document is actually loaded.
+     */
+    public void onLoaded()
+    {
+        this.loadCount.incrementAndGet();
+    }
+
+    /**
+     * @return the number of document loads which were deferred until someone asks for the document
+     */
+    public long getDeferredCount()
+    {
+        return this.deferredCount.get();
+    }
+
+    /**
+     * @return the number of deferred documents which were actually loaded
+     */
+    public long getLoadCount()
+    {
+        return this.loadCount.get();
+    }
+
+    /**
+     * @return the number of deferred documents which were not loaded (yet)
+     */
+    public long getAvoidedCount()
+    {
+        return getDeferredCount() - getLoadCount();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.remote.converter.jmx;
+
+import com.xpn.xwiki.internal.observation.remote.converter.RemoteDocumentLoadStatistics;
+
+/**
+ * Implementation of the {@link JMXRemoteDocumentLoadsMBean} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class JMXRemoteDocumentLoads implements JMXRemoteDocumentLoadsMBean
+{
+    private final RemoteDocumentLoadStatistics statistics;
+
+    /**
+     * @param statistics the statistics to expose
+     */
+    public JMXRemoteDocumentLoads(RemoteDocumentLoadStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public long getDeferredCount()
+    {
+        return this.statistics.getDeferredCount();
+    }
+
+    @Override
+    public long getLoadCount()
+    {
+        return this.statistics.getLoadCount();
+    }
+
+    @Override
+    public long getAvoidedCount()
+    {
+        return this.statistics.getAvoidedCount();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation.remote.converter.jmx;
+
+/**
+ * Interface of the {@link JMXRemoteDocumentLoads} MBean.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public interface JMXRemoteDocumentLoadsMBean
+{
+    /**
+     * @return the number of document loads which were deferred until someone asks for the document
+     */
+    long getDeferredCount();
+
+    /**
+     * @return the number of deferred documents which were actually loaded
+     */
+    long getLoadCount();
+
+    /**
+     * @return the number of deferred documents which were not loaded (yet)
+     */
+    long getAvoidedCount();
+}
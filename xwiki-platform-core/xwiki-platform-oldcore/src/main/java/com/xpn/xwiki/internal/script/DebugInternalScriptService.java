@@ -19,8 +19,11 @@
  */
 package com.xpn.xwiki.internal.script;
 
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
@@ -28,8 +31,14 @@
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.job.event.status.JobProgress;
 import org.xwiki.script.service.ScriptService;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.internal.debug.ProfiledSpan;
+import com.xpn.xwiki.internal.debug.RequestProfiler;
+import com.xpn.xwiki.internal.observation.ListenerEventStatistics;
+import com.xpn.xwiki.internal.observation.ListenerStatistics;
 import com.xpn.xwiki.web.XWikiAction;
 
 /**
@@ -49,6 +58,15 @@ public class DebugInternalScriptService implements ScriptService
     @Inject
     private DebugConfiguration debugConfiguration;
 
+    @Inject
+    private Provider<ListenerStatistics> listenerStatisticsProvider;
+
+    @Inject
+    private Provider<RequestProfiler> profilerProvider;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
     /**
      * @return is debug enabled in the current execution context
      */
@@ -58,13 +76,14 @@ public boolean isEnabled()
     }
 
     /**
-     * @return the detailed progress of the current action
+     * @return the detailed progress of the current action, or null if the current user is not an administrator
      */
     public JobProgress getActionProgress()
     {
         ExecutionContext econtext = this.execution.getContext();
 
-        if (econtext != null) {
+        if (econtext != null && econtext.getProperty(XWikiAction.ACTION_PROGRESS) != null
+            && this.authorization.hasAccess(Right.ADMIN)) {
             return (JobProgress) econtext.getProperty(XWikiAction.ACTION_PROGRESS);
         }
 
@@ -79,4 +98,29 @@ public boolean isMinify()
     {
         return this.debugConfiguration.isMinify();
     }
+
+    /**
+     * @return the time spent by each event listener for each type of event, starting with the ones which took the most
+     *     time
+     * @since 17.1.0RC1
+     */
+    public List<ListenerEventStatistics> getListenerStatistics()
+    {
+        return this.listenerStatisticsProvider.get().getStatistics();
+    }
+
+    /**
+     * @param limit the maximum number of spans to return
+     * @return the spans (queries, right checks, etc.) which took the most time during the configured window, starting
+     *     with the slowest, or an empty list if the current user is not an administrator
+     * @since 17.1.0RC1
+     */
+    public List<ProfiledSpan> getSlowestSpans(int limit)
+    {
+        if (!this.authorization.hasAccess(Right.ADMIN)) {
+            return List.of();
+        }
+
+        return this.profilerProvider.get().getSlowestSpans(limit);
+    }
 }
@@ -30,6 +30,15 @@
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.plugin.XWikiDefaultPlugin;
 
+/**
+ * Coarse timers on the database store and the requests.
+ *
+ * @version $Id$
+ * @deprecated use the debug mode ({@code debug=true} request parameter or {@code X-XWiki-Debug: true} request header)
+ *             to get the detailed time spent in each step of a request, and {@code $services.debug.getSlowestSpans}
+ *             to list the slowest queries, right checks, etc. of the recent requests
+ */
+@Deprecated(since = "17.1.0RC1")
 public class MonitorPlugin extends XWikiDefaultPlugin
 {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(MonitorPlugin.class);
@@ -57,6 +57,7 @@
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.debug.RequestProfiler;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
 import com.xpn.xwiki.internal.store.hibernate.query.HqlQueryUtils;
 import com.xpn.xwiki.store.XWikiHibernateStore;
@@ -101,6 +102,9 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
     @Inject
     private HQLStatementValidator queryValidator;
 
+    @Inject
+    private RequestProfiler profiler;
+
     @Inject
     private Logger logger;
 
@@ -192,7 +196,7 @@ private void checkAllowed(SecureQuery secureQuery) throws QueryException
     public <T> List<T> execute(final Query query) throws QueryException
     {
         String oldDatabase = getContext().getWikiId();
-        try {
+        try (RequestProfiler.Span span = this.profiler.start(this, "Execute query [{}]", query.getStatement())) {
             if (query.getWiki() != null) {
                 getContext().setWikiId(query.getWiki());
             }
@@ -52,6 +52,7 @@
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.web.ResponseContentFilter;
 import com.xpn.xwiki.plugin.fileupload.FileUploadPlugin;
 import com.xpn.xwiki.util.Util;
 
@@ -178,6 +179,9 @@ public static void parseTemplate(String template, boolean write, XWikiContext co
             // sendRedirect. In this case we need to be careful to not write to the output stream since it's already
             // been committed. This is why we do a check below before calling response.getOutputStream().write().
             content = context.getWiki().evaluateTemplate(template + ".vm", context);
+            // Give a chance to components to finish the content (for example by injecting the result of parallel
+            // renderings)
+            content = filterContent(content, context);
             // Replace all placeholders with the protected values
             content = replacePlaceholders(content, context);
             disablePlaceholders(context);
@@ -233,6 +237,25 @@ public static void parseTemplate(String template, boolean write, XWikiContext co
         }
     }
 
+    private static String filterContent(String content, XWikiContext context)
+    {
+        String result = content;
+
+        ComponentManager componentManager = getContextComponentManager();
+        if (componentManager != null) {
+            try {
+                for (ResponseContentFilter filter : componentManager
+                    .<ResponseContentFilter>getInstanceList(ResponseContentFilter.class)) {
+                    result = filter.filter(result, context);
+                }
+            } catch (ComponentLookupException e) {
+                LOGGER.error("Failed to lookup the response content filters", e);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Retrieve the URL to which the client should be redirected after the successful completion of the requested
      * action. This is taken from the {@code xredirect} parameter in the query string. If this parameter is not set, or
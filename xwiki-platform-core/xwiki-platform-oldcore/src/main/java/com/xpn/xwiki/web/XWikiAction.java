@@ -143,6 +143,11 @@ public abstract class XWikiAction implements LegacyAction
 {
     public static final String ACTION_PROGRESS = "actionprogress";
 
+    /**
+     * The request header which can be used instead of the {@code debug=true} parameter to enable the debug mode.
+     */
+    private static final String DEBUG_HEADER = "X-XWiki-Debug";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiAction.class);
 
     /**
@@ -396,7 +401,8 @@ public void execute(XWikiContext context) throws Exception
         DefaultJobProgress actionProgress = null;
         String docName = "";
 
-        boolean debug = StringUtils.equals(context.getRequest().get("debug"), "true");
+        boolean debug = StringUtils.equals(context.getRequest().get("debug"), "true")
+            || StringUtils.equals(context.getRequest().getHeader(DEBUG_HEADER), "true");
 
         String sasync = context.getRequest().get("async");
 
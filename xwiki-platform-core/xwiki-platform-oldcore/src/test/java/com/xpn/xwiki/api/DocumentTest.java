@@ -59,6 +59,8 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.DocumentRevisionProvider;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.mandatory.MandatoryDocumentFingerprintStore;
+import com.xpn.xwiki.internal.mandatory.MandatoryDocumentInitializerExecutor;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseProperty;
 import com.xpn.xwiki.test.MockitoOldcore;
@@ -85,7 +87,8 @@
 
 @OldcoreTest
 @ReferenceComponentList
-@ComponentList({ DocumentRequiredRightsReader.class, RequiredRightClassMandatoryDocumentInitializer.class })
+@ComponentList({ DocumentRequiredRightsReader.class, RequiredRightClassMandatoryDocumentInitializer.class,
+    MandatoryDocumentInitializerExecutor.class, MandatoryDocumentFingerprintStore.class })
 class DocumentTest
 {
     @InjectMockitoOldcore
@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.context;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextInitializer;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.web.XWikiServletRequestStub;
+import com.xpn.xwiki.web.XWikiServletResponseStub;
+import com.xpn.xwiki.web.XWikiURLFactory;
+import com.xpn.xwiki.web.XWikiURLFactoryService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ExecutionContextCopier}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ExecutionContextCopierTest
+{
+    @InjectMockComponents
+    private ExecutionContextCopier copier;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    @Named("velocity")
+    private ExecutionContextInitializer velocityInitializer;
+
+    @Test
+    void copy() throws Exception
+    {
+        XWiki xwiki = mock(XWiki.class);
+        XWikiURLFactoryService urlFactoryService = mock(XWikiURLFactoryService.class);
+        when(xwiki.getURLFactoryService()).thenReturn(urlFactoryService);
+        XWikiURLFactory urlFactory = mock(XWikiURLFactory.class);
+        when(urlFactoryService.createURLFactory(anyInt(), any(XWikiContext.class))).thenReturn(urlFactory);
+
+        XWikiContext xcontext = new XWikiContext();
+        xcontext.setWiki(xwiki);
+        xcontext.setWikiId("wiki");
+        XWikiServletRequestStub request = new XWikiServletRequestStub();
+        xcontext.setRequest(request);
+        XWikiServletResponseStub response = new XWikiServletResponseStub();
+        xcontext.setResponse(response);
+        xcontext.setURLFactory(mock(XWikiURLFactory.class));
+
+        ExecutionContext executionContext = new ExecutionContext();
+        xcontext.declareInExecutionContext(executionContext);
+
+        // The execution context manager only shares the XWiki context with the clone
+        ExecutionContext clonedExecutionContext = new ExecutionContext();
+        xcontext.declareInExecutionContext(clonedExecutionContext);
+        when(this.executionContextManager.clone(executionContext)).thenReturn(clonedExecutionContext);
+
+        assertSame(clonedExecutionContext, this.copier.copy(executionContext));
+
+        XWikiContext copy = (XWikiContext) clonedExecutionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+        assertNotSame(xcontext, copy);
+        assertEquals("wiki", copy.getWikiId());
+        assertNotNull(copy.getRequest());
+        assertNotSame(request, copy.getRequest());
+        assertInstanceOf(XWikiServletResponseStub.class, copy.getResponse());
+        assertNotSame(response, copy.getResponse());
+        assertSame(urlFactory, copy.getURLFactory());
+        assertEquals("http://www.mystuburl.com/", copy.getURL().toString());
+
+        // The original context is left untouched
+        assertSame(xcontext, executionContext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY));
+        assertSame(request, xcontext.getRequest());
+        assertSame(response, xcontext.getResponse());
+
+        verify(this.velocityInitializer).initialize(clonedExecutionContext);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.debug;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.web.XWikiAction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link RequestProfiler}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class RequestProfilerTest
+{
+    @InjectMockComponents
+    private RequestProfiler profiler;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private JobProgressManager progress;
+
+    @MockComponent
+    private DebugConfiguration configuration;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getProfilerSlowSpanThreshold()).thenReturn(0L);
+        when(this.configuration.getProfilerWindow()).thenReturn(600L);
+        when(this.configuration.getProfilerMaxSlowSpans()).thenReturn(2);
+    }
+
+    @Test
+    void startWhenNotProfiled()
+    {
+        assertFalse(this.profiler.isProfiled());
+
+        try (RequestProfiler.Span span = this.profiler.start(this, "Execute query [{}]", "statement")) {
+            // Do nothing
+        }
+
+        verify(this.progress, never()).startStep(any(), any(), any(), any());
+        verify(this.progress, never()).endStep(any());
+
+        List<ProfiledSpan> spans = this.profiler.getSlowestSpans(10);
+        assertEquals(1, spans.size());
+        assertEquals("Execute query [statement]", spans.get(0).getName());
+    }
+
+    @Test
+    void startWhenProfiled()
+    {
+        ExecutionContext econtext = new ExecutionContext();
+        econtext.setProperty(XWikiAction.ACTION_PROGRESS, new Object());
+        when(this.execution.getContext()).thenReturn(econtext);
+
+        assertTrue(this.profiler.isProfiled());
+
+        try (RequestProfiler.Span span = this.profiler.start(this, "Execute query [{}]", "statement")) {
+            verify(this.progress).startStep(this, null, "Execute query [{}]", "statement");
+        }
+
+        verify(this.progress).endStep(this);
+    }
+
+    @Test
+    void getSlowestSpans() throws InterruptedException
+    {
+        try (RequestProfiler.Span span = this.profiler.start(this, "first")) {
+            Thread.sleep(10);
+        }
+        try (RequestProfiler.Span span = this.profiler.start(this, "second")) {
+            Thread.sleep(30);
+        }
+        try (RequestProfiler.Span span = this.profiler.start(this, "third")) {
+            Thread.sleep(20);
+        }
+
+        List<ProfiledSpan> spans = this.profiler.getSlowestSpans(10);
+        assertEquals(2, spans.size());
+        assertEquals("second", spans.get(0).getName());
+        assertEquals("third", spans.get(1).getName());
+        assertTrue(spans.get(0).getDuration() >= 30);
+
+        assertEquals(List.of(spans.get(0)), this.profiler.getSlowestSpans(1));
+
+        this.profiler.reset();
+
+        assertTrue(this.profiler.getSlowestSpans(10).isEmpty());
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.observation.ObservationContext;
+import org.xwiki.observation.event.Event;
+import org.xwiki.observation.remote.RemoteObservationManagerContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.AsyncDocumentEventListener;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.ExecutionContextCopier;
+import com.xpn.xwiki.internal.observation.ListenerStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AsyncDocumentEventDispatcher}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AsyncDocumentEventDispatcherTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private AsyncDocumentEventDispatcher dispatcher;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @MockComponent
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextCopier executionContextCopier;
+
+    @MockComponent
+    private ListenerStatistics statistics;
+
+    @MockComponent
+    private RemoteObservationManagerContext remoteObservationManagerContext;
+
+    @MockComponent
+    private ObservationContext observationContext;
+
+    private AsyncDocumentEventListener updateListener;
+
+    private AsyncDocumentEventListener deleteListener;
+
+    private XWikiDocument document;
+
+    private XWikiContext xcontext;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.updateListener = mock(AsyncDocumentEventListener.class);
+        when(this.updateListener.getName()).thenReturn("update");
+        when(this.updateListener.getEvents()).thenReturn(List.of(new DocumentUpdatedEvent()));
+        this.deleteListener = mock(AsyncDocumentEventListener.class);
+        when(this.deleteListener.getName()).thenReturn("delete");
+        when(this.deleteListener.getEvents()).thenReturn(List.of(new DocumentDeletedEvent()));
+        when(this.contextComponentManager.getInstanceList(AsyncDocumentEventListener.class))
+            .thenReturn(List.of(this.updateListener, this.deleteListener));
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return null;
+        }).when(this.statistics).record(any(), any(), any());
+
+        this.document = mock(XWikiDocument.class);
+        when(this.document.getDocumentReference()).thenReturn(DOCUMENT_REFERENCE);
+        this.xcontext = mock(XWikiContext.class);
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.dispatcher.dispose();
+    }
+
+    @Test
+    void onEventSynchronous()
+    {
+        when(this.configuration.getProperty("observation.asyncDocumentListeners.threads", 2)).thenReturn(0);
+        doThrow(new RuntimeException("error")).when(this.deleteListener).onEvent(any(), any(), any());
+        AsyncDocumentEventListener otherDeleteListener = mock(AsyncDocumentEventListener.class);
+        when(otherDeleteListener.getEvents()).thenReturn(List.of(new DocumentDeletedEvent()));
+        when(this.contextComponentManager.getInstanceList(AsyncDocumentEventListener.class))
+            .thenReturn(List.of(this.updateListener, this.deleteListener, otherDeleteListener));
+
+        DocumentUpdatedEvent updatedEvent = new DocumentUpdatedEvent(DOCUMENT_REFERENCE);
+        this.dispatcher.onEvent(updatedEvent, this.document, this.xcontext);
+
+        verify(this.updateListener).onEvent(updatedEvent, this.document, this.xcontext);
+        verify(this.deleteListener, never()).onEvent(any(), any(), any());
+
+        // A failing listener does not prevent the other listeners from receiving the event
+        DocumentDeletedEvent deletedEvent = new DocumentDeletedEvent(DOCUMENT_REFERENCE);
+        this.dispatcher.onEvent(deletedEvent, this.document, this.xcontext);
+
+        verify(this.deleteListener).onEvent(deletedEvent, this.document, this.xcontext);
+        verify(otherDeleteListener).onEvent(deletedEvent, this.document, this.xcontext);
+    }
+
+    @Test
+    void onEventAsynchronous() throws Exception
+    {
+        when(this.configuration.getProperty("observation.asyncDocumentListeners.threads", 2)).thenReturn(1);
+        when(this.configuration.getProperty("observation.asyncDocumentListeners.queueSize", 1000)).thenReturn(10);
+
+        ExecutionContext executionContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(executionContext);
+        ExecutionContext clonedExecutionContext = new ExecutionContext();
+        XWikiContext clonedXContext = mock(XWikiContext.class);
+        clonedExecutionContext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, clonedXContext);
+        when(this.executionContextCopier.copy(executionContext)).thenReturn(clonedExecutionContext);
+        XWikiDocument clonedDocument = mock(XWikiDocument.class);
+        when(this.document.clone()).thenReturn(clonedDocument);
+
+        List<Event> events = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            events.add(invocation.getArgument(0));
+            threads.add(Thread.currentThread());
+            latch.countDown();
+            return null;
+        }).when(this.updateListener).onEvent(any(), any(), any());
+
+        DocumentUpdatedEvent event1 = new DocumentUpdatedEvent(DOCUMENT_REFERENCE);
+        DocumentUpdatedEvent event2 = new DocumentUpdatedEvent(DOCUMENT_REFERENCE);
+        this.dispatcher.onEvent(event1, this.document, this.xcontext);
+        this.dispatcher.onEvent(event2, this.document, this.xcontext);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        // The events of a document are handled in order, outside of the current thread, with a copy of the context and
+        // of the document
+        assertEquals(List.of(event1, event2), events);
+        assertNotEquals(Thread.currentThread(), threads.get(0));
+        assertSame(threads.get(0), threads.get(1));
+        verify(this.updateListener).onEvent(event1, clonedDocument, clonedXContext);
+        verify(this.execution, times(2)).setContext(clonedExecutionContext);
+    }
+
+    @Test
+    void onEventWithoutMatchingListener() throws Exception
+    {
+        when(this.contextComponentManager.getInstanceList(AsyncDocumentEventListener.class))
+            .thenReturn(List.of(this.deleteListener));
+
+        this.dispatcher.onEvent(new DocumentUpdatedEvent(DOCUMENT_REFERENCE), this.document, this.xcontext);
+
+        verify(this.executionContextCopier, never()).copy(any());
+        verify(this.deleteListener, never()).onEvent(any(), any(), any());
+    }
+
+    @Test
+    void onRemoteEvent()
+    {
+        when(this.configuration.getProperty("observation.asyncDocumentListeners.threads", 2)).thenReturn(0);
+        when(this.remoteObservationManagerContext.isRemoteState()).thenReturn(true);
+
+        this.dispatcher.onEvent(new DocumentUpdatedEvent(DOCUMENT_REFERENCE), this.document, this.xcontext);
+
+        verify(this.updateListener, never()).onEvent(any(), any(), any());
+    }
+
+    @Test
+    void onFoldedEvent() throws Exception
+    {
+        when(this.configuration.getProperty("observation.asyncDocumentListeners.threads", 2)).thenReturn(0);
+        when(this.observationContext.isIn(any())).thenReturn(true);
+        AsyncDocumentEventListener skippingListener = mock(AsyncDocumentEventListener.class);
+        when(skippingListener.getEvents()).thenReturn(List.of(new DocumentUpdatedEvent()));
+        when(skippingListener.isFoldedEventSkipped()).thenReturn(true);
+        when(this.contextComponentManager.getInstanceList(AsyncDocumentEventListener.class))
+            .thenReturn(List.of(this.updateListener, skippingListener));
+
+        DocumentUpdatedEvent event = new DocumentUpdatedEvent(DOCUMENT_REFERENCE);
+        this.dispatcher.onEvent(event, this.document, this.xcontext);
+
+        verify(this.updateListener).onEvent(event, this.document, this.xcontext);
+        verify(skippingListener, never()).onEvent(any(), any(), any());
+    }
+}
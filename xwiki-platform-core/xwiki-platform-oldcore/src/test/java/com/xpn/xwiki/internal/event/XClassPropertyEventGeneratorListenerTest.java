@@ -29,6 +29,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.event.Event;
+import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import com.xpn.xwiki.doc.XWikiDocument;
@@ -45,12 +46,13 @@
  * 
  * @version $Id$
  */
+@ComponentList(DocumentEventChanges.class)
 @ReferenceComponentList
 public class XClassPropertyEventGeneratorListenerTest
 {
     public MockitoComponentMockingRule<XClassPropertyEventGeneratorListener> mocker =
         new MockitoComponentMockingRule<XClassPropertyEventGeneratorListener>(
-            XClassPropertyEventGeneratorListener.class);
+            XClassPropertyEventGeneratorListener.class, DocumentEventChanges.class);
 
     @Rule
     public MockitoOldcoreRule oldcore = new MockitoOldcoreRule(mocker);
@@ -29,6 +29,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.event.Event;
+import org.xwiki.test.annotation.ComponentList;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import com.xpn.xwiki.doc.XWikiDocument;
@@ -45,11 +46,13 @@
  * 
  * @version $Id$
  */
+@ComponentList(DocumentEventChanges.class)
 @ReferenceComponentList
 public class XObjectEventGeneratorListenerTest
 {
     public MockitoComponentMockingRule<XObjectEventGeneratorListener> mocker =
-        new MockitoComponentMockingRule<XObjectEventGeneratorListener>(XObjectEventGeneratorListener.class);
+        new MockitoComponentMockingRule<XObjectEventGeneratorListener>(XObjectEventGeneratorListener.class,
+            DocumentEventChanges.class);
 
     @Rule
     public MockitoOldcoreRule oldcore = new MockitoOldcoreRule(mocker);
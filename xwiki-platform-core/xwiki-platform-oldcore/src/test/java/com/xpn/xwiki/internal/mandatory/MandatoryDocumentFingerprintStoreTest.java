@@ -0,0 +1,142 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link MandatoryDocumentFingerprintStore}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class MandatoryDocumentFingerprintStoreTest
+{
+    @InjectMockComponents
+    private MandatoryDocumentFingerprintStore store;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    private static class TestInitializer implements MandatoryDocumentInitializer
+    {
+        @Override
+        public EntityReference getDocumentReference()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean updateDocument(XWikiDocument document)
+        {
+            return false;
+        }
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+    }
+
+    @Test
+    void getFingerprint()
+    {
+        String fingerprint = this.store.getFingerprint(List.of(new TestInitializer()));
+
+        assertNotNull(fingerprint);
+        assertTrue(fingerprint.startsWith(TestInitializer.class.getName() + '@'));
+        assertEquals(fingerprint, this.store.getFingerprint(List.of(new TestInitializer())));
+    }
+
+    @Test
+    void isUnchanged()
+    {
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", "fingerprint", "1.1"));
+
+        this.store.setInitialized("wiki", "Space.Page", "fingerprint", "1.1");
+
+        assertTrue(this.store.isUnchanged("wiki", "Space.Page", "fingerprint", "1.1"));
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", "fingerprint", "1.2"));
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", "otherfingerprint", "1.1"));
+        assertFalse(this.store.isUnchanged("otherwiki", "Space.Page", "fingerprint", "1.1"));
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", null, "1.1"));
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", "fingerprint", null));
+
+        this.store.setInitialized("wiki", "Space.Page", "fingerprint", null);
+
+        assertFalse(this.store.isUnchanged("wiki", "Space.Page", "fingerprint", "1.1"));
+    }
+
+    @Test
+    void save()
+    {
+        this.store.setInitialized("wiki", "Space.Page", "fingerprint", "1.1");
+
+        this.store.save("wiki");
+
+        assertTrue(new File(this.permanentDirectory, "mandatory/wiki.properties").exists());
+    }
+
+    @Test
+    void getVersions() throws Exception
+    {
+        Query query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), anyString())).thenReturn(query);
+        when(query.<Object[]>execute()).thenReturn(List.<Object[]>of(new Object[] { "Space.Page", "2.1" }));
+
+        Map<String, String> versions = this.store.getVersions("wiki", List.of("Space.Page", "Space.Other"));
+
+        assertEquals(Map.of("Space.Page", "2.1"), versions);
+        verify(query).setWiki("wiki");
+        verify(query).bindValue("documents", List.of("Space.Page", "Space.Other"));
+    }
+}
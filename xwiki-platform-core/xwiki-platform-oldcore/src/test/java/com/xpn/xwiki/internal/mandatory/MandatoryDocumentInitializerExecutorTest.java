@@ -0,0 +1,243 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.context.ExecutionContextCopier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link MandatoryDocumentInitializerExecutor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class MandatoryDocumentInitializerExecutorTest
+{
+    private static final DocumentReference DOCUMENT_A = new DocumentReference("wiki", "Space", "A");
+
+    private static final DocumentReference DOCUMENT_B = new DocumentReference("wiki", "Space", "B");
+
+    @InjectMockComponents
+    private MandatoryDocumentInitializerExecutor executor;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> resolver;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @MockComponent
+    @Named("xwikicfg")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private MandatoryDocumentFingerprintStore fingerprints;
+
+    @MockComponent
+    private ContextualLocalizationManager localization;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextCopier executionContextCopier;
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    private MandatoryDocumentInitializer initializerA;
+
+    private MandatoryDocumentInitializer initializerB;
+
+    private XWikiDocument documentA;
+
+    private XWikiDocument documentB;
+
+    @BeforeComponent
+    void beforeComponent(MockitoComponentManager componentManager) throws Exception
+    {
+        componentManager.registerComponent(ComponentManager.class, "context", componentManager);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.configuration.getProperty("xwiki.store.mandatoryDocuments.threads", 1)).thenReturn(1);
+        when(this.configuration.getProperty("xwiki.store.mandatoryDocuments.skipUnchanged", 0)).thenReturn(0);
+
+        this.xcontext = mock(XWikiContext.class);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+
+        this.initializerA = registerInitializer("A", DOCUMENT_A);
+        this.initializerB = registerInitializer("B", DOCUMENT_B);
+
+        this.documentA = mockDocument(DOCUMENT_A);
+        this.documentB = mockDocument(DOCUMENT_B);
+    }
+
+    private MandatoryDocumentInitializer registerInitializer(String hint, DocumentReference reference)
+        throws Exception
+    {
+        MandatoryDocumentInitializer initializer =
+            this.componentManager.registerMockComponent(MandatoryDocumentInitializer.class, hint);
+        when(initializer.getDocumentReference()).thenReturn(reference);
+        when(initializer.updateDocument(any())).thenReturn(true);
+        when(this.resolver.resolve(reference)).thenReturn(reference);
+        when(this.localSerializer.serialize(reference)).thenReturn("Space." + hint);
+
+        return initializer;
+    }
+
+    private XWikiDocument mockDocument(DocumentReference reference) throws Exception
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getVersion()).thenReturn("1.1");
+        when(this.xwiki.getDocument(reference, this.xcontext)).thenReturn(document);
+
+        return document;
+    }
+
+    @Test
+    void initialize() throws Exception
+    {
+        this.executor.initialize(this.xcontext);
+
+        verify(this.initializerA).updateDocument(this.documentA);
+        verify(this.initializerB).updateDocument(this.documentB);
+        verify(this.xwiki).saveDocument(eq(this.documentA), anyString(), eq(this.xcontext));
+        verify(this.xwiki).saveDocument(eq(this.documentB), anyString(), eq(this.xcontext));
+
+        // The fingerprints are not used when unchanged documents are not skipped
+        verify(this.fingerprints, never()).getFingerprint(any());
+        verify(this.fingerprints, never()).setInitialized(any(), any(), any(), any());
+        verify(this.fingerprints, never()).save(any());
+    }
+
+    @Test
+    void initializeSkipUnchanged() throws Exception
+    {
+        when(this.configuration.getProperty("xwiki.store.mandatoryDocuments.skipUnchanged", 0)).thenReturn(1);
+        when(this.fingerprints.getFingerprint(List.of(this.initializerA))).thenReturn("fingerprintA");
+        when(this.fingerprints.getFingerprint(List.of(this.initializerB))).thenReturn("fingerprintB");
+        when(this.fingerprints.getVersions(eq("wiki"), any()))
+            .thenReturn(Map.of("Space.A", "1.1", "Space.B", "2.1"));
+        when(this.fingerprints.isUnchanged("wiki", "Space.A", "fingerprintA", "1.1")).thenReturn(true);
+
+        this.executor.initialize(this.xcontext);
+
+        verify(this.xwiki, never()).getDocument(DOCUMENT_A, this.xcontext);
+        verify(this.initializerA, never()).updateDocument(any());
+        verify(this.initializerB).updateDocument(this.documentB);
+        verify(this.fingerprints).setInitialized("wiki", "Space.B", "fingerprintB", "1.1");
+        verify(this.fingerprints).save("wiki");
+    }
+
+    @Test
+    void initializeInParallel() throws Exception
+    {
+        when(this.configuration.getProperty("xwiki.store.mandatoryDocuments.threads", 1)).thenReturn(2);
+
+        ExecutionContext currentContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(currentContext);
+        // Each task gets its own XWiki context
+        Set<XWikiContext> xcontexts = ConcurrentHashMap.newKeySet();
+        when(this.executionContextCopier.copy(currentContext)).thenAnswer(invocation -> {
+            XWikiContext copiedXContext = mock(XWikiContext.class);
+            when(copiedXContext.getWikiId()).thenReturn("wiki");
+            when(copiedXContext.getWiki()).thenReturn(this.xwiki);
+            xcontexts.add(copiedXContext);
+
+            ExecutionContext copiedContext = new ExecutionContext();
+            copiedContext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, copiedXContext);
+
+            return copiedContext;
+        });
+        when(this.xwiki.getDocument(eq(DOCUMENT_A), any(XWikiContext.class))).thenReturn(this.documentA);
+        when(this.xwiki.getDocument(eq(DOCUMENT_B), any(XWikiContext.class))).thenReturn(this.documentB);
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        when(this.initializerA.updateDocument(any())).then(invocation -> threads.add(Thread.currentThread()));
+        when(this.initializerB.updateDocument(any())).then(invocation -> threads.add(Thread.currentThread()));
+
+        this.executor.initialize(this.xcontext);
+
+        assertEquals(2, xcontexts.size());
+        verify(this.xwiki).saveDocument(eq(this.documentA), anyString(), argThat(xcontexts::contains));
+        verify(this.xwiki).saveDocument(eq(this.documentB), anyString(), argThat(xcontexts::contains));
+        verify(this.xwiki, never()).saveDocument(any(), anyString(), same(this.xcontext));
+        verify(this.executionContextCopier, times(2)).copy(currentContext);
+        verify(this.execution, times(2)).removeContext();
+
+        // The documents are initialized by the pool, not by the calling thread
+        assertEquals(2, threads.size());
+        assertFalse(threads.contains(Thread.currentThread()));
+
+        this.executor.dispose();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.util.List;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.event.ComponentDescriptorAddedEvent;
+import org.xwiki.component.event.ComponentDescriptorRemovedEvent;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ListenerInstrumentationListener}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ListenerInstrumentationListenerTest
+{
+    @InjectMockComponents
+    private ListenerInstrumentationListener instrumentationListener;
+
+    @MockComponent
+    @Named("context")
+    private ComponentManager contextComponentManager;
+
+    @MockComponent
+    private ObservationManager observationManager;
+
+    @MockComponent
+    private ListenerStatistics statistics;
+
+    private EventListener listener;
+
+    private ComponentDescriptor<EventListener> descriptor;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.statistics.isEnabled()).thenReturn(true);
+
+        this.listener = mock(EventListener.class);
+        when(this.listener.getName()).thenReturn("listener");
+        this.descriptor = mock(ComponentDescriptor.class);
+        when(this.descriptor.getRoleHint()).thenReturn("hint");
+        when(this.descriptor.getRoleHintPriority()).thenReturn(42);
+        when(this.contextComponentManager.<EventListener>getComponentDescriptorList(EventListener.class))
+            .thenReturn(List.of(this.descriptor));
+        when(this.contextComponentManager.getInstance(EventListener.class, "hint")).thenReturn(this.listener);
+    }
+
+    @Test
+    void onApplicationReady()
+    {
+        when(this.observationManager.getListener("listener")).thenReturn(this.listener);
+
+        this.instrumentationListener.onEvent(new ApplicationReadyEvent(), null, null);
+
+        verify(this.observationManager).removeListener("listener");
+        ArgumentCaptor<EventListener> captor = ArgumentCaptor.forClass(EventListener.class);
+        verify(this.observationManager).addListener(captor.capture(), eq(42));
+        assertSame(this.listener, ((InstrumentedEventListener) captor.getValue()).getListener());
+
+        // The instrumented listener records the calls
+        Event event = mock(Event.class);
+        captor.getValue().onEvent(event, "source", "data");
+        verify(this.statistics).record(eq("listener"), eq(event), any());
+    }
+
+    @Test
+    void onComponentDescriptorAdded()
+    {
+        when(this.observationManager.getListener("listener")).thenReturn(this.listener);
+
+        // Nothing is instrumented before the application is ready
+        this.instrumentationListener.onEvent(new ComponentDescriptorAddedEvent(EventListener.class, "hint"),
+            this.contextComponentManager, this.descriptor);
+
+        verify(this.observationManager, never()).removeListener(anyString());
+
+        this.instrumentationListener.onEvent(new ApplicationReadyEvent(), null, null);
+        this.instrumentationListener.onEvent(new ComponentDescriptorAddedEvent(EventListener.class, "hint"),
+            this.contextComponentManager, this.descriptor);
+
+        verify(this.observationManager, times(2)).removeListener("listener");
+    }
+
+    @Test
+    void onComponentDescriptorRemoved()
+    {
+        when(this.contextComponentManager.<EventListener>getComponentDescriptorList(EventListener.class))
+            .thenReturn(List.of());
+        when(this.descriptor.getImplementation()).thenReturn((Class) this.listener.getClass());
+        when(this.observationManager.getListener("listener")).thenReturn(this.listener);
+
+        this.instrumentationListener.onEvent(new ApplicationReadyEvent(), null, null);
+
+        // Install
+        this.instrumentationListener.onEvent(new ComponentDescriptorAddedEvent(EventListener.class, "hint"),
+            this.contextComponentManager, this.descriptor);
+
+        ArgumentCaptor<EventListener> captor = ArgumentCaptor.forClass(EventListener.class);
+        verify(this.observationManager).addListener(captor.capture(), eq(42));
+        when(this.observationManager.getListener("listener")).thenReturn(captor.getValue());
+
+        // Uninstalling another component does not remove the instrumented listener
+        ComponentDescriptor<EventListener> otherDescriptor = mock(ComponentDescriptor.class);
+        when(otherDescriptor.getImplementation()).thenReturn((Class) EventListener.class);
+        this.instrumentationListener.onEvent(new ComponentDescriptorRemovedEvent(EventListener.class, "other"),
+            this.contextComponentManager, otherDescriptor);
+
+        verify(this.observationManager, times(1)).removeListener("listener");
+
+        // Uninstall
+        this.instrumentationListener.onEvent(new ComponentDescriptorRemovedEvent(EventListener.class, "hint"),
+            this.contextComponentManager, this.descriptor);
+
+        verify(this.observationManager, times(2)).removeListener("listener");
+
+        // The instrumented listener is forgotten
+        this.instrumentationListener.onEvent(new ComponentDescriptorRemovedEvent(EventListener.class, "hint"),
+            this.contextComponentManager, this.descriptor);
+
+        verify(this.observationManager, times(2)).removeListener("listener");
+    }
+
+    @Test
+    void onApplicationReadyWhenNotRegistered()
+    {
+        // Another listener is registered with the same name
+        when(this.observationManager.getListener("listener")).thenReturn(mock(EventListener.class));
+
+        this.instrumentationListener.onEvent(new ApplicationReadyEvent(), null, null);
+
+        verify(this.observationManager, never()).removeListener(anyString());
+        verify(this.observationManager, never()).addListener(any(), anyInt());
+    }
+
+    @Test
+    void onApplicationReadyWhenDisabled()
+    {
+        when(this.statistics.isEnabled()).thenReturn(false);
+
+        this.instrumentationListener.onEvent(new ApplicationReadyEvent(), null, null);
+
+        verify(this.observationManager, never()).getListener(anyString());
+    }
+}
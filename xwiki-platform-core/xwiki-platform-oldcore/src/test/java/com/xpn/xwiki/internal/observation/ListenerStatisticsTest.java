@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.observation;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ListenerStatistics}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ListenerStatisticsTest
+{
+    @InjectMockComponents
+    private ListenerStatistics statistics;
+
+    @MockComponent
+    private ConfigurationSource configuration;
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getProperty("observation.instrumentation.enabled", false)).thenReturn(true);
+        when(this.configuration.getProperty("observation.instrumentation.slowThreshold", 1000L)).thenReturn(50L);
+        when(this.configuration.getProperty("observation.instrumentation.allocationSampling", 64)).thenReturn(1);
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.statistics.dispose();
+    }
+
+    @Test
+    void record()
+    {
+        DocumentUpdatedEvent event = new DocumentUpdatedEvent();
+        this.statistics.record("listener1", event, () -> { });
+        this.statistics.record("listener1", event, () -> { });
+        this.statistics.record("listener1", new DocumentDeletedEvent(), () -> { });
+
+        ListenerEventStatistics eventStatistics = this.statistics.getStatistics("listener1", event);
+        assertEquals("listener1", eventStatistics.getListener());
+        assertEquals(DocumentUpdatedEvent.class.getName(), eventStatistics.getEvent());
+        assertEquals(2, eventStatistics.getCount());
+        assertTrue(eventStatistics.getPercentileTime(50) <= eventStatistics.getMaxTime());
+        assertTrue(eventStatistics.getMaxTime() < 50);
+        assertEquals(2, this.statistics.getStatistics().size());
+
+        this.statistics.reset();
+
+        assertEquals(List.of(), this.statistics.getStatistics());
+    }
+
+    @Test
+    void recordSlowListener()
+    {
+        DocumentUpdatedEvent event = new DocumentUpdatedEvent();
+        this.statistics.record("fast", event, () -> { });
+        this.statistics.record("slow", event, () -> {
+            try {
+                Thread.sleep(60);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        List<ListenerEventStatistics> list = this.statistics.getStatistics();
+        assertEquals("slow", list.get(0).getListener());
+        assertTrue(list.get(0).getTotalTime() >= 50);
+        assertTrue(list.get(0).getPercentileTime(95) >= 50);
+
+        assertEquals(1, this.logCapture.size());
+        assertTrue(this.logCapture.getMessage(0).startsWith("Listener [slow] took ["));
+    }
+
+    @Test
+    void percentiles()
+    {
+        ListenerEventStatistics eventStatistics = new ListenerEventStatistics("listener", "event");
+        for (int i = 0; i < 99; ++i) {
+            // 1 microsecond
+            eventStatistics.record(1000);
+        }
+        // 10 milliseconds
+        eventStatistics.record(10000000);
+
+        assertEquals(100, eventStatistics.getCount());
+        assertEquals(0.002, eventStatistics.getPercentileTime(50));
+        assertEquals(0.002, eventStatistics.getPercentileTime(99));
+        assertEquals(10, eventStatistics.getPercentileTime(100));
+        assertEquals(10, eventStatistics.getMaxTime());
+        assertEquals(-1, eventStatistics.getAverageAllocatedBytes());
+    }
+}
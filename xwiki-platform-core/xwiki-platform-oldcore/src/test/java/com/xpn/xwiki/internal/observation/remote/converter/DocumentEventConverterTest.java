@@ -23,10 +23,16 @@
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.ObjectPropertyReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.internal.DefaultObservationManager;
 import org.xwiki.observation.remote.LocalEventData;
 import org.xwiki.observation.remote.RemoteEventData;
 import org.xwiki.observation.remote.internal.converter.DefaultEventConverterManager;
@@ -36,15 +42,37 @@
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.AttachmentDeletedEvent;
+import com.xpn.xwiki.internal.event.AttachmentEventGeneratorListener;
+import com.xpn.xwiki.internal.event.CommentEventGeneratorListener;
+import com.xpn.xwiki.internal.event.DocumentEventChanges;
+import com.xpn.xwiki.internal.event.XClassPropertyEventGeneratorListener;
+import com.xpn.xwiki.internal.event.XObjectAddedEvent;
+import com.xpn.xwiki.internal.event.XObjectDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectEventGeneratorListener;
+import com.xpn.xwiki.internal.event.XObjectPropertyDeletedEvent;
+import com.xpn.xwiki.internal.event.XObjectPropertyUpdatedEvent;
+import com.xpn.xwiki.internal.event.XObjectUpdatedEvent;
+import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Validate {@link DocumentEventConverter};
@@ -52,7 +80,10 @@
  * @version $Id$
  */
 @OldcoreTest
-@ComponentList(DocumentEventConverter.class)
+@ComponentList({ DocumentEventConverter.class, RemoteDocumentLoadStatistics.class, DocumentEventChanges.class,
+    DefaultObservationManager.class, XObjectEventGeneratorListener.class, AttachmentEventGeneratorListener.class,
+    XClassPropertyEventGeneratorListener.class, CommentEventGeneratorListener.class })
+@ReferenceComponentList
 class DocumentEventConverterTest
 {
     @InjectMockitoOldcore
@@ -64,6 +95,49 @@
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
+    private RemoteEventData serialize(RemoteEventData remoteEvent) throws Exception
+    {
+        ByteArrayOutputStream sos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(sos);
+        oos.writeObject(remoteEvent);
+        ByteArrayInputStream sis = new ByteArrayInputStream(sos.toByteArray());
+        ObjectInputStream ois = new ObjectInputStream(sis);
+
+        return (RemoteEventData) ois.readObject();
+    }
+
+    private EventListener registerObjectAndAttachmentListener() throws Exception
+    {
+        EventListener listener = mock(EventListener.class);
+        when(listener.getName()).thenReturn("test");
+        when(listener.getEvents()).thenReturn(Arrays.asList(new XObjectAddedEvent(), new XObjectDeletedEvent(),
+            new XObjectUpdatedEvent(), new XObjectPropertyUpdatedEvent(), new XObjectPropertyDeletedEvent(),
+            new AttachmentDeletedEvent()));
+        this.componentManager.<ObservationManager>getInstance(ObservationManager.class).addListener(listener);
+
+        return listener;
+    }
+
+    private XWikiDocument notifyRemoteEvent(RemoteEventData remoteEvent) throws Exception
+    {
+        LocalEventData localEvent = this.converterManager.createLocalEventData(remoteEvent);
+
+        this.componentManager.<ObservationManager>getInstance(ObservationManager.class).notify(localEvent.getEvent(),
+            localEvent.getSource(), localEvent.getData());
+
+        return (XWikiDocument) localEvent.getSource();
+    }
+
+    private BaseObject newXObject(XWikiDocument document, String property, String value)
+    {
+        BaseObject xobject = new BaseObject();
+        xobject.setXClassReference(new DocumentReference("wiki", "space", "class"));
+        xobject.setStringValue(property, value);
+        document.addXObject(xobject);
+
+        return xobject;
+    }
+
     @Test
     void testConvertCreatedDocument() throws Exception
     {
@@ -148,4 +222,133 @@ void testConvertWithOriginalDocNull() throws Exception
         assertNotSame(this.oldcore.getSpyXWiki().getDocument(documentReference, this.oldcore.getXWikiContext()),
             localEvent2.getSource());
     }
+
+    @Test
+    void convertUpdatedDocumentLoadsOriginalDocumentLazily() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "page");
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiDocument document = this.oldcore.getSpyXWiki().getDocument(documentReference, xcontext);
+        this.oldcore.getSpyXWiki().saveDocument(document, xcontext);
+        XWikiDocument originalDocument =
+            this.oldcore.getSpyXWiki().getDocument(documentReference, xcontext).clone();
+        document = originalDocument.clone();
+        document.setOriginalDocument(originalDocument);
+
+        LocalEventData localEvent = new LocalEventData();
+        localEvent.setEvent(new DocumentUpdatedEvent());
+        localEvent.setSource(document);
+        localEvent.setData(xcontext);
+
+        RemoteEventData remoteEvent = serialize(this.converterManager.createRemoteEventData(localEvent));
+
+        RemoteDocumentLoadStatistics statistics =
+            this.componentManager.getInstance(RemoteDocumentLoadStatistics.class);
+        long deferred = statistics.getDeferredCount();
+        long loads = statistics.getLoadCount();
+
+        XWikiDocument localDocument =
+            (XWikiDocument) this.converterManager.createLocalEventData(remoteEvent).getSource();
+
+        assertEquals(documentReference, localDocument.getDocumentReference());
+        assertEquals(deferred + 1, statistics.getDeferredCount());
+        assertEquals(loads, statistics.getLoadCount());
+
+        XWikiDocument localOriginalDocument = localDocument.getOriginalDocument();
+
+        assertEquals(originalDocument.getVersion(), localOriginalDocument.getVersion());
+        assertFalse(localOriginalDocument.isNew());
+        assertEquals(loads + 1, statistics.getLoadCount());
+
+        // The original document is loaded only once, including for the clones of the document
+        assertSame(localOriginalDocument, localDocument.clone().getOriginalDocument());
+        assertEquals(loads + 1, statistics.getLoadCount());
+    }
+
+    @Test
+    void convertUpdatedDocumentGeneratesObjectEventsWithoutLoadingOriginalDocument() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "page");
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiDocument document = new XWikiDocument(documentReference);
+        newXObject(document, "prop", "value");
+        newXObject(document, "prop", "value");
+        this.oldcore.getSpyXWiki().saveDocument(document, xcontext);
+        XWikiDocument originalDocument =
+            this.oldcore.getSpyXWiki().getDocument(documentReference, xcontext).clone();
+        document = originalDocument.clone();
+        document.setOriginalDocument(originalDocument);
+
+        BaseObject updatedObject = document.getXObjects().values().iterator().next().get(0);
+        updatedObject.setStringValue("prop", "newvalue");
+        BaseObject removedObject = originalDocument.getXObjects().values().iterator().next().get(1);
+        document.removeXObject(document.getXObject(removedObject.getReference()));
+        BaseObject addedObject = newXObject(document, "prop", "value");
+
+        LocalEventData localEvent = new LocalEventData();
+        localEvent.setEvent(new DocumentUpdatedEvent());
+        localEvent.setSource(document);
+        localEvent.setData(xcontext);
+
+        RemoteEventData remoteEvent = serialize(this.converterManager.createRemoteEventData(localEvent));
+
+        RemoteDocumentLoadStatistics statistics =
+            this.componentManager.getInstance(RemoteDocumentLoadStatistics.class);
+        long loads = statistics.getLoadCount();
+        EventListener listener = registerObjectAndAttachmentListener();
+
+        XWikiDocument localDocument = notifyRemoteEvent(remoteEvent);
+
+        verify(listener).onEvent(eq(new XObjectUpdatedEvent(updatedObject.getReference())), same(localDocument),
+            any());
+        verify(listener).onEvent(eq(new XObjectPropertyUpdatedEvent(
+            new ObjectPropertyReference("prop", updatedObject.getReference()))), same(localDocument), any());
+        verify(listener).onEvent(eq(new XObjectDeletedEvent(removedObject.getReference())), same(localDocument),
+            any());
+        verify(listener).onEvent(eq(new XObjectAddedEvent(addedObject.getReference())), same(localDocument), any());
+        verify(listener, never()).onEvent(eq(new XObjectUpdatedEvent(removedObject.getReference())), any(),
+            any());
+
+        // The listeners used the changes sent with the event instead of loading the original document
+        assertEquals(loads, statistics.getLoadCount());
+    }
+
+    @Test
+    void convertDeletedDocumentGeneratesObjectAndAttachmentEventsWithoutRestoringIt() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "space", "page");
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiDocument originalDocument = new XWikiDocument(documentReference);
+        BaseObject deletedObject = newXObject(originalDocument, "prop", "value");
+        originalDocument.setAttachment(new XWikiAttachment(originalDocument, "file.txt"));
+        XWikiDocument document = new XWikiDocument(documentReference);
+        document.setOriginalDocument(originalDocument);
+
+        LocalEventData localEvent = new LocalEventData();
+        localEvent.setEvent(new DocumentDeletedEvent());
+        localEvent.setSource(document);
+        localEvent.setData(xcontext);
+
+        RemoteEventData remoteEvent = serialize(this.converterManager.createRemoteEventData(localEvent));
+
+        RemoteDocumentLoadStatistics statistics =
+            this.componentManager.getInstance(RemoteDocumentLoadStatistics.class);
+        long loads = statistics.getLoadCount();
+        EventListener listener = registerObjectAndAttachmentListener();
+
+        XWikiDocument localDocument = notifyRemoteEvent(remoteEvent);
+
+        verify(listener).onEvent(eq(new XObjectDeletedEvent(deletedObject.getReference())), same(localDocument),
+            any());
+        verify(listener).onEvent(eq(new XObjectPropertyDeletedEvent(
+            new ObjectPropertyReference("prop", deletedObject.getReference()))), same(localDocument), any());
+        verify(listener).onEvent(eq(new AttachmentDeletedEvent("wiki:space.page", "file.txt")),
+            same(localDocument), any());
+
+        // The deleted document was not restored from the recycle bin
+        assertEquals(loads, statistics.getLoadCount());
+    }
 }
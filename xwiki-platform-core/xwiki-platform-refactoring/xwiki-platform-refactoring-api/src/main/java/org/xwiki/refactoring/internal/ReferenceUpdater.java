@@ -48,6 +48,24 @@ default void update(DocumentReference documentReference, EntityReference oldTarg
         update(documentReference, oldTargetReference, newTargetReference);
     }
 
+    /**
+     * Update the references to several renamed entities at once, so that the document is loaded, parsed and saved only
+     * once.
+     *
+     * @param documentReference the reference of the document in which to update the references
+     * @param renamedEntities the previous and new references of the renamed entities
+     * @param updatedEntities the map of entities that are or are going to be updated: the map contains the source
+     * and target destination.
+     * @since 17.1.0RC1
+     */
+    default void update(DocumentReference documentReference, Map<EntityReference, EntityReference> renamedEntities,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        for (Map.Entry<EntityReference, EntityReference> entry : renamedEntities.entrySet()) {
+            update(documentReference, entry.getKey(), entry.getValue(), updatedEntities);
+        }
+    }
+
     /**
      * @param documentReference the reference of the document in which to update the references
      * @param oldTargetReference the previous reference of the renamed entity
@@ -20,6 +20,9 @@
 package org.xwiki.refactoring.internal.job;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.inject.Named;
 
@@ -46,6 +49,8 @@
 @Named(RefactoringJobs.MOVE)
 public class MoveJob extends AbstractCopyOrMoveJob<MoveRequest>
 {
+    private final Map<DocumentReference, DocumentReference> renamedDocuments = new LinkedHashMap<>();
+
     @Override
     public String getType()
     {
@@ -92,7 +97,9 @@ protected void performRefactoring(DocumentReference oldReference, DocumentRefere
         DocumentRenamingEvent documentRenamingEvent = new DocumentRenamingEvent(oldReference, newReference);
         DocumentRenamedEvent documentRenamedEvent = new DocumentRenamedEvent(oldReference, newReference);
         try {
-            copyOrMove(oldReference, newReference, documentRenamingEvent, documentRenamedEvent);
+            if (copyOrMove(oldReference, newReference, documentRenamingEvent, documentRenamedEvent)) {
+                this.renamedDocuments.put(oldReference, newReference);
+            }
         } catch (Exception e) {
             this.logger.error("Failed to copy or move document from [{}] to [{}]", oldReference, newReference, e);
         }
@@ -103,4 +110,13 @@ protected boolean atomicOperation(DocumentReference source, DocumentReference ta
     {
         return this.modelBridge.rename(source, target);
     }
+
+    /**
+     * @return the documents which have been moved so far by this job, associated with their new reference
+     * @since 17.1.0RC1
+     */
+    public Map<DocumentReference, DocumentReference> getRenamedDocuments()
+    {
+        return Collections.unmodifiableMap(this.renamedDocuments);
+    }
 }
@@ -19,6 +19,7 @@
  */
 package org.xwiki.refactoring.internal.listener;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -40,6 +41,7 @@
 import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -92,7 +94,7 @@ public class BackLinkUpdaterListener extends AbstractLocalEventListener
      */
     public BackLinkUpdaterListener()
     {
-        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent());
+        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent(), new EntitiesRenamedEvent());
     }
 
     @Override
@@ -101,6 +103,8 @@ public void processLocalEvent(Event event, Object source, Object data)
         try {
             if (event instanceof DocumentRenamedEvent) {
                 maybeUpdateLinksAfterRename(event, source, data);
+            } else if (event instanceof EntitiesRenamedEvent && source instanceof MoveJob) {
+                maybeUpdateLinksAfterMove((MoveJob) source, (MoveRequest) data);
             } else if (event instanceof DocumentDeletedEvent && this.jobContext.getCurrentJob() instanceof DeleteJob) {
                 maybeUpdateLinksAfterDelete(event);
             }
@@ -131,7 +135,8 @@ private void maybeUpdateLinksAfterRename(Event event, Object source, Object data
         Map<EntityReference, EntityReference> updatedEntities = Map.of();
         if (source instanceof MoveJob) {
             MoveRequest request = (MoveRequest) data;
-            updateLinks = request.isUpdateLinks();
+            // The back-links of all the moved documents are updated at once when the move is done
+            updateLinks = request.isUpdateLinks() && !request.isCoalesceBackLinkUpdates();
             // Check access rights taking into account the move request.
             canEdit = entityReference -> ((MoveJob) source).hasAccess(Right.EDIT, entityReference);
             updatedEntities = ((MoveJob) source).getSelectedEntities();
@@ -144,6 +149,47 @@ private void maybeUpdateLinksAfterRename(Event event, Object source, Object data
         }
     }
 
+    private void maybeUpdateLinksAfterMove(MoveJob job, MoveRequest request) throws RefactoringException
+    {
+        if (request.isUpdateLinks() && request.isCoalesceBackLinkUpdates() && !job.getRenamedDocuments().isEmpty()) {
+            this.logger.info("Updating the back-links for [{}] moved documents.", job.getRenamedDocuments().size());
+
+            // All the back-links are looked up at once, so the link index must be up to date, including for the
+            // back-linking documents which were moved themselves
+            this.linkIndexingHelper.get().waitForLinkIndexingWithLog();
+
+            // Group the moved documents by back-linked document so that each of them is modified and saved only once
+            Map<DocumentReference, Map<EntityReference, EntityReference>> renamesByBacklink = new LinkedHashMap<>();
+            for (Map.Entry<DocumentReference, DocumentReference> entry : job.getRenamedDocuments().entrySet()) {
+                for (DocumentReference backlinkDocumentReference : this.modelBridge
+                    .getBackLinkedDocuments(entry.getKey())) {
+                    // The index might still reference a back-linking document which was moved by its old reference
+                    DocumentReference newBacklinkDocumentReference =
+                        job.getRenamedDocuments().getOrDefault(backlinkDocumentReference, backlinkDocumentReference);
+                    renamesByBacklink.computeIfAbsent(newBacklinkDocumentReference, key -> new LinkedHashMap<>())
+                        .put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            Map<EntityReference, EntityReference> updatedEntities = job.getSelectedEntities();
+
+            this.progressManager.pushLevelProgress(renamesByBacklink.size(), this);
+
+            try {
+                for (Map.Entry<DocumentReference, Map<EntityReference, EntityReference>> entry : renamesByBacklink
+                    .entrySet()) {
+                    this.progressManager.startStep(this);
+                    if (job.hasAccess(Right.EDIT, entry.getKey())) {
+                        this.updater.update(entry.getKey(), entry.getValue(), updatedEntities);
+                    }
+                    this.progressManager.endStep(this);
+                }
+            } finally {
+                this.progressManager.popLevelProgress(this);
+            }
+        }
+    }
+
     private void updateBackLinks(DocumentReference source, DocumentReference target,
         Predicate<EntityReference> canEdit, Map<EntityReference, EntityReference> updatedEntities)
         throws RefactoringException
@@ -54,6 +54,12 @@
 @Singleton
 public class LinkIndexingWaitingHelper implements Initializable, Disposable
 {
+    @FunctionalInterface
+    private interface Waiting
+    {
+        void waitForIndexing() throws InterruptedException, RefactoringException;
+    }
+
     private ExecutorService executor;
 
     @Inject
@@ -98,22 +104,43 @@ public void maybeWaitForLinkIndexingWithLog(int timeout, TimeUnit timeUnit)
             || entityJob.getRequest().isWaitForIndexing()))
         {
             // We're inside a job, so some waiting should be okay. Wait for the indexing of the link store to finish.
-            try {
-                this.logger.info("Waiting for the link index to be updated.");
-                waitWithQuestion(timeout, timeUnit);
-                this.logger.info("Finished waiting for the link index");
-            } catch (InterruptedException e) {
-                this.logger.warn(
-                    "Interrupted while waiting for link indexing: [{}], continuing nevertheless.",
-                    ExceptionUtils.getRootCauseMessage(e));
-                this.logger.debug("Full interrupted exception:", e);
-                Thread.currentThread().interrupt();
-            } catch (RefactoringException e) {
-                this.logger.warn(
-                    "Failed to wait for the link index to be updated: [{}], continuing nevertheless.",
-                    ExceptionUtils.getRootCauseMessage(e));
-                this.logger.debug("Full exception:", e);
-            }
+            waitWithLog(() -> waitWithQuestion(timeout, timeUnit));
+        }
+    }
+
+    /**
+     * Wait for link indexing to complete, without asking the user if they want to stop waiting.
+     * <p>
+     *     This method only waits inside a job, whatever the request of an entity job specifies, for the operations
+     *     which can't work with an outdated link index. Exceptions are caught and logged, but not rethrown.
+     * </p>
+     *
+     * @since 17.1.0RC1
+     */
+    public void waitForLinkIndexingWithLog()
+    {
+        if (this.jobContext.getCurrentJob() != null) {
+            waitWithLog(this::waitWithoutQuestion);
+        }
+    }
+
+    private void waitWithLog(Waiting waiting)
+    {
+        try {
+            this.logger.info("Waiting for the link index to be updated.");
+            waiting.waitForIndexing();
+            this.logger.info("Finished waiting for the link index");
+        } catch (InterruptedException e) {
+            this.logger.warn(
+                "Interrupted while waiting for link indexing: [{}], continuing nevertheless.",
+                ExceptionUtils.getRootCauseMessage(e));
+            this.logger.debug("Full interrupted exception:", e);
+            Thread.currentThread().interrupt();
+        } catch (RefactoringException e) {
+            this.logger.warn(
+                "Failed to wait for the link index to be updated: [{}], continuing nevertheless.",
+                ExceptionUtils.getRootCauseMessage(e));
+            this.logger.debug("Full exception:", e);
         }
     }
 
@@ -135,7 +162,9 @@ public void waitWithQuestion(int timeout, TimeUnit unit) throws InterruptedExcep
         this.progressManager.pushLevelProgress(100, this);
         ReadyIndicator readyIndicator = this.linkStore.get().waitReady();
         try {
-            waitOnReadyIndicatorWithProgress(readyIndicator, timeout, unit);
+            JobStatus jobStatus = this.jobContext.getCurrentJob().getStatus();
+            waitOnReadyIndicatorWithProgress(readyIndicator, new LinkIndexingQuestionHandler(timeout, unit,
+                readyIndicator::getProgressPercentage, jobStatus, this.executor));
         } catch (ExecutionException e) {
             throw new RefactoringException("Error while waiting for the link index to be updated.", e.getCause());
         } finally {
@@ -143,13 +172,23 @@ public void waitWithQuestion(int timeout, TimeUnit unit) throws InterruptedExcep
         }
     }
 
-    private void waitOnReadyIndicatorWithProgress(ReadyIndicator readyIndicator, int timeout, TimeUnit unit)
-        throws ExecutionException, InterruptedException
+    private void waitWithoutQuestion() throws InterruptedException, RefactoringException
+    {
+        this.progressManager.pushLevelProgress(100, this);
+        ReadyIndicator readyIndicator = this.linkStore.get().waitReady();
+        try {
+            waitOnReadyIndicatorWithProgress(readyIndicator, null);
+        } catch (ExecutionException e) {
+            throw new RefactoringException("Error while waiting for the link index to be updated.", e.getCause());
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void waitOnReadyIndicatorWithProgress(ReadyIndicator readyIndicator,
+        LinkIndexingQuestionHandler questionHandler) throws ExecutionException, InterruptedException
     {
         int percent = 0;
-        JobStatus jobStatus = this.jobContext.getCurrentJob().getStatus();
-        LinkIndexingQuestionHandler questionHandler = new LinkIndexingQuestionHandler(timeout, unit,
-            readyIndicator::getProgressPercentage, jobStatus, this.executor);
 
         try {
             while (true) {
@@ -161,7 +200,7 @@ private void waitOnReadyIndicatorWithProgress(ReadyIndicator readyIndicator, int
                         this.progressManager.startStep(this);
                     }
 
-                    if (!questionHandler.shallContinueWaiting()) {
+                    if (questionHandler != null && !questionHandler.shallContinueWaiting()) {
                         this.logger.info(
                             "Not waiting for the link index to be updated anymore as the user asked to stop waiting.");
                         break;
@@ -169,7 +208,9 @@ private void waitOnReadyIndicatorWithProgress(ReadyIndicator readyIndicator, int
                 }
             }
         } finally {
-            questionHandler.cancelPendingQuestion();
+            if (questionHandler != null) {
+                questionHandler.cancelPendingQuestion();
+            }
         }
     }
 }
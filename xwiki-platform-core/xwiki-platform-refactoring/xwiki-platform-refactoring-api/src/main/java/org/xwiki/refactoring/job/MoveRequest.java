@@ -20,6 +20,7 @@
 package org.xwiki.refactoring.job;
 
 import org.xwiki.job.Request;
+import org.xwiki.stability.Unstable;
 
 /**
  * A job request that can be used to move a collection of entities to a specified destination. This request can also be
@@ -53,6 +54,11 @@ public class MoveRequest extends AbstractCopyOrMoveRequest
      */
     private static final String PROPERTY_UPDATE_PARENT_FIELD = "updateParentField";
 
+    /**
+     * @see #isCoalesceBackLinkUpdates()
+     */
+    private static final String PROPERTY_COALESCE_BACKLINK_UPDATES = "coalesceBackLinkUpdates";
+
     /**
      * Default constructor.
      */
@@ -142,4 +148,31 @@ public void setUpdateParentField(boolean updateParentField)
     {
         setProperty(PROPERTY_UPDATE_PARENT_FIELD, updateParentField);
     }
+
+    /**
+     * @return {@code true} if the back-links should be updated once all the documents have been moved, so that a
+     *         document linking to several moved documents is modified and saved only once, {@code false} if the
+     *         back-links of each document should be updated right after it's moved; the back-links being looked up
+     *         at the end, the link index is always waited for, whatever {@link #isWaitForIndexing()} returns
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public boolean isCoalesceBackLinkUpdates()
+    {
+        return getProperty(PROPERTY_COALESCE_BACKLINK_UPDATES, false);
+    }
+
+    /**
+     * Sets whether the back-links should be updated once all the documents have been moved, so that a document linking
+     * to several moved documents is modified and saved only once.
+     *
+     * @param coalesceBackLinkUpdates {@code true} to update the back-links at the end of the move, {@code false} to
+     *            update them after each moved document
+     * @since 17.1.0RC1
+     */
+    @Unstable
+    public void setCoalesceBackLinkUpdates(boolean coalesceBackLinkUpdates)
+    {
+        setProperty(PROPERTY_COALESCE_BACKLINK_UPDATES, coalesceBackLinkUpdates);
+    }
 }
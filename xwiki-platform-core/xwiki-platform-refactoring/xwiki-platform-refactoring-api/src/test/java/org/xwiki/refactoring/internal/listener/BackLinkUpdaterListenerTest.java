@@ -31,8 +31,10 @@
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.job.JobContext;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
 import org.xwiki.refactoring.internal.job.DeleteJob;
@@ -171,6 +173,62 @@ void onDocumentRenamedWithUpdateLinksOnWiki()
         verify(this.waitingHelper).maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
     }
 
+    @Test
+    void onEntitiesRenamedWithCoalescedBackLinkUpdates() throws Exception
+    {
+        this.renameRequest.setUpdateLinks(true);
+        this.renameRequest.setCoalesceBackLinkUpdates(true);
+
+        // Carol links to both Alice and Bob, Denis only to Alice.
+        DocumentReference newBobReference = new DocumentReference("foo", "Members", "Bob");
+        DocumentReference newAliceReference = new DocumentReference("foo", "Members", "Alice");
+        when(this.modelBridge.getBackLinkedDocuments(bobReference)).thenReturn(Set.of(carolReference));
+        when(this.renameJob.getRenamedDocuments())
+            .thenReturn(Map.of(aliceReference, newAliceReference, bobReference, newBobReference));
+        when(this.renameJob.getSelectedEntities()).thenReturn(Map.of());
+        when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+        when(this.renameJob.hasAccess(Right.EDIT, denisReference)).thenReturn(true);
+
+        // The back-links are not updated after each document is renamed.
+        this.listener.onEvent(new DocumentRenamedEvent(aliceReference, newAliceReference), this.renameJob,
+            this.renameRequest);
+
+        verify(this.updater, never()).update(any(), any(DocumentReference.class), any());
+        verify(this.modelBridge, never()).getBackLinkedDocuments(any());
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), this.renameJob, this.renameRequest);
+
+        Map<EntityReference, EntityReference> carolRenames =
+            Map.of(aliceReference, newAliceReference, bobReference, newBobReference);
+        verify(this.updater).update(carolReference, carolRenames, Map.of());
+        verify(this.updater).update(denisReference, Map.of(aliceReference, newAliceReference), Map.of());
+        verify(this.waitingHelper).waitForLinkIndexingWithLog();
+
+        assertEquals("Updating the back-links for [2] moved documents.", logCapture.getMessage(0));
+    }
+
+    @Test
+    void onEntitiesRenamedWithCoalescedBackLinkUpdatesAndMovedBackLink() throws Exception
+    {
+        this.renameRequest.setUpdateLinks(true);
+        this.renameRequest.setCoalesceBackLinkUpdates(true);
+
+        // Carol links to Bob and both were moved, but the link index still knows Carol by her old reference.
+        DocumentReference newBobReference = new DocumentReference("foo", "Members", "Bob");
+        DocumentReference newCarolReference = new DocumentReference("foo", "Members", "Carol");
+        when(this.modelBridge.getBackLinkedDocuments(bobReference)).thenReturn(Set.of(carolReference));
+        when(this.modelBridge.getBackLinkedDocuments(carolReference)).thenReturn(Set.of());
+        when(this.renameJob.getRenamedDocuments())
+            .thenReturn(Map.of(bobReference, newBobReference, carolReference, newCarolReference));
+        when(this.renameJob.getSelectedEntities()).thenReturn(Map.of());
+        when(this.renameJob.hasAccess(Right.EDIT, newCarolReference)).thenReturn(true);
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), this.renameJob, this.renameRequest);
+
+        verify(this.updater).update(newCarolReference, Map.of(bobReference, newBobReference), Map.of());
+        verify(this.updater, never()).update(eq(carolReference), any(Map.class), any());
+    }
+
     @Test
     void onDocumentRenamedWithoutUpdateLinks()
     {
@@ -54,6 +54,7 @@
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -251,4 +252,38 @@ void maybeWaitForLinkIndexingWithLogInterruptedException() throws Exception
         assertEquals("Interrupted while waiting for link indexing: [InterruptedException: %s], continuing nevertheless."
             .formatted(exceptionMessage), this.logCapture.getMessage(1));
     }
+
+    @Test
+    void waitForLinkIndexingWithLogWithoutJob()
+    {
+        when(this.jobContext.getCurrentJob()).thenReturn(null);
+
+        this.helper.waitForLinkIndexingWithLog();
+
+        verifyNoInteractions(this.progressManager);
+    }
+
+    @Test
+    void waitForLinkIndexingWithLogWithEntityJobNotWaiting() throws Exception
+    {
+        AbstractEntityJob<EntityRequest, EntityJobStatus<EntityRequest>> entityJob = mock();
+        when(this.jobContext.getCurrentJob()).thenReturn(entityJob);
+        when(entityJob.getStatus()).thenReturn(this.jobStatus);
+        EntityRequest request = mock();
+        when(entityJob.getRequest()).thenReturn(request);
+        when(request.isWaitForIndexing()).thenReturn(false);
+        doThrow(new TimeoutException()).doThrow(new TimeoutException()).doNothing().when(this.readyIndicator)
+            .get(anyLong(), any());
+
+        this.helper.waitForLinkIndexingWithLog();
+
+        // Waits until the link index is ready, without asking any question
+        verify(this.readyIndicator, times(3)).get(anyLong(), any());
+        verify(this.jobStatus, never()).ask(any());
+        verify(this.progressManager).pushLevelProgress(100, this.helper);
+        verify(this.progressManager).popLevelProgress(this.helper);
+
+        assertEquals(WAITING_MESSAGE, this.logCapture.getMessage(0));
+        assertEquals(FINISHED_WAITING_MESSAGE, this.logCapture.getMessage(1));
+    }
 }
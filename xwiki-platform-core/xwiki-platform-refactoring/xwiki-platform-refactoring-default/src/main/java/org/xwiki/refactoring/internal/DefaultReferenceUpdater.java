@@ -19,6 +19,7 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -216,8 +217,8 @@ private void info(String format, Object... arguments)
         }
     }
 
-    private void renameLinks(XWikiDocument document, EntityReference oldTarget, EntityReference newTarget,
-        XWikiContext xcontext, boolean relative, RenameLambda renameLambda) throws XWikiException
+    private void renameLinks(XWikiDocument document, Object oldTarget, Object newTarget, XWikiContext xcontext,
+        boolean relative, RenameLambda renameLambda) throws XWikiException
     {
         DocumentReference currentDocumentReference = document.getDocumentReference();
 
@@ -293,8 +294,8 @@ private void renameLinks(DocumentReference documentReference, AttachmentReferenc
                 updatedEntities));
     }
 
-    private void internalRenameLinks(DocumentReference documentReference, EntityReference oldLinkTarget,
-        EntityReference newLinkTarget, boolean relative, RenameLambda renameLambda)
+    private void internalRenameLinks(DocumentReference documentReference, Object oldLinkTarget, Object newLinkTarget,
+        boolean relative, RenameLambda renameLambda)
     {
         boolean popLevelProgress = false;
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -366,6 +367,55 @@ public void update(DocumentReference documentReference, EntityReference oldTarge
         }
     }
 
+    @Override
+    public void update(DocumentReference documentReference, Map<EntityReference, EntityReference> renamedEntities,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        List<RenameLambda> renameLambdas = new ArrayList<>(renamedEntities.size());
+        boolean relative = true;
+        for (Map.Entry<EntityReference, EntityReference> entry : renamedEntities.entrySet()) {
+            EntityReference oldTargetReference = entry.getKey();
+            EntityReference newTargetReference = entry.getValue();
+
+            // If the current document is the moved entity the links should be serialized relative to it
+            boolean relativeTarget = newTargetReference.equals(documentReference);
+
+            // Old and new target must be of same type and only documents and attachments targets are supported
+            RenameLambda renameLambda = null;
+            if (oldTargetReference.getType() != newTargetReference.getType()) {
+                this.logger.debug("Skipping the rename of [{}] to [{}] which have a different type.",
+                    oldTargetReference, newTargetReference);
+            } else if (oldTargetReference.getType() == EntityType.ATTACHMENT) {
+                AttachmentReference oldLinkTarget = toAttachmentReference(oldTargetReference);
+                AttachmentReference newLinkTarget = toAttachmentReference(newTargetReference);
+                renameLambda = (xdom, currentDocumentReference, r) -> this.renamer.renameReferences(xdom,
+                    currentDocumentReference, oldLinkTarget, newLinkTarget, relativeTarget, updatedEntities);
+            } else if (oldTargetReference.getType() == EntityType.DOCUMENT) {
+                DocumentReference oldLinkTarget = toDocumentReference(oldTargetReference);
+                DocumentReference newLinkTarget = toDocumentReference(newTargetReference);
+                renameLambda = (xdom, currentDocumentReference, r) -> this.renamer.renameReferences(xdom,
+                    currentDocumentReference, oldLinkTarget, newLinkTarget, relativeTarget, updatedEntities);
+            }
+
+            if (renameLambda != null) {
+                renameLambdas.add(renameLambda);
+                relative &= relativeTarget;
+            }
+        }
+
+        if (!renameLambdas.isEmpty()) {
+            // Apply all the renames to the same parsed content before saving the document
+            internalRenameLinks(documentReference, renamedEntities.keySet(), renamedEntities.values(), relative,
+                (xdom, currentDocumentReference, r) -> {
+                    boolean modified = false;
+                    for (RenameLambda renameLambda : renameLambdas) {
+                        modified |= renameLambda.call(xdom, currentDocumentReference, r);
+                    }
+                    return modified;
+                });
+        }
+    }
+
     @Override
     public void update(DocumentReference documentReference, EntityReference oldTargetReference,
         EntityReference newTargetReference)
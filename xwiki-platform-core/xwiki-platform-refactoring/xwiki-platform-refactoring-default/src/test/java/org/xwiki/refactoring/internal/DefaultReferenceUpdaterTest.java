@@ -516,6 +516,55 @@ void update() throws Exception
         verifyDocumentSave(document, false);
     }
 
+    @Test
+    void updateSeveralRenamedEntities() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        DocumentAuthors authors = mock(DocumentAuthors.class);
+        when(document.getAuthors()).thenReturn(authors);
+        when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenReturn(document);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+
+        DocumentReference firstOldTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference firstNewTarget = new DocumentReference("wiki", "X", "B");
+        DocumentReference secondOldTarget = new DocumentReference("wiki", "A", "C");
+        DocumentReference secondNewTarget = new DocumentReference("wiki", "X", "C");
+
+        ResourceReference firstLinkReference = new ResourceReference("A.B", ResourceType.DOCUMENT);
+        LinkBlock firstLinkBlock = new LinkBlock(List.of(), firstLinkReference, false);
+        ResourceReference secondLinkReference = new ResourceReference("A.C", ResourceType.DOCUMENT);
+        LinkBlock secondLinkBlock = new LinkBlock(List.of(), secondLinkReference, false);
+        XDOM xdom = new XDOM(List.of(firstLinkBlock, secondLinkBlock));
+        when(document.getXDOM()).thenReturn(xdom);
+
+        when(this.resourceReferenceResolver.resolve(firstLinkReference, null)).thenReturn(firstOldTarget);
+        when(this.resourceReferenceResolver.resolve(firstLinkReference, null, documentReference))
+            .thenReturn(firstOldTarget);
+        when(this.resourceReferenceResolver.resolve(secondLinkReference, null)).thenReturn(secondOldTarget);
+        when(this.resourceReferenceResolver.resolve(secondLinkReference, null, documentReference))
+            .thenReturn(secondOldTarget);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(firstOldTarget)).thenReturn(firstOldTarget);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(secondOldTarget)).thenReturn(secondOldTarget);
+        when(this.relativeEntityReferenceResolver.resolve(firstLinkReference, null, null)).thenReturn(
+            new EntityReference("B", EntityType.DOCUMENT, new EntityReference("A", EntityType.SPACE)));
+        when(this.relativeEntityReferenceResolver.resolve(secondLinkReference, null, null)).thenReturn(
+            new EntityReference("C", EntityType.DOCUMENT, new EntityReference("A", EntityType.SPACE)));
+
+        when(this.compactEntityReferenceSerializer.serialize(firstNewTarget, documentReference)).thenReturn("X.B");
+        when(this.compactEntityReferenceSerializer.serialize(secondNewTarget, documentReference)).thenReturn("X.C");
+
+        Map<EntityReference, EntityReference> renamedEntities =
+            Map.of(firstOldTarget, firstNewTarget, secondOldTarget, secondNewTarget);
+        this.updater.update(documentReference, renamedEntities, renamedEntities);
+
+        assertEquals("X.B", firstLinkBlock.getReference().getReference());
+        assertEquals("X.C", secondLinkBlock.getReference().getReference());
+        // Both links are updated with a single save of the document.
+        verifyDocumentSave(document, false);
+    }
+
     @Test
     void renameImage() throws Exception
     {
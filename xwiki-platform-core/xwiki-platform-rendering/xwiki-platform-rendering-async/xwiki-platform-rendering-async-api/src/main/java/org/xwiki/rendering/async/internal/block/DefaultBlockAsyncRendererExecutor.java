@@ -163,17 +163,14 @@ public String render(BlockAsyncRenderer renderer, AsyncRendererConfiguration con
         // Return a placeholder waiting for the result
         StringBuilder str = new StringBuilder();
 
-        if (renderer.isInline()) {
-            str.append("<span ");
-        } else {
-            str.append("<div ");
-        }
+        String element = renderer.isInline() ? "span" : "div";
 
-        str.append("class=xwiki-async");
+        str.append('<').append(element);
+        str.append(" class=\"xwiki-async\"");
         // Provide it directly as it's going to be used in the client side (the URL fragment to use in the ajax request)
-        str.append("data-xwiki-async-id=").append(response.getJobIdHTTPPath());
-        str.append("data-xwiki-async-client-id=").append(response.getAsyncClientId());
-        str.append("/>");
+        str.append(" data-xwiki-async-id=\"").append(response.getJobIdHTTPPath()).append('"');
+        str.append(" data-xwiki-async-client-id=\"").append(response.getAsyncClientId()).append('"');
+        str.append("></").append(element).append('>');
 
         return str.toString();
     }
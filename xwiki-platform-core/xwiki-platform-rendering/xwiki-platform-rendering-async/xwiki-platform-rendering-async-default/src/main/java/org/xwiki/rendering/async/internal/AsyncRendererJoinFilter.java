@@ -0,0 +1,193 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.collections4.MapUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.job.Job;
+import org.xwiki.job.event.status.JobStatus.State;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.web.ResponseContentFilter;
+
+/**
+ * Wait, before the response is sent, for the asynchronous renderers started while producing the page and replace
+ * their placeholder with their result. The renderers are executed in parallel by the asynchronous renderer jobs so the
+ * time spent to produce a page with several asynchronous regions (panels, UI extensions, etc.) is closer to the time
+ * spent in the slowest region than to their sum.
+ * <p>
+ * The renderers which are not finished when {@code rendering.async.joinTimeout} is reached are left to the client as
+ * usual.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named("asyncrenderer")
+@Singleton
+public class AsyncRendererJoinFilter implements ResponseContentFilter, Initializable
+{
+    private static final String FORKED_PROPERTY = "rendering.async.forked";
+
+    /**
+     * The HTML produced for the placeholders of {@link org.xwiki.rendering.async.internal.block.BlockAsyncRenderer}s.
+     */
+    private static final Pattern PLACEHOLDER = Pattern.compile("<(div|span) class=\"xwiki-async\" "
+        + "data-xwiki-async-id=\"[^\"]*\" data-xwiki-async-client-id=\"([^\"]+)\"\\s*(?:/>|></\\1>)");
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<AsyncRendererExecutor> executorProvider;
+
+    @Inject
+    private Logger logger;
+
+    private long timeout;
+
+    @Override
+    public void initialize()
+    {
+        this.timeout = this.configuration.getProperty("rendering.async.joinTimeout", 0L);
+    }
+
+    /**
+     * @return true if the asynchronous renderers should be joined before sending the response
+     */
+    public boolean isEnabled()
+    {
+        return this.timeout > 0;
+    }
+
+    /**
+     * Remember a running asynchronous renderer to join before sending the response.
+     *
+     * @param clientId the identifier of the placeholder of the renderer
+     * @param job the job executing the renderer
+     */
+    public void fork(String clientId, Job job)
+    {
+        ExecutionContext econtext = this.execution.getContext();
+
+        if (isEnabled() && econtext != null) {
+            @SuppressWarnings("unchecked")
+            Map<String, Job> forked = (Map<String, Job>) econtext.getProperty(FORKED_PROPERTY);
+            if (forked == null) {
+                forked = new LinkedHashMap<>();
+                econtext.setProperty(FORKED_PROPERTY, forked);
+            }
+
+            forked.put(clientId, job);
+        }
+    }
+
+    @Override
+    public String filter(String content, XWikiContext context)
+    {
+        ExecutionContext econtext = this.execution.getContext();
+
+        if (econtext == null) {
+            return content;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Job> forked = (Map<String, Job>) econtext.getProperty(FORKED_PROPERTY);
+        if (MapUtils.isEmpty(forked)) {
+            return content;
+        }
+
+        econtext.removeProperty(FORKED_PROPERTY);
+
+        Map<String, String> results = join(forked);
+        if (results.isEmpty()) {
+            return content;
+        }
+
+        Matcher matcher = PLACEHOLDER.matcher(content);
+        StringBuilder builder = new StringBuilder(content.length());
+        while (matcher.find()) {
+            String result = results.get(matcher.group(2));
+            matcher.appendReplacement(builder, Matcher.quoteReplacement(result != null ? result : matcher.group()));
+        }
+        matcher.appendTail(builder);
+
+        return builder.toString();
+    }
+
+    private Map<String, String> join(Map<String, Job> forked)
+    {
+        Map<String, String> results = new HashMap<>(forked.size());
+
+        long deadline = System.currentTimeMillis() + this.timeout;
+        for (Map.Entry<String, Job> entry : forked.entrySet()) {
+            Job job = entry.getValue();
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining > 0) {
+                try {
+                    job.join(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    break;
+                }
+            }
+
+            AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
+            if (status.getState() == State.FINISHED && status.getResult() != null
+                && status.getResult().getResult() != null) {
+                // Make sure what the renderer needs (skin extensions, etc.) is also injected in the current request
+                AsyncRendererExecutor executor = this.executorProvider.get();
+                if (executor instanceof DefaultAsyncRendererExecutor) {
+                    ((DefaultAsyncRendererExecutor) executor).injectUses(status);
+                }
+
+                results.put(entry.getKey(), status.getResult().getResult());
+            } else {
+                this.logger.debug("The asynchronous renderer [{}] was not finished in time, leave it to the client",
+                    status.getRequest().getId());
+            }
+        }
+
+        return results;
+    }
+}
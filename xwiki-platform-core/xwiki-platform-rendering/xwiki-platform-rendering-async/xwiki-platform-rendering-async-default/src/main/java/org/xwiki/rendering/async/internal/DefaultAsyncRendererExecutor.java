@@ -95,6 +95,9 @@ public class DefaultAsyncRendererExecutor implements AsyncRendererExecutor
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
+    @Inject
+    private AsyncRendererJoinFilter joinFilter;
+
     @Inject
     private Logger logger;
 
@@ -182,7 +185,11 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
                         return new AsyncRendererExecutorResponse(status);
                     } else if (asyncAllowed) {
                         // Already running job, associate it with another client
-                        return new AsyncRendererExecutorResponse(status, newClientId());
+                        String asyncClientId = newClientId();
+
+                        fork(this.executor.getJob(jobId), asyncClientId, configuration);
+
+                        return new AsyncRendererExecutorResponse(status, asyncClientId);
                     }
                 }
             } finally {
@@ -218,6 +225,8 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
 
                 Job job = this.executor.execute(AsyncRendererJobStatus.JOBTYPE, request);
 
+                fork(job, asyncClientId, configuration);
+
                 AsyncRendererJobStatus status = (AsyncRendererJobStatus) job.getStatus();
 
                 response = new AsyncRendererExecutorResponse(status, asyncClientId);
@@ -276,6 +285,14 @@ public AsyncRendererExecutorResponse render(AsyncRenderer renderer, AsyncRendere
         return response;
     }
 
+    private void fork(Job job, String asyncClientId, AsyncRendererConfiguration configuration)
+    {
+        // A forced placeholder is explicitly expected to be resolved by the client
+        if (job != null && !configuration.isPlaceHolderForced()) {
+            this.joinFilter.fork(asyncClientId, job);
+        }
+    }
+
     private AsyncRendererResult syncRender(AsyncRenderer renderer, boolean cached,
         AsyncRendererConfiguration configuration) throws RenderingException
     {
@@ -291,7 +308,7 @@ private AsyncRendererResult syncRender(AsyncRenderer renderer, boolean cached,
         }
     }
 
-    private void injectUses(AsyncRendererJobStatus status)
+    void injectUses(AsyncRendererJobStatus status)
     {
         Map<String, Collection<Object>> uses = status.getUses();
 
@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.job.Job;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AsyncRendererJoinFilter}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AsyncRendererJoinFilterTest
+{
+    private static final String PLACEHOLDER1 =
+        "<div class=\"xwiki-async\" data-xwiki-async-id=\"a/b\" data-xwiki-async-client-id=\"1\"></div>";
+
+    private static final String PLACEHOLDER2 =
+        "<span class=\"xwiki-async\" data-xwiki-async-id=\"c\" data-xwiki-async-client-id=\"2\"></span>";
+
+    @InjectMockComponents
+    private AsyncRendererJoinFilter filter;
+
+    @MockComponent
+    private AsyncRendererExecutor executor;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    private ExecutionContext econtext;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getProperty("rendering.async.joinTimeout", 0L)).thenReturn(1000L);
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.econtext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(this.econtext);
+    }
+
+    private Job mockJob(String id, AsyncRendererJobStatus status)
+    {
+        Job job = mock(Job.class, id);
+        when(job.getStatus()).thenReturn(status);
+
+        return job;
+    }
+
+    @Test
+    void filterWithoutForkedRenderers()
+    {
+        String content = "content " + PLACEHOLDER1;
+
+        assertTrue(this.filter.isEnabled());
+        assertSame(content, this.filter.filter(content, null));
+    }
+
+    @Test
+    void filter() throws InterruptedException
+    {
+        AsyncRendererJobRequest request = new AsyncRendererJobRequest();
+        request.setId(List.of("id"));
+
+        Job finishedJob = mockJob("finished",
+            new AsyncRendererJobStatus(request, new AsyncRendererResult("<p>result</p>")));
+        Job runningJob = mockJob("running", new AsyncRendererJobStatus(request, null, null));
+
+        this.filter.fork("1", finishedJob);
+        this.filter.fork("2", runningJob);
+
+        assertEquals("before <p>result</p> middle " + PLACEHOLDER2 + " after",
+            this.filter.filter("before " + PLACEHOLDER1 + " middle " + PLACEHOLDER2 + " after", null));
+
+        verify(finishedJob).join(anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(runningJob).join(anyLong(), eq(TimeUnit.MILLISECONDS));
+
+        // The forked renderers are joined only once
+        String content = "content " + PLACEHOLDER1;
+        assertSame(content, this.filter.filter(content, null));
+    }
+}
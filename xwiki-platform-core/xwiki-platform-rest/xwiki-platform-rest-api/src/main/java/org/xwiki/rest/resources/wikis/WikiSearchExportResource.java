@@ -0,0 +1,68 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.resources.wikis;
+
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.rest.XWikiRestException;
+import org.xwiki.stability.Unstable;
+
+/**
+ * Export all the pages of a given wiki matching a search, as a stream of CSV or NDJSON rows.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Path("/wikis/{wikiName}/search/export")
+@Unstable
+public interface WikiSearchExportResource
+{
+    /**
+     * Stream all the pages matching the keywords that the current user is allowed to view. Contrary to
+     * {@link WikiSearchResource} the result is not paginated and is written to the response while the pages are
+     * retrieved, which makes it usable for very large results.
+     *
+     * @param wikiName the wiki to search the pages in
+     * @param keywords the keywords to search
+     * @param searchScopeStrings where to search the keywords ({@code content}, {@code name} or {@code title})
+     * @param orderField the field to order the pages with
+     * @param order {@code asc} or {@code desc}
+     * @param isLocaleAware if true, only search the title of the translations in the current locale
+     * @param format {@code csv} or {@code ndjson}
+     * @return the response streaming the matching pages
+     * @throws XWikiRestException if there was an error while preparing the export
+     */
+    @GET Response export(
+        @PathParam("wikiName") String wikiName,
+        @QueryParam("q") String keywords,
+        @QueryParam("scope") List<String> searchScopeStrings,
+        @QueryParam("orderField") @DefaultValue("") String orderField,
+        @QueryParam("order") @DefaultValue("asc") String order,
+        @QueryParam("localeAware") @DefaultValue("false") Boolean isLocaleAware,
+        @QueryParam("format") @DefaultValue("csv") String format
+    ) throws XWikiRestException;
+}
@@ -278,6 +278,11 @@ private void fillObjectSummary(ObjectSummary objectSummary, Document doc, BaseOb
         objectSummary.setClassName(xwikiObject.getClassName());
         objectSummary.setNumber(xwikiObject.getNumber());
 
+        fillObjectHeadline(objectSummary, xwikiObject);
+    }
+
+    private void fillObjectHeadline(ObjectSummary objectSummary, BaseObject xwikiObject)
+    {
         String[] propertyNames = xwikiObject.getPropertyNames();
         if (propertyNames.length > 0) {
             try {
@@ -325,6 +330,61 @@ public ObjectSummary toRestObjectSummary(URI baseUri, Document doc, BaseObject x
         return objectSummary;
     }
 
+    /**
+     * Create an object summary from the metadata of its document, without loading the document.
+     *
+     * @param baseUri the base URI of the REST API
+     * @param documentReference the reference of the document holding the object
+     * @param version the current version of the document
+     * @param author the last author of the document
+     * @param xwikiObject the object
+     * @param withPrettyNames true if the user names should be resolved
+     * @return the REST object summary
+     * @since 17.1.0RC1
+     */
+    public ObjectSummary toRestObjectSummary(URI baseUri, DocumentReference documentReference, String version,
+        String author, BaseObject xwikiObject, Boolean withPrettyNames)
+    {
+        ObjectSummary objectSummary = this.objectFactory.createObjectSummary();
+
+        String pageId = this.defaultEntityReferenceSerializer.serialize(documentReference);
+        String wiki = documentReference.getWikiReference().getName();
+        List<String> spaces = Utils.getSpaces(documentReference);
+
+        objectSummary.setId(String.format("%s:%s", pageId, xwikiObject.getGuid()));
+        objectSummary.setGuid(xwikiObject.getGuid());
+        objectSummary.setPageId(pageId);
+        objectSummary.setPageVersion(version);
+        objectSummary.setPageAuthor(author);
+        if (withPrettyNames) {
+            XWikiContext xwikiContext = this.xcontextProvider.get();
+            objectSummary.setPageAuthorName(xwikiContext.getWiki().getUserName(author, null, false, xwikiContext));
+        }
+        objectSummary.setWiki(wiki);
+        objectSummary.setSpace(Utils.getLocalSpaceId(spaces));
+        objectSummary.setPageName(documentReference.getName());
+        objectSummary.setClassName(xwikiObject.getClassName());
+        objectSummary.setNumber(xwikiObject.getNumber());
+
+        fillObjectHeadline(objectSummary, xwikiObject);
+
+        List<String> restSpacesValue = Utils.getSpacesURLElements(spaces);
+
+        Link objectLink = this.objectFactory.createLink();
+        objectLink.setHref(Utils.createURI(baseUri, ObjectResource.class, wiki, restSpacesValue,
+            documentReference.getName(), xwikiObject.getClassName(), xwikiObject.getNumber()).toString());
+        objectLink.setRel(Relations.OBJECT);
+        objectSummary.getLinks().add(objectLink);
+
+        Link propertyLink = this.objectFactory.createLink();
+        propertyLink.setHref(Utils.createURI(baseUri, ObjectPropertiesResource.class, wiki, restSpacesValue,
+            documentReference.getName(), xwikiObject.getClassName(), xwikiObject.getNumber()).toString());
+        propertyLink.setRel(Relations.PROPERTIES);
+        objectSummary.getLinks().add(propertyLink);
+
+        return objectSummary;
+    }
+
     public void toObject(com.xpn.xwiki.api.Object xwikiObject, org.xwiki.rest.model.jaxb.Object restObject)
     {
         for (Property restProperty : restObject.getProperties()) {
@@ -523,29 +583,42 @@ public Space toRestSpace(URI baseUri, String wikiName, List<String> spaces, Docu
     }
 
     public Translations toRestTranslations(URI baseUri, Document doc) throws XWikiException
+    {
+        return toRestTranslations(baseUri, doc.getDocumentReference(), getDefaultLocale(doc),
+            doc.getTranslationLocales());
+    }
+
+    /**
+     * @param baseUri the base URI of the REST API
+     * @param documentReference the reference of the document
+     * @param defaultLocale the default locale of the document
+     * @param locales the locales of the existing translations of the document
+     * @return the REST translations
+     * @since 17.1.0RC1
+     */
+    public Translations toRestTranslations(URI baseUri, DocumentReference documentReference, Locale defaultLocale,
+        List<Locale> locales)
     {
         Translations translations = this.objectFactory.createTranslations();
-        Locale defaultLocale = getDefaultLocale(doc);
         translations.setDefault(defaultLocale.toString());
 
-        List<Locale> locales = doc.getTranslationLocales();
-
-        List<String> restSpacesValue = Utils.getSpacesURLElements(doc.getDocumentReference());
+        String wiki = documentReference.getWikiReference().getName();
+        List<String> restSpacesValue = Utils.getSpacesURLElements(documentReference);
 
         // Add the default (original) page translation, if it makes sense.
         if (!locales.isEmpty() && !Locale.ROOT.equals(defaultLocale)) {
             Translation translation = this.objectFactory.createTranslation();
             translation.setLanguage(translations.getDefault());
 
-            String pageTranslationUri = Utils.createURI(baseUri, PageResource.class, doc.getWiki(), restSpacesValue,
-                doc.getDocumentReference().getName()).toString();
+            String pageTranslationUri = Utils.createURI(baseUri, PageResource.class, wiki, restSpacesValue,
+                documentReference.getName()).toString();
             Link pageTranslationLink = this.objectFactory.createLink();
             pageTranslationLink.setHref(pageTranslationUri);
             pageTranslationLink.setRel(Relations.PAGE);
             translation.getLinks().add(pageTranslationLink);
 
-            String historyUri = Utils.createURI(baseUri, PageHistoryResource.class, doc.getWiki(), restSpacesValue,
-                doc.getDocumentReference().getName()).toString();
+            String historyUri = Utils.createURI(baseUri, PageHistoryResource.class, wiki, restSpacesValue,
+                documentReference.getName()).toString();
             Link historyLink = this.objectFactory.createLink();
             historyLink.setHref(historyUri);
             historyLink.setRel(Relations.HISTORY);
@@ -558,15 +631,15 @@ public Translations toRestTranslations(URI baseUri, Document doc) throws XWikiEx
             Translation translation = this.objectFactory.createTranslation();
             translation.setLanguage(locale.toString());
 
-            String pageTranslationUri = Utils.createURI(baseUri, PageTranslationResource.class, doc.getWiki(),
-                restSpacesValue, doc.getDocumentReference().getName(), locale).toString();
+            String pageTranslationUri = Utils.createURI(baseUri, PageTranslationResource.class, wiki,
+                restSpacesValue, documentReference.getName(), locale).toString();
             Link pageTranslationLink = this.objectFactory.createLink();
             pageTranslationLink.setHref(pageTranslationUri);
             pageTranslationLink.setRel(Relations.PAGE);
             translation.getLinks().add(pageTranslationLink);
 
-            String historyUri = Utils.createURI(baseUri, PageTranslationHistoryResource.class, doc.getWiki(),
-                restSpacesValue, doc.getDocumentReference().getName(), locale).toString();
+            String historyUri = Utils.createURI(baseUri, PageTranslationHistoryResource.class, wiki,
+                restSpacesValue, documentReference.getName(), locale).toString();
             Link historyLink = this.objectFactory.createLink();
             historyLink.setHref(historyUri);
             historyLink.setRel(Relations.HISTORY);
@@ -0,0 +1,498 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.localization.LocaleUtils;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.Relations;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.ObjectFactory;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.resources.SyntaxesResource;
+import org.xwiki.rest.resources.attachments.AttachmentsResource;
+import org.xwiki.rest.resources.comments.CommentsResource;
+import org.xwiki.rest.resources.objects.ObjectsResource;
+import org.xwiki.rest.resources.pages.PageChildrenResource;
+import org.xwiki.rest.resources.pages.PageHistoryResource;
+import org.xwiki.rest.resources.pages.PageResource;
+import org.xwiki.rest.resources.pages.PageTagsResource;
+import org.xwiki.rest.resources.spaces.SpaceResource;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.api.Document;
+
+/**
+ * Build page summaries from a few projection queries over the document metadata instead of loading each listed
+ * document.
+ * <p>
+ * The documents whose display title cannot be known without rendering it (scripts, special characters, title extracted
+ * from the content, etc.) are still loaded and converted by {@link ModelFactory}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = PageSummaryProjection.class)
+@Singleton
+public class PageSummaryProjection
+{
+    /**
+     * The maximum number of documents passed to a single query.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Titles which are rendered as is, whatever the syntax.
+     */
+    private static final Pattern PLAIN_TITLE = Pattern.compile("[\\p{L}\\p{N}]+( [\\p{L}\\p{N}]+)*");
+
+    private static final String COMMENTS_CLASS = "XWiki.XWikiComments";
+
+    private static final String NAMES = "names";
+
+    private static final String VIEW = "view";
+
+    private static final String DEFAULT_LANGUAGE_WHERE = " and (doc.language is null or doc.language = '')";
+
+    private final ObjectFactory objectFactory = new ObjectFactory();
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("hidden")
+    private QueryFilter hiddenFilter;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private ModelFactory modelFactory;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> currentResolver;
+
+    @Inject
+    @Named("explicit")
+    private DocumentReferenceResolver<String> explicitResolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private EntityReferenceProvider defaultReferenceProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Metadata of a listed document.
+     */
+    private static final class DocumentRow
+    {
+        private final DocumentReference reference;
+
+        private String title;
+
+        private String parent;
+
+        private String syntax;
+
+        private String version;
+
+        private String author;
+
+        private Locale defaultLocale = Locale.ROOT;
+
+        private final List<Locale> locales = new ArrayList<>();
+
+        private DocumentReference parentReference;
+
+        private boolean parentExists;
+
+        private boolean hasObjects;
+
+        private boolean hasComments;
+
+        private boolean hasTags;
+
+        private boolean hasAttachments;
+
+        private boolean hasChildren;
+
+        DocumentRow(DocumentReference reference)
+        {
+            this.reference = reference;
+        }
+    }
+
+    /**
+     * @param baseUri the base URI of the REST API
+     * @param wiki the wiki containing the documents
+     * @param fullNames the local references of the documents to list
+     * @param withPrettyNames true if the user names should be resolved
+     * @return the summaries of the existing documents the current user is allowed to view, in the passed order
+     * @throws QueryException when failing to query the documents metadata
+     * @throws XWikiException when failing to load a document
+     */
+    public List<PageSummary> getPageSummaries(URI baseUri, String wiki, Collection<String> fullNames,
+        Boolean withPrettyNames) throws QueryException, XWikiException
+    {
+        WikiReference wikiReference = new WikiReference(wiki);
+
+        // Check the view right before querying anything so that the queries only cover visible documents
+        Map<String, DocumentRow> viewable = new LinkedHashMap<>();
+        for (String fullName : fullNames) {
+            DocumentReference reference = this.currentResolver.resolve(fullName, wikiReference);
+            if (!viewable.containsKey(fullName) && this.authorization.hasAccess(Right.VIEW, reference)) {
+                viewable.put(fullName, new DocumentRow(reference));
+            }
+        }
+
+        List<PageSummary> summaries = new ArrayList<>(viewable.size());
+
+        List<DocumentRow> batch = new ArrayList<>(BATCH_SIZE);
+        for (DocumentRow row : viewable.values()) {
+            batch.add(row);
+            if (batch.size() == BATCH_SIZE) {
+                addPageSummaries(baseUri, wiki, batch, withPrettyNames, summaries);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            addPageSummaries(baseUri, wiki, batch, withPrettyNames, summaries);
+        }
+
+        return summaries;
+    }
+
+    private void addPageSummaries(URI baseUri, String wiki, List<DocumentRow> batch, Boolean withPrettyNames,
+        List<PageSummary> summaries) throws QueryException, XWikiException
+    {
+        Map<String, DocumentRow> rows = new HashMap<>(batch.size());
+        for (DocumentRow row : batch) {
+            rows.put(toLocal(row.reference), row);
+        }
+        List<String> names = new ArrayList<>(rows.keySet());
+
+        Set<String> existing = loadMetadata(wiki, names, rows);
+        loadObjects(wiki, names, rows);
+        loadAttachments(wiki, names, rows);
+        loadChildren(wiki, batch, rows);
+        loadParents(wiki, batch);
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        for (DocumentRow row : batch) {
+            if (!existing.contains(toLocal(row.reference))) {
+                this.logger.warn("Page [{}] appears to be listed but no information is available.", row.reference);
+            } else {
+                String displayTitle = getDisplayTitle(row, xcontext);
+                if (displayTitle != null) {
+                    summaries.add(toRestPageSummary(baseUri, row, displayTitle, withPrettyNames, xcontext));
+                } else {
+                    Document document = xcontext.getWiki().getDocument(row.reference, xcontext).newDocument(xcontext);
+                    summaries.add(this.modelFactory.toRestPageSummary(baseUri, document, withPrettyNames));
+                }
+            }
+        }
+    }
+
+    private Set<String> loadMetadata(String wiki, List<String> names, Map<String, DocumentRow> rows)
+        throws QueryException
+    {
+        Set<String> existing = new HashSet<>();
+
+        List<Object[]> results = createQuery("select doc.fullName, doc.language, doc.defaultLanguage, doc.title,"
+            + " doc.parent, doc.syntaxId, doc.version, doc.author from XWikiDocument doc where doc.fullName in (:names)",
+            wiki, names).execute();
+        for (Object[] result : results) {
+            DocumentRow row = rows.get(result[0]);
+            String language = (String) result[1];
+            if (row == null) {
+                // The database might be case insensitive
+                continue;
+            } else if (StringUtils.isEmpty(language)) {
+                existing.add((String) result[0]);
+                row.defaultLocale = LocaleUtils.toLocale((String) result[2], Locale.ROOT);
+                row.title = (String) result[3];
+                row.parent = (String) result[4];
+                row.syntax = (String) result[5];
+                row.version = (String) result[6];
+                row.author = (String) result[7];
+            } else {
+                row.locales.add(LocaleUtils.toLocale(language));
+            }
+        }
+
+        return existing;
+    }
+
+    private void loadObjects(String wiki, List<String> names, Map<String, DocumentRow> rows) throws QueryException
+    {
+        List<Object[]> results = createQuery(
+            "select distinct obj.name, obj.className from BaseObject obj where obj.name in (:names)", wiki, names)
+                .execute();
+        for (Object[] result : results) {
+            DocumentRow row = rows.get(result[0]);
+            if (row != null) {
+                row.hasObjects = true;
+                row.hasComments |= COMMENTS_CLASS.equals(result[1]);
+            }
+        }
+
+        // Same condition as ModelFactory: a first tag object with a tags property
+        List<String> tagged = createQuery("select distinct obj.name from BaseObject obj, DBStringListProperty prop"
+            + " where obj.className = 'XWiki.TagClass' and obj.number = 0 and obj.id = prop.id.id"
+            + " and prop.id.name = 'tags' and obj.name in (:names)", wiki, names).execute();
+        for (String name : tagged) {
+            DocumentRow row = rows.get(name);
+            if (row != null) {
+                row.hasTags = true;
+            }
+        }
+    }
+
+    private void loadAttachments(String wiki, List<String> names, Map<String, DocumentRow> rows)
+        throws QueryException
+    {
+        List<String> results = createQuery("select distinct doc.fullName from XWikiDocument doc, XWikiAttachment"
+            + " attach where attach.docId = doc.id and doc.fullName in (:names)" + DEFAULT_LANGUAGE_WHERE, wiki, names)
+                .execute();
+        for (String name : results) {
+            DocumentRow row = rows.get(name);
+            if (row != null) {
+                row.hasAttachments = true;
+            }
+        }
+    }
+
+    private void loadChildren(String wiki, List<DocumentRow> batch, Map<String, DocumentRow> rows)
+        throws QueryException
+    {
+        // Same matching as XWikiDocument#getChildrenReferences: the parent field contains either the prefixed full
+        // name, the full name or the name (when the child is in the same space) of the document
+        Map<String, DocumentRow> byParent = new HashMap<>(rows);
+        Map<String, DocumentRow> bySpaceAndName = new HashMap<>();
+        for (DocumentRow row : batch) {
+            byParent.put(this.serializer.serialize(row.reference), row);
+            bySpaceAndName.put(
+                getSpaceAndName(this.localSerializer.serialize(row.reference.getLastSpaceReference()),
+                    row.reference.getName()),
+                row);
+            byParent.putIfAbsent(row.reference.getName(), null);
+        }
+
+        Query query = createQuery("select distinct doc.parent, doc.space from XWikiDocument doc"
+            + " where doc.parent in (:names)", wiki, new ArrayList<>(byParent.keySet()));
+        query.addFilter(this.hiddenFilter);
+        for (Object[] result : query.<Object[]>execute()) {
+            String parent = (String) result[0];
+            DocumentRow row = byParent.get(parent);
+            if (row == null) {
+                row = bySpaceAndName.get(getSpaceAndName((String) result[1], parent));
+            }
+            if (row != null) {
+                row.hasChildren = true;
+            }
+        }
+    }
+
+    private void loadParents(String wiki, List<DocumentRow> batch) throws QueryException, XWikiException
+    {
+        Map<String, List<DocumentRow>> localParents = new HashMap<>();
+        XWikiContext xcontext = this.xcontextProvider.get();
+        for (DocumentRow row : batch) {
+            if (StringUtils.isNotEmpty(row.parent)) {
+                row.parentReference = this.explicitResolver.resolve(row.parent, row.reference);
+                if (row.parentReference.getWikiReference().getName().equals(wiki)) {
+                    localParents.computeIfAbsent(toLocal(row.parentReference), k -> new ArrayList<>()).add(row);
+                } else {
+                    row.parentExists = xcontext.getWiki().exists(row.parentReference, xcontext);
+                }
+            }
+        }
+
+        if (!localParents.isEmpty()) {
+            List<String> results = createQuery("select doc.fullName from XWikiDocument doc"
+                + " where doc.fullName in (:names)" + DEFAULT_LANGUAGE_WHERE, wiki,
+                new ArrayList<>(localParents.keySet())).execute();
+            for (String name : results) {
+                localParents.getOrDefault(name, List.of()).forEach(row -> row.parentExists = true);
+            }
+        }
+    }
+
+    private Query createQuery(String statement, String wiki, List<String> names) throws QueryException
+    {
+        Query query = this.queryManager.createQuery(statement, Query.HQL);
+        query.setWiki(wiki);
+        query.bindValue(NAMES, names);
+
+        return query;
+    }
+
+    private String getDisplayTitle(DocumentRow row, XWikiContext xcontext)
+    {
+        if (StringUtils.isEmpty(row.syntax)) {
+            return null;
+        }
+
+        String title;
+        if (StringUtils.isEmpty(row.title)) {
+            // Same fallback as the title displayer
+            if ("1".equals(xcontext.getWiki().Param("xwiki.title.compatibility", "0"))) {
+                return null;
+            }
+            title = row.reference.getName();
+            if (this.defaultReferenceProvider.getDefaultReference(EntityType.DOCUMENT).getName().equals(title)) {
+                title = row.reference.getParent().getName();
+            }
+        } else {
+            title = row.title;
+        }
+
+        return PLAIN_TITLE.matcher(title).matches() ? title : null;
+    }
+
+    private PageSummary toRestPageSummary(URI baseUri, DocumentRow row, String displayTitle, Boolean withPrettyNames,
+        XWikiContext xcontext)
+    {
+        PageSummary pageSummary = this.objectFactory.createPageSummary();
+
+        DocumentReference reference = row.reference;
+        String wiki = reference.getWikiReference().getName();
+        List<String> spaces = Utils.getSpaces(reference);
+        List<String> restSpacesValue = Utils.getSpacesURLElements(spaces);
+        String name = reference.getName();
+
+        pageSummary.setWiki(wiki);
+        pageSummary.setFullName(toLocal(reference));
+        pageSummary.setId(this.serializer.serialize(reference));
+        pageSummary.setSpace(this.localSerializer.serialize(reference.getLastSpaceReference()));
+        pageSummary.setName(name);
+        pageSummary.setTitle(displayTitle);
+        pageSummary.setRawTitle(StringUtils.defaultString(row.title));
+        pageSummary.setXwikiRelativeUrl(xcontext.getWiki().getURL(reference, VIEW, xcontext));
+        pageSummary.setXwikiAbsoluteUrl(xcontext.getWiki().getExternalURL(reference, VIEW, null, null, xcontext));
+        pageSummary.setTranslations(
+            this.modelFactory.toRestTranslations(baseUri, reference, row.defaultLocale, row.locales));
+        pageSummary.setSyntax(row.syntax);
+        pageSummary.setVersion(row.version);
+        pageSummary.setAuthor(row.author);
+        if (withPrettyNames) {
+            pageSummary.setAuthorName(xcontext.getWiki().getUserName(row.author, null, false, xcontext));
+        }
+
+        pageSummary.setParent(StringUtils.defaultString(row.parent));
+        // parentId must not be set if the parent document does not exist.
+        pageSummary.setParentId(row.parentExists ? this.serializer.serialize(row.parentReference) : "");
+
+        addLink(pageSummary, Utils.createURI(baseUri, SpaceResource.class, wiki, restSpacesValue), Relations.SPACE);
+        if (row.parentExists) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageResource.class,
+                row.parentReference.getWikiReference().getName(), restSpacesValue, row.parentReference.getName()),
+                Relations.PARENT);
+        }
+        addLink(pageSummary, Utils.createURI(baseUri, PageHistoryResource.class, wiki, restSpacesValue, name),
+            Relations.HISTORY);
+        if (row.hasChildren) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageChildrenResource.class, wiki, restSpacesValue, name),
+                Relations.CHILDREN);
+        }
+        if (row.hasComments) {
+            addLink(pageSummary, Utils.createURI(baseUri, CommentsResource.class, wiki, restSpacesValue, name),
+                Relations.COMMENTS);
+        }
+        if (row.hasAttachments) {
+            addLink(pageSummary, Utils.createURI(baseUri, AttachmentsResource.class, wiki, restSpacesValue, name),
+                Relations.ATTACHMENTS);
+        }
+        if (row.hasObjects) {
+            addLink(pageSummary, Utils.createURI(baseUri, ObjectsResource.class, wiki, restSpacesValue, name),
+                Relations.OBJECTS);
+        }
+        if (row.hasTags) {
+            addLink(pageSummary, Utils.createURI(baseUri, PageTagsResource.class, wiki, restSpacesValue, name),
+                Relations.TAGS);
+        }
+        addLink(pageSummary, Utils.createURI(baseUri, SyntaxesResource.class), Relations.SYNTAXES);
+        addLink(pageSummary, Utils.createURI(baseUri, PageResource.class, wiki, restSpacesValue, name),
+            Relations.PAGE);
+
+        return pageSummary;
+    }
+
+    private void addLink(PageSummary pageSummary, URI uri, String relation)
+    {
+        Link link = this.objectFactory.createLink();
+        link.setHref(uri.toString());
+        link.setRel(relation);
+        pageSummary.getLinks().add(link);
+    }
+
+    private String toLocal(DocumentReference reference)
+    {
+        return this.localSerializer.serialize(reference);
+    }
+
+    private static String getSpaceAndName(String space, String name)
+    {
+        return space + '/' + name;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for the row writers, taking care of flushing the rows regularly.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+abstract class AbstractRowWriter implements RowWriter
+{
+    private static final int FLUSH_INTERVAL = 100;
+
+    protected final Writer writer;
+
+    protected final List<String> columns;
+
+    private int rows;
+
+    AbstractRowWriter(Writer writer, List<String> columns)
+    {
+        this.writer = writer;
+        this.columns = columns;
+    }
+
+    @Override
+    public void write(Map<String, ?> row) throws IOException
+    {
+        writeRow(row);
+
+        // Don't keep the rows in memory, and let the client start processing them
+        if (++this.rows % FLUSH_INTERVAL == 0) {
+            this.writer.flush();
+        }
+    }
+
+    protected abstract void writeRow(Map<String, ?> row) throws IOException;
+}
@@ -0,0 +1,94 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Write rows as comma separated values, following RFC 4180.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+class CSVRowWriter extends AbstractRowWriter
+{
+    private static final char SEPARATOR = ',';
+
+    private static final char QUOTE = '"';
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private boolean headerWritten;
+
+    CSVRowWriter(Writer writer, List<String> columns)
+    {
+        super(writer, columns);
+    }
+
+    @Override
+    protected void writeRow(Map<String, ?> row) throws IOException
+    {
+        if (!this.headerWritten) {
+            writeLine(this.columns);
+            this.headerWritten = true;
+        }
+
+        writeLine(this.columns.stream().map(row::get).toList());
+    }
+
+    private void writeLine(List<?> values) throws IOException
+    {
+        for (int i = 0; i < values.size(); ++i) {
+            if (i > 0) {
+                this.writer.write(SEPARATOR);
+            }
+            writeValue(values.get(i));
+        }
+        this.writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeValue(Object value) throws IOException
+    {
+        if (value == null) {
+            return;
+        }
+
+        String string;
+        if (value instanceof Collection<?> collection) {
+            string = StringUtils.join(collection, SEPARATOR);
+        } else {
+            string = value.toString();
+        }
+
+        if (StringUtils.containsAny(string, SEPARATOR, QUOTE, '\r', '\n')) {
+            this.writer.write(QUOTE);
+            this.writer.write(StringUtils.replace(string, "\"", "\"\""));
+            this.writer.write(QUOTE);
+        } else {
+            this.writer.write(string);
+        }
+    }
+}
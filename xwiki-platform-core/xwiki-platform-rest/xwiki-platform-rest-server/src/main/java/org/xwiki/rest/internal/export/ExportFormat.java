@@ -0,0 +1,108 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.Writer;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The formats supported by the streaming exports.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public enum ExportFormat
+{
+    /**
+     * Comma separated values, with a first line containing the columns names.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension)
+    {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return the media type of the exported content
+     */
+    public String getMediaType()
+    {
+        return this.mediaType;
+    }
+
+    /**
+     * @return the extension to use for the name of the exported file
+     */
+    public String getExtension()
+    {
+        return this.extension;
+    }
+
+    /**
+     * @param writer the writer to write the rows to
+     * @param columns the names of the columns of each row
+     * @return the row writer
+     */
+    RowWriter createRowWriter(Writer writer, List<String> columns)
+    {
+        if (this == CSV) {
+            return new CSVRowWriter(writer, columns);
+        } else {
+            return new NDJSONRowWriter(writer, columns);
+        }
+    }
+
+    /**
+     * @param format the name of the format (case insensitive)
+     * @return the corresponding format, {@link #CSV} if none is provided
+     * @throws WebApplicationException when the format is not supported
+     */
+    public static ExportFormat parse(String format)
+    {
+        if (StringUtils.isEmpty(format)) {
+            return CSV;
+        }
+
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.extension.equalsIgnoreCase(format)) {
+                return exportFormat;
+            }
+        }
+
+        throw new WebApplicationException(
+            Response.status(Response.Status.BAD_REQUEST).entity("Unsupported export format [" + format + "]").build());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write each row as a JSON object on its own line.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+class NDJSONRowWriter extends AbstractRowWriter
+{
+    NDJSONRowWriter(Writer writer, List<String> columns)
+    {
+        super(writer, columns);
+    }
+
+    @Override
+    protected void writeRow(Map<String, ?> row) throws IOException
+    {
+        this.writer.write('{');
+        boolean first = true;
+        for (String column : this.columns) {
+            if (row.containsKey(column)) {
+                if (!first) {
+                    this.writer.write(',');
+                }
+                writeString(column);
+                this.writer.write(':');
+                writeValue(row.get(column));
+                first = false;
+            }
+        }
+        this.writer.write("}\n");
+    }
+
+    private void writeValue(Object value) throws IOException
+    {
+        if (value == null) {
+            this.writer.write("null");
+        } else if (value instanceof Boolean || value instanceof Number) {
+            this.writer.write(value.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            this.writer.write('{');
+            for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<?, ?> entry = it.next();
+                writeString(String.valueOf(entry.getKey()));
+                this.writer.write(':');
+                writeValue(entry.getValue());
+                if (it.hasNext()) {
+                    this.writer.write(',');
+                }
+            }
+            this.writer.write('}');
+        } else if (value instanceof Iterable<?> iterable) {
+            this.writer.write('[');
+            for (Iterator<?> it = iterable.iterator(); it.hasNext();) {
+                writeValue(it.next());
+                if (it.hasNext()) {
+                    this.writer.write(',');
+                }
+            }
+            this.writer.write(']');
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    private void writeString(String value) throws IOException
+    {
+        this.writer.write('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    this.writer.write("\\\"");
+                    break;
+                case '\\':
+                    this.writer.write("\\\\");
+                    break;
+                case '\n':
+                    this.writer.write("\\n");
+                    break;
+                case '\r':
+                    this.writer.write("\\r");
+                    break;
+                case '\t':
+                    this.writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        this.writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        this.writer.write(c);
+                    }
+            }
+        }
+        this.writer.write('"');
+    }
+}
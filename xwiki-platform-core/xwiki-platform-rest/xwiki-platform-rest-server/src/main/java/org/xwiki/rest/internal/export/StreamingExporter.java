@@ -0,0 +1,228 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Stream the result of a potentially very large listing directly to the response, without keeping it in memory.
+ * <p>
+ * The number of exports running at the same time is limited so that they cannot monopolize the database and the
+ * request threads: when the limit is reached the export is refused with a {@code 503 Service Unavailable} status.
+ * The slot of an export is taken when the response is built and released once the response is written. Since JAX-RS
+ * does not always write the entity of a response (e.g. a {@code HEAD} request, a response replaced by an exception
+ * mapper, or a client which left before), the slot of a response which did not start to be written after
+ * {@code rest.export.startTimeout} seconds is reclaimed by the following exports.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = StreamingExporter.class)
+@Singleton
+public class StreamingExporter implements Initializable
+{
+    private static final String CONFIGURATION_PREFIX = "rest.export.";
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int DEFAULT_MAX_CONCURRENT = 2;
+
+    private static final int DEFAULT_START_TIMEOUT = 60;
+
+    private static final Pattern UNSAFE_FILENAME_CHARACTERS = Pattern.compile("[^\\w.-]");
+
+    private static final int PENDING = 0;
+
+    private static final int STARTED = 1;
+
+    private static final int RELEASED = 2;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Logger logger;
+
+    private Semaphore permits;
+
+    /**
+     * The slots of the responses which were not written yet (or not known to be written yet).
+     */
+    private final Queue<ExportSlot> pendingSlots = new ConcurrentLinkedQueue<>();
+
+    private long startTimeout;
+
+    private int batchSize;
+
+    /**
+     * The permit held by an export, released exactly once.
+     */
+    private final class ExportSlot
+    {
+        private final long deadline = System.nanoTime() + StreamingExporter.this.startTimeout;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * @return true if the export can start, false if its slot was reclaimed and no other one is available
+         */
+        boolean start()
+        {
+            if (this.state.compareAndSet(PENDING, STARTED)) {
+                return true;
+            }
+
+            // The slot was reclaimed because the response took too long to be written, try to take another one
+            if (permits.tryAcquire()) {
+                this.state.set(STARTED);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * @param now the current time, in nanoseconds
+         * @return true if the slot is not pending anymore (either because the export started or because the slot was
+         *         reclaimed)
+         */
+        boolean expire(long now)
+        {
+            if (now - this.deadline >= 0 && this.state.compareAndSet(PENDING, RELEASED)) {
+                permits.release();
+            }
+
+            return this.state.get() != PENDING;
+        }
+
+        void release()
+        {
+            if (this.state.getAndSet(RELEASED) != RELEASED) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public void initialize()
+    {
+        int maxConcurrent =
+            this.configuration.getProperty(CONFIGURATION_PREFIX + "maxConcurrent", DEFAULT_MAX_CONCURRENT);
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        this.startTimeout = TimeUnit.SECONDS.toNanos(
+            Math.max(0, this.configuration.getProperty(CONFIGURATION_PREFIX + "startTimeout", DEFAULT_START_TIMEOUT)));
+        this.batchSize =
+            Math.max(1, this.configuration.getProperty(CONFIGURATION_PREFIX + "batchSize", DEFAULT_BATCH_SIZE));
+    }
+
+    /**
+     * @return the number of rows the producers should retrieve at once
+     */
+    public int getBatchSize()
+    {
+        return this.batchSize;
+    }
+
+    /**
+     * @param format the format of the export
+     * @param name the name of the exported file, without extension
+     * @param columns the names of the columns to export
+     * @param producer produce the rows while the response is written
+     * @return the response streaming the rows, the export slot it holds being released once it's written (or when it
+     *         did not start to be written soon enough)
+     * @throws WebApplicationException with a {@code 503 Service Unavailable} status when too many exports are already
+     *             running
+     */
+    public Response export(ExportFormat format, String name, List<String> columns, RowProducer producer)
+    {
+        // Take the export slot before building the response: once the response is being written it's too late to
+        // change its status
+        reclaimSlots();
+        if (!this.permits.tryAcquire()) {
+            throw tooManyExports();
+        }
+
+        ExportSlot slot = new ExportSlot();
+        this.pendingSlots.add(slot);
+
+        StreamingOutput output = outputStream -> {
+            if (!slot.start()) {
+                throw tooManyExports();
+            }
+
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                producer.produce(format.createRowWriter(writer, columns));
+                writer.flush();
+            } catch (WebApplicationException e) {
+                throw e;
+            } catch (Exception e) {
+                // The response might already be partially sent so we can't do much more than stopping it
+                this.logger.error("Failed to export [{}]", name, e);
+
+                throw new WebApplicationException(e);
+            } finally {
+                slot.release();
+            }
+        };
+
+        return Response.ok(output, format.getMediaType() + ";charset=UTF-8")
+            .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s.%s\"",
+                UNSAFE_FILENAME_CHARACTERS.matcher(name).replaceAll("_"), format.getExtension()))
+            .build();
+    }
+
+    private void reclaimSlots()
+    {
+        long now = System.nanoTime();
+        this.pendingSlots.removeIf(slot -> slot.expire(now));
+    }
+
+    private WebApplicationException tooManyExports()
+    {
+        return new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .entity("Too many exports are already running").build());
+    }
+}
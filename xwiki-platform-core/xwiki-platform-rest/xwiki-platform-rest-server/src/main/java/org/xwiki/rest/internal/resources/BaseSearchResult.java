@@ -19,12 +19,15 @@
  */
 package org.xwiki.rest.internal.resources;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Formatter;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -35,6 +38,7 @@
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.localization.LocalizationContext;
 import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceProvider;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.query.Query;
@@ -44,6 +48,7 @@
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.internal.export.RowWriter;
 import org.xwiki.rest.internal.resources.search.SearchSource;
 import org.xwiki.rest.model.jaxb.Link;
 import org.xwiki.rest.model.jaxb.SearchResult;
@@ -79,6 +84,27 @@ public class BaseSearchResult extends XWikiResource
         OBJECTS
     }
 
+    /**
+     * The columns of the page export.
+     *
+     * @since 17.1.0RC1
+     */
+    protected static final List<String> PAGE_EXPORT_COLUMNS =
+        List.of(BaseSearchResult.EXPORT_ID, BaseSearchResult.EXPORT_WIKI, BaseSearchResult.EXPORT_SPACE,
+            BaseSearchResult.EXPORT_PAGE_NAME, BaseSearchResult.EXPORT_FULL_NAME, BaseSearchResult.EXPORT_LANGUAGE);
+
+    private static final String EXPORT_ID = "id";
+
+    private static final String EXPORT_WIKI = "wiki";
+
+    private static final String EXPORT_SPACE = "space";
+
+    private static final String EXPORT_PAGE_NAME = "pageName";
+
+    private static final String EXPORT_FULL_NAME = "fullName";
+
+    private static final String EXPORT_LANGUAGE = "language";
+
     @Inject
     private ContextualAuthorizationManager authorizationManager;
 
@@ -162,128 +188,220 @@ protected List<SearchResult> searchPages(List<SearchScope> searchScopes, String
                 return new ArrayList<>();
             }
 
-            Formatter f = new Formatter();
+            Query query = createPagesQuery(searchScopes, keywords, space, orderField, order, isLocaleAware);
 
-            /*
-             * If the order field is already one of the field hard coded in the base query, then do not add it to the
-             * select clause.
-             */
-            String addColumn = "";
-            if (!StringUtils.isBlank(orderField)) {
-                addColumn =
-                    (orderField.equals("") || orderField.equals("fullName") || orderField.equals("name") || orderField
-                        .equals("space")) ? "" : ", doc." + orderField;
+            /* If we don't find any scope related to pages then return empty results */
+            if (query == null) {
+                return new ArrayList<>();
             }
 
-            String addSpace = "";
-            if (searchScopes.contains(SearchScope.NAME)) {
-                // Join the space to get the last space name.
-                addSpace = "left join XWikiSpace as space on doc.space = space.reference";
-            }
+            query.setOffset(start);
+            // Worst case scenario when making the locale aware query:
+            // e.g.: Search matches a document translated in fr_CA and fr
+            query.setLimit(number * 2);
 
-            if (space != null) {
-                f.format("select distinct doc.fullName, doc.space, doc.name, doc.language");
-                f.format(addColumn);
-                f.format(" from XWikiDocument as doc %s where doc.space = :space and ( ", addSpace);
-            } else {
-                f.format("select distinct doc.fullName, doc.space, doc.name, doc.language");
-                f.format(addColumn);
-                f.format(" from XWikiDocument as doc %s where ( ", addSpace);
-            }
+            return getPagesSearchResults(query.execute(), wikiName, withPrettyNames, number, isLocaleAware);
+        } finally {
+            Utils.getXWikiContext(componentManager).setWikiId(database);
+        }
+    }
 
-            /* Look for scopes related to pages */
-            int acceptedScopes = 0;
-            for (int i = 0; i < searchScopes.size(); i++) {
-                SearchScope scope = searchScopes.get(i);
-
-                switch (scope) {
-                    case CONTENT:
-                        f.format("upper(doc.content) like :keywords ");
-                        acceptedScopes++;
-                        break;
-                    case NAME:
-                        String matchTerminalPage = "doc.name <> :defaultDocName and upper(doc.name) like :keywords";
-                        String matchNestedPage = "doc.name = :defaultDocName and upper(space.name) like :keywords";
-                        f.format("((%s) or (%s)) ", matchTerminalPage, matchNestedPage);
-                        acceptedScopes++;
-                        break;
-                    case TITLE:
-                        f.format("(upper(doc.title) like :keywords");
-                        if (isLocaleAware) {
-                            f.format(" and (");
-                            // In Oracle database, an empty language is stored as null.
-                            String emptyLanguageCondition = "(doc.language = '' or doc.language is null)";
-                            f.format("(doc.language = :locale or (%s and doc.defaultLanguage = :locale)) ",
-                                emptyLanguageCondition);
-                            f.format("or (doc.language = :language or (%s and doc.defaultLanguage = :language)) ",
-                                emptyLanguageCondition);
-                            f.format(("or (%s and not exists("
-                                    + " from XWikiDocument as doc2"
-                                    + " where doc2.fullName = doc.fullName"
-                                    + " and (doc2.language = :locale or doc2.language = :language)))"
-                                    + ")"), emptyLanguageCondition);
-                        }
-                        f.format(") ");
-                        acceptedScopes++;
-                        break;
-                }
+    /**
+     * Create the query used to search pages in the current wiki.
+     *
+     * @param keywords the string that will be used in a "like" XWQL clause.
+     * @param orderField the field to be used to order the results.
+     * @param order "asc" or "desc"
+     * @param isLocaleAware If true, fetches the documents with the best language (the one from the user
+     * or the default one from the document).
+     * @return the query returning the full name, space, name and language of the matching pages, or null if none of
+     *         the scopes is related to pages
+     * @since 17.1.0RC1
+     */
+    protected Query createPagesQuery(List<SearchScope> searchScopes, String keywords, String space,
+        String orderField, String order, Boolean isLocaleAware) throws QueryException
+    {
+        Formatter f = new Formatter();
+
+        /*
+         * If the order field is already one of the field hard coded in the base query, then do not add it to the
+         * select clause.
+         */
+        String addColumn = "";
+        if (!StringUtils.isBlank(orderField)) {
+            addColumn =
+                (orderField.equals("") || orderField.equals("fullName") || orderField.equals("name") || orderField
+                    .equals("space")) ? "" : ", doc." + orderField;
+        }
 
-                if (i != searchScopes.size() - 1) {
-                    f.format(" or ");
-                }
+        String addSpace = "";
+        if (searchScopes.contains(SearchScope.NAME)) {
+            // Join the space to get the last space name.
+            addSpace = "left join XWikiSpace as space on doc.space = space.reference";
+        }
+
+        if (space != null) {
+            f.format("select distinct doc.fullName, doc.space, doc.name, doc.language");
+            f.format(addColumn);
+            f.format(" from XWikiDocument as doc %s where doc.space = :space and ( ", addSpace);
+        } else {
+            f.format("select distinct doc.fullName, doc.space, doc.name, doc.language");
+            f.format(addColumn);
+            f.format(" from XWikiDocument as doc %s where ( ", addSpace);
+        }
+
+        /* Look for scopes related to pages */
+        int acceptedScopes = 0;
+        for (int i = 0; i < searchScopes.size(); i++) {
+            SearchScope scope = searchScopes.get(i);
+
+            switch (scope) {
+                case CONTENT:
+                    f.format("upper(doc.content) like :keywords ");
+                    acceptedScopes++;
+                    break;
+                case NAME:
+                    String matchTerminalPage = "doc.name <> :defaultDocName and upper(doc.name) like :keywords";
+                    String matchNestedPage = "doc.name = :defaultDocName and upper(space.name) like :keywords";
+                    f.format("((%s) or (%s)) ", matchTerminalPage, matchNestedPage);
+                    acceptedScopes++;
+                    break;
+                case TITLE:
+                    f.format("(upper(doc.title) like :keywords");
+                    if (isLocaleAware) {
+                        f.format(" and (");
+                        // In Oracle database, an empty language is stored as null.
+                        String emptyLanguageCondition = "(doc.language = '' or doc.language is null)";
+                        f.format("(doc.language = :locale or (%s and doc.defaultLanguage = :locale)) ",
+                            emptyLanguageCondition);
+                        f.format("or (doc.language = :language or (%s and doc.defaultLanguage = :language)) ",
+                            emptyLanguageCondition);
+                        f.format(("or (%s and not exists("
+                                + " from XWikiDocument as doc2"
+                                + " where doc2.fullName = doc.fullName"
+                                + " and (doc2.language = :locale or doc2.language = :language)))"
+                                + ")"), emptyLanguageCondition);
+                    }
+                    f.format(") ");
+                    acceptedScopes++;
+                    break;
             }
 
-            /* If we don't find any scope related to pages then return empty results */
-            if (acceptedScopes == 0) {
-                return new ArrayList<>();
+            if (i != searchScopes.size() - 1) {
+                f.format(" or ");
             }
+        }
 
-            /* Build the order clause. */
-            String orderClause;
-            if (StringUtils.isBlank(orderField)) {
-                orderClause = "doc.fullName asc";
+        if (acceptedScopes == 0) {
+            return null;
+        }
+
+        /* Build the order clause. */
+        String orderClause;
+        if (StringUtils.isBlank(orderField)) {
+            orderClause = "doc.fullName asc";
+        } else {
+            /* Check if the order parameter is a valid "asc" or "desc" string, otherwise use "asc" */
+            if ("asc".equals(order) || "desc".equals(order)) {
+                orderClause = String.format("doc.%s %s", orderField, order);
             } else {
-                /* Check if the order parameter is a valid "asc" or "desc" string, otherwise use "asc" */
-                if ("asc".equals(order) || "desc".equals(order)) {
-                    orderClause = String.format("doc.%s %s", orderField, order);
-                } else {
-                    orderClause = String.format("doc.%s asc", orderField);
-                }
+                orderClause = String.format("doc.%s asc", orderField);
             }
+        }
 
-            // Add ordering
-            f.format(") order by %s", orderClause);
-            String queryString = f.toString();
+        // Add ordering
+        f.format(") order by %s", orderClause);
+        String queryString = f.toString();
 
-            Query query = this.queryManager.createQuery(queryString, Query.HQL)
-                    .bindValue("keywords", String.format("%%%s%%", keywords.toUpperCase()))
-                    .addFilter(Utils.getHiddenQueryFilter(this.componentManager)).setOffset(start)
-                    // Worst case scenario when making the locale aware query:
-                    // e.g.: Search matches a document translated in fr_CA and fr
-                    .setLimit(number * 2);
+        Query query = this.queryManager.createQuery(queryString, Query.HQL)
+                .bindValue("keywords", String.format("%%%s%%", keywords.toUpperCase()))
+                .addFilter(Utils.getHiddenQueryFilter(this.componentManager));
 
-            if (space != null) {
-                query.bindValue("space", space);
-            }
+        if (space != null) {
+            query.bindValue("space", space);
+        }
+
+        if (searchScopes.contains(SearchScope.NAME)) {
+            query.bindValue("defaultDocName",
+                this.defaultEntityReferenceProvider.getDefaultReference(EntityType.DOCUMENT).getName());
+        }
+
+        // Search only pages translated in the user locale (e.g. fr_CA)
+        if (isLocaleAware && searchScopes.contains(SearchScope.TITLE)) {
+            Locale userLocale = localizationContext.getCurrentLocale();
+            query.bindValue("locale", userLocale.toString());
+            query.bindValue("language", userLocale.getLanguage());
+        }
+
+        return query;
+    }
+
+    /**
+     * Stream the pages matching the keywords to the given writer. The pages are retrieved, and their view right
+     * checked, by batches so that the memory used by the export doesn't depend on the number of results. Each
+     * translation of a page is exported as its own row.
+     *
+     * @param keywords the string that will be used in a "like" XWQL clause
+     * @param orderField the field to be used to order the results
+     * @param order "asc" or "desc"
+     * @param isLocaleAware if true, only search the title of the translations in the current locale
+     * @param batchSize the number of pages to retrieve at once
+     * @param writer the writer to pass each viewable page to
+     * @since 17.1.0RC1
+     */
+    protected void exportPages(List<SearchScope> searchScopes, String keywords, String wikiName, String space,
+        String orderField, String order, Boolean isLocaleAware, int batchSize, RowWriter writer)
+        throws QueryException, IOException
+    {
+        String database = Utils.getXWikiContext(componentManager).getWikiId();
 
-            if (searchScopes.contains(SearchScope.NAME)) {
-                query.bindValue("defaultDocName",
-                    this.defaultEntityReferenceProvider.getDefaultReference(EntityType.DOCUMENT).getName());
+        try {
+            if (wikiName != null) {
+                Utils.getXWikiContext(componentManager).setWikiId(wikiName);
             }
 
-            // Search only pages translated in the user locale (e.g. fr_CA)
-            if (isLocaleAware && searchScopes.contains(SearchScope.TITLE)) {
-                Locale userLocale = localizationContext.getCurrentLocale();
-                query.bindValue("locale", userLocale.toString());
-                query.bindValue("language", userLocale.getLanguage());
+            Query query = keywords != null
+                ? createPagesQuery(searchScopes, keywords, space, orderField, order, isLocaleAware) : null;
+            if (query == null) {
+                return;
             }
 
-            return getPagesSearchResults(query.execute(), wikiName, withPrettyNames, number, isLocaleAware);
+            query.setLimit(batchSize);
+            for (int offset = 0;; offset += batchSize) {
+                query.setOffset(offset);
+                List<Object[]> batch = query.execute();
+
+                for (Object[] fields : batch) {
+                    exportPage(wikiName, (String) fields[1], (String) fields[2], (String) fields[3], writer);
+                }
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
         } finally {
             Utils.getXWikiContext(componentManager).setWikiId(database);
         }
     }
 
+    private void exportPage(String wikiName, String spaceId, String pageName, String language, RowWriter writer)
+        throws IOException
+    {
+        List<String> spaces = Utils.getSpacesFromSpaceId(spaceId);
+
+        if (this.authorizationManager.hasAccess(Right.VIEW, new DocumentReference(wikiName, spaces, pageName))) {
+            Map<String, Object> row = new HashMap<>();
+            row.put(EXPORT_ID, Utils.getPageId(wikiName, spaces, pageName));
+            row.put(EXPORT_WIKI, wikiName);
+            row.put(EXPORT_SPACE, spaceId);
+            row.put(EXPORT_PAGE_NAME, pageName);
+            row.put(EXPORT_FULL_NAME, Utils.getPageFullName(wikiName, spaces, pageName));
+            row.put(EXPORT_LANGUAGE, StringUtils.defaultString(language));
+
+            writer.write(row);
+        }
+    }
+
     /**
      * Process the results of the query made by {@link #searchPages}
      *
@@ -19,16 +19,21 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.ObjectSummary;
 import org.xwiki.rest.model.jaxb.Objects;
@@ -36,8 +41,6 @@
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
-import com.xpn.xwiki.api.Document;
-import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
@@ -50,6 +53,13 @@ public class AllObjectsForClassNameResourceImpl extends XWikiResource implements
     @Inject
     private ContextualAuthorizationManager authorization;
 
+    @Inject
+    private ModelFactory modelFactory;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
     @Override
     public Objects getObjects(String wikiName, String className, Integer start, Integer number, String order,
             Boolean withPrettyNames) throws XWikiRestException
@@ -61,32 +71,30 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
 
             Utils.getXWikiContext(componentManager).setWikiId(wikiName);
 
-            String query = "select doc, obj from BaseObject as obj, XWikiDocument as doc "
-                + "where obj.name=doc.fullName and obj.className=:className";
+            // Only select the document metadata needed by the summaries, instead of the whole documents
+            String query = "select doc.fullName, doc.version, doc.author, obj from BaseObject as obj, "
+                + "XWikiDocument as doc where obj.name=doc.fullName and obj.className=:className";
             if ("date".equals(order)) {
                 query += " order by doc.date desc";
             }
 
-            List<Object> queryResult = null;
-            queryResult =
-                    queryManager.createQuery(query, Query.XWQL).bindValue("className", className).setLimit(number)
+            List<Object[]> queryResult =
+                    queryManager.createQuery(query, Query.HQL).bindValue("className", className).setLimit(number)
                             .setOffset(start).execute();
 
-            for (Object object : queryResult) {
-                Object[] fields = (Object[]) object;
-                XWikiDocument xwikiDocument = (XWikiDocument) fields[0];
-                xwikiDocument.setDatabase(wikiName);
-
-                if (authorization.hasAccess(Right.VIEW, xwikiDocument.getDocumentReference())) {
-
-                    Document doc = new Document(xwikiDocument, Utils.getXWikiContext(componentManager));
+            WikiReference wikiReference = new WikiReference(wikiName);
+            Map<String, Boolean> viewable = new HashMap<>();
+            for (Object[] fields : queryResult) {
+                String fullName = (String) fields[0];
+                DocumentReference documentReference = this.resolver.resolve(fullName, wikiReference);
 
-                    BaseObject xwikiObject = (BaseObject) fields[1];
+                // Documents usually hold several objects of the same class
+                if (viewable.computeIfAbsent(fullName,
+                    key -> this.authorization.hasAccess(Right.VIEW, documentReference))) {
+                    BaseObject xwikiObject = (BaseObject) fields[3];
 
-                    ObjectSummary objectSummary = DomainObjectFactory
-                        .createObjectSummary(objectFactory, uriInfo.getBaseUri(), Utils.getXWikiContext(
-                            componentManager), doc, xwikiObject, false, Utils.getXWikiApi(componentManager),
-                            withPrettyNames);
+                    ObjectSummary objectSummary = this.modelFactory.toRestObjectSummary(uriInfo.getBaseUri(),
+                        documentReference, (String) fields[1], (String) fields[2], xwikiObject, withPrettyNames);
 
                     objects.getObjectSummaries().add(objectSummary);
                 }
@@ -22,6 +22,7 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
@@ -29,14 +30,12 @@
 import org.xwiki.query.QueryException;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.PageSummaryProjection;
 import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.tags.PagesForTagsResource;
 
-import com.xpn.xwiki.api.Document;
-
 /**
  * @version $Id$
  */
@@ -44,6 +43,9 @@
 @Named("org.xwiki.rest.internal.resources.tags.PagesForTagsResourceImpl")
 public class PagesForTagsResourceImpl extends XWikiResource implements PagesForTagsResource
 {
+    @Inject
+    private PageSummaryProjection pageSummaryProjection;
+
     @Override
     public Pages getTags(String wikiName, String tagNames, Integer start, Integer number, Boolean withPrettyNames)
             throws XWikiRestException
@@ -71,14 +73,10 @@ public Pages getTags(String wikiName, String tagNames, Integer start, Integer nu
 
             RangeIterable<String> ri = new RangeIterable<String>(documentNames, start, number);
 
-            for (String documentName : ri) {
-                Document doc = Utils.getXWikiApi(componentManager).getDocument(documentName);
-                if (doc != null) {
-                    pages.getPageSummaries().add(DomainObjectFactory
-                            .createPageSummary(objectFactory, uriInfo.getBaseUri(), doc, Utils.getXWikiApi(
-                                    componentManager), withPrettyNames));
-                }
-            }
+            List<String> rangeDocumentNames = new ArrayList<>();
+            ri.forEach(rangeDocumentNames::add);
+            pages.getPageSummaries().addAll(this.pageSummaryProjection.getPageSummaries(uriInfo.getBaseUri(),
+                wikiName, rangeDocumentNames, withPrettyNames));
 
             return pages;
         } catch (Exception e) {
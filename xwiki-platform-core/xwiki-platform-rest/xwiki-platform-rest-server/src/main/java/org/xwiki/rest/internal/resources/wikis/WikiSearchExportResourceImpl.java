@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.wikis;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.core.Response;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.export.ExportFormat;
+import org.xwiki.rest.internal.export.StreamingExporter;
+import org.xwiki.rest.internal.resources.BaseSearchResult;
+import org.xwiki.rest.resources.wikis.WikiSearchExportResource;
+
+/**
+ * Default implementation of {@link WikiSearchExportResource}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named("org.xwiki.rest.internal.resources.wikis.WikiSearchExportResourceImpl")
+public class WikiSearchExportResourceImpl extends BaseSearchResult implements WikiSearchExportResource
+{
+    @Inject
+    private StreamingExporter exporter;
+
+    @Override
+    public Response export(String wikiName, String keywords, List<String> searchScopeStrings, String orderField,
+        String order, Boolean isLocaleAware, String format) throws XWikiRestException
+    {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        List<SearchScope> searchScopes = parseSearchScopeStrings(searchScopeStrings);
+
+        return this.exporter.export(exportFormat, wikiName, PAGE_EXPORT_COLUMNS,
+            writer -> exportPages(searchScopes, keywords, wikiName, null, orderField, order, isLocaleAware,
+                this.exporter.getBatchSize(), writer));
+    }
+}
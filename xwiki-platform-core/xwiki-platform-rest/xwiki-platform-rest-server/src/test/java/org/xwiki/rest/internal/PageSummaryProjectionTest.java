@@ -0,0 +1,226 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.Relations;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.model.jaxb.Translations;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link PageSummaryProjection}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class PageSummaryProjectionTest
+{
+    private static final String WIKI = "wiki";
+
+    private static final DocumentReference PAGE = new DocumentReference(WIKI, "Space", "Page");
+
+    private static final DocumentReference SCRIPTED = new DocumentReference(WIKI, "Space", "Scripted");
+
+    private static final DocumentReference DENIED = new DocumentReference(WIKI, "Space", "Denied");
+
+    private static final DocumentReference PARENT = new DocumentReference(WIKI, "Space", "Parent");
+
+    @InjectMockComponents
+    private PageSummaryProjection projection;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @MockComponent
+    private ModelFactory modelFactory;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentResolver;
+
+    @MockComponent
+    @Named("explicit")
+    private DocumentReferenceResolver<String> explicitResolver;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @MockComponent
+    private EntityReferenceProvider defaultReferenceProvider;
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    private URI baseURI;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.baseURI = new URI("https://localhost/");
+
+        this.xcontext = mock(XWikiContext.class);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xwiki.Param("xwiki.title.compatibility", "0")).thenReturn("0");
+        when(this.xwiki.getURL(any(DocumentReference.class), eq("view"), eq(this.xcontext))).thenReturn("/view");
+
+        when(this.defaultReferenceProvider.getDefaultReference(EntityType.DOCUMENT))
+            .thenReturn(new EntityReference("WebHome", EntityType.DOCUMENT));
+        when(this.modelFactory.toRestTranslations(eq(this.baseURI), any(), any(), any()))
+            .thenReturn(new Translations());
+
+        for (DocumentReference reference : List.of(PAGE, SCRIPTED, DENIED, PARENT)) {
+            String fullName = "Space." + reference.getName();
+            when(this.currentResolver.resolve(fullName, new WikiReference(WIKI))).thenReturn(reference);
+            when(this.localSerializer.serialize(reference)).thenReturn(fullName);
+            when(this.serializer.serialize(reference)).thenReturn(WIKI + ':' + fullName);
+        }
+        when(this.localSerializer.serialize(PAGE.getLastSpaceReference())).thenReturn("Space");
+        when(this.explicitResolver.resolve("Parent", PAGE)).thenReturn(PARENT);
+
+        when(this.authorization.hasAccess(eq(Right.VIEW), any(DocumentReference.class))).thenReturn(true);
+        when(this.authorization.hasAccess(Right.VIEW, DENIED)).thenReturn(false);
+
+        Query emptyQuery = mock(Query.class);
+        when(emptyQuery.execute()).thenReturn(List.of());
+        when(this.queryManager.createQuery(anyString(), eq(Query.HQL))).thenReturn(emptyQuery);
+    }
+
+    private void mockQuery(String statementPart, List<?> results) throws Exception
+    {
+        Query query = mock(Query.class);
+        when(query.execute()).thenReturn((List<Object>) results);
+        when(this.queryManager.createQuery(contains(statementPart), eq(Query.HQL))).thenReturn(query);
+    }
+
+    private List<String> getRelations(PageSummary summary)
+    {
+        return summary.getLinks().stream().map(Link::getRel).collect(Collectors.toList());
+    }
+
+    @Test
+    void getPageSummaries() throws Exception
+    {
+        mockQuery("doc.language, doc.defaultLanguage",
+            List.of(new Object[] { "Space.Page", "", "en", "My Page", "Parent", "xwiki/2.1", "2.1", "XWiki.Admin" },
+                new Object[] { "Space.Page", "fr", "", "Ma Page", "Parent", "xwiki/2.1", "1.1", "XWiki.Admin" }));
+        mockQuery("obj.className from BaseObject",
+            List.<Object[]>of(new Object[] { "Space.Page", "XWiki.XWikiComments" }));
+        mockQuery("XWikiAttachment", List.of("Space.Page"));
+        mockQuery("doc.parent, doc.space", List.<Object[]>of(new Object[] { "Page", "Space" }));
+        mockQuery("select doc.fullName from XWikiDocument doc where doc.fullName in", List.of("Space.Parent"));
+
+        List<PageSummary> summaries =
+            this.projection.getPageSummaries(this.baseURI, WIKI, List.of("Space.Page", "Space.Denied"), false);
+
+        assertEquals(1, summaries.size());
+        PageSummary summary = summaries.get(0);
+        assertEquals("wiki:Space.Page", summary.getId());
+        assertEquals("Space.Page", summary.getFullName());
+        assertEquals("Space", summary.getSpace());
+        assertEquals("Page", summary.getName());
+        assertEquals("My Page", summary.getTitle());
+        assertEquals("My Page", summary.getRawTitle());
+        assertEquals("xwiki/2.1", summary.getSyntax());
+        assertEquals("2.1", summary.getVersion());
+        assertEquals("XWiki.Admin", summary.getAuthor());
+        assertEquals("Parent", summary.getParent());
+        assertEquals("wiki:Space.Parent", summary.getParentId());
+        assertEquals("/view", summary.getXwikiRelativeUrl());
+        assertEquals(List.of(Relations.SPACE, Relations.PARENT, Relations.HISTORY, Relations.CHILDREN,
+            Relations.COMMENTS, Relations.ATTACHMENTS, Relations.OBJECTS, Relations.SYNTAXES, Relations.PAGE),
+            getRelations(summary));
+
+        verify(this.modelFactory).toRestTranslations(this.baseURI, PAGE, Locale.ENGLISH, List.of(Locale.FRENCH));
+        verify(this.xwiki, never()).getDocument(any(DocumentReference.class), any(XWikiContext.class));
+    }
+
+    @Test
+    void getPageSummariesWithScriptInTitle() throws Exception
+    {
+        mockQuery("doc.language, doc.defaultLanguage", List.<Object[]>of(
+            new Object[] { "Space.Scripted", "", "", "$services.foo", null, "xwiki/2.1", "1.1", "XWiki.Admin" }));
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        Document apiDocument = mock(Document.class);
+        when(this.xwiki.getDocument(SCRIPTED, this.xcontext)).thenReturn(document);
+        when(document.newDocument(this.xcontext)).thenReturn(apiDocument);
+        PageSummary loadedSummary = new PageSummary();
+        when(this.modelFactory.toRestPageSummary(this.baseURI, apiDocument, false)).thenReturn(loadedSummary);
+
+        List<PageSummary> summaries =
+            this.projection.getPageSummaries(this.baseURI, WIKI, List.of("Space.Scripted"), false);
+
+        assertEquals(1, summaries.size());
+        assertSame(loadedSummary, summaries.get(0));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link StreamingExporter}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class StreamingExporterTest
+{
+    private static final List<String> COLUMNS = List.of("name", "value", "tags");
+
+    @InjectMockComponents
+    private StreamingExporter exporter;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getProperty("rest.export.maxConcurrent", 2)).thenReturn(1);
+        when(this.configuration.getProperty("rest.export.batchSize", 1000)).thenReturn(10);
+        when(this.configuration.getProperty("rest.export.startTimeout", 60)).thenReturn(60);
+    }
+
+    private static Map<String, Object> row(Object name, Object value, Object tags)
+    {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("name", name);
+        row.put("value", value);
+        row.put("tags", tags);
+        row.put("ignored", "ignored");
+        return row;
+    }
+
+    private String write(Response response) throws Exception
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(stream);
+
+        return stream.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportCSV() throws Exception
+    {
+        Response response = this.exporter.export(ExportFormat.CSV, "export", COLUMNS, writer -> {
+            writer.write(row("simple", 42, List.of("a", "b")));
+            writer.write(row("with \"quote\", and comma", null, List.of()));
+            writer.write(row("multi\nline", true, null));
+        });
+
+        assertEquals("text/csv;charset=UTF-8", response.getMediaType().toString());
+        assertEquals("attachment; filename=\"export.csv\"", response.getHeaderString(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals("name,value,tags\r\n"
+            + "simple,42,\"a,b\"\r\n"
+            + "\"with \"\"quote\"\", and comma\",,\r\n"
+            + "\"multi\nline\",true,\r\n", write(response));
+    }
+
+    @Test
+    void exportNDJSON() throws Exception
+    {
+        Response response = this.exporter.export(ExportFormat.NDJSON, "export", COLUMNS, writer -> {
+            writer.write(row("simple", 42, List.of("a", "b")));
+            writer.write(row("with \"quote\"\n", null, Map.of("key", false)));
+            writer.write(Map.of("name", "partial"));
+        });
+
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getMediaType().toString());
+        assertEquals("{\"name\":\"simple\",\"value\":42,\"tags\":[\"a\",\"b\"]}\n"
+            + "{\"name\":\"with \\\"quote\\\"\\n\",\"value\":null,\"tags\":{\"key\":false}}\n"
+            + "{\"name\":\"partial\"}\n", write(response));
+    }
+
+    @Test
+    void exportWhenTooManyExports() throws Exception
+    {
+        Response response = this.exporter.export(ExportFormat.CSV, "export", COLUMNS, writer -> { });
+
+        // The export is refused before its response is built, so that the client actually gets the status
+        WebApplicationException exception = assertThrows(WebApplicationException.class,
+            () -> this.exporter.export(ExportFormat.CSV, "other", COLUMNS, otherWriter -> { }));
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), exception.getResponse().getStatus());
+
+        assertEquals("", write(response));
+
+        // The permit is released at the end of the export
+        assertEquals("name,value,tags\r\nname,,\r\n",
+            write(this.exporter.export(ExportFormat.CSV, "export", COLUMNS,
+                writer -> writer.write(row("name", null, null)))));
+    }
+
+    @Test
+    void exportWhenResponseNotWritten() throws Exception
+    {
+        when(this.configuration.getProperty("rest.export.startTimeout", 60)).thenReturn(0);
+        this.exporter.initialize();
+
+        // The response of the first export is never written (e.g. HEAD request) so its slot is reclaimed
+        Response notWritten = this.exporter.export(ExportFormat.CSV, "export", COLUMNS, writer -> { });
+        Response response = this.exporter.export(ExportFormat.CSV, "export", COLUMNS, writer -> { });
+
+        // Writing the first response too late fails since there's no slot left
+        WebApplicationException exception = assertThrows(WebApplicationException.class, () -> write(notWritten));
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), exception.getResponse().getStatus());
+
+        // Once the second export is done, the first one can take its slot
+        assertEquals("name,value,tags\r\n", write(response));
+        assertEquals("name,value,tags\r\n", write(notWritten));
+    }
+
+    @Test
+    void exportWithUnsafeName()
+    {
+        Response response =
+            this.exporter.export(ExportFormat.NDJSON, "wiki\"; name=\r\n/..", COLUMNS, writer -> { });
+
+        assertEquals("attachment; filename=\"wiki___name____...ndjson\"",
+            response.getHeaderString(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void parse()
+    {
+        assertEquals(ExportFormat.CSV, ExportFormat.parse(null));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.parse("NDJSON"));
+
+        WebApplicationException exception =
+            assertThrows(WebApplicationException.class, () -> ExportFormat.parse("xml"));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), exception.getResponse().getStatus());
+    }
+}
@@ -63,9 +63,11 @@
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.plugin.XWikiDefaultPlugin;
 import com.xpn.xwiki.plugin.XWikiPluginInterface;
+import com.xpn.xwiki.plugin.scheduler.internal.LeaseTriggerListener;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobClassDocumentInitializer;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializedEvent;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializingEvent;
+import com.xpn.xwiki.plugin.scheduler.internal.SchedulerLeaseManager;
 import com.xpn.xwiki.plugin.scheduler.internal.StatusListener;
 import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.XWikiResponse;
@@ -166,6 +168,14 @@ private void initAsync()
 
             setScheduler(getDefaultSchedulerInstance());
             setStatusListener();
+
+            // In a cluster, make sure each job is executed by only one member
+            SchedulerLeaseManager leaseManager = Utils.getComponent(SchedulerLeaseManager.class);
+            boolean leases = leaseManager.isEnabled() && initializeLeases(leaseManager);
+            if (leases) {
+                getScheduler().getListenerManager().addTriggerListener(new LeaseTriggerListener(leaseManager));
+            }
+
             getScheduler().start();
 
             // Restore jobs
@@ -179,6 +189,10 @@ private void initAsync()
             } finally {
                 xcontext.setWikiId(initialDb);
             }
+
+            if (leases) {
+                leaseManager.start(getScheduler());
+            }
         } catch (SchedulerException e) {
             LOGGER.error("Failed to start the scheduler", e);
         } catch (SchedulerPluginException e) {
@@ -188,6 +202,20 @@ private void initAsync()
         }
     }
 
+    private boolean initializeLeases(SchedulerLeaseManager leaseManager)
+    {
+        try {
+            leaseManager.initialize();
+
+            return true;
+        } catch (XWikiException e) {
+            LOGGER.error("Failed to initialize the scheduler leases, the jobs won't be spread between the cluster"
+                + " members", e);
+
+            return false;
+        }
+    }
+
     /**
      * Create and feed a stub context for the job execution thread. Stub context data are retrieved from job object
      * fields "contextUser", "contextLang", "contextDatabase". If one of this field is empty (this would typically
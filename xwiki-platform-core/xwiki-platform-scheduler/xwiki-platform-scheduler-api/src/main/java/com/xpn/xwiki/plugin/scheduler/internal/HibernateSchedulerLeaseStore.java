@@ -0,0 +1,158 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.hibernate.boot.Metadata;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.store.hibernate.HibernateStoreException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+/**
+ * Store the scheduler leases in the main wiki database.
+ * <p>
+ * The {@code scheduler.hbm.xml} mapping is added to the Hibernate configuration only when the leases are enabled, so
+ * that the leases table is not created otherwise.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Singleton
+public class HibernateSchedulerLeaseStore implements SchedulerLeaseStore
+{
+    private static final String PARAMETER_JOBID = "jobId";
+
+    private static final String PARAMETER_OWNER = "owner";
+
+    private static final String MAPPING = "/scheduler.hbm.xml";
+
+    @Inject
+    private HibernateStore hibernateStore;
+
+    @Inject
+    @Named("hibernate")
+    private Provider<XWikiStoreInterface> hibernateStoreProvider;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public void initialize() throws XWikiException
+    {
+        // Nothing to do if the mapping was already configured (e.g. listed in hibernate.cfg.xml)
+        Metadata metadata = this.hibernateStore.getConfigurationMetadata();
+        if (metadata != null && metadata.getEntityBinding(SchedulerLease.class.getName()) != null) {
+            return;
+        }
+
+        try (InputStream stream = getClass().getResourceAsStream(MAPPING)) {
+            this.hibernateStore.getConfiguration().addInputStream(stream);
+        } catch (IOException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_MAPPING_INJECTION_FAILED,
+                "Failed to read the scheduler leases mapping", e);
+        }
+
+        // Rebuild to take into account the new mapping
+        this.hibernateStore.build();
+
+        // Create the leases table
+        try {
+            this.hibernateStore.updateDatabase(this.xcontextProvider.get().getMainXWiki(), false);
+        } catch (HibernateStoreException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_MAPPING_INJECTION_FAILED,
+                "Failed to create the scheduler leases table", e);
+        }
+    }
+
+    @Override
+    public List<SchedulerLease> getLeases() throws XWikiException
+    {
+        return execute(false, session -> session
+            .createQuery("from " + SchedulerLease.class.getName(), SchedulerLease.class).list());
+    }
+
+    @Override
+    public boolean acquire(String jobId, String owner, Date expiration, Date now) throws XWikiException
+    {
+        return execute(true, session -> {
+            int updated = session
+                .createQuery("update " + SchedulerLease.class.getName()
+                    + " set owner = :owner, expiration = :expiration"
+                    + " where jobId = :jobId and (owner = :owner or expiration < :now)")
+                .setParameter(PARAMETER_JOBID, jobId).setParameter(PARAMETER_OWNER, owner)
+                .setParameter("expiration", expiration).setParameter("now", now).executeUpdate();
+
+            if (updated > 0) {
+                return true;
+            }
+
+            if (session.get(SchedulerLease.class, jobId) != null) {
+                // Owned by another member
+                return false;
+            }
+
+            // If another member inserted the same lease in the meantime the transaction will fail on commit
+            session.save(new SchedulerLease(jobId, owner, expiration));
+
+            return true;
+        });
+    }
+
+    @Override
+    public void release(String jobId, String owner) throws XWikiException
+    {
+        execute(true, session -> session
+            .createQuery("delete from " + SchedulerLease.class.getName() + " where jobId = :jobId and owner = :owner")
+            .setParameter(PARAMETER_JOBID, jobId).setParameter(PARAMETER_OWNER, owner).executeUpdate());
+    }
+
+    private <T> T execute(boolean write, HibernateCallback<T> callback) throws XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        XWikiHibernateBaseStore store = (XWikiHibernateBaseStore) this.hibernateStoreProvider.get();
+
+        // The leases are stored in the main wiki
+        String currentWiki = xcontext.getWikiId();
+        xcontext.setWikiId(xcontext.getMainXWiki());
+        try {
+            return write ? store.executeWrite(xcontext, callback) : store.executeRead(xcontext, callback);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+
+/**
+ * Veto the execution of the scheduled jobs for which the current cluster member does not own the lease.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class LeaseTriggerListener implements TriggerListener
+{
+    private final SchedulerLeaseManager leaseManager;
+
+    /**
+     * @param leaseManager the component in charge of the leases
+     */
+    public LeaseTriggerListener(SchedulerLeaseManager leaseManager)
+    {
+        this.leaseManager = leaseManager;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "LeaseTriggerListener";
+    }
+
+    @Override
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context)
+    {
+        // Only the main trigger of a job is shared by the cluster members, the other ones are created by explicit
+        // requests (like triggering the job right now) made to the current member
+        if (!trigger.getKey().getName().equals(trigger.getJobKey().getName())) {
+            return false;
+        }
+
+        return !this.leaseManager.isOwner(trigger.getJobKey().getName());
+    }
+
+    @Override
+    public void triggerFired(Trigger trigger, JobExecutionContext context)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void triggerMisfired(Trigger trigger)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void triggerComplete(Trigger trigger, JobExecutionContext context,
+        CompletedExecutionInstruction triggerInstructionCode)
+    {
+        // Nothing to do
+    }
+}
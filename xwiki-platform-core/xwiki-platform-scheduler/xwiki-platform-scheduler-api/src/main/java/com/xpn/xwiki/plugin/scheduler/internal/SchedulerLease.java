@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.Date;
+
+/**
+ * The right given to a cluster member to execute a scheduler job until a given date.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class SchedulerLease
+{
+    private String jobId;
+
+    private String owner;
+
+    private Date expiration;
+
+    /**
+     * Default constructor used by Hibernate.
+     */
+    public SchedulerLease()
+    {
+    }
+
+    /**
+     * @param jobId the unique identifier of the job
+     * @param owner the identifier of the cluster member owning the lease
+     * @param expiration the date after which the lease can be taken by another cluster member
+     */
+    public SchedulerLease(String jobId, String owner, Date expiration)
+    {
+        this.jobId = jobId;
+        this.owner = owner;
+        this.expiration = expiration;
+    }
+
+    /**
+     * @return the unique identifier of the job
+     */
+    public String getJobId()
+    {
+        return this.jobId;
+    }
+
+    /**
+     * @param jobId the unique identifier of the job
+     */
+    public void setJobId(String jobId)
+    {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return the identifier of the cluster member owning the lease
+     */
+    public String getOwner()
+    {
+        return this.owner;
+    }
+
+    /**
+     * @param owner the identifier of the cluster member owning the lease
+     */
+    public void setOwner(String owner)
+    {
+        this.owner = owner;
+    }
+
+    /**
+     * @return the date after which the lease can be taken by another cluster member
+     */
+    public Date getExpiration()
+    {
+        return this.expiration;
+    }
+
+    /**
+     * @param expiration the date after which the lease can be taken by another cluster member
+     */
+    public void setExpiration(Date expiration)
+    {
+        this.expiration = expiration;
+    }
+}
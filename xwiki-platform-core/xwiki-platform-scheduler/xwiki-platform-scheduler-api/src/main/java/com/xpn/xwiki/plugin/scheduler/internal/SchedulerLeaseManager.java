@@ -0,0 +1,322 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.concurrent.ExecutionContextRunnable;
+
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Spread the scheduler jobs between the members of a cluster using leases stored in the database, so that each job is
+ * executed by only one member.
+ * <p>
+ * Each member periodically renews its leases and tries to own its share of the jobs (the number of jobs divided by the
+ * number of alive members). The leases of a member which disappeared expire and are taken by the remaining members.
+ * The lease indicating that a member is alive is removed when it's stopped, or by the other members once it's been
+ * expired for more than a lease duration (e.g. when the member crashed).
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = SchedulerLeaseManager.class)
+@Singleton
+public class SchedulerLeaseManager implements Disposable
+{
+    /**
+     * The prefix of the leases used by each member to indicate it's alive.
+     */
+    static final String MEMBER_PREFIX = "member:";
+
+    private static final String CONFIGURATION_PREFIX = "scheduler.cluster.";
+
+    private static final long DEFAULT_LEASE_DURATION = 60;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private SchedulerLeaseStore store;
+
+    @Inject
+    @Named("context")
+    private ComponentManager componentManager;
+
+    @Inject
+    private Logger logger;
+
+    private final String memberId = UUID.randomUUID().toString();
+
+    /**
+     * The jobs owned by this member with the local date until which the lease can be trusted.
+     */
+    private final Map<String, Long> ownedJobs = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @return true if the scheduler jobs should be spread between the cluster members
+     */
+    public boolean isEnabled()
+    {
+        return this.configuration.getProperty(CONFIGURATION_PREFIX + "enabled", false);
+    }
+
+    /**
+     * @return the duration of a lease in milliseconds
+     */
+    public long getLeaseDuration()
+    {
+        return TimeUnit.SECONDS
+            .toMillis(this.configuration.getProperty(CONFIGURATION_PREFIX + "leaseDuration", DEFAULT_LEASE_DURATION));
+    }
+
+    /**
+     * @return the identifier of this cluster member
+     */
+    public String getMemberId()
+    {
+        return this.memberId;
+    }
+
+    /**
+     * Prepare the storage of the leases. Must be called before adding the {@link LeaseTriggerListener}.
+     *
+     * @throws XWikiException when failing to prepare the storage of the leases
+     */
+    public void initialize() throws XWikiException
+    {
+        this.store.initialize();
+    }
+
+    /**
+     * Start renewing and acquiring leases for the jobs of the passed scheduler.
+     *
+     * @param scheduler the scheduler containing the jobs to spread
+     */
+    public synchronized void start(Scheduler scheduler)
+    {
+        if (this.executor == null) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(
+                new BasicThreadFactory.Builder().namingPattern("XWiki Scheduler leases").daemon(true).build());
+
+            // Renew the leases 3 times per lease duration to not lose them because of a slow database
+            long period = getLeaseDuration() / 3;
+            this.executor.scheduleWithFixedDelay(new ExecutionContextRunnable(() -> update(scheduler),
+                this.componentManager), 0, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void update(Scheduler scheduler)
+    {
+        try {
+            Set<String> jobIds = new HashSet<>();
+            for (JobKey key : scheduler.getJobKeys(GroupMatcher.anyJobGroup())) {
+                jobIds.add(key.getName());
+            }
+
+            update(jobIds, System.currentTimeMillis());
+        } catch (SchedulerException e) {
+            this.logger.warn("Failed to get the scheduler jobs: {}", ExceptionUtils.getRootCauseMessage(e));
+        } catch (Exception e) {
+            this.logger.warn("Failed to update the scheduler leases: {}", ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * Renew the owned leases and acquire or release leases to own a fair share of the passed jobs.
+     *
+     * @param jobIds the identifiers of all the scheduled jobs
+     * @param now the current time in milliseconds
+     * @throws XWikiException when failing to access the leases
+     */
+    void update(Collection<String> jobIds, long now) throws XWikiException
+    {
+        long leaseDuration = getLeaseDuration();
+        Date nowDate = new Date(now);
+        Date expiration = new Date(now + leaseDuration);
+        // Stop trusting the lease a bit before its expiration to cover slow renewals and clock differences
+        long localExpiration = now + leaseDuration * 2 / 3;
+
+        // Indicate that this member is alive
+        this.store.acquire(MEMBER_PREFIX + this.memberId, this.memberId, expiration, nowDate);
+
+        Set<String> members = new HashSet<>();
+        members.add(this.memberId);
+        Map<String, SchedulerLease> leases = new HashMap<>();
+        for (SchedulerLease lease : this.store.getLeases()) {
+            if (lease.getExpiration().after(nowDate)) {
+                members.add(lease.getOwner());
+            } else if (lease.getJobId().startsWith(MEMBER_PREFIX)
+                && lease.getExpiration().getTime() < now - leaseDuration) {
+                // The member stopped without removing its lease (crash, etc.): don't keep loading it forever
+                removeMember(lease);
+
+                continue;
+            }
+            leases.put(lease.getJobId(), lease);
+        }
+
+        // Release the jobs which don't exist anymore
+        for (String jobId : new ArrayList<>(this.ownedJobs.keySet())) {
+            if (!jobIds.contains(jobId)) {
+                release(jobId);
+            }
+        }
+
+        int share = (jobIds.size() + members.size() - 1) / members.size();
+
+        // Renew the owned jobs and release the ones in excess (so that new members get their share)
+        List<String> freeJobs = new ArrayList<>();
+        int owned = 0;
+        for (String jobId : new TreeSet<>(jobIds)) {
+            SchedulerLease lease = leases.get(jobId);
+            if (lease != null && this.memberId.equals(lease.getOwner())) {
+                if (owned < share && acquire(jobId, expiration, nowDate, localExpiration)) {
+                    ++owned;
+                } else {
+                    release(jobId);
+                }
+            } else {
+                this.ownedJobs.remove(jobId);
+                if (lease == null || !lease.getExpiration().after(nowDate)) {
+                    freeJobs.add(jobId);
+                }
+            }
+        }
+
+        // Take free jobs until this member owns its share
+        for (String jobId : freeJobs) {
+            if (owned >= share) {
+                break;
+            }
+            if (acquire(jobId, expiration, nowDate, localExpiration)) {
+                ++owned;
+            }
+        }
+    }
+
+    private void removeMember(SchedulerLease lease)
+    {
+        try {
+            this.store.release(lease.getJobId(), lease.getOwner());
+        } catch (XWikiException e) {
+            this.logger.debug("Failed to remove the expired lease of member [{}]: {}", lease.getOwner(),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private boolean acquire(String jobId, Date expiration, Date now, long localExpiration)
+    {
+        try {
+            if (this.store.acquire(jobId, this.memberId, expiration, now)) {
+                this.ownedJobs.put(jobId, localExpiration);
+
+                return true;
+            }
+        } catch (XWikiException e) {
+            // Most probably another member acquired it at the same time
+            this.logger.debug("Failed to acquire the lease of job [{}]: {}", jobId,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        this.ownedJobs.remove(jobId);
+
+        return false;
+    }
+
+    private void release(String jobId)
+    {
+        this.ownedJobs.remove(jobId);
+
+        try {
+            this.store.release(jobId, this.memberId);
+        } catch (XWikiException e) {
+            this.logger.warn("Failed to release the lease of job [{}]: {}", jobId,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * @param jobId the identifier of the job
+     * @return true if this member currently owns a valid lease for the passed job
+     */
+    public boolean isOwner(String jobId)
+    {
+        return isOwner(jobId, System.currentTimeMillis());
+    }
+
+    /**
+     * @param jobId the identifier of the job
+     * @param now the current time in milliseconds
+     * @return true if this member currently owns a valid lease for the passed job
+     */
+    boolean isOwner(String jobId, long now)
+    {
+        Long localExpiration = this.ownedJobs.get(jobId);
+
+        return localExpiration != null && localExpiration > now;
+    }
+
+    @Override
+    public synchronized void dispose()
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+
+            // Give the jobs to the other members right away
+            for (String jobId : new ArrayList<>(this.ownedJobs.keySet())) {
+                release(jobId);
+            }
+            release(MEMBER_PREFIX + this.memberId);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.Date;
+import java.util.List;
+
+import org.xwiki.component.annotation.Role;
+
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Store the scheduler leases in a place shared by all the members of the cluster.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Role
+public interface SchedulerLeaseStore
+{
+    /**
+     * Prepare the store. Called once, when the leases are enabled, before using the store.
+     *
+     * @throws XWikiException when failing to prepare the store
+     */
+    default void initialize() throws XWikiException
+    {
+        // Nothing to prepare by default
+    }
+
+    /**
+     * @return all the stored leases, expired or not
+     * @throws XWikiException when failing to load the leases
+     */
+    List<SchedulerLease> getLeases() throws XWikiException;
+
+    /**
+     * Atomically take or renew a lease. The lease is given only if it does not exist, if it's already owned by the
+     * passed owner or if it's expired.
+     *
+     * @param jobId the unique identifier of the job
+     * @param owner the identifier of the cluster member asking for the lease
+     * @param expiration the new expiration date of the lease
+     * @param now the current date
+     * @return true if the lease was given to the passed owner
+     * @throws XWikiException when failing to store the lease
+     */
+    boolean acquire(String jobId, String owner, Date expiration, Date now) throws XWikiException;
+
+    /**
+     * Remove a lease if it's owned by the passed owner.
+     *
+     * @param jobId the unique identifier of the job
+     * @param owner the identifier of the cluster member owning the lease
+     * @throws XWikiException when failing to remove the lease
+     */
+    void release(String jobId, String owner) throws XWikiException;
+}
@@ -0,0 +1,99 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.io.InputStream;
+
+import javax.inject.Provider;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.mapping.PersistentClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link HibernateSchedulerLeaseStore}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HibernateSchedulerLeaseStoreTest
+{
+    @InjectMockComponents
+    private HibernateSchedulerLeaseStore store;
+
+    @MockComponent
+    private HibernateStore hibernateStore;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private Configuration configuration;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.configuration = mock(Configuration.class);
+        when(this.hibernateStore.getConfiguration()).thenReturn(this.configuration);
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(xcontext.getMainXWiki()).thenReturn("xwiki");
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+    }
+
+    @Test
+    void initialize() throws Exception
+    {
+        this.store.initialize();
+
+        verify(this.configuration).addInputStream(any(InputStream.class));
+        verify(this.hibernateStore).build();
+        verify(this.hibernateStore).updateDatabase("xwiki", false);
+    }
+
+    @Test
+    void initializeWhenAlreadyMapped() throws Exception
+    {
+        Metadata metadata = mock(Metadata.class);
+        when(metadata.getEntityBinding(SchedulerLease.class.getName())).thenReturn(mock(PersistentClass.class));
+        when(this.hibernateStore.getConfigurationMetadata()).thenReturn(metadata);
+
+        this.store.initialize();
+
+        verify(this.configuration, never()).addInputStream(any(InputStream.class));
+        verify(this.hibernateStore, never()).build();
+        verify(this.hibernateStore, never()).updateDatabase(anyString(), anyBoolean());
+    }
+}
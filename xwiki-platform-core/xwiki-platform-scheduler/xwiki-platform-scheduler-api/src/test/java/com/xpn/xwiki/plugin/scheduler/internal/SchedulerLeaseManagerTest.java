@@ -0,0 +1,196 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.xwiki.component.util.ReflectionUtils;
+import org.xwiki.configuration.ConfigurationSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SchedulerLeaseManager} with several cluster members sharing the same store.
+ *
+ * @version $Id$
+ */
+class SchedulerLeaseManagerTest
+{
+    private static final long LEASE_DURATION = 60000;
+
+    private static final Set<String> JOBS = Set.of("wiki:Space.Job1_0", "wiki:Space.Job2_0", "wiki:Space.Job3_0",
+        "wiki:Space.Job4_0", "wiki:Space.Job5_0", "wiki:Space.Job6_0");
+
+    private final MemorySchedulerLeaseStore store = new MemorySchedulerLeaseStore();
+
+    private final List<SchedulerLeaseManager> members = new ArrayList<>();
+
+    private static class MemorySchedulerLeaseStore implements SchedulerLeaseStore
+    {
+        private final Map<String, SchedulerLease> leases = new ConcurrentHashMap<>();
+
+        @Override
+        public List<SchedulerLease> getLeases()
+        {
+            return new ArrayList<>(this.leases.values());
+        }
+
+        @Override
+        public synchronized boolean acquire(String jobId, String owner, Date expiration, Date now)
+        {
+            SchedulerLease lease = this.leases.get(jobId);
+            if (lease == null || lease.getOwner().equals(owner) || lease.getExpiration().before(now)) {
+                this.leases.put(jobId, new SchedulerLease(jobId, owner, expiration));
+
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public synchronized void release(String jobId, String owner)
+        {
+            this.leases.computeIfPresent(jobId, (key, lease) -> lease.getOwner().equals(owner) ? null : lease);
+        }
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        ConfigurationSource configuration = mock(ConfigurationSource.class);
+        when(configuration.getProperty("scheduler.cluster.leaseDuration", 60L)).thenReturn(60L);
+
+        for (int i = 0; i < 3; ++i) {
+            SchedulerLeaseManager member = new SchedulerLeaseManager();
+            ReflectionUtils.setFieldValue(member, "configuration", configuration);
+            ReflectionUtils.setFieldValue(member, "store", this.store);
+            ReflectionUtils.setFieldValue(member, "logger", mock(Logger.class));
+            this.members.add(member);
+        }
+    }
+
+    private void update(List<SchedulerLeaseManager> updatedMembers, long now) throws Exception
+    {
+        for (SchedulerLeaseManager member : updatedMembers) {
+            member.update(JOBS, now);
+        }
+    }
+
+    private void assertSpread(List<SchedulerLeaseManager> expectedMembers, long now)
+    {
+        Set<String> executedJobs = new HashSet<>();
+        for (String job : JOBS) {
+            int owners = 0;
+            for (SchedulerLeaseManager member : this.members) {
+                if (member.isOwner(job, now)) {
+                    ++owners;
+                    executedJobs.add(job);
+                }
+            }
+            assertTrue(owners <= 1, "Job [" + job + "] is owned by several members");
+        }
+        assertEquals(JOBS, executedJobs);
+
+        for (SchedulerLeaseManager member : expectedMembers) {
+            long owned = JOBS.stream().filter(job -> member.isOwner(job, now)).count();
+            assertEquals(JOBS.size() / expectedMembers.size(), owned);
+        }
+    }
+
+    @Test
+    void spreadJobs() throws Exception
+    {
+        update(this.members, 0);
+        update(this.members, 1000);
+
+        assertSpread(this.members, 1000);
+    }
+
+    @Test
+    void takeOverJobsOfDisappearedMember() throws Exception
+    {
+        update(this.members, 0);
+        update(this.members, 1000);
+
+        // The third member stops renewing its leases
+        List<SchedulerLeaseManager> alive = this.members.subList(0, 2);
+        update(alive, 20000);
+        update(alive, 40000);
+
+        // Its leases are not expired yet
+        assertFalse(JOBS.stream().allMatch(job -> alive.stream().anyMatch(member -> member.isOwner(job, 40000))));
+
+        update(alive, 62000);
+        update(alive, 63000);
+
+        assertSpread(alive, 63000);
+    }
+
+    @Test
+    void removeLeaseOfDisappearedMember() throws Exception
+    {
+        update(this.members, 0);
+        update(this.members, 1000);
+
+        // The third member crashes without removing its lease
+        String memberLease = SchedulerLeaseManager.MEMBER_PREFIX + this.members.get(2).getMemberId();
+        List<SchedulerLeaseManager> alive = this.members.subList(0, 2);
+
+        // The lease is kept while it's not expired for more than a lease duration
+        for (long now = 20000; now <= 120000; now += 20000) {
+            update(alive, now);
+        }
+        assertTrue(this.store.leases.containsKey(memberLease));
+
+        update(alive, 122000);
+        assertFalse(this.store.leases.containsKey(memberLease));
+
+        // The leases of the alive members are kept
+        for (SchedulerLeaseManager member : alive) {
+            assertTrue(this.store.leases.containsKey(SchedulerLeaseManager.MEMBER_PREFIX + member.getMemberId()));
+        }
+        assertSpread(alive, 122000);
+    }
+
+    @Test
+    void isOwnerAfterLocalExpiration() throws Exception
+    {
+        SchedulerLeaseManager member = this.members.get(0);
+        member.update(JOBS, 0);
+
+        assertTrue(JOBS.stream().allMatch(job -> member.isOwner(job, 1000)));
+        // The lease is not trusted anymore when it was not renewed for too long
+        assertFalse(JOBS.stream().anyMatch(job -> member.isOwner(job, LEASE_DURATION)));
+    }
+}
@@ -145,6 +145,21 @@ public class DefaultSolrConfiguration implements SolrConfiguration
     public static final SynchronizeAtStartupMode SOLR_SYNCHRONIZE_AT_STARTUP_MODE_DEFAULT =
         SynchronizeAtStartupMode.FARM;
 
+    /**
+     * The name of the configuration property indicating the number of hours between two full synchronizations of a
+     * wiki.
+     *
+     * @since 17.1.0RC1
+     */
+    public static final String SOLR_SYNCHRONIZE_FULL_INTERVAL = "solr.synchronizeFullInterval";
+
+    /**
+     * The default number of hours between two full synchronizations of a wiki.
+     *
+     * @since 17.1.0RC1
+     */
+    public static final int SOLR_SYNCHRONIZE_FULL_INTERVAL_DEFAULT = 168;
+
     /**
      * The Solr configuration source.
      */
@@ -238,4 +253,10 @@ public SynchronizeAtStartupMode synchronizeAtStartupMode()
         }
         return result;
     }
+
+    @Override
+    public int getSynchronizationFullInterval()
+    {
+        return this.configuration.getProperty(SOLR_SYNCHRONIZE_FULL_INTERVAL, SOLR_SYNCHRONIZE_FULL_INTERVAL_DEFAULT);
+    }
 }
@@ -48,6 +48,7 @@
 import org.xwiki.index.IndexException;
 import org.xwiki.job.JobException;
 import org.xwiki.job.JobExecutor;
+import org.xwiki.job.api.WorkerThreadManager;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.search.solr.internal.api.IndexingUserConfig;
@@ -349,6 +350,9 @@ private ResolveQueueEntry getQueueEntry()
     @Inject
     private Provider<XWikiContext> xWikiContextProvider;
 
+    @Inject
+    private WorkerThreadManager workerThreadManager;
+
     /**
      * The queue of index operation to perform.
      */
@@ -399,16 +403,12 @@ public void initialize() throws InitializationException
         this.indexQueue = new LinkedBlockingQueue<>(this.configuration.getIndexerQueueCapacity());
 
         // Launch the resolve thread
-        this.resolveThread = new Thread(new Resolver());
-        this.resolveThread.setName("XWiki Solr resolve thread");
-        this.resolveThread.setDaemon(true);
+        this.resolveThread = this.workerThreadManager.newThread("XWiki Solr resolve thread", new Resolver());
         this.resolveThread.start();
         this.resolveThread.setPriority(Thread.NORM_PRIORITY - 1);
 
         // Launch the index thread
-        this.indexThread = new Thread(this);
-        this.indexThread.setName("XWiki Solr index thread");
-        this.indexThread.setDaemon(true);
+        this.indexThread = this.workerThreadManager.newThread("XWiki Solr index thread", this);
         this.indexThread.start();
         this.indexThread.setPriority(Thread.NORM_PRIORITY - 1);
     }
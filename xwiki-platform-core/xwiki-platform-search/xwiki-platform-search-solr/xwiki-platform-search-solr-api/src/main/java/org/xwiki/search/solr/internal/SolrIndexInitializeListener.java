@@ -130,6 +130,8 @@ public void onEvent(Event event, Object source, Object data)
                 }
 
                 if (request != null) {
+                    // Only look at the documents modified since the previous synchronization, unless disabled
+                    request.setIncremental(this.configuration.getSynchronizationFullInterval() > 0);
                     this.solrIndexer.get().startIndex(request);
                 }
             } catch (SolrIndexerException | WikiManagerException e) {
@@ -121,4 +121,15 @@
      * @since 12.5RC1
      */
     SynchronizeAtStartupMode synchronizeAtStartupMode();
+
+    /**
+     * @return the number of hours after which the synchronization of a wiki should check all its documents again
+     *         instead of only the documents modified since the previous synchronization, {@code 0} to always check all
+     *         the documents
+     * @since 17.1.0RC1
+     */
+    default int getSynchronizationFullInterval()
+    {
+        return 0;
+    }
 }
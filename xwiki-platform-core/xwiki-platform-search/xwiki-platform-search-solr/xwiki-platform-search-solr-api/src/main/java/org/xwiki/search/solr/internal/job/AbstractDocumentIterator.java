@@ -19,6 +19,8 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.util.Date;
+
 import org.xwiki.model.reference.EntityReference;
 
 /**
@@ -40,6 +42,14 @@
      */
     protected EntityReference rootReference;
 
+    /**
+     * Specifies the minimum modification date of the iterated documents. If {@code null} then the documents are
+     * iterated whatever their modification date.
+     *
+     * @since 17.1.0RC1
+     */
+    protected Date modifiedSince;
+
     @Override
     public void remove()
     {
@@ -51,4 +61,10 @@ public void setRootReference(EntityReference rootReference)
     {
         this.rootReference = rootReference;
     }
+
+    @Override
+    public void setModifiedSince(Date modifiedSince)
+    {
+        this.modifiedSince = modifiedSince;
+    }
 }
@@ -223,13 +223,17 @@ private Query getQuery() throws QueryException
                 documentReference = rootReference.extractReference(EntityType.DOCUMENT);
             }
 
-            String whereClause = "";
+            List<String> constraints = new ArrayList<>();
             if (spaceReference != null) {
-                whereClause += " where doc.space = :space";
+                constraints.add("doc.space = :space");
                 if (documentReference != null) {
-                    whereClause += " and doc.name = :name";
+                    constraints.add("doc.name = :name");
                 }
             }
+            if (this.modifiedSince != null) {
+                constraints.add("doc.date >= :modifiedSince");
+            }
+            String whereClause = constraints.isEmpty() ? "" : " where " + StringUtils.join(constraints, " and ");
 
             query = queryManager.createQuery(select + whereClause + orderBy, Query.HQL).setLimit(LIMIT);
             countQuery = queryManager.createQuery(whereClause, Query.HQL).addFilter(countFilter);
@@ -240,6 +244,9 @@ private Query getQuery() throws QueryException
                     query.bindValue("name", documentReference.getName());
                 }
             }
+            if (this.modifiedSince != null) {
+                query.bindValue("modifiedSince", this.modifiedSince);
+            }
 
             for (Map.Entry<String, Object> parameter : query.getNamedParameters().entrySet()) {
                 countQuery.bindValue(parameter.getKey(), parameter.getValue());
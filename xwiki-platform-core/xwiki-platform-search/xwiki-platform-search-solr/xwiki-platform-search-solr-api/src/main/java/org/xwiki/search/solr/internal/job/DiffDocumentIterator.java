@@ -20,6 +20,7 @@
 package org.xwiki.search.solr.internal.job;
 
 import java.util.Comparator;
+import java.util.Date;
 import java.util.Objects;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -107,6 +108,13 @@ public void setRootReference(EntityReference rootReference)
         next.setRootReference(rootReference);
     }
 
+    @Override
+    public void setModifiedSince(Date modifiedSince)
+    {
+        previous.setModifiedSince(modifiedSince);
+        next.setModifiedSince(modifiedSince);
+    }
+
     @Override
     public boolean hasNext()
     {
@@ -0,0 +1,152 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+
+/**
+ * Remember, for each wiki, the date of the last synchronization between the database and the Solr index so that the
+ * next synchronization only needs to look at the documents modified since then.
+ * <p>
+ * The checkpoints are stored next to the embedded Solr index so that they are removed along with it.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = IndexerCheckpointStore.class)
+@Singleton
+public class IndexerCheckpointStore
+{
+    private static final String FILE_NAME = "synchronization.properties";
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private static final String FULL_SUFFIX = ".full";
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    private Properties properties;
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return the date (in milliseconds) from which the modified documents need to be synchronized, or {@code null} if
+     *         the wiki was never synchronized
+     */
+    public synchronized Long getCheckpoint(String wiki)
+    {
+        return getLong(wiki + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return the date (in milliseconds) of the last synchronization which checked all the documents of the wiki, or
+     *         {@code null} if there was none
+     */
+    public synchronized Long getFullSynchronization(String wiki)
+    {
+        return getLong(wiki + FULL_SUFFIX);
+    }
+
+    /**
+     * Remember and persist the result of a successful synchronization.
+     *
+     * @param wiki the identifier of the wiki
+     * @param checkpoint the date (in milliseconds) from which the modified documents will need to be synchronized next
+     *            time
+     * @param full true if the synchronization checked all the documents of the wiki
+     */
+    public synchronized void setCheckpoint(String wiki, long checkpoint, boolean full)
+    {
+        Properties currentProperties = getProperties();
+
+        currentProperties.setProperty(wiki + CHECKPOINT_SUFFIX, String.valueOf(checkpoint));
+        if (full) {
+            currentProperties.setProperty(wiki + FULL_SUFFIX, String.valueOf(checkpoint));
+        }
+
+        File file = getFile();
+        try {
+            FileUtils.forceMkdirParent(file);
+            try (OutputStream stream = Files.newOutputStream(file.toPath())) {
+                currentProperties.store(stream, null);
+            }
+        } catch (IOException e) {
+            this.logger.warn("Failed to save the Solr synchronization checkpoint of wiki [{}]: {}", wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private Long getLong(String key)
+    {
+        String value = getProperties().getProperty(key);
+
+        if (value != null) {
+            try {
+                return Long.valueOf(value);
+            } catch (NumberFormatException e) {
+                this.logger.warn("Invalid Solr synchronization checkpoint [{}] for key [{}]", value, key);
+            }
+        }
+
+        return null;
+    }
+
+    private Properties getProperties()
+    {
+        if (this.properties == null) {
+            this.properties = new Properties();
+
+            File file = getFile();
+            if (file.exists()) {
+                try (InputStream stream = Files.newInputStream(file.toPath())) {
+                    this.properties.load(stream);
+                } catch (IOException e) {
+                    this.logger.warn("Failed to load the Solr synchronization checkpoints: {}",
+                        ExceptionUtils.getRootCauseMessage(e));
+                }
+            }
+        }
+
+        return this.properties;
+    }
+
+    private File getFile()
+    {
+        return new File(this.configuration.getHomeDirectory(), FILE_NAME);
+    }
+}
@@ -19,12 +19,21 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
@@ -32,11 +41,17 @@
 import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.job.DiffDocumentIterator.Action;
+import org.xwiki.store.ReadyIndicator;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.manager.WikiManagerException;
 
 /**
  * Provide progress information and store logging of an advanced indexing.
@@ -59,6 +74,12 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
      */
     private static final JobGroupPath GROUP = new JobGroupPath(Arrays.asList("solr", "indexer"));
 
+    /**
+     * The checkpoint is moved a bit before the start of the synchronization to not miss documents saved while it was
+     * running or with a modification date slightly in the past (e.g. because of the clock of another cluster member).
+     */
+    private static final long CHECKPOINT_MARGIN = TimeUnit.MINUTES.toMillis(5);
+
     /**
      * Used to send documents to index or delete to/from Solr index.
      */
@@ -67,15 +88,34 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
 
     @Inject
     @Named("database")
-    private transient DocumentIterator<String> databaseIterator;
+    private transient Provider<DocumentIterator<String>> databaseIteratorProvider;
 
     @Inject
     @Named("solr")
-    private transient DocumentIterator<String> solrIterator;
+    private transient Provider<DocumentIterator<String>> solrIteratorProvider;
 
     @Inject
     private EntityReferenceSerializer<String> entityReferenceSerializer;
 
+    @Inject
+    private transient IndexerCheckpointStore checkpointStore;
+
+    @Inject
+    private transient SolrConfiguration configuration;
+
+    @Inject
+    private transient WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private transient DocumentAccessBridge documentAccessBridge;
+
+    /**
+     * A checkpoint to save once the documents to synchronize have actually been indexed.
+     */
+    private record PendingCheckpoint(String wiki, long checkpoint, boolean full, ReadyIndicator indexed)
+    {
+    }
+
     @Override
     public String getType()
     {
@@ -99,19 +139,146 @@ protected void runInternal() throws Exception
             EntityReference rootReference = getRequest().getRootReference();
             this.logger.info("Index documents in [{}].", rootReference);
             this.indexer.index(rootReference, true);
+        } else if (getRequest().isIncremental()) {
+            updateSolrIndexIncrementally();
         } else {
-            updateSolrIndex();
+            updateSolrIndex(createIterator(getRequest().getRootReference(), null), false);
         }
     }
 
     /**
-     * Update the Solr index to match the current state of the database.
+     * Update the Solr index of each wiki to match the current state of the database, looking only at the documents
+     * modified since the previous synchronization of the wiki when possible.
+     */
+    private void updateSolrIndexIncrementally() throws WikiManagerException, InterruptedException
+    {
+        EntityReference rootReference = getRequest().getRootReference();
+
+        List<String> wikis;
+        if (rootReference != null) {
+            wikis = List.of(rootReference.extractReference(EntityType.WIKI).getName());
+        } else {
+            wikis = new ArrayList<>(this.wikiDescriptorManager.getAllIds());
+            Collections.sort(wikis);
+        }
+
+        // The checkpoint of a wiki can only be moved when all its documents are synchronized
+        boolean wholeWiki = rootReference == null || rootReference.getType() == EntityType.WIKI;
+
+        List<PendingCheckpoint> checkpoints = new ArrayList<>(wikis.size());
+
+        this.progressManager.pushLevelProgress(wikis.size(), this);
+
+        try {
+            for (String wiki : wikis) {
+                this.progressManager.startStep(this);
+
+                long start = System.currentTimeMillis();
+                EntityReference wikiRootReference = rootReference != null ? rootReference : new WikiReference(wiki);
+                Date modifiedSince = getModifiedSince(wiki, wikiRootReference, start);
+
+                updateSolrIndex(createIterator(wikiRootReference, modifiedSince), modifiedSince != null);
+
+                if (wholeWiki) {
+                    // The documents to synchronize are only queued, so the checkpoint can't be saved before they
+                    // are actually indexed
+                    checkpoints.add(new PendingCheckpoint(wiki, start - CHECKPOINT_MARGIN, modifiedSince == null,
+                        this.indexer.waitReady()));
+                }
+
+                this.progressManager.endStep(this);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+
+        for (PendingCheckpoint checkpoint : checkpoints) {
+            saveCheckpoint(checkpoint);
+        }
+    }
+
+    private void saveCheckpoint(PendingCheckpoint checkpoint) throws InterruptedException
+    {
+        try {
+            checkpoint.indexed().get();
+
+            this.checkpointStore.setCheckpoint(checkpoint.wiki(), checkpoint.checkpoint(), checkpoint.full());
+        } catch (ExecutionException e) {
+            // Keep the previous checkpoint, the documents will be synchronized again the next time
+            this.logger.warn("Failed to wait for the synchronization of the wiki [{}] with the Solr index: {}",
+                checkpoint.wiki(), ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * @param wiki the wiki to synchronize
+     * @param rootReference the root of the entities to synchronize in the wiki
+     * @param now the start date of the synchronization
+     * @return the minimum modification date of the documents to synchronize or {@code null} if all the documents need
+     *         to be compared
      */
-    private void updateSolrIndex()
+    private Date getModifiedSince(String wiki, EntityReference rootReference, long now)
     {
-        DiffDocumentIterator<String> iterator = new DiffDocumentIterator<>(this.solrIterator, this.databaseIterator);
-        iterator.setRootReference(getRequest().getRootReference());
+        Long checkpoint = this.checkpointStore.getCheckpoint(wiki);
+        if (checkpoint == null) {
+            this.logger.info("The wiki [{}] was never synchronized with the Solr index, checking all its documents.",
+                wiki);
+
+            return null;
+        }
+
+        int interval = this.configuration.getSynchronizationFullInterval();
+        Long fullSynchronization = this.checkpointStore.getFullSynchronization(wiki);
+        if (interval <= 0 || fullSynchronization == null
+            || now - fullSynchronization >= TimeUnit.HOURS.toMillis(interval)) {
+            this.logger.info("A full synchronization of the wiki [{}] with the Solr index is due.", wiki);
+
+            return null;
+        }
+
+        // Deleted documents cannot be found from their modification date, so make sure the index does not contain a
+        // different number of documents before trusting the checkpoint (the index might also have been reset)
+        DocumentIterator<String> databaseIterator = this.databaseIteratorProvider.get();
+        databaseIterator.setRootReference(rootReference);
+        DocumentIterator<String> solrIterator = this.solrIteratorProvider.get();
+        solrIterator.setRootReference(rootReference);
+        long databaseSize = databaseIterator.size();
+        long solrSize = solrIterator.size();
+        if (databaseSize != solrSize) {
+            this.logger.info(
+                "The wiki [{}] contains {} documents but the Solr index contains {}, checking all of them.",
+                wiki, databaseSize, solrSize);
+
+            return null;
+        }
+
+        Date modifiedSince = new Date(checkpoint);
 
+        this.logger.info("Checking the documents of wiki [{}] modified since [{}].", wiki, modifiedSince);
+
+        return modifiedSince;
+    }
+
+    private DiffDocumentIterator<String> createIterator(EntityReference rootReference, Date modifiedSince)
+    {
+        DiffDocumentIterator<String> iterator =
+            new DiffDocumentIterator<>(this.solrIteratorProvider.get(), this.databaseIteratorProvider.get());
+        iterator.setRootReference(rootReference);
+        if (modifiedSince != null) {
+            iterator.setModifiedSince(modifiedSince);
+        }
+
+        return iterator;
+    }
+
+    /**
+     * Update the Solr index to match the current state of the database.
+     *
+     * @param iterator the differences between the Solr index and the database
+     * @param incremental true if the iterator is limited to the recently modified documents
+     */
+    private void updateSolrIndex(DiffDocumentIterator<String> iterator, boolean incremental)
+    {
         this.progressManager.pushLevelProgress(2, this);
 
         try {
@@ -124,14 +291,14 @@ private void updateSolrIndex()
             // Index
 
             this.progressManager.startStep(this);
-            updateSolrIndex(progressSize, iterator);
+            updateSolrIndex(progressSize, iterator, incremental);
             this.progressManager.endStep(this);
         } finally {
             this.progressManager.popLevelProgress(this);
         }
     }
 
-    private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iterator)
+    private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iterator, boolean incremental)
     {
         this.progressManager.pushLevelProgress(progressSize, this);
 
@@ -147,6 +314,10 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
                     // version
                     // from the database.
                     this.indexer.index(entry.getKey(), true);
+                } else if (entry.getValue() == Action.DELETE && incremental && exists(entry.getKey())) {
+                    // The document was indexed after the checkpoint but its modification date is older, which can
+                    // only be trusted by indexing it again.
+                    this.indexer.index(entry.getKey(), true);
                 } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
                     // The index entry doesn't exist anymore in the database.
                     this.indexer.delete(entry.getKey(), true);
@@ -164,4 +335,15 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
             this.progressManager.popLevelProgress(this);
         }
     }
+
+    private boolean exists(DocumentReference documentReference)
+    {
+        try {
+            return this.documentAccessBridge.exists(documentReference);
+        } catch (Exception e) {
+            this.logger.warn("Failed to check if document [{}] exists: {}", documentReference, e.getMessage());
+
+            return false;
+        }
+    }
 }
@@ -95,6 +95,21 @@ void onEventApplicationReadyForFarm() throws SolrIndexerException
         verify(this.solrIndexer).startIndex(indexerRequest);
     }
 
+    @Test
+    void onEventApplicationReadyIncremental() throws SolrIndexerException
+    {
+        when(this.configuration.synchronizeAtStartupMode()).thenReturn(SolrConfiguration.SynchronizeAtStartupMode.FARM);
+        when(this.configuration.synchronizeAtStartup()).thenReturn(true);
+        when(this.configuration.getSynchronizationFullInterval()).thenReturn(168);
+
+        this.solrIndexInitializeListener.onEvent(new ApplicationReadyEvent(), null, null);
+
+        IndexerRequest indexerRequest = new IndexerRequest();
+        indexerRequest.setId(Arrays.asList("solr", "indexer"));
+        indexerRequest.setIncremental(true);
+        verify(this.solrIndexer).startIndex(indexerRequest);
+    }
+
     @Test
     void onEventWikiReadyForWiki() throws SolrIndexerException
     {
@@ -22,6 +22,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -38,6 +39,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReferenceResolver;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
@@ -48,6 +50,7 @@
 import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -224,6 +227,44 @@ void iterateOneWiki() throws Exception
         verify(countQuery).bindValue("name", "C");
     }
 
+    @Test
+    void iterateModifiedSince() throws Exception
+    {
+        Date modifiedSince = new Date();
+
+        Query emptyQuery = mock(Query.class);
+        when(emptyQuery.execute()).thenReturn(Collections.emptyList());
+
+        Query query = mock(Query.class);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.setWiki("chess")).thenReturn(query);
+        when(query.setOffset(0)).thenReturn(query);
+        when(query.setOffset(100)).thenReturn(emptyQuery);
+        when(query.execute()).thenReturn(Collections.singletonList(new Object[] { "Main", "Welcome", "", "1.2" }));
+        when(query.getNamedParameters()).thenReturn(Map.of("modifiedSince", modifiedSince));
+
+        Query countQuery = mock(Query.class);
+        when(countQuery.addFilter(this.countQueryFilter)).thenReturn(countQuery);
+
+        String whereClause = " where doc.date >= :modifiedSince";
+        when(
+            this.queryManager.createQuery("select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc"
+                                          + whereClause + ORDER_CLAUSE, Query.HQL)).thenReturn(query);
+        when(this.queryManager.createQuery(whereClause, Query.HQL)).thenReturn(countQuery);
+
+        DocumentReference chessMainWelcome = createDocumentReference("chess", Arrays.asList("Main"), "Welcome", null);
+
+        DocumentIterator<String> iterator = this.databaseIterator;
+        iterator.setRootReference(new WikiReference("chess"));
+        iterator.setModifiedSince(modifiedSince);
+
+        assertEquals(new ImmutablePair<>(chessMainWelcome, "1.2"), iterator.next());
+        assertFalse(iterator.hasNext());
+
+        verify(query).bindValue("modifiedSince", modifiedSince);
+        verify(countQuery).bindValue("modifiedSince", modifiedSince);
+    }
+
     private DocumentReference createDocumentReference(String wiki, List<String> spaces, String name, Locale locale)
     {
         DocumentReference documentReference = new DocumentReference(wiki, spaces, name);
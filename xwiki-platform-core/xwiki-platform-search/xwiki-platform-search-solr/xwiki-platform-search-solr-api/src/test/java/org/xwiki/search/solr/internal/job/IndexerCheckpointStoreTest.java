@@ -0,0 +1,79 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.io.File;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link IndexerCheckpointStore}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class IndexerCheckpointStoreTest
+{
+    @InjectMockComponents
+    private IndexerCheckpointStore store;
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @XWikiTempDir
+    private File homeDirectory;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.configuration.getHomeDirectory()).thenReturn(this.homeDirectory.getPath());
+    }
+
+    @Test
+    void setCheckpoint()
+    {
+        assertNull(this.store.getCheckpoint("wiki"));
+        assertNull(this.store.getFullSynchronization("wiki"));
+
+        this.store.setCheckpoint("wiki", 10L, true);
+
+        assertEquals(10L, this.store.getCheckpoint("wiki"));
+        assertEquals(10L, this.store.getFullSynchronization("wiki"));
+
+        this.store.setCheckpoint("wiki", 20L, false);
+
+        assertEquals(20L, this.store.getCheckpoint("wiki"));
+        assertEquals(10L, this.store.getFullSynchronization("wiki"));
+        assertNull(this.store.getCheckpoint("otherwiki"));
+
+        assertTrue(new File(this.homeDirectory, "synchronization.properties").exists());
+    }
+}
@@ -45,6 +45,7 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.debug.RequestProfiler;
 
 /**
  * Default implementation of the {@link ContextualAuthorizationManager}.
@@ -78,6 +79,9 @@ public class DefaultContextualAuthorizationManager implements ContextualAuthoriz
     @Inject
     private DocumentAuthorizationManager documentAuthorizationManager;
 
+    @Inject
+    private RequestProfiler profiler;
+
     @Inject
     private Logger logger;
 
@@ -101,11 +105,13 @@ public void checkAccess(Right right, EntityReference entity) throws AccessDenied
 
     private void checkAccess(Right right, DocumentReference user, EntityReference entity) throws AccessDeniedException
     {
-        if (!checkPreAccess(right)) {
-            throw new AccessDeniedException(right, user, entity);
-        }
+        try (RequestProfiler.Span span = startSpan(right, user, entity)) {
+            if (!checkPreAccess(right)) {
+                throw new AccessDeniedException(right, user, entity);
+            }
 
-        this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+            this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+        }
     }
 
     @Override
@@ -128,7 +134,14 @@ public boolean hasAccess(Right right, EntityReference entity)
 
     private boolean hasAccess(Right right, DocumentReference user, EntityReference entity)
     {
-        return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        try (RequestProfiler.Span span = startSpan(right, user, entity)) {
+            return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        }
+    }
+
+    private RequestProfiler.Span startSpan(Right right, DocumentReference user, EntityReference entity)
+    {
+        return this.profiler.start(this, "Check right [{}] of user [{}] on [{}]", right, user, entity);
     }
 
     private EntityReference getFullReference(EntityReference reference)
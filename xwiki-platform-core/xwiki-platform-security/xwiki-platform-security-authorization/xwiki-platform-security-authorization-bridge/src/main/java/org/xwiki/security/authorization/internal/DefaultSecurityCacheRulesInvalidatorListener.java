@@ -22,7 +22,6 @@
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
 import javax.annotation.Priority;
@@ -50,6 +49,7 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.DocumentEventChanges;
 import com.xpn.xwiki.internal.mandatory.XWikiGroupsDocumentInitializer;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.ObjectDiff;
@@ -103,6 +103,9 @@ public class DefaultSecurityCacheRulesInvalidatorListener extends AbstractEventL
     @Inject
     private ObservationManager observation;
 
+    @Inject
+    private DocumentEventChanges documentChanges;
+
     /**
      * Default constructor.
      */
@@ -124,42 +127,53 @@ private boolean isGroupDocument(XWikiDocument document)
         return objects != null && objects.size() > 0;
     }
 
-    private void invalidateNewGroupMembers(XWikiDocument document)
+    private void invalidateNewGroupMembers(XWikiDocument document, List<List<ObjectDiff>> documentDiff)
     {
         DocumentReference documentReference = document.getDocumentReference();
-        List<BaseObject> newMembers =
-            document.getXObjects(XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE);
-        List<BaseObject> originalMembers =
-            document.getOriginalDocument().getXObjects(XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE);
-
-        for (BaseObject newMemberObject : newMembers) {
-            if (newMemberObject != null) {
-                String newMember = newMemberObject.getStringValue(XWikiGroupsDocumentInitializer.PROPERTY_MEMBER);
-
-                BaseObject originalMemberObject = originalMembers.size() > newMemberObject.getNumber()
-                    ? originalMembers.get(newMemberObject.getNumber()) : null;
-
-                if (originalMemberObject == null) {
-                    // Invalidate new member
-                    DocumentReference memberRefeference = this.userResolver.resolve(newMember, documentReference);
-                    this.securityCache.remove(this.securityReferenceFactory.newUserReference(memberRefeference));
-                } else {
-                    String originalMember = originalMemberObject.getStringValue("member");
-
-                    if (!Objects.equals(newMember, originalMember)) {
-                        // Invalidate modified member
+
+        for (List<ObjectDiff> objectDiff : documentDiff) {
+            for (ObjectDiff diff : objectDiff) {
+                if (isNewMember(diff)) {
+                    BaseObject newMemberObject = document.getXObject(
+                        XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE, diff.getNumber());
+
+                    if (newMemberObject != null) {
+                        // Invalidate new or modified member
+                        String newMember =
+                            newMemberObject.getStringValue(XWikiGroupsDocumentInitializer.PROPERTY_MEMBER);
                         DocumentReference memberRefeference = this.userResolver.resolve(newMember, documentReference);
                         this.securityCache.remove(this.securityReferenceFactory.newUserReference(memberRefeference));
                     }
+
+                    break;
                 }
             }
         }
     }
 
+    private boolean isNewMember(ObjectDiff diff)
+    {
+        if (!XWikiGroupsDocumentInitializer.XWIKI_GROUPS_DOCUMENT_REFERENCE
+            .equals(diff.getXClassReference().getLocalDocumentReference())) {
+            return false;
+        }
+
+        return ObjectDiff.ACTION_OBJECTADDED.equals(diff.getAction())
+            || (XWikiGroupsDocumentInitializer.PROPERTY_MEMBER.equals(diff.getPropName())
+                && (ObjectDiff.ACTION_PROPERTYADDED.equals(diff.getAction())
+                    || ObjectDiff.ACTION_PROPERTYCHANGED.equals(diff.getAction())));
+    }
+
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
         XWikiDocument document = (XWikiDocument) source;
+        XWikiContext xcontext = (XWikiContext) data;
+
+        // Only the changes are needed, which, unlike the original document, are cheap to get for a document received
+        // from another cluster member
+        List<List<ObjectDiff>> documentDiff =
+            this.documentChanges.getObjectDiff(document, event instanceof DocumentDeletedEvent, xcontext);
 
         DocumentReference ref = document.getDocumentReference();
         deliverUpdateEvent(ref);
@@ -169,23 +183,20 @@ public void onEvent(Event event, Object source, Object data)
             // currently in the cache, and is not yet linked to the group. The following method is in charge of
             // invalidating any member which changed during the save (which include new group member or more complex
             // changed of the group like replacing a member by another).
-            invalidateNewGroupMembers(document);
+            invalidateNewGroupMembers(document, documentDiff);
         }
 
         // Make sure to send the RightUpdatedEvent event after the security cache is cleaned
         // FIXME: for some reason if one of the event that listen to RightUpdatedEvent check the right it can put the
         // cache in a bad state. See https://jira.xwiki.org/browse/XWIKI-16381.
-        if (shouldSendRightUpdatedEvent(document, (XWikiContext) data)) {
+        if (shouldSendRightUpdatedEvent(documentDiff)) {
             // Notify that a right may have changed
             this.observation.notify(new RightUpdatedEvent(), source);
         }
     }
 
-    private boolean shouldSendRightUpdatedEvent(XWikiDocument document, XWikiContext xcontext)
+    private boolean shouldSendRightUpdatedEvent(List<List<ObjectDiff>> documentDiff)
     {
-        List<List<ObjectDiff>> documentDiff =
-            document.getObjectDiff(document.getOriginalDocument(), document, xcontext);
-
         for (List<ObjectDiff> objecstDiff : documentDiff) {
             for (ObjectDiff objectDiff : objecstDiff) {
                 if (RIGHT_OBJECTS.contains(objectDiff.getXClassReference().getLocalDocumentReference())) {
@@ -0,0 +1,256 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.tag.internal.TagException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.plugin.tag.TagPlugin;
+
+/**
+ * Keep in memory the tags of each document along with, for each tag, the list of documents having it so that counting
+ * or listing tags don't require to load all the tag objects of the wiki from the database.
+ * <p>
+ * The index of a wiki is loaded the first time it's needed and then kept up to date by {@link TagIndexListener}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = TagIndex.class)
+@Singleton
+public class TagIndex
+{
+    private static final LocalDocumentReference TAG_CLASS_REFERENCE = new LocalDocumentReference("XWiki", "TagClass");
+
+    private static final String LOAD_STATEMENT = "select doc.fullName, doc.hidden, elements(prop.list) "
+        + "from XWikiDocument as doc, BaseObject as obj, DBStringListProperty as prop "
+        + "where obj.name=doc.fullName "
+        + "and obj.className='XWiki.TagClass' "
+        + "and obj.id=prop.id.id "
+        + "and prop.id.name='tags' "
+        + "and doc.translation=0";
+
+    private static final class WikiTagIndex
+    {
+        private volatile boolean loaded;
+
+        private final Map<String, TaggedDocument> documents = new ConcurrentHashMap<>();
+
+        /**
+         * The documents having each tag, indexed by lower case tag.
+         */
+        private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+        private void put(TaggedDocument document)
+        {
+            remove(document.getFullName());
+
+            if (!document.getTags().isEmpty()) {
+                this.documents.put(document.getFullName(), document);
+                for (String tag : document.getTags()) {
+                    this.postings.computeIfAbsent(toKey(tag), key -> ConcurrentHashMap.newKeySet())
+                        .add(document.getFullName());
+                }
+            }
+        }
+
+        private void remove(String fullName)
+        {
+            TaggedDocument previous = this.documents.remove(fullName);
+            if (previous != null) {
+                for (String tag : previous.getTags()) {
+                    this.postings.computeIfPresent(toKey(tag), (key, names) -> {
+                        names.remove(fullName);
+
+                        return names.isEmpty() ? null : names;
+                    });
+                }
+            }
+        }
+    }
+
+    private final Map<String, WikiTagIndex> wikis = new ConcurrentHashMap<>();
+
+    @Inject
+    private Provider<XWikiContext> contextProvider;
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return all the tagged documents of the wiki
+     * @throws TagException when failing to load the tags of the wiki
+     */
+    public Collection<TaggedDocument> getDocuments(String wiki) throws TagException
+    {
+        return getIndex(wiki).documents.values();
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param fullName the local reference of the document, as stored in the {@code XWikiDocument#fullName} field
+     * @return the tags of the document or {@code null} if the document does not have any tag
+     * @throws TagException when failing to load the tags of the wiki
+     */
+    public TaggedDocument getDocument(String wiki, String fullName) throws TagException
+    {
+        return getIndex(wiki).documents.get(fullName);
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param tag the tag
+     * @param caseSensitive {@code true} if the case of the tag should be taken into account
+     * @return the tagged documents having the passed tag
+     * @throws TagException when failing to load the tags of the wiki
+     */
+    public List<TaggedDocument> getDocumentsWithTag(String wiki, String tag, boolean caseSensitive)
+        throws TagException
+    {
+        WikiTagIndex index = getIndex(wiki);
+
+        List<TaggedDocument> result = new ArrayList<>();
+        for (String fullName : index.postings.getOrDefault(toKey(tag), Set.of())) {
+            TaggedDocument document = index.documents.get(fullName);
+            if (document != null && (!caseSensitive || document.getTags().contains(tag))) {
+                result.add(document);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Update the tags of the passed document, if the index of its wiki is loaded.
+     *
+     * @param document the document
+     */
+    public void update(XWikiDocument document)
+    {
+        WikiTagIndex index = this.wikis.get(document.getDocumentReference().getWikiReference().getName());
+        if (index != null) {
+            Set<String> tags = new LinkedHashSet<>();
+            for (BaseObject tagObject : document.getXObjects(TAG_CLASS_REFERENCE)) {
+                if (tagObject != null) {
+                    List<?> values = tagObject.getListValue(TagPlugin.TAG_PROPERTY);
+                    if (values != null) {
+                        values.forEach(value -> tags.add(String.valueOf(value)));
+                    }
+                }
+            }
+
+            String fullName = document.getFullName();
+            synchronized (index) {
+                if (index.loaded) {
+                    index.put(new TaggedDocument(fullName, document.isHidden(), tags));
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the passed document from the index.
+     *
+     * @param wiki the identifier of the wiki
+     * @param fullName the local reference of the document, as stored in the {@code XWikiDocument#fullName} field
+     */
+    public void remove(String wiki, String fullName)
+    {
+        WikiTagIndex index = this.wikis.get(wiki);
+        if (index != null) {
+            synchronized (index) {
+                index.remove(fullName);
+            }
+        }
+    }
+
+    /**
+     * Forget everything about the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void removeWiki(String wiki)
+    {
+        this.wikis.remove(wiki);
+    }
+
+    private WikiTagIndex getIndex(String wiki) throws TagException
+    {
+        WikiTagIndex index = this.wikis.computeIfAbsent(wiki, key -> new WikiTagIndex());
+
+        if (!index.loaded) {
+            synchronized (index) {
+                if (!index.loaded) {
+                    load(wiki, index);
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private void load(String wiki, WikiTagIndex index) throws TagException
+    {
+        List<Object[]> rows;
+        try {
+            rows = this.contextProvider.get().getWiki().getStore().getQueryManager()
+                .createQuery(LOAD_STATEMENT, Query.HQL).setWiki(wiki).execute();
+        } catch (QueryException e) {
+            throw new TagException(String.format("Failed to load the tags of wiki [%s]", wiki), e);
+        }
+
+        Map<String, Set<String>> tags = new LinkedHashMap<>();
+        Map<String, Boolean> hidden = new HashMap<>();
+        for (Object[] row : rows) {
+            String fullName = (String) row[0];
+            hidden.put(fullName, Boolean.TRUE.equals(row[1]));
+            tags.computeIfAbsent(fullName, key -> new LinkedHashSet<>()).add((String) row[2]);
+        }
+
+        tags.forEach((fullName, documentTags) -> index.put(new TaggedDocument(fullName, hidden.get(fullName),
+            documentTags)));
+
+        index.loaded = true;
+    }
+
+    private static String toKey(String tag)
+    {
+        return tag.toLowerCase(Locale.ROOT);
+    }
+}
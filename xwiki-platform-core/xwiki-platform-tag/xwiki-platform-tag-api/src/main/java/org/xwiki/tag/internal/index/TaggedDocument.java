@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.index;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The tags of a document, as stored in the {@link TagIndex}.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+public class TaggedDocument
+{
+    private final String fullName;
+
+    private final boolean hidden;
+
+    private final Set<String> tags;
+
+    /**
+     * @param fullName the local reference of the document, as stored in the {@code XWikiDocument#fullName} field
+     * @param hidden {@code true} if the document is hidden
+     * @param tags the tags of the document
+     */
+    public TaggedDocument(String fullName, boolean hidden, Set<String> tags)
+    {
+        this.fullName = fullName;
+        this.hidden = hidden;
+        this.tags = Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * @return the local reference of the document, as stored in the {@code XWikiDocument#fullName} field
+     */
+    public String getFullName()
+    {
+        return this.fullName;
+    }
+
+    /**
+     * @return {@code true} if the document is hidden
+     */
+    public boolean isHidden()
+    {
+        return this.hidden;
+    }
+
+    /**
+     * @return the tags of the document
+     */
+    public Set<String> getTags()
+    {
+        return this.tags;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.selector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.tag.internal.TagException;
+import org.xwiki.tag.internal.TagsSelector;
+import org.xwiki.tag.internal.index.TagIndex;
+import org.xwiki.tag.internal.index.TaggedDocument;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserPropertiesResolver;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static org.xwiki.security.authorization.Right.VIEW;
+
+/**
+ * Implementation of {@link TagsSelector} based on the {@link TagIndex}. Like {@link ExhaustiveCheckTagsSelector}, all
+ * the documents are checked for view right, but the tags are taken from memory instead of loading all the tag objects
+ * of the wiki, and each document is checked only once, whatever its number of tags.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component
+@Named(IndexedTagsSelector.HINT)
+@Singleton
+public class IndexedTagsSelector extends AbstractTagsSelector
+{
+    /**
+     * Hint for this component.
+     */
+    public static final String HINT = "indexed";
+
+    @Inject
+    private TagIndex tagIndex;
+
+    @Inject
+    private UserPropertiesResolver userPropertiesResolver;
+
+    @Override
+    public List<String> getAllTags() throws TagException
+    {
+        boolean displayHiddenDocuments = isDisplayHiddenDocuments();
+
+        Set<String> tags = new HashSet<>();
+        for (TaggedDocument document : this.tagIndex.getDocuments(getCurrentWiki())) {
+            // No need to check the rights of a document which would not bring any new tag
+            if (!tags.containsAll(document.getTags()) && isViewable(document, displayHiddenDocuments)) {
+                tags.addAll(document.getTags());
+            }
+        }
+
+        List<String> tagsList = new ArrayList<>(tags);
+        tagsList.sort(CASE_INSENSITIVE_ORDER);
+        return tagsList;
+    }
+
+    @Override
+    public Map<String, Integer> getTagCountForQuery(String fromHql, String whereHql, List<?> parameterValues)
+        throws TagException
+    {
+        return getTagCount(fromHql, whereHql, parameterValues);
+    }
+
+    @Override
+    public Map<String, Integer> getTagCountForQuery(String fromHql, String whereHql, Map<String, ?> parameters)
+        throws TagException
+    {
+        return getTagCount(fromHql, whereHql, parameters);
+    }
+
+    @Override
+    public List<String> getDocumentsWithTag(String tag, boolean includeHiddenDocuments, boolean caseSensitive)
+        throws TagException
+    {
+        List<String> documents = new ArrayList<>();
+        for (TaggedDocument document : this.tagIndex.getDocumentsWithTag(getCurrentWiki(), tag, caseSensitive)) {
+            if (isViewable(document, includeHiddenDocuments)) {
+                documents.add(document.getFullName());
+            }
+        }
+
+        documents.sort(null);
+        return documents;
+    }
+
+    private Map<String, Integer> getTagCount(String fromHql, String whereHql, Object parameters) throws TagException
+    {
+        String wiki = getCurrentWiki();
+
+        Collection<TaggedDocument> documents;
+        if (StringUtils.isBlank(fromHql) && StringUtils.isBlank(whereHql)) {
+            documents = this.tagIndex.getDocuments(wiki);
+        } else {
+            documents = new ArrayList<>();
+            for (String fullName : getMatchingDocuments(fromHql, whereHql, parameters)) {
+                TaggedDocument document = this.tagIndex.getDocument(wiki, fullName);
+                if (document != null) {
+                    documents.add(document);
+                }
+            }
+        }
+
+        boolean displayHiddenDocuments = isDisplayHiddenDocuments();
+
+        Map<String, Integer> counts = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+        for (TaggedDocument document : documents) {
+            if (isViewable(document, displayHiddenDocuments)) {
+                for (String tag : document.getTags()) {
+                    counts.merge(tag, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Only the references of the matching documents are queried, their tags are taken from the index.
+     */
+    private List<String> getMatchingDocuments(String fromHql, String whereHql, Object parameters) throws TagException
+    {
+        String from = "select distinct doc.fullName from XWikiDocument as doc, BaseObject as tagobject, "
+            + "DBStringListProperty as prop" + StringUtils.defaultString(fromHql);
+        String where = " where tagobject.name=doc.fullName and tagobject.className='XWiki.TagClass' and "
+            + "tagobject.id=prop.id.id and prop.id.name='tags' and doc.translation=0";
+        if (!StringUtils.isBlank(whereHql)) {
+            where += " and " + whereHql;
+        }
+
+        String hql = from + where;
+
+        try {
+            Query query =
+                this.contextProvider.get().getWiki().getStore().getQueryManager().createQuery(hql, Query.HQL);
+            if (parameters != null) {
+                if (parameters instanceof Map) {
+                    query.bindValues((Map) parameters);
+                } else {
+                    query.bindValues((List) parameters);
+                }
+            }
+
+            return query.execute();
+        } catch (QueryException e) {
+            throw new TagException(
+                String.format("Failed to get tag count for query [%s], with parameters [%s]", hql, parameters), e);
+        }
+    }
+
+    private boolean isViewable(TaggedDocument document, boolean displayHiddenDocuments)
+    {
+        return (displayHiddenDocuments || !document.isHidden()) && this.contextualAuthorizationManager
+            .hasAccess(VIEW, this.stringDocumentReferenceResolver.resolve(document.getFullName()));
+    }
+
+    private boolean isDisplayHiddenDocuments()
+    {
+        return this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE).displayHiddenDocuments();
+    }
+
+    private String getCurrentWiki()
+    {
+        return this.contextProvider.get().getWikiId();
+    }
+}
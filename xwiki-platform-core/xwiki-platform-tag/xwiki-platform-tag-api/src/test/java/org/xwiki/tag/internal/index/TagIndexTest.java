@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.index;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link TagIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class TagIndexTest
+{
+    @InjectMockComponents
+    private TagIndex tagIndex;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @Mock
+    private XWikiContext context;
+
+    @Mock
+    private XWiki wiki;
+
+    @Mock
+    private XWikiStoreInterface store;
+
+    @Mock
+    private QueryManager queryManager;
+
+    @Mock
+    private Query query;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.context.getWiki()).thenReturn(this.wiki);
+        when(this.wiki.getStore()).thenReturn(this.store);
+        when(this.store.getQueryManager()).thenReturn(this.queryManager);
+        when(this.queryManager.createQuery(anyString(), anyString())).thenReturn(this.query);
+        when(this.query.setWiki(any())).thenReturn(this.query);
+        when(this.query.execute()).thenReturn(List.of(
+            new Object[] { "Space.Page0", null, "Tag0" },
+            new Object[] { "Space.Page0", null, "Tag1" },
+            new Object[] { "Space.Page1", true, "tag0" }));
+    }
+
+    private XWikiDocument mockDocument(String name, List<String> tags)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(new DocumentReference("xwiki", "Space", name));
+        when(document.getFullName()).thenReturn("Space." + name);
+        BaseObject tagObject = mock(BaseObject.class);
+        when(tagObject.getListValue("tags")).thenReturn(tags);
+        when(document.getXObjects(any(EntityReference.class))).thenReturn(List.of(tagObject));
+        return document;
+    }
+
+    @Test
+    void load() throws Exception
+    {
+        assertEquals(2, this.tagIndex.getDocuments("xwiki").size());
+
+        TaggedDocument page0 = this.tagIndex.getDocument("xwiki", "Space.Page0");
+        assertEquals(Set.of("Tag0", "Tag1"), page0.getTags());
+        assertFalse(page0.isHidden());
+        assertTrue(this.tagIndex.getDocument("xwiki", "Space.Page1").isHidden());
+
+        assertEquals(2, this.tagIndex.getDocumentsWithTag("xwiki", "TAG0", false).size());
+        assertEquals(1, this.tagIndex.getDocumentsWithTag("xwiki", "tag0", true).size());
+        assertEquals(0, this.tagIndex.getDocumentsWithTag("xwiki", "Tag2", false).size());
+
+        // The index is loaded only once
+        this.tagIndex.getDocuments("xwiki");
+        verify(this.query, times(1)).execute();
+        verify(this.query).setWiki("xwiki");
+    }
+
+    @Test
+    void update() throws Exception
+    {
+        // Updates are ignored before the index of the wiki is loaded
+        this.tagIndex.update(mockDocument("Page2", List.of("Tag2")));
+        this.tagIndex.getDocuments("xwiki");
+        assertNull(this.tagIndex.getDocument("xwiki", "Space.Page2"));
+
+        this.tagIndex.update(mockDocument("Page2", List.of("Tag2")));
+        assertEquals(Set.of("Tag2"), this.tagIndex.getDocument("xwiki", "Space.Page2").getTags());
+        assertEquals(1, this.tagIndex.getDocumentsWithTag("xwiki", "Tag2", true).size());
+
+        this.tagIndex.update(mockDocument("Page0", List.of("Tag1")));
+        assertEquals(Set.of("Tag1"), this.tagIndex.getDocument("xwiki", "Space.Page0").getTags());
+        assertEquals(1, this.tagIndex.getDocumentsWithTag("xwiki", "Tag0", false).size());
+
+        this.tagIndex.update(mockDocument("Page0", List.of()));
+        assertNull(this.tagIndex.getDocument("xwiki", "Space.Page0"));
+        assertEquals(0, this.tagIndex.getDocumentsWithTag("xwiki", "Tag1", false).size());
+    }
+
+    @Test
+    void remove() throws Exception
+    {
+        this.tagIndex.getDocuments("xwiki");
+
+        this.tagIndex.remove("xwiki", "Space.Page1");
+
+        assertNull(this.tagIndex.getDocument("xwiki", "Space.Page1"));
+        assertEquals(1, this.tagIndex.getDocumentsWithTag("xwiki", "tag0", false).size());
+
+        this.tagIndex.removeWiki("xwiki");
+        this.tagIndex.getDocuments("xwiki");
+
+        verify(this.query, times(2)).execute();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.tag.internal.selector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.tag.internal.index.TagIndex;
+import org.xwiki.tag.internal.index.TaggedDocument;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.CurrentUserReference;
+import org.xwiki.user.UserProperties;
+import org.xwiki.user.UserPropertiesResolver;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.xwiki.security.authorization.Right.VIEW;
+
+/**
+ * Validate {@link IndexedTagsSelector}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class IndexedTagsSelectorTest
+{
+    private static final DocumentReference PAGE0 = new DocumentReference("xwiki", "Space", "Page0");
+
+    private static final DocumentReference PAGE1 = new DocumentReference("xwiki", "Space", "Page1");
+
+    private static final DocumentReference PAGE2 = new DocumentReference("xwiki", "Space", "Page2");
+
+    private static final TaggedDocument DOCUMENT0 = new TaggedDocument("Space.Page0", false, Set.of("Tag0", "Tag1"));
+
+    private static final TaggedDocument DOCUMENT1 = new TaggedDocument("Space.Page1", false, Set.of("tag0"));
+
+    private static final TaggedDocument DOCUMENT2 = new TaggedDocument("Space.Page2", true, Set.of("Tag2"));
+
+    @InjectMockComponents
+    private IndexedTagsSelector tagsSelector;
+
+    @MockComponent
+    private Provider<XWikiContext> contextProvider;
+
+    @MockComponent
+    private ContextualAuthorizationManager contextualAuthorizationManager;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> stringDocumentReferenceResolver;
+
+    @MockComponent
+    private TagIndex tagIndex;
+
+    @MockComponent
+    private UserPropertiesResolver userPropertiesResolver;
+
+    @Mock
+    private UserProperties userProperties;
+
+    @Mock
+    private XWikiContext context;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.contextProvider.get()).thenReturn(this.context);
+        when(this.context.getWikiId()).thenReturn("xwiki");
+        when(this.userPropertiesResolver.resolve(CurrentUserReference.INSTANCE)).thenReturn(this.userProperties);
+
+        when(this.stringDocumentReferenceResolver.resolve("Space.Page0")).thenReturn(PAGE0);
+        when(this.stringDocumentReferenceResolver.resolve("Space.Page1")).thenReturn(PAGE1);
+        when(this.stringDocumentReferenceResolver.resolve("Space.Page2")).thenReturn(PAGE2);
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE0)).thenReturn(true);
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE2)).thenReturn(true);
+
+        when(this.tagIndex.getDocuments("xwiki")).thenReturn(List.of(DOCUMENT0, DOCUMENT1, DOCUMENT2));
+        when(this.tagIndex.getDocument("xwiki", "Space.Page0")).thenReturn(DOCUMENT0);
+        when(this.tagIndex.getDocument("xwiki", "Space.Page1")).thenReturn(DOCUMENT1);
+    }
+
+    @Test
+    void getAllTags() throws Exception
+    {
+        assertEquals(List.of("Tag0", "Tag1"), this.tagsSelector.getAllTags());
+
+        when(this.userProperties.displayHiddenDocuments()).thenReturn(true);
+
+        assertEquals(List.of("Tag0", "Tag1", "Tag2"), this.tagsSelector.getAllTags());
+    }
+
+    @Test
+    void getTagCount() throws Exception
+    {
+        when(this.contextualAuthorizationManager.hasAccess(VIEW, PAGE1)).thenReturn(true);
+
+        assertEquals(Map.of("Tag0", 2, "Tag1", 1), this.tagsSelector.getTagCountForQuery(null, null, (List) null));
+        verify(this.contextualAuthorizationManager, never()).hasAccess(VIEW, PAGE2);
+    }
+
+    @Test
+    void getTagCountForQuery() throws Exception
+    {
+        XWiki wiki = mock(XWiki.class);
+        XWikiStoreInterface store = mock(XWikiStoreInterface.class);
+        QueryManager queryManager = mock(QueryManager.class);
+        Query query = mock(Query.class);
+        when(this.context.getWiki()).thenReturn(wiki);
+        when(wiki.getStore()).thenReturn(store);
+        when(store.getQueryManager()).thenReturn(queryManager);
+        when(queryManager.createQuery(anyString(), anyString())).thenReturn(query);
+        when(query.bindValues(any(List.class))).thenReturn(query);
+        when(query.execute()).thenReturn(List.of("Space.Page0", "Space.Page1", "Space.Unknown"));
+
+        assertEquals(Map.of("Tag0", 1, "Tag1", 1),
+            this.tagsSelector.getTagCountForQuery("", "doc.space = ?1", List.of("Space")));
+        verify(query).bindValues(List.of("Space"));
+    }
+
+    @Test
+    void getDocumentsWithTag() throws Exception
+    {
+        when(this.tagIndex.getDocumentsWithTag("xwiki", "tag0", false)).thenReturn(List.of(DOCUMENT1, DOCUMENT0));
+
+        assertEquals(List.of("Space.Page0"), this.tagsSelector.getDocumentsWithTag("tag0", false, false));
+    }
+}
@@ -44,6 +44,7 @@
 import org.xwiki.localization.internal.DefaultContextualLocalizationManager;
 import org.xwiki.localization.internal.DefaultLocalizationManager;
 import org.xwiki.localization.internal.DefaultTranslationBundleContext;
+import org.xwiki.localization.internal.TranslationIndex;
 import org.xwiki.logging.internal.DefaultLoggerConfiguration;
 import org.xwiki.model.internal.DefaultModelContext;
 import org.xwiki.observation.internal.DefaultObservationManager;
@@ -118,6 +119,8 @@
 import com.xpn.xwiki.doc.DefaultDocumentAccessBridge;
 import com.xpn.xwiki.internal.DefaultXWikiStubContextProvider;
 import com.xpn.xwiki.internal.localization.XWikiLocalizationContext;
+import com.xpn.xwiki.internal.mandatory.MandatoryDocumentFingerprintStore;
+import com.xpn.xwiki.internal.mandatory.MandatoryDocumentInitializerExecutor;
 import com.xpn.xwiki.internal.security.authorization.DefaultAuthorExecutor;
 import com.xpn.xwiki.internal.sheet.ClassSheetBinder;
 import com.xpn.xwiki.internal.sheet.DefaultModelBridge;
@@ -290,8 +293,13 @@
     DefaultContextualLocalizationManager.class,
     DefaultLocalizationManager.class,
     DefaultTranslationBundleContext.class,
+    TranslationIndex.class,
     XWikiLocalizationContext.class,
 
+    // Mandatory documents
+    MandatoryDocumentInitializerExecutor.class,
+    MandatoryDocumentFingerprintStore.class,
+
     // Property Class Providers (needed when the page has xobjects)
     StaticListMetaClass.class,
     TextAreaMetaClass.class,
@@ -63,6 +63,9 @@ public class DefaultGroupManager implements GroupManager
     @Inject
     private MembersCache membersCache;
 
+    @Inject
+    private GroupMembershipGraph graph;
+
     @Inject
     private WikiDescriptorManager wikis;
 
@@ -160,6 +163,11 @@ public Collection<DocumentReference> getGroups(DocumentReference reference, Obje
         if (reference == null) {
             return Collections.emptyList();
         }
+
+        if (this.graph.isEnabled()) {
+            return this.graph.getGroups(reference, getSearchWikis(reference, wikiTarget, true), recurse);
+        }
+
         return getGroups(reference, wikiTarget, recurse, null);
     }
 
@@ -300,6 +308,10 @@ private Collection<DocumentReference> get(GroupCacheEntry entry, boolean recurse
     @Override
     public Collection<DocumentReference> getMembers(DocumentReference reference, boolean recurse) throws GroupException
     {
+        if (this.graph.isEnabled()) {
+            return this.graph.getMembers(reference, recurse);
+        }
+
         return getMembers(reference, recurse, null);
     }
 
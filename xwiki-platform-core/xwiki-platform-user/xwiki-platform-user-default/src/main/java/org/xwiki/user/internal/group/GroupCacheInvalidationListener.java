@@ -70,6 +70,9 @@ public class GroupCacheInvalidationListener extends AbstractEventListener
     @Inject
     private MembersCache membersCache;
 
+    @Inject
+    private GroupMembershipGraph graph;
+
     /**
      * Default constructor.
      */
@@ -86,6 +89,7 @@ public void onEvent(Event event, Object source, Object data)
             WikiReference wikiReference = new WikiReference(((WikiDeletedEvent) event).getWikiId());
             this.groupsCache.cleanCache(wikiReference.getName());
             this.membersCache.cleanCache(wikiReference.getName());
+            this.graph.removeWiki(wikiReference.getName());
         } else {
             XWikiDocument newDocument = (XWikiDocument) source;
             XWikiDocument previousDocument = newDocument.getOriginalDocument();
@@ -102,6 +106,11 @@ public void onEvent(Event event, Object source, Object data)
 
             invalidate(previousMembers, newMembers);
             invalidate(newMembers, previousMembers);
+
+            // Update the membership graph
+            if (!previousMembers.isEmpty() || !newMembers.isEmpty()) {
+                this.graph.setMembers(documentReference, newMembers);
+            }
         }
     }
 
@@ -0,0 +1,440 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.user.internal.group;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.internal.reference.EntityReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.user.group.GroupException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.user.api.XWikiRightService;
+
+/**
+ * In-memory graph of the group memberships of each wiki, loaded with a single query the first time a wiki is accessed
+ * and then updated incrementally when a group document is modified.
+ * <p>
+ * The transitive closures (all the groups of a member and all the members of a group) are indexed and only the ones
+ * impacted by a membership modification are invalidated.
+ *
+ * @version $Id$
+ * @since 17.1.0RC1
+ */
+@Component(roles = GroupMembershipGraph.class)
+@Singleton
+public class GroupMembershipGraph
+{
+    private static final String PROPERTY_ENABLED = "user.group.graph.enabled";
+
+    private static final String MEMBERSHIPS_QUERY = "select doc.fullName, prop.value"
+        + " from XWikiDocument as doc, BaseObject as obj, StringProperty as prop"
+        + " where obj.name = doc.fullName and obj.className = 'XWiki.XWikiGroups'"
+        + " and obj.id = prop.id.id and prop.id.name = 'member'";
+
+    private static final String XWIKI_SPACE = "XWiki";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Provider<QueryManager> queryManagerProvider;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private EntityReferenceFactory referenceFactory;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The direct members of each group, indexed by wiki of the group.
+     */
+    private final Map<String, Map<DocumentReference, Set<DocumentReference>>> membersIndex = new HashMap<>();
+
+    /**
+     * The groups in which each entity is a direct member, indexed by wiki of the group.
+     */
+    private final Map<String, Map<DocumentReference, Set<DocumentReference>>> groupsIndex = new HashMap<>();
+
+    /**
+     * The transitive closure of the groups of each entity, indexed by the wikis where the groups were searched.
+     */
+    private final Map<DocumentReference, Map<String, Collection<DocumentReference>>> allGroups =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The transitive closure of the members of each group.
+     */
+    private final Map<DocumentReference, Collection<DocumentReference>> allMembers = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the membership graph should be used to resolve groups and members
+     */
+    public boolean isEnabled()
+    {
+        return Boolean.TRUE.equals(this.configuration.getProperty(PROPERTY_ENABLED, Boolean.class));
+    }
+
+    /**
+     * @param member the group member (user or group)
+     * @param wikis the wikis where to search for groups
+     * @param recurse false if only the direct groups should be returned, true to take into account groups of groups
+     * @return the groups the passed user or group is member of
+     * @throws GroupException when failing to load the memberships of a wiki
+     */
+    public Collection<DocumentReference> getGroups(DocumentReference member, Collection<String> wikis,
+        boolean recurse) throws GroupException
+    {
+        for (String wiki : wikis) {
+            load(wiki);
+        }
+
+        if (!recurse) {
+            this.lock.readLock().lock();
+            try {
+                return Collections.unmodifiableCollection(getDirectGroups(member, wikis));
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        String wikisKey = String.join(",", new TreeSet<>(wikis));
+
+        Collection<DocumentReference> groups = this.allGroups.getOrDefault(member, Map.of()).get(wikisKey);
+        if (groups == null) {
+            this.lock.readLock().lock();
+            try {
+                groups = Collections.unmodifiableCollection(
+                    traverse(member, reference -> getDirectGroups(reference, wikis)));
+                this.allGroups.computeIfAbsent(member, k -> new ConcurrentHashMap<>()).put(wikisKey, groups);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * @param group the group for which to return the members
+     * @param recurse false if only the direct members should be returned, true to take into account groups of groups
+     * @return the members of the passed group
+     * @throws GroupException when failing to load the memberships of a wiki
+     */
+    public Collection<DocumentReference> getMembers(DocumentReference group, boolean recurse) throws GroupException
+    {
+        load(group.getWikiReference().getName());
+
+        if (!recurse) {
+            this.lock.readLock().lock();
+            try {
+                return Collections.unmodifiableCollection(new LinkedHashSet<>(getDirectMembers(group)));
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        Collection<DocumentReference> members = this.allMembers.get(group);
+        if (members == null) {
+            // Members located in other wikis might be groups too
+            Set<DocumentReference> visited = new HashSet<>();
+            Deque<DocumentReference> toLoad = new ArrayDeque<>(getMembers(group, false));
+            while (!toLoad.isEmpty()) {
+                DocumentReference member = toLoad.pop();
+                if (visited.add(member)) {
+                    load(member.getWikiReference().getName());
+                    toLoad.addAll(getMembers(member, false));
+                }
+            }
+
+            this.lock.readLock().lock();
+            try {
+                members = Collections.unmodifiableCollection(traverse(group, this::getDirectMembers));
+                this.allMembers.put(group, members);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Update the direct members of a group in the graph, if the wiki of the group is already loaded.
+     *
+     * @param group the reference of the group document
+     * @param members the new direct members of the group
+     */
+    public void setMembers(DocumentReference group, Set<DocumentReference> members)
+    {
+        String wiki = group.getWikiReference().getName();
+
+        this.lock.writeLock().lock();
+        try {
+            Map<DocumentReference, Set<DocumentReference>> wikiMembers = this.membersIndex.get(wiki);
+            if (wikiMembers == null) {
+                // The wiki will be entirely loaded when needed
+                return;
+            }
+
+            Set<DocumentReference> previousMembers = wikiMembers.getOrDefault(group, Set.of());
+            if (previousMembers.equals(members)) {
+                return;
+            }
+
+            // Invalidate the closures which depend on the group, before and after the modification
+            invalidate(group);
+
+            Map<DocumentReference, Set<DocumentReference>> wikiGroups = this.groupsIndex.get(wiki);
+            for (DocumentReference previousMember : previousMembers) {
+                removeEdge(wikiGroups, previousMember, group);
+            }
+            if (members.isEmpty()) {
+                wikiMembers.remove(group);
+            } else {
+                Set<DocumentReference> newMembers = new LinkedHashSet<>(members.size());
+                for (DocumentReference member : members) {
+                    DocumentReference memberReference = this.referenceFactory.getReference(member);
+                    newMembers.add(memberReference);
+                    wikiGroups.computeIfAbsent(memberReference, k -> new LinkedHashSet<>()).add(group);
+                }
+                wikiMembers.put(this.referenceFactory.getReference(group), newMembers);
+            }
+
+            invalidate(group);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget everything related to the passed wiki.
+     *
+     * @param wiki the identifier of the wiki
+     */
+    public void removeWiki(String wiki)
+    {
+        this.lock.writeLock().lock();
+        try {
+            this.membersIndex.remove(wiki);
+            this.groupsIndex.remove(wiki);
+
+            this.allGroups.clear();
+            this.allMembers.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void load(String wiki) throws GroupException
+    {
+        this.lock.readLock().lock();
+        try {
+            if (this.membersIndex.containsKey(wiki)) {
+                return;
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        // Loading the wiki under the write lock makes sure no modification is missed
+        this.lock.writeLock().lock();
+        try {
+            if (!this.membersIndex.containsKey(wiki)) {
+                Map<DocumentReference, Set<DocumentReference>> wikiMembers = new HashMap<>();
+                Map<DocumentReference, Set<DocumentReference>> wikiGroups = new HashMap<>();
+
+                WikiReference wikiReference = new WikiReference(wiki);
+                for (Object[] membership : queryMemberships(wiki)) {
+                    String memberString = (String) membership[1];
+                    if (StringUtils.isNotEmpty(memberString)) {
+                        DocumentReference group = this.referenceFactory
+                            .getReference(this.resolver.resolve((String) membership[0], wikiReference));
+                        DocumentReference member =
+                            this.referenceFactory.getReference(this.resolver.resolve(memberString, group));
+
+                        wikiMembers.computeIfAbsent(group, k -> new LinkedHashSet<>()).add(member);
+                        wikiGroups.computeIfAbsent(member, k -> new LinkedHashSet<>()).add(group);
+                    }
+                }
+
+                this.groupsIndex.put(wiki, wikiGroups);
+                this.membersIndex.put(wiki, wikiMembers);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private Collection<Object[]> queryMemberships(String wiki) throws GroupException
+    {
+        try {
+            Query query = this.queryManagerProvider.get().createQuery(MEMBERSHIPS_QUERY, Query.HQL);
+            query.setWiki(wiki);
+
+            return query.execute();
+        } catch (QueryException e) {
+            throw new GroupException("Failed to load the group memberships of wiki [" + wiki + "]", e);
+        }
+    }
+
+    private Set<DocumentReference> getDirectGroups(DocumentReference member, Collection<String> wikis)
+    {
+        Set<DocumentReference> groups = new LinkedHashSet<>();
+
+        boolean allGroupImplicit = isAllGroupImplicit();
+        for (String wiki : wikis) {
+            Map<DocumentReference, Set<DocumentReference>> wikiGroups = this.groupsIndex.get(wiki);
+            if (wikiGroups != null) {
+                groups.addAll(wikiGroups.getOrDefault(member, Set.of()));
+            }
+
+            // If the 'XWiki.XWikiAllGroup' is implicit, all users/groups except XWikiGuest and XWikiAllGroup itself
+            // are part of it
+            if (allGroupImplicit && !XWikiRightService.isGuest(member)
+                && member.getWikiReference().getName().equals(wiki)) {
+                DocumentReference allGroup = getAllGroup(wiki);
+                if (!allGroup.equals(member)) {
+                    groups.add(allGroup);
+                }
+            }
+        }
+
+        return groups;
+    }
+
+    private Set<DocumentReference> getDirectMembers(DocumentReference group)
+    {
+        Map<DocumentReference, Set<DocumentReference>> wikiMembers =
+            this.membersIndex.get(group.getWikiReference().getName());
+
+        return wikiMembers != null ? wikiMembers.getOrDefault(group, Set.of()) : Set.of();
+    }
+
+    private Set<DocumentReference> traverse(DocumentReference reference,
+        Function<DocumentReference, Set<DocumentReference>> next)
+    {
+        Set<DocumentReference> result = new LinkedHashSet<>();
+
+        Deque<DocumentReference> toVisit = new ArrayDeque<>();
+        toVisit.add(reference);
+        while (!toVisit.isEmpty()) {
+            for (DocumentReference found : next.apply(toVisit.pop())) {
+                // Protect against cross references between groups
+                if (!found.equals(reference) && result.add(found)) {
+                    toVisit.add(found);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void invalidate(DocumentReference group)
+    {
+        // The groups of the group and of all its members
+        Set<DocumentReference> descendants = traverse(group, this::getDirectMembers);
+        descendants.add(group);
+        if (isAllGroupImplicit() && descendants.stream().anyMatch(this::isAllGroup)) {
+            // Implicit members are not part of the graph
+            this.allGroups.clear();
+        } else {
+            descendants.forEach(this.allGroups::remove);
+        }
+
+        // The members of the group and of all the groups it's part of
+        Set<DocumentReference> ancestors = traverse(group, this::getDirectGroups);
+        ancestors.add(group);
+        ancestors.forEach(this.allMembers::remove);
+    }
+
+    private Set<DocumentReference> getDirectGroups(DocumentReference member)
+    {
+        Set<DocumentReference> groups = new LinkedHashSet<>();
+
+        for (Map<DocumentReference, Set<DocumentReference>> wikiGroups : this.groupsIndex.values()) {
+            groups.addAll(wikiGroups.getOrDefault(member, Set.of()));
+        }
+
+        return groups;
+    }
+
+    private void removeEdge(Map<DocumentReference, Set<DocumentReference>> index, DocumentReference key,
+        DocumentReference value)
+    {
+        Set<DocumentReference> values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private boolean isAllGroupImplicit()
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        return xcontext != null && xcontext.getWiki() != null && xcontext.getWiki().isAllGroupImplicit();
+    }
+
+    private DocumentReference getAllGroup(String wiki)
+    {
+        return new DocumentReference(wiki, XWIKI_SPACE, XWikiRightService.ALLGROUP_GROUP);
+    }
+
+    private boolean isAllGroup(DocumentReference reference)
+    {
+        return reference.getName().equals(XWikiRightService.ALLGROUP_GROUP)
+            && reference.getLastSpaceReference().getName().equals(XWIKI_SPACE)
+            && reference.getParent().getParent() instanceof WikiReference;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.user.internal.group;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.user.group.GroupException;
+
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link GroupMembershipGraph}.
+ * 
+ * @version $Id$
+ */
+@OldcoreTest
+@ReferenceComponentList
+class GroupMembershipGraphTest
+{
+    private static final DocumentReference USER_1 = new DocumentReference("xwiki", "XWiki", "user1");
+
+    private static final DocumentReference USER_2 = new DocumentReference("xwiki", "XWiki", "user2");
+
+    private static final DocumentReference GROUP_1 = new DocumentReference("xwiki", "XWiki", "group1");
+
+    private static final DocumentReference GROUP_2 = new DocumentReference("xwiki", "XWiki", "group2");
+
+    private static final DocumentReference GROUP_3 = new DocumentReference("xwiki", "XWiki", "group3");
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @InjectMockComponents
+    private GroupMembershipGraph graph;
+
+    private Query query;
+
+    private final List<Object[]> memberships = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() throws QueryException
+    {
+        this.query = mock(Query.class);
+        when(this.queryManager.createQuery(anyString(), eq(Query.HQL))).thenReturn(this.query);
+        when(this.query.<Object[]>execute()).thenReturn(this.memberships);
+
+        this.memberships.add(new Object[] { "XWiki.group1", "XWiki.user1" });
+        this.memberships.add(new Object[] { "XWiki.group1", "XWiki.group2" });
+        this.memberships.add(new Object[] { "XWiki.group2", "user2" });
+        // Cross reference between groups
+        this.memberships.add(new Object[] { "XWiki.group2", "xwiki:XWiki.group1" });
+        this.memberships.add(new Object[] { "XWiki.group3", "" });
+    }
+
+    @Test
+    void isEnabled()
+    {
+        assertFalse(this.graph.isEnabled());
+
+        this.oldcore.getConfigurationSource().setProperty("user.group.graph.enabled", true);
+
+        assertTrue(this.graph.isEnabled());
+    }
+
+    @Test
+    void getGroups() throws GroupException, QueryException
+    {
+        assertEquals(Set.of(GROUP_1), Set.copyOf(this.graph.getGroups(USER_1, List.of("xwiki"), false)));
+        assertEquals(Set.of(GROUP_1, GROUP_2), Set.copyOf(this.graph.getGroups(USER_1, List.of("xwiki"), true)));
+        assertEquals(Set.of(GROUP_2), Set.copyOf(this.graph.getGroups(USER_2, List.of("xwiki"), false)));
+        assertEquals(Set.of(GROUP_1, GROUP_2), Set.copyOf(this.graph.getGroups(USER_2, List.of("xwiki"), true)));
+        assertEquals(Set.of(GROUP_2), Set.copyOf(this.graph.getGroups(GROUP_1, List.of("xwiki"), true)));
+        assertEquals(Set.of(), Set.copyOf(this.graph.getGroups(GROUP_3, List.of("xwiki"), true)));
+
+        // Make sure the closure is indexed
+        assertSame(this.graph.getGroups(USER_1, List.of("xwiki"), true),
+            this.graph.getGroups(USER_1, List.of("xwiki"), true));
+
+        // Make sure the wiki was loaded only once
+        verify(this.query, times(1)).execute();
+        verify(this.query).setWiki("xwiki");
+    }
+
+    @Test
+    void getMembers() throws GroupException
+    {
+        assertEquals(Set.of(USER_1, GROUP_2), Set.copyOf(this.graph.getMembers(GROUP_1, false)));
+        assertEquals(Set.of(USER_1, USER_2, GROUP_2), Set.copyOf(this.graph.getMembers(GROUP_1, true)));
+        assertEquals(Set.of(USER_2, GROUP_1), Set.copyOf(this.graph.getMembers(GROUP_2, false)));
+        assertEquals(Set.of(), Set.copyOf(this.graph.getMembers(GROUP_3, true)));
+        assertEquals(Set.of(), Set.copyOf(this.graph.getMembers(USER_1, true)));
+    }
+
+    @Test
+    void setMembers() throws GroupException
+    {
+        assertEquals(Set.of(GROUP_1, GROUP_2), Set.copyOf(this.graph.getGroups(USER_2, List.of("xwiki"), true)));
+        assertEquals(Set.of(USER_1, USER_2, GROUP_2), Set.copyOf(this.graph.getMembers(GROUP_1, true)));
+
+        // Remove group2 from group1 and add it to group3
+        this.graph.setMembers(GROUP_1, Set.of(USER_1));
+        this.graph.setMembers(GROUP_3, Set.of(GROUP_2));
+
+        assertEquals(Set.of(GROUP_2, GROUP_3), Set.copyOf(this.graph.getGroups(USER_2, List.of("xwiki"), true)));
+        assertEquals(Set.of(GROUP_3), Set.copyOf(this.graph.getGroups(GROUP_2, List.of("xwiki"), false)));
+        assertEquals(Set.of(USER_1), Set.copyOf(this.graph.getMembers(GROUP_1, true)));
+        assertEquals(Set.of(USER_1, USER_2, GROUP_1, GROUP_2),
+            Set.copyOf(this.graph.getMembers(GROUP_3, true)));
+
+        // Delete group3
+        this.graph.setMembers(GROUP_3, Set.of());
+
+        assertEquals(Set.of(GROUP_2), Set.copyOf(this.graph.getGroups(USER_2, List.of("xwiki"), true)));
+    }
+
+    @Test
+    void removeWiki() throws GroupException, QueryException
+    {
+        assertEquals(Set.of(GROUP_1), Set.copyOf(this.graph.getGroups(USER_1, List.of("xwiki"), false)));
+
+        this.graph.removeWiki("xwiki");
+        this.memberships.clear();
+
+        assertEquals(Set.of(), Set.copyOf(this.graph.getGroups(USER_1, List.of("xwiki"), true)));
+        verify(this.query, times(2)).execute();
+    }
+}